@@ -15,12 +15,36 @@
  */
 package org.reaktivity.nukleus.http.internal;
 
+import java.util.zip.Deflater;
+
 import org.reaktivity.nukleus.Configuration;
 
 public class HttpConfiguration extends Configuration
 {
     public static final IntPropertyDef HTTP_MAXIMUM_CONNECTIONS;
     public static final IntPropertyDef HTTP_MAXIMUM_QUEUED_REQUESTS;
+    public static final IntPropertyDef HTTP_MAXIMUM_HEADERS_SIZE;
+    public static final IntPropertyDef HTTP_CLIENT_MAXIMUM_PIPELINED_REQUESTS;
+    public static final IntPropertyDef HTTP_HEADER_NAME_CACHE_SIZE;
+    public static final BooleanPropertyDef HTTP_HEADER_NAMES_LOWERCASE;
+    public static final IntPropertyDef HTTP_SERVER_MAXIMUM_PIPELINED_REQUESTS;
+    public static final BooleanPropertyDef HTTP_SERVER_WRITE_COMBINING;
+    public static final IntPropertyDef HTTP_SERVER_WRITE_COMBINING_THRESHOLD;
+    public static final IntPropertyDef HTTP_SERVER_MAXIMUM_REQUEST_BODY_SIZE;
+    public static final BooleanPropertyDef HTTP_SERVER_LATENCY_HISTOGRAMS;
+    public static final BooleanPropertyDef HTTP_SERVER_UPGRADE_H2C;
+    public static final BooleanPropertyDef HTTP_SERVER_DETECT_H2C;
+    public static final BooleanPropertyDef HTTP_SERVER_COMPRESSION;
+    public static final IntPropertyDef HTTP_SERVER_COMPRESSION_LEVEL;
+    public static final PropertyDef<String> HTTP_SERVER_HEADER;
+    public static final BooleanPropertyDef HTTP_SERVER_DATE_HEADER;
+    public static final IntPropertyDef HTTP_SERVER_CACHE_CAPACITY;
+    public static final IntPropertyDef HTTP_SERVER_CACHE_BLOCK_SIZE;
+    public static final BooleanPropertyDef HTTP_SERVER_COALESCE;
+    public static final PropertyDef<String> HTTP_SERVER_COALESCE_HEADERS;
+    public static final IntPropertyDef HTTP_SERVER_COALESCE_MAXIMUM_RESPONSE_SIZE;
+    public static final IntPropertyDef HTTP_SERVER_VALIDATORS_CAPACITY;
+    public static final IntPropertyDef HTTP_SERVER_VALIDATORS_MAXIMUM_AGE;
 
     private static final ConfigurationDef HTTP_CONFIG;
 
@@ -29,6 +53,29 @@ public class HttpConfiguration extends Configuration
         final ConfigurationDef config = new ConfigurationDef("nukleus.http");
         HTTP_MAXIMUM_CONNECTIONS = config.property("maximum.connections", 10);
         HTTP_MAXIMUM_QUEUED_REQUESTS = config.property("maximum.requests.queued", 10000);
+        HTTP_MAXIMUM_HEADERS_SIZE = config.property("maximum.headers.size", 0);
+        HTTP_CLIENT_MAXIMUM_PIPELINED_REQUESTS = config.property("client.maximum.requests.pipelined", 0);
+        HTTP_HEADER_NAME_CACHE_SIZE = config.property("header.name.cache.size", 128);
+        HTTP_HEADER_NAMES_LOWERCASE = config.property("header.names.lowercase", false);
+        HTTP_SERVER_MAXIMUM_PIPELINED_REQUESTS = config.property("server.maximum.requests.pipelined", 1);
+        HTTP_SERVER_WRITE_COMBINING = config.property("server.write.combining", false);
+        HTTP_SERVER_WRITE_COMBINING_THRESHOLD = config.property("server.write.combining.threshold", 4096);
+        HTTP_SERVER_MAXIMUM_REQUEST_BODY_SIZE = config.property("server.maximum.request.body.size", Integer.MAX_VALUE);
+        HTTP_SERVER_LATENCY_HISTOGRAMS = config.property("server.latency.histograms", false);
+        HTTP_SERVER_UPGRADE_H2C = config.property("server.upgrade.h2c", false);
+        HTTP_SERVER_DETECT_H2C = config.property("server.detect.h2c", false);
+        HTTP_SERVER_COMPRESSION = config.property("server.compression", false);
+        HTTP_SERVER_COMPRESSION_LEVEL = config.property("server.compression.level", Deflater.DEFAULT_COMPRESSION);
+        HTTP_SERVER_HEADER = config.property("server.header");
+        HTTP_SERVER_DATE_HEADER = config.property("server.date.header", false);
+        HTTP_SERVER_CACHE_CAPACITY = config.property("server.cache.capacity", 0);
+        HTTP_SERVER_CACHE_BLOCK_SIZE = config.property("server.cache.block.size", 1024);
+        HTTP_SERVER_COALESCE = config.property("server.coalesce", false);
+        HTTP_SERVER_COALESCE_HEADERS = config.property("server.coalesce.headers",
+                "accept,accept-encoding,accept-language,cookie");
+        HTTP_SERVER_COALESCE_MAXIMUM_RESPONSE_SIZE = config.property("server.coalesce.maximum.response.size", 1048576);
+        HTTP_SERVER_VALIDATORS_CAPACITY = config.property("server.validators.capacity", 0);
+        HTTP_SERVER_VALIDATORS_MAXIMUM_AGE = config.property("server.validators.maximum.age", 60);
         HTTP_CONFIG = config;
     }
 
@@ -47,4 +94,114 @@ public class HttpConfiguration extends Configuration
     {
         return HTTP_MAXIMUM_QUEUED_REQUESTS.getAsInt(this);
     }
+
+    public int maximumHeadersSize()
+    {
+        return HTTP_MAXIMUM_HEADERS_SIZE.getAsInt(this);
+    }
+
+    public int clientMaximumPipelinedRequests()
+    {
+        return HTTP_CLIENT_MAXIMUM_PIPELINED_REQUESTS.getAsInt(this);
+    }
+
+    public int headerNameCacheSize()
+    {
+        return HTTP_HEADER_NAME_CACHE_SIZE.getAsInt(this);
+    }
+
+    public boolean headerNamesLowercase()
+    {
+        return HTTP_HEADER_NAMES_LOWERCASE.get(this);
+    }
+
+    public int serverMaximumPipelinedRequests()
+    {
+        return HTTP_SERVER_MAXIMUM_PIPELINED_REQUESTS.getAsInt(this);
+    }
+
+    public boolean serverWriteCombining()
+    {
+        return HTTP_SERVER_WRITE_COMBINING.get(this);
+    }
+
+    public int serverWriteCombiningThreshold()
+    {
+        return HTTP_SERVER_WRITE_COMBINING_THRESHOLD.getAsInt(this);
+    }
+
+    public int serverMaximumRequestBodySize()
+    {
+        return HTTP_SERVER_MAXIMUM_REQUEST_BODY_SIZE.getAsInt(this);
+    }
+
+    public boolean serverLatencyHistograms()
+    {
+        return HTTP_SERVER_LATENCY_HISTOGRAMS.get(this);
+    }
+
+    public boolean serverUpgradeH2c()
+    {
+        return HTTP_SERVER_UPGRADE_H2C.get(this);
+    }
+
+    public boolean serverDetectH2c()
+    {
+        return HTTP_SERVER_DETECT_H2C.get(this);
+    }
+
+    public boolean serverCompression()
+    {
+        return HTTP_SERVER_COMPRESSION.get(this);
+    }
+
+    public int serverCompressionLevel()
+    {
+        return HTTP_SERVER_COMPRESSION_LEVEL.getAsInt(this);
+    }
+
+    public String serverHeader()
+    {
+        return HTTP_SERVER_HEADER.get(this);
+    }
+
+    public boolean serverDateHeader()
+    {
+        return HTTP_SERVER_DATE_HEADER.get(this);
+    }
+
+    public int serverCacheCapacity()
+    {
+        return HTTP_SERVER_CACHE_CAPACITY.getAsInt(this);
+    }
+
+    public int serverCacheBlockSize()
+    {
+        return HTTP_SERVER_CACHE_BLOCK_SIZE.getAsInt(this);
+    }
+
+    public boolean serverCoalesce()
+    {
+        return HTTP_SERVER_COALESCE.get(this);
+    }
+
+    public String serverCoalesceHeaders()
+    {
+        return HTTP_SERVER_COALESCE_HEADERS.get(this);
+    }
+
+    public int serverCoalesceMaximumResponseSize()
+    {
+        return HTTP_SERVER_COALESCE_MAXIMUM_RESPONSE_SIZE.getAsInt(this);
+    }
+
+    public int serverValidatorsCapacity()
+    {
+        return HTTP_SERVER_VALIDATORS_CAPACITY.getAsInt(this);
+    }
+
+    public int serverValidatorsMaximumAge()
+    {
+        return HTTP_SERVER_VALIDATORS_MAXIMUM_AGE.getAsInt(this);
+    }
 }
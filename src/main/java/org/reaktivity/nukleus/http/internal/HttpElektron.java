@@ -20,6 +20,7 @@ import static org.reaktivity.nukleus.route.RouteKind.SERVER;
 
 import java.util.EnumMap;
 import java.util.Map;
+import java.util.function.LongSupplier;
 
 import org.reaktivity.nukleus.Elektron;
 import org.reaktivity.nukleus.http.internal.stream.ClientStreamFactoryBuilder;
@@ -32,11 +33,12 @@ final class HttpElektron implements Elektron
     private final Map<RouteKind, StreamFactoryBuilder> streamFactoryBuilders;
 
     HttpElektron(
-        HttpConfiguration config)
+        HttpConfiguration config,
+        LongSupplier supplyRoutesVersion)
     {
         Map<RouteKind, StreamFactoryBuilder> streamFactoryBuilders = new EnumMap<>(RouteKind.class);
-        streamFactoryBuilders.put(CLIENT, new ClientStreamFactoryBuilder(config));
-        streamFactoryBuilders.put(SERVER, new HttpServerFactoryBuilder(config));
+        streamFactoryBuilders.put(CLIENT, new ClientStreamFactoryBuilder(config, supplyRoutesVersion));
+        streamFactoryBuilders.put(SERVER, new HttpServerFactoryBuilder(config, supplyRoutesVersion));
         this.streamFactoryBuilders = streamFactoryBuilders;
     }
 
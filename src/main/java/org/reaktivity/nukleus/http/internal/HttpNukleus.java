@@ -15,18 +15,27 @@
  */
 package org.reaktivity.nukleus.http.internal;
 
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.agrona.DirectBuffer;
 import org.reaktivity.nukleus.Nukleus;
+import org.reaktivity.nukleus.function.MessagePredicate;
+import org.reaktivity.nukleus.route.RouteKind;
 
 public final class HttpNukleus implements Nukleus
 {
     public static final String NAME = "http";
 
     private final HttpConfiguration config;
+    private final AtomicLong routesVersion;
+    private final MessagePredicate routeHandler;
 
     HttpNukleus(
         HttpConfiguration config)
     {
         this.config = config;
+        this.routesVersion = new AtomicLong();
+        this.routeHandler = this::handleRoute;
     }
 
     @Override
@@ -41,9 +50,27 @@ public final class HttpNukleus implements Nukleus
         return config;
     }
 
+    @Override
+    public MessagePredicate routeHandler(
+        RouteKind kind)
+    {
+        return routeHandler;
+    }
+
     @Override
     public HttpElektron supplyElektron()
     {
-        return new HttpElektron(config);
+        return new HttpElektron(config, routesVersion::get);
+    }
+
+    private boolean handleRoute(
+        int msgTypeId,
+        DirectBuffer buffer,
+        int index,
+        int length)
+    {
+        // each elektron rebuilds its route index when the version moves on
+        routesVersion.incrementAndGet();
+        return true;
     }
 }
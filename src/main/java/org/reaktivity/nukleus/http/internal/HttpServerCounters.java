@@ -0,0 +1,100 @@
+/**
+ * Copyright 2016-2020 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http.internal;
+
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+import java.util.function.LongSupplier;
+
+public class HttpServerCounters
+{
+    public final LongSupplier requests;
+    public final LongSupplier responses;
+
+    public final LongSupplier errors400;
+    public final LongSupplier errors404;
+    public final LongSupplier errors413;
+    public final LongSupplier errors414;
+    public final LongSupplier errors417;
+    public final LongSupplier errors431;
+    public final LongSupplier errors501;
+    public final LongSupplier errors505;
+    public final LongSupplier errors507;
+    public final LongSupplier errorsOther;
+
+    public final LongConsumer bytesRead;
+    public final LongConsumer bytesWritten;
+
+    public final LongConsumer connections;
+    public final LongConsumer exchanges;
+    public final LongConsumer decodeSlots;
+    public final LongConsumer encodeSlots;
+
+    public HttpServerCounters(
+        Function<String, LongSupplier> supplyCounter,
+        Function<String, LongConsumer> supplyAccumulator)
+    {
+        this.requests = supplyCounter.apply("http.server.requests");
+        this.responses = supplyCounter.apply("http.server.responses");
+
+        this.errors400 = supplyCounter.apply("http.server.errors.400");
+        this.errors404 = supplyCounter.apply("http.server.errors.404");
+        this.errors413 = supplyCounter.apply("http.server.errors.413");
+        this.errors414 = supplyCounter.apply("http.server.errors.414");
+        this.errors417 = supplyCounter.apply("http.server.errors.417");
+        this.errors431 = supplyCounter.apply("http.server.errors.431");
+        this.errors501 = supplyCounter.apply("http.server.errors.501");
+        this.errors505 = supplyCounter.apply("http.server.errors.505");
+        this.errors507 = supplyCounter.apply("http.server.errors.507");
+        this.errorsOther = supplyCounter.apply("http.server.errors.other");
+
+        this.bytesRead = supplyAccumulator.apply("http.server.bytes.read");
+        this.bytesWritten = supplyAccumulator.apply("http.server.bytes.written");
+
+        this.connections = supplyAccumulator.apply("http.server.connections");
+        this.exchanges = supplyAccumulator.apply("http.server.exchanges");
+        this.decodeSlots = supplyAccumulator.apply("http.server.slots.decode");
+        this.encodeSlots = supplyAccumulator.apply("http.server.slots.encode");
+    }
+
+    public LongSupplier errors(
+        int status)
+    {
+        switch (status)
+        {
+        case 400:
+            return errors400;
+        case 404:
+            return errors404;
+        case 413:
+            return errors413;
+        case 414:
+            return errors414;
+        case 417:
+            return errors417;
+        case 431:
+            return errors431;
+        case 501:
+            return errors501;
+        case 505:
+            return errors505;
+        case 507:
+            return errors507;
+        default:
+            return errorsOther;
+        }
+    }
+}
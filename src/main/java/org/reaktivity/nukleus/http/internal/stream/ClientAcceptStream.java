@@ -15,19 +15,19 @@
  */
 package org.reaktivity.nukleus.http.internal.stream;
 
-import static org.reaktivity.nukleus.http.internal.util.HttpUtil.appendHeader;
+import static org.reaktivity.nukleus.buffer.BufferPool.NO_SLOT;
 
-import java.nio.charset.StandardCharsets;
-import java.util.Arrays;
-import java.util.Map;
 import java.util.function.Consumer;
 
 import org.agrona.DirectBuffer;
-import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.MutableDirectBuffer;
 import org.reaktivity.nukleus.function.MessageConsumer;
 import org.reaktivity.nukleus.http.internal.stream.ConnectionPool.CloseAction;
 import org.reaktivity.nukleus.http.internal.stream.ConnectionPool.Connection;
 import org.reaktivity.nukleus.http.internal.stream.ConnectionPool.ConnectionRequest;
+import org.reaktivity.nukleus.http.internal.types.Array32FW;
+import org.reaktivity.nukleus.http.internal.types.ArrayFW;
+import org.reaktivity.nukleus.http.internal.types.HttpHeaderFW;
 import org.reaktivity.nukleus.http.internal.types.OctetsFW;
 import org.reaktivity.nukleus.http.internal.types.stream.AbortFW;
 import org.reaktivity.nukleus.http.internal.types.stream.BeginFW;
@@ -51,15 +51,20 @@ final class ClientAcceptStream implements ConnectionRequest, Consumer<Connection
     private final long acceptReplyId;
     private final long connectRouteId;
 
-    private Map<String, String> headers;
     private Connection connection;
     private ConnectionPool connectionPool;
     private int sourceBudget;
-    private DirectBuffer headersBuffer;
+    private int headersSlot = NO_SLOT;
     private int headersPosition;
     private int headersOffset;
     private boolean endDeferred;
     private boolean persistent = true;
+    private boolean idempotent;
+    private boolean head;
+    private boolean pipelined;
+    private boolean ended;
+    private boolean retried;
+    private Correlation<ClientConnectReplyState> correlation;
     private long traceId;
 
 
@@ -70,8 +75,7 @@ final class ClientAcceptStream implements ConnectionRequest, Consumer<Connection
         long acceptAffinity,
         long acceptId,
         long acceptReplyId,
-        long connectRouteId,
-        Map<String, String> headers)
+        long connectRouteId)
     {
         this.factory = factory;
         this.acceptReply = acceptReply;
@@ -80,7 +84,6 @@ final class ClientAcceptStream implements ConnectionRequest, Consumer<Connection
         this.acceptInitialId = acceptId;
         this.acceptReplyId = acceptReplyId;
         this.connectRouteId = connectRouteId;
-        this.headers = headers;
         this.streamState = this::streamBeforeBegin;
         this.throttleState = this::throttleBeforeBegin;
     }
@@ -187,6 +190,25 @@ final class ClientAcceptStream implements ConnectionRequest, Consumer<Connection
         }
     }
 
+    void encodeRequestHead(
+        Array32FW<HttpHeaderFW> headers,
+        ArrayFW<HttpHeaderFW> overrides)
+    {
+        headersSlot = factory.bufferPool.acquire(acceptInitialId);
+        if (headersSlot != NO_SLOT)
+        {
+            final MutableDirectBuffer headersBuffer = factory.bufferPool.buffer(headersSlot);
+            headersPosition = factory.encodeRequestHead(headers, overrides, headersBuffer, headersBuffer.capacity());
+            persistent = factory.encodePersistent;
+            idempotent = factory.encodeIdempotent;
+            head = factory.encodeHead;
+        }
+        else
+        {
+            headersPosition = ClientStreamFactory.REQUEST_HEAD_OVERFLOW;
+        }
+    }
+
     private void processBegin(
         DirectBuffer buffer,
         int index,
@@ -194,19 +216,20 @@ final class ClientAcceptStream implements ConnectionRequest, Consumer<Connection
     {
         // count all requests
         factory.countRequests.getAsLong();
-        byte[] bytes = encodeHeaders(headers, buffer, index, length);
-        headers = null; // allow gc
-        headersPosition = 0;
-        if (bytes.length > factory.bufferPool.slotCapacity())
+        if (headersPosition == ClientStreamFactory.REQUEST_HEAD_INVALID)
+        {
+            releaseHeadersSlot();
+            processUnexpected(buffer, index, length);
+        }
+        else if (headersPosition == ClientStreamFactory.REQUEST_HEAD_OVERFLOW)
         {
             // TODO: diagnostics (reset reason?)
+            releaseHeadersSlot();
             factory.writer.doReset(acceptReply, acceptRouteId, acceptInitialId, factory.supplyTrace.getAsLong());
         }
         else
         {
             traceId = factory.frameRO.wrap(buffer, index, index + length).traceId();
-            headersBuffer = new UnsafeBuffer(bytes);
-            headersPosition = bytes.length;
             headersOffset = 0;
             this.streamState = this::streamBeforeHeadersWritten;
             this.throttleState = this::throttleBeforeHeadersWritten;
@@ -215,16 +238,14 @@ final class ClientAcceptStream implements ConnectionRequest, Consumer<Connection
             // No backend connection or cannot store in queue, send 503 with Retry-After
             if (!acquired)
             {
+                releaseHeadersSlot();
+
                 // count all responses
                 factory.countResponses.getAsLong();
 
                 factory.writer.doWindow(acceptReply, acceptRouteId, acceptInitialId, traceId, 0, 0);
 
-                factory.writer.doHttpBegin(acceptReply, acceptRouteId, acceptReplyId, factory.supplyTrace.getAsLong(),
-                    acceptAffinity,
-                    hs -> hs.item(h -> h.name(":status").value("503"))
-                            .item(h -> h.name("retry-after").value("0")));
-                factory.writer.doHttpEnd(acceptReply, acceptRouteId, acceptReplyId, factory.supplyTrace.getAsLong());
+                doServiceUnavailable();
 
                 // count rejected requests (no connection or no space in the queue)
                 factory.countRequestsRejected.getAsLong();
@@ -233,77 +254,22 @@ final class ClientAcceptStream implements ConnectionRequest, Consumer<Connection
 
     }
 
-    private byte[] encodeHeaders(Map<String, String> headers,
-                                 DirectBuffer buffer,
-                                 int index,
-                                 int length)
+    private void doServiceUnavailable()
     {
-        String[] pseudoHeaders = new String[4];
-
-        StringBuilder headersChars = new StringBuilder();
-        headers.forEach((name, value) ->
-        {
-            switch (name.toLowerCase())
-            {
-            case ":method":
-                pseudoHeaders[ClientStreamFactory.METHOD] = value;
-                switch (value.toLowerCase())
-                {
-                case "post":
-                case "insert":
-                    this.persistent = false;
-                }
-                break;
-            case ":scheme":
-                pseudoHeaders[ClientStreamFactory.SCHEME] = value;
-                break;
-            case ":authority":
-                pseudoHeaders[ClientStreamFactory.AUTHORITY] = value;
-                break;
-            case ":path":
-                pseudoHeaders[ClientStreamFactory.PATH] = value;
-                break;
-            case "host":
-                if (pseudoHeaders[ClientStreamFactory.AUTHORITY] == null)
-                {
-                    pseudoHeaders[ClientStreamFactory.AUTHORITY] = value;
-                }
-                else if (!pseudoHeaders[ClientStreamFactory.AUTHORITY].equals(value))
-                {
-                    processUnexpected(buffer, index, length);
-                }
-                break;
-            case "connection":
-                Arrays.asList(value.toLowerCase().split(",")).stream().forEach(element ->
-                {
-                    switch (element)
-                    {
-                    case "close":
-                        this.persistent = false;
-                        break;
-                    }
-                });
-                appendHeader(headersChars, name, value);
-                break;
-            default:
-                appendHeader(headersChars, name, value);
-            }
-        });
+        factory.writer.doHttpBegin(acceptReply, acceptRouteId, acceptReplyId, factory.supplyTrace.getAsLong(),
+            acceptAffinity,
+            hs -> hs.item(h -> h.name(":status").value("503"))
+                    .item(h -> h.name("retry-after").value("0")));
+        factory.writer.doHttpEnd(acceptReply, acceptRouteId, acceptReplyId, factory.supplyTrace.getAsLong());
+    }
 
-        if (pseudoHeaders[ClientStreamFactory.METHOD] == null ||
-            pseudoHeaders[ClientStreamFactory.SCHEME] == null ||
-            pseudoHeaders[ClientStreamFactory.PATH] == null ||
-            pseudoHeaders[ClientStreamFactory.AUTHORITY] == null)
+    private void releaseHeadersSlot()
+    {
+        if (headersSlot != NO_SLOT)
         {
-            processUnexpected(buffer, index, length);
+            factory.bufferPool.release(headersSlot);
+            headersSlot = NO_SLOT;
         }
-
-        String payloadChars = new StringBuilder()
-                   .append(pseudoHeaders[ClientStreamFactory.METHOD]).append(" ").append(pseudoHeaders[ClientStreamFactory.PATH])
-                   .append(" HTTP/1.1").append("\r\n")
-                   .append("Host").append(": ").append(pseudoHeaders[ClientStreamFactory.AUTHORITY]).append("\r\n")
-                   .append(headersChars).append("\r\n").toString();
-        return payloadChars.getBytes(StandardCharsets.US_ASCII);
     }
 
     private ConnectionPool getConnectionPool(
@@ -328,6 +294,9 @@ final class ClientAcceptStream implements ConnectionRequest, Consumer<Connection
         }
         else
         {
+            // request body cannot be replayed, so the request is no longer retried
+            releaseHeadersSlot();
+
             final OctetsFW payload = this.factory.dataRO.payload();
             factory.writer.doData(connection.connectInitial, connectRouteId, connection.connectInitialId,
                     traceId, connection.padding, payload);
@@ -354,9 +323,10 @@ final class ClientAcceptStream implements ConnectionRequest, Consumer<Connection
         }
         else
         {
-            connectionPool.setDefaultThrottle(connection);
+            connectionPool.written(connection);
         }
         this.streamState = this::streamAfterEndOrAbort;
+        ended = true;
     }
 
     private void processUnexpected(
@@ -451,6 +421,7 @@ final class ClientAcceptStream implements ConnectionRequest, Consumer<Connection
         int writableBytes = Math.min(headersPosition - headersOffset, connection.budget - connection.padding);
         if (writableBytes > 0)
         {
+            final DirectBuffer headersBuffer = factory.bufferPool.buffer(headersSlot);
             factory.writer.doData(connection.connectInitial, connectRouteId, connection.connectInitialId, traceId,
                     connection.padding, headersBuffer, headersOffset, writableBytes);
             connection.budget -= writableBytes + connection.padding;
@@ -459,6 +430,11 @@ final class ClientAcceptStream implements ConnectionRequest, Consumer<Connection
             int bytesDeferred = headersPosition - headersOffset;
             if (bytesDeferred == 0)
             {
+                if (!pipelined)
+                {
+                    releaseHeadersSlot();
+                }
+
                 if (endDeferred)
                 {
                     doEnd();
@@ -493,6 +469,8 @@ final class ClientAcceptStream implements ConnectionRequest, Consumer<Connection
     {
         AbortFW abort = factory.abortRO.wrap(buffer, index, index + length);
 
+        releaseHeadersSlot();
+
         if (connection == null)
         {
             // request still enqueued, remove it from the queue
@@ -500,12 +478,18 @@ final class ClientAcceptStream implements ConnectionRequest, Consumer<Connection
         }
         else
         {
-            Correlation<?> correlation = factory.correlations.remove(connection.connectReplyId);
+            final long connectReplyId = connection.connectReplyId;
+            final boolean queued = connection.pipelined.remove(this);
+            final boolean correlated = !queued && factory.correlations.get(connectReplyId) == correlation;
+            if (correlated)
+            {
+                factory.correlations.remove(connectReplyId);
+            }
             connection.persistent = false;
             connectionPool.release(connection, CloseAction.ABORT);
             MessageConsumer connect = factory.router.supplyReceiver(connection.connectInitialId);
-            factory.writer.doReset(connect, connectRouteId, connection.connectReplyId, abort.traceId());
-            if (correlation == null)
+            factory.writer.doReset(connect, connectRouteId, connectReplyId, abort.traceId());
+            if (!queued && !correlated)
             {
                 factory.writer.doAbort(acceptReply, acceptRouteId, acceptReplyId, abort.traceId());
             }
@@ -518,9 +502,18 @@ final class ClientAcceptStream implements ConnectionRequest, Consumer<Connection
         int length)
     {
         ResetFW resetFW = factory.resetRO.wrap(buffer, index, index + length);
+        final boolean queued = connection.pipelined.remove(this);
         connection.persistent = false;
         connectionPool.release(connection);
-        factory.writer.doReset(acceptReply, acceptRouteId, acceptInitialId, resetFW.traceId());
+        if (queued)
+        {
+            fail(resetFW.traceId());
+        }
+        else
+        {
+            releaseHeadersSlot();
+            factory.writer.doReset(acceptReply, acceptRouteId, acceptInitialId, resetFW.traceId());
+        }
     }
 
     @Override
@@ -529,15 +522,87 @@ final class ClientAcceptStream implements ConnectionRequest, Consumer<Connection
         return this;
     }
 
+    @Override
+    public boolean idempotent()
+    {
+        return idempotent;
+    }
+
+    @Override
+    public void correlate()
+    {
+        pipelined = false;
+        factory.correlations.put(connection.connectReplyId, correlation);
+        if (headersOffset == headersPosition)
+        {
+            releaseHeadersSlot();
+        }
+    }
+
+    @Override
+    public void retry(
+        long traceId)
+    {
+        connection = null;
+        pipelined = false;
+
+        // only a fully received request without body can be written again
+        if (ended && !retried && headersSlot != NO_SLOT)
+        {
+            retried = true;
+            headersOffset = 0;
+            endDeferred = true;
+            this.throttleState = this::throttleBeforeHeadersWritten;
+            factory.countRequestsRetried.getAsLong();
+
+            if (!connectionPool.acquire(this))
+            {
+                fail(traceId);
+            }
+        }
+        else
+        {
+            fail(traceId);
+        }
+    }
+
+    private void fail(
+        long traceId)
+    {
+        releaseHeadersSlot();
+
+        // count abandoned requests
+        factory.countRequestsAbandoned.getAsLong();
+
+        // count all responses
+        factory.countResponses.getAsLong();
+
+        doServiceUnavailable();
+
+        if (!ended)
+        {
+            factory.writer.doReset(acceptReply, acceptRouteId, acceptInitialId, traceId);
+            this.streamState = this::streamAfterReplyOrReset;
+        }
+    }
+
     @Override
     public void accept(Connection connection)
     {
         this.connection = connection;
-        connection.persistent = persistent;
-        ClientConnectReplyState state = new ClientConnectReplyState(connectionPool, connection);
-        final Correlation<ClientConnectReplyState> correlation =
-                new Correlation<>(acceptReply, acceptRouteId, acceptReplyId, acceptAffinity, state);
-        factory.correlations.put(connection.connectReplyId, correlation);
+        connection.persistent &= persistent;
+        ClientConnectReplyState state = new ClientConnectReplyState(connectionPool, connection, head);
+        this.correlation = new Correlation<>(acceptReply, acceptRouteId, acceptReplyId, acceptAffinity, state);
+        if (connection.pendingRequests == 1)
+        {
+            correlate();
+        }
+        else
+        {
+            // pipelined behind unanswered requests, correlated once the preceding responses complete
+            pipelined = true;
+            connection.pipelined.add(this);
+        }
         factory.router.setThrottle(connection.connectInitialId, this::handleThrottle);
         if (connection.budget > 0)
         {
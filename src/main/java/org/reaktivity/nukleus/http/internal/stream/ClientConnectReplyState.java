@@ -21,13 +21,16 @@ final class ClientConnectReplyState
 {
     final ConnectionPool connectionPool;
     final Connection connection;
+    final boolean head;
 
     ClientConnectReplyState(
         ConnectionPool connectionPool,
-        Connection connection)
+        Connection connection,
+        boolean head)
     {
         this.connectionPool = connectionPool;
         this.connection = connection;
+        this.head = head;
     }
 
     @Override
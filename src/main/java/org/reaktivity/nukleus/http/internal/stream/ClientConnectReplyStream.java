@@ -15,39 +15,56 @@
  */
 package org.reaktivity.nukleus.http.internal.stream;
 
-import static java.lang.Integer.parseInt;
+import static java.nio.charset.StandardCharsets.US_ASCII;
 import static org.reaktivity.nukleus.budget.BudgetDebitor.NO_DEBITOR_INDEX;
-import static org.reaktivity.nukleus.buffer.BufferPool.NO_SLOT;
+import static org.reaktivity.nukleus.http.internal.stream.ClientStreamFactory.CLOSE_BYTES;
 import static org.reaktivity.nukleus.http.internal.stream.ClientStreamFactory.CRLFCRLF_BYTES;
 import static org.reaktivity.nukleus.http.internal.stream.ClientStreamFactory.CRLF_BYTES;
-import static org.reaktivity.nukleus.http.internal.stream.ClientStreamFactory.SEMICOLON_BYTES;
+import static org.reaktivity.nukleus.http.internal.stream.ClientStreamFactory.SEMICOLON_BYTE;
+import static org.reaktivity.nukleus.http.internal.stream.ClientStreamFactory.containsTokenIgnoreCase;
+import static org.reaktivity.nukleus.http.internal.util.BufferUtil.indexOfByte;
 import static org.reaktivity.nukleus.http.internal.util.BufferUtil.limitOfBytes;
 
-import java.util.Arrays;
-import java.util.LinkedHashMap;
-import java.util.Map;
 import java.util.function.Consumer;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import org.agrona.DirectBuffer;
 import org.agrona.MutableDirectBuffer;
 import org.reaktivity.nukleus.budget.BudgetDebitor;
-import org.reaktivity.nukleus.buffer.BufferPool;
 import org.reaktivity.nukleus.function.MessageConsumer;
 import org.reaktivity.nukleus.http.internal.stream.ConnectionPool.CloseAction;
 import org.reaktivity.nukleus.http.internal.stream.ConnectionPool.Connection;
+import org.reaktivity.nukleus.http.internal.types.HttpHeaderFW;
 import org.reaktivity.nukleus.http.internal.types.OctetsFW;
+import org.reaktivity.nukleus.http.internal.types.String8FW;
 import org.reaktivity.nukleus.http.internal.types.stream.AbortFW;
 import org.reaktivity.nukleus.http.internal.types.stream.BeginFW;
 import org.reaktivity.nukleus.http.internal.types.stream.DataFW;
 import org.reaktivity.nukleus.http.internal.types.stream.EndFW;
 import org.reaktivity.nukleus.http.internal.types.stream.FrameFW;
+import org.reaktivity.nukleus.http.internal.types.stream.HttpBeginExFW;
 import org.reaktivity.nukleus.http.internal.types.stream.ResetFW;
 import org.reaktivity.nukleus.http.internal.types.stream.WindowFW;
+import org.reaktivity.nukleus.http.internal.util.HttpHeaderNameCache;
+import org.reaktivity.nukleus.http.internal.util.HttpSlotChain;
 
 final class ClientConnectReplyStream
 {
+    private static final String8FW HEADER_STATUS = new String8FW(":status");
+    private static final String8FW HEADER_CONNECTION = new String8FW("connection");
+    private static final String8FW HEADER_CONTENT_LENGTH = new String8FW("content-length");
+    private static final String8FW HEADER_TRANSFER_ENCODING = new String8FW("transfer-encoding");
+
+    private static final byte[] HTTP_1_X_BYTES = "HTTP/1.".getBytes(US_ASCII);
+    private static final byte[] TRANSFER_ENCODING_CHUNKED_BYTES = "chunked".getBytes(US_ASCII);
+    private static final int STATUS_CODE_LENGTH = 3;
+    private static final int STATUS_SWITCHING_PROTOCOLS = 101;
+    private static final int STATUS_NO_CONTENT = 204;
+    private static final int STATUS_NOT_MODIFIED = 304;
+
+    private static final byte COLON_BYTE = ':';
+    private static final byte SPACE_BYTE = ' ';
+    private static final byte HTAB_BYTE = '\t';
+
     private final ClientStreamFactory factory;
     private final MessageConsumer connectReplyThrottle;
     private final long connectAffinity;
@@ -62,8 +79,7 @@ final class ClientConnectReplyStream
     };
     private ResponseState responseState;
 
-    private int slotIndex = BufferPool.NO_SLOT;
-    private int slotOffset = 0;
+    private final HttpSlotChain slots;
     private boolean endDeferred;
 
     private long connectRouteId;
@@ -84,6 +100,12 @@ final class ClientConnectReplyStream
     private int acceptReplyBudget;
     private Consumer<WindowFW> windowHandler;
 
+    private final Consumer<HttpHeaderFW.Builder> decodedHeader = this::decodedHeader;
+    private String8FW decodedName;
+    private DirectBuffer decodedValue;
+    private int decodedValueOffset;
+    private int decodedValueLength;
+
     private int acceptReplyPadding;
     private long acceptReplyDebitorId;
     private BudgetDebitor acceptReplyDebitor;
@@ -108,6 +130,7 @@ final class ClientConnectReplyStream
         this.connectRouteId = connectRouteId;
         this.connectReplyId = connectReplyId;
         this.connectAffinity = connectAffinity;
+        this.slots = new HttpSlotChain(factory.bufferPool, factory.headersBuffer);
         this.throttleState = this::handleThrottleBeforeBegin;
         this.windowHandler = this::handleWindow;
     }
@@ -223,25 +246,24 @@ final class ClientConnectReplyStream
         acceptReplyTraceId = data.traceId();
         connectReplyBudget -= data.reserved();
 
-        if (connectReplyBudget < 0)
+        final OctetsFW payload = data.payload();
+
+        if (connectReplyBudget < 0 ||
+            !slots.isEmpty() && !slots.append(connectReplyId, payload.buffer(), payload.offset(), payload.limit()))
         {
             handleUnexpected(data.streamId(), acceptReplyTraceId);
         }
         else
         {
-            final OctetsFW payload = data.payload();
             DirectBuffer buffer = payload.buffer();
             int offset = payload.offset();
             int limit = payload.limit();
 
-            if (slotIndex != NO_SLOT)
+            if (!slots.isEmpty())
             {
-                final MutableDirectBuffer slotBuffer = factory.bufferPool.buffer(slotIndex);
-                slotBuffer.putBytes(slotOffset, buffer, offset, limit - offset);
-                slotOffset += limit - offset;
-                buffer = slotBuffer;
+                buffer = slots.buffer();
                 offset = 0;
-                limit = slotOffset;
+                limit = slots.length();
             }
             decode(buffer, offset, limit);
         }
@@ -253,7 +275,7 @@ final class ClientConnectReplyStream
         final long streamId = end.streamId();
         assert streamId == connectReplyId;
 
-        if (slotIndex != NO_SLOT && (responseState == ResponseState.BEFORE_HEADERS || responseState == ResponseState.DATA))
+        if (!slots.isEmpty() && (responseState == ResponseState.BEFORE_HEADERS || responseState == ResponseState.DATA))
         {
             endDeferred = true;
         }
@@ -330,30 +352,25 @@ final class ClientConnectReplyStream
 
         if (offset < limit)
         {
-            if (slotIndex == NO_SLOT)
-            {
-                slotIndex = factory.bufferPool.acquire(connectReplyId);
-            }
-
-            if (slotIndex == NO_SLOT)
+            if (!slots.set(connectReplyId, buffer, offset, limit))
             {
                 factory.writer.doReset(connectReplyThrottle, connectRouteId, connectReplyId, factory.supplyTrace.getAsLong());
                 connection.persistent = false;
                 doCleanup(CloseAction.ABORT);
             }
-            else
-            {
-                final MutableDirectBuffer slotBuffer = factory.bufferPool.buffer(slotIndex);
-                slotBuffer.putBytes(0, buffer, offset, limit - offset);
-                slotOffset = limit - offset;
-            }
         }
-        else if (slotIndex != NO_SLOT)
+        else
         {
             releaseSlotIfNecessary();
         }
 
-        final int connectReplyCredit = factory.bufferPool.slotCapacity() - connectReplyBudget - slotOffset;
+        // headers beyond one slot spill into further slots, up to maximum headers size
+        final int slotCapacity = factory.bufferPool.slotCapacity();
+        final boolean decodingHeaders = responseState == ResponseState.BEFORE_HEADERS ||
+                                        responseState == ResponseState.HEADERS;
+        final int bufferedMax = decodingHeaders ? factory.maximumHeadersSize : slotCapacity;
+        final int bufferedLength = slots.length();
+        final int connectReplyCredit = Math.min(bufferedMax - bufferedLength, slotCapacity) - connectReplyBudget;
         final long traceId = factory.supplyTrace.getAsLong();
         if (connectReplyCredit > 0)
         {
@@ -371,6 +388,8 @@ final class ClientConnectReplyStream
         cleanupResponseIfNecessary();
         if (connection != null)
         {
+            // pipelined requests still awaiting responses are retried on another connection
+            connection.persistent = false;
             connectionPool.release(connection, action);
         }
     }
@@ -409,131 +428,184 @@ final class ClientConnectReplyStream
         final int offset,
         final int length)
     {
-        // TODO: replace with lightweight approach (start)
-        String[] lines = payload.getStringWithoutLengthUtf8(offset, length).split("\r\n");
-        String[] start = lines[0].split("\\s+");
-
-        Pattern versionPattern = Pattern.compile("HTTP/1\\.(\\d)");
-        Matcher versionMatcher = versionPattern.matcher(start[0]);
-        if (!versionMatcher.matches())
+        final int limit = offset + length;
+        final int endOfStartAt = limitOfBytes(payload, offset, limit, CRLF_BYTES);
+        final int endOfStartLineAt = endOfStartAt - CRLF_BYTES.length;
+        final int versionLimit = offset + HTTP_1_X_BYTES.length + 1;
+        final int statusAt = skipWhitespace(payload, versionLimit, endOfStartLineAt);
+        final int endOfStatusAt = statusAt + STATUS_CODE_LENGTH;
+
+        if (versionLimit > endOfStartLineAt ||
+            !matchBytes(payload, offset, versionLimit - 1, HTTP_1_X_BYTES) ||
+            !isDigit(payload.getByte(versionLimit - 1)) ||
+            statusAt == versionLimit ||
+            endOfStatusAt > endOfStartLineAt ||
+            parseDecimal(payload, statusAt, endOfStatusAt) == -1 ||
+            endOfStatusAt != endOfStartLineAt && !isWhitespace(payload.getByte(endOfStatusAt)))
         {
             handleInvalidResponseAndReset();
         }
         else
         {
-            final Map<String, String> headers = decodeHttpHeaders(start, lines);
-            // TODO: replace with lightweight approach (end)
-
-            resolveTarget();
+            final HttpBeginExFW.Builder httpBeginEx =
+                    factory.beginExRW.wrap(factory.codecBuffer, 0, factory.codecBuffer.capacity())
+                                     .typeId(factory.httpTypeId);
+            decodeHeader(httpBeginEx, HEADER_STATUS, payload, statusAt, endOfStatusAt);
 
-            factory.router.setThrottle(acceptReplyId, this::handleThrottle);
-            factory.writer.doHttpBegin(acceptReply, acceptRouteId, acceptReplyId, acceptReplyTraceId, connectAffinity,
-                hs -> headers.forEach((k, v) -> hs.item(i -> i.name(k).value(v))));
+            contentRemaining = 0;
+            isChunkedTransfer = false;
 
-            // count all responses
-            factory.countResponses.getAsLong();
+            boolean contentLengthFound = false;
+            boolean persistent = true;
+            boolean valid = true;
 
-            boolean upgraded = "101".equals(headers.get(":status"));
-            String connectionOptions = headers.get("connection");
-            if (connectionOptions != null)
+            final int endOfHeadersAt = limit - CRLF_BYTES.length;
+            for (int lineAt = endOfStartAt; valid && lineAt < endOfHeadersAt; )
             {
-                Arrays.stream(connectionOptions.split("\\s*,\\s*")).forEach(element ->
+                final int endOfLineAt = limitOfBytes(payload, lineAt, limit, CRLF_BYTES);
+                final int endOfValueLimit = endOfLineAt - CRLF_BYTES.length;
+                final int colonAt = indexOfByte(payload, lineAt, endOfValueLimit, COLON_BYTE);
+                final int endOfNameAt = colonAt != -1 ? trimWhitespace(payload, lineAt, colonAt) : lineAt;
+                final int nameLength = endOfNameAt - lineAt;
+
+                if (nameLength == 0 ||
+                    nameLength > HttpHeaderNameCache.MAXIMUM_NAME_LENGTH ||
+                    indexOfWhitespace(payload, lineAt, endOfNameAt) != -1)
                 {
-                    if (element.equalsIgnoreCase("close"))
+                    valid = false;
+                }
+                else
+                {
+                    final int valueAt = skipWhitespace(payload, colonAt + 1, endOfValueLimit);
+                    final int endOfValueAt = trimWhitespace(payload, valueAt, endOfValueLimit);
+                    final String8FW name = decodeHeaderName(payload, lineAt, endOfNameAt);
+
+                    if (HEADER_TRANSFER_ENCODING.equals(name))
                     {
-                        connection.persistent = false;
+                        // TODO: support other transfer encodings
+                        valid = !contentLengthFound &&
+                                matchBytes(payload, valueAt, endOfValueAt, TRANSFER_ENCODING_CHUNKED_BYTES);
+                        isChunkedTransfer = true;
+                    }
+                    else if (HEADER_CONTENT_LENGTH.equals(name))
+                    {
+                        contentRemaining = parseDecimal(payload, valueAt, endOfValueAt);
+                        valid = !contentLengthFound && !isChunkedTransfer && contentRemaining != -1;
+                        contentLengthFound = true;
+                    }
+                    else if (HEADER_CONNECTION.equals(name))
+                    {
+                        persistent &= !containsTokenIgnoreCase(payload, valueAt, endOfValueAt, CLOSE_BYTES);
                     }
-                });
-            }
 
-            if (upgraded)
-            {
-                connection.persistent = false;
-                connection.upgraded = true;
-                connectionPool.release(connection);
-                this.decoderState = this::decodeHttpDataAfterUpgrade;
-                throttleState = this::handleThrottleAfterBegin;
-                windowHandler = this::handleWindow;
-                this.responseState = ResponseState.DATA;
+                    decodeHeader(httpBeginEx, name, payload, valueAt, endOfValueAt);
+                }
+
+                lineAt = endOfLineAt;
             }
-            else if (contentRemaining > 0)
+
+            final int status = parseDecimal(payload, statusAt, endOfStatusAt);
+            final boolean upgrade = status == STATUS_SWITCHING_PROTOCOLS;
+            final boolean interim = !upgrade && status / 100 == 1;
+
+            if (!valid || factory.correlations.get(connection.connectReplyId) == null)
             {
-                decoderState = this::decodeHttpData;
-                throttleState = this::handleThrottleAfterBegin;
-                windowHandler = this::handleWindow;
-                this.responseState = ResponseState.DATA;
+                contentRemaining = 0;
+                isChunkedTransfer = false;
+                handleInvalidResponseAndReset();
             }
-            else if (isChunkedTransfer)
+            else if (interim)
             {
-                decoderState = this::decodeHttpChunk;
-                throttleState = this::handleThrottleAfterBegin;
-                windowHandler = this::handleWindow;
-                this.responseState = ResponseState.DATA;
+                // interim response has no content, the final response for the same request follows
+                contentRemaining = 0;
+                isChunkedTransfer = false;
             }
             else
             {
-                // no content
-                decoderState = this::decodeHttpResponseComplete;
-                windowHandler = this::handleWindow;
-            }
-        }
-    }
+                final boolean head = resolveTarget();
+                if (head || status == STATUS_NO_CONTENT || status == STATUS_NOT_MODIFIED)
+                {
+                    // response has no content, regardless of Content-Length or Transfer-Encoding
+                    contentRemaining = 0;
+                    isChunkedTransfer = false;
+                }
 
-    private Map<String, String> decodeHttpHeaders(
-        String[] start,
-        String[] lines)
-    {
-        Map<String, String> headers = new LinkedHashMap<>();
-        headers.put(":status", start[1]);
+                factory.router.setThrottle(acceptReplyId, this::handleThrottle);
+                factory.writer.doHttpBegin(acceptReply, acceptRouteId, acceptReplyId, acceptReplyTraceId, connectAffinity,
+                    httpBeginEx.build());
 
-        Pattern headerPattern = Pattern.compile("([^\\s:]+)\\s*:\\s*(.*)");
-        boolean contentLengthFound = false;
-        contentRemaining = 0;
-        isChunkedTransfer = false;
-        for (int i = 1; i < lines.length; i++)
-        {
-            Matcher headerMatcher = headerPattern.matcher(lines[i]);
-            if (!headerMatcher.matches())
-            {
-                throw new IllegalStateException("illegal http header syntax");
-            }
+                // count all responses
+                factory.countResponses.getAsLong();
 
-            String name = headerMatcher.group(1).toLowerCase();
-            String value = headerMatcher.group(2);
+                connection.persistent &= persistent;
 
-            if ("transfer-encoding".equals(name))
-            {
-                // TODO: support other transfer encodings
-                if (contentLengthFound || !"chunked".equals(value))
+                if (upgrade)
                 {
-                    handleInvalidResponseAndReset();
+                    connection.persistent = false;
+                    connection.upgraded = true;
+                    connectionPool.release(connection);
+                    this.decoderState = this::decodeHttpDataAfterUpgrade;
+                    throttleState = this::handleThrottleAfterBegin;
+                    windowHandler = this::handleWindow;
+                    this.responseState = ResponseState.DATA;
                 }
-                else
+                else if (contentRemaining > 0)
                 {
-                    isChunkedTransfer = true;
-                    headers.put(name, value);
+                    decoderState = this::decodeHttpData;
+                    throttleState = this::handleThrottleAfterBegin;
+                    windowHandler = this::handleWindow;
+                    this.responseState = ResponseState.DATA;
                 }
-            }
-            else if ("content-length".equals(name))
-            {
-                if (contentLengthFound || isChunkedTransfer)
+                else if (isChunkedTransfer)
                 {
-                    handleInvalidResponseAndReset();
+                    decoderState = this::decodeHttpChunk;
+                    throttleState = this::handleThrottleAfterBegin;
+                    windowHandler = this::handleWindow;
+                    this.responseState = ResponseState.DATA;
                 }
                 else
                 {
-                    contentRemaining = parseInt(value);
-                    contentLengthFound = true;
-                    headers.put(name, value);
+                    // no content
+                    decoderState = this::decodeHttpResponseComplete;
+                    windowHandler = this::handleWindow;
                 }
             }
-            else
-            {
-                headers.put(name, value);
-            }
         }
+    }
 
-        return headers;
+    private String8FW decodeHeaderName(
+        DirectBuffer buffer,
+        int offset,
+        int limit)
+    {
+        final MutableDirectBuffer headerNameBuffer = factory.headerNameBuffer;
+        final int length = limit - offset;
+        headerNameBuffer.putByte(0, (byte) length);
+        for (int index = 0; index < length; index++)
+        {
+            headerNameBuffer.putByte(1 + index, toLowerCase(buffer.getByte(offset + index)));
+        }
+        return factory.headerNameRO.wrap(headerNameBuffer, 0, 1 + length);
+    }
+
+    private void decodeHeader(
+        HttpBeginExFW.Builder httpBeginEx,
+        String8FW name,
+        DirectBuffer buffer,
+        int offset,
+        int limit)
+    {
+        decodedName = name;
+        decodedValue = buffer;
+        decodedValueOffset = offset;
+        decodedValueLength = limit - offset;
+        httpBeginEx.headersItem(decodedHeader);
+    }
+
+    private void decodedHeader(
+        HttpHeaderFW.Builder header)
+    {
+        header.name(decodedName).value(decodedValue, decodedValueOffset, decodedValueLength);
     }
 
     private int decodeHttpData(
@@ -589,24 +661,25 @@ final class ClientConnectReplyStream
         final int chunkHeaderLimit = limitOfBytes(payload, offset, limit, CRLF_BYTES);
         if (chunkHeaderLimit != -1)
         {
-            final int semicolonAt = limitOfBytes(payload, offset, chunkHeaderLimit, SEMICOLON_BYTES);
-            final int chunkSizeLimit = semicolonAt == -1 ? chunkHeaderLimit - 2 : semicolonAt - 1;
-            final int chunkSizeLength = chunkSizeLimit - offset;
+            final int semicolonAt = indexOfByte(payload, offset, chunkHeaderLimit, SEMICOLON_BYTE);
+            final int chunkSizeLimit = semicolonAt == -1 ? chunkHeaderLimit - CRLF_BYTES.length : semicolonAt;
+            final int chunkSizeAt = skipWhitespace(payload, offset, chunkSizeLimit);
+            final int endOfChunkSizeAt = trimWhitespace(payload, chunkSizeAt, chunkSizeLimit);
 
-            try
+            final int decodedChunkSize = parseHex(payload, chunkSizeAt, endOfChunkSizeAt);
+            if (decodedChunkSize == -1)
+            {
+                handleInvalidResponseAndReset();
+            }
+            else
             {
-                final String chunkSizeHex = payload.getStringWithoutLengthUtf8(offset, chunkSizeLength);
-                chunkSize = Integer.parseInt(chunkSizeHex, 16);
+                chunkSize = decodedChunkSize;
                 chunkSizeRemaining = chunkSize;
 
                 contentRemaining += chunkSizeRemaining;
                 decoderState = this::decodeHttpChunkData;
                 result = chunkHeaderLimit;
             }
-            catch (NumberFormatException ex)
-            {
-                handleInvalidResponseAndReset();
-            }
         }
 
         return result;
@@ -733,7 +806,7 @@ final class ClientConnectReplyStream
         this.responseState = ResponseState.BEFORE_HEADERS;
         this.acceptReplyPadding = 0;
 
-        final int connectReplyCredit = factory.maximumHeadersSize - connectReplyBudget;
+        final int connectReplyCredit = factory.bufferPool.slotCapacity() - connectReplyBudget;
 
         if (connectReplyCredit > 0)
         {
@@ -742,7 +815,7 @@ final class ClientConnectReplyStream
                     connectReplyCredit, 0);
         }
 
-        // TODO: Support HTTP/1.1 Pipelined Responses (may be buffered already)
+        // pipelined responses are matched in request order as each previous response completes
         this.contentRemaining = 0;
     }
 
@@ -769,13 +842,16 @@ final class ClientConnectReplyStream
         return offset;
     }
 
-    private void resolveTarget()
+    private boolean resolveTarget()
     {
-        final Correlation<?> correlation = factory.correlations.remove(connection.connectReplyId);
+        @SuppressWarnings("unchecked")
+        final Correlation<ClientConnectReplyState> correlation =
+                (Correlation<ClientConnectReplyState>) factory.correlations.remove(connection.connectReplyId);
         this.acceptRouteId = correlation.routeId();
         this.acceptReplyId = correlation.replyId();
         this.acceptReply = correlation.reply();
         this.acceptReplyBudget = 0;
+        return correlation.state().head;
     }
 
     private void handleThrottle(
@@ -848,11 +924,10 @@ final class ClientConnectReplyStream
     private void doFlush(
         final long traceId)
     {
-        if (slotIndex != NO_SLOT)
+        if (!slots.isEmpty())
         {
-            MutableDirectBuffer slot = factory.bufferPool.buffer(slotIndex);
-            decode(slot, 0, slotOffset);
-            if (slotIndex == NO_SLOT && endDeferred)
+            decode(slots.buffer(), 0, slots.length());
+            if (slots.isEmpty() && endDeferred)
             {
                 connection.persistent = false;
                 if (contentRemaining > 0)
@@ -876,12 +951,7 @@ final class ClientConnectReplyStream
 
     private void releaseSlotIfNecessary()
     {
-        if (slotIndex != NO_SLOT)
-        {
-            factory.bufferPool.release(slotIndex);
-            slotIndex = NO_SLOT;
-            slotOffset = 0;
-        }
+        slots.release();
     }
 
     private void cleanupResponseIfNecessary()
@@ -894,6 +964,107 @@ final class ClientConnectReplyStream
         }
     }
 
+    private static boolean matchBytes(
+        DirectBuffer buffer,
+        int offset,
+        int limit,
+        byte[] value)
+    {
+        boolean match = limit - offset == value.length;
+        for (int i = 0; match && i < value.length; i++)
+        {
+            match = buffer.getByte(offset + i) == value[i];
+        }
+        return match;
+    }
+
+    private static int indexOfWhitespace(
+        DirectBuffer buffer,
+        int offset,
+        int limit)
+    {
+        int progress = offset;
+        while (progress < limit && !isWhitespace(buffer.getByte(progress)))
+        {
+            progress++;
+        }
+        return progress < limit ? progress : -1;
+    }
+
+    private static int skipWhitespace(
+        DirectBuffer buffer,
+        int offset,
+        int limit)
+    {
+        int progress = offset;
+        while (progress < limit && isWhitespace(buffer.getByte(progress)))
+        {
+            progress++;
+        }
+        return progress;
+    }
+
+    private static int trimWhitespace(
+        DirectBuffer buffer,
+        int offset,
+        int limit)
+    {
+        int progress = limit;
+        while (progress > offset && isWhitespace(buffer.getByte(progress - 1)))
+        {
+            progress--;
+        }
+        return progress;
+    }
+
+    private static int parseDecimal(
+        DirectBuffer buffer,
+        int offset,
+        int limit)
+    {
+        long value = offset < limit ? 0L : -1L;
+        for (int progress = offset; value != -1L && progress < limit; progress++)
+        {
+            final byte b = buffer.getByte(progress);
+            value = isDigit(b) ? value * 10 + b - '0' : -1L;
+            value = value <= Integer.MAX_VALUE ? value : -1L;
+        }
+        return (int) value;
+    }
+
+    private static int parseHex(
+        DirectBuffer buffer,
+        int offset,
+        int limit)
+    {
+        long value = offset < limit ? 0L : -1L;
+        for (int progress = offset; value != -1L && progress < limit; progress++)
+        {
+            final int digit = Character.digit(buffer.getByte(progress), 16);
+            value = digit != -1 ? value << 4 | digit : -1L;
+            value = value <= Integer.MAX_VALUE ? value : -1L;
+        }
+        return (int) value;
+    }
+
+    private static byte toLowerCase(
+        byte b)
+    {
+        return b >= 'A' && b <= 'Z' ? (byte) (b | 0x20) : b;
+    }
+
+    private static boolean isDigit(
+        byte b)
+    {
+        return b >= '0' && b <= '9';
+    }
+
+    private static boolean isWhitespace(
+        byte b)
+    {
+        return b == SPACE_BYTE || b == HTAB_BYTE;
+    }
+
     @FunctionalInterface interface DecoderState
     {
         int decode(DirectBuffer buffer, int offset, int limit);
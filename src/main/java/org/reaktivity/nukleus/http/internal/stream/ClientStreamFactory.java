@@ -16,18 +16,17 @@
 package org.reaktivity.nukleus.http.internal.stream;
 
 import static java.util.Objects.requireNonNull;
+import static org.reaktivity.nukleus.http.internal.util.HttpRouteIndex.matchesPath;
 
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
-import java.util.Collections;
-import java.util.LinkedHashMap;
-import java.util.Map;
-import java.util.Objects;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.LongConsumer;
 import java.util.function.LongFunction;
 import java.util.function.LongSupplier;
 import java.util.function.LongUnaryOperator;
+import java.util.function.Predicate;
 import java.util.function.ToIntFunction;
 
 import org.agrona.DirectBuffer;
@@ -37,11 +36,16 @@ import org.agrona.concurrent.UnsafeBuffer;
 import org.reaktivity.nukleus.budget.BudgetDebitor;
 import org.reaktivity.nukleus.buffer.BufferPool;
 import org.reaktivity.nukleus.function.MessageConsumer;
+import org.reaktivity.nukleus.function.MessageFunction;
 import org.reaktivity.nukleus.function.MessagePredicate;
 import org.reaktivity.nukleus.http.internal.HttpConfiguration;
+import org.reaktivity.nukleus.http.internal.HttpNukleus;
+import org.reaktivity.nukleus.http.internal.types.Array32FW;
 import org.reaktivity.nukleus.http.internal.types.ArrayFW;
+import org.reaktivity.nukleus.http.internal.types.Flyweight;
 import org.reaktivity.nukleus.http.internal.types.HttpHeaderFW;
-import org.reaktivity.nukleus.http.internal.types.OctetsFW;
+import org.reaktivity.nukleus.http.internal.types.String16FW;
+import org.reaktivity.nukleus.http.internal.types.String8FW;
 import org.reaktivity.nukleus.http.internal.types.control.HttpRouteExFW;
 import org.reaktivity.nukleus.http.internal.types.control.RouteFW;
 import org.reaktivity.nukleus.http.internal.types.stream.AbortFW;
@@ -52,28 +56,59 @@ import org.reaktivity.nukleus.http.internal.types.stream.FrameFW;
 import org.reaktivity.nukleus.http.internal.types.stream.HttpBeginExFW;
 import org.reaktivity.nukleus.http.internal.types.stream.ResetFW;
 import org.reaktivity.nukleus.http.internal.types.stream.WindowFW;
+import org.reaktivity.nukleus.http.internal.util.HttpHeaderNameCache;
+import org.reaktivity.nukleus.http.internal.util.HttpRouteIndex;
 import org.reaktivity.nukleus.route.RouteManager;
 import org.reaktivity.nukleus.stream.StreamFactory;
 
 public final class ClientStreamFactory implements StreamFactory
 {
-    static final Map<String, String> EMPTY_HEADERS = Collections.emptyMap();
     static final byte[] CRLFCRLF_BYTES = "\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
     static final byte[] CRLF_BYTES = "\r\n".getBytes(StandardCharsets.US_ASCII);
-    static final byte[] SEMICOLON_BYTES = ";".getBytes(StandardCharsets.US_ASCII);
-
-    // Pseudo-headers
-    static final int METHOD = 0;
-    static final int SCHEME = 1;
-    static final int AUTHORITY = 2;
-    static final int PATH = 3;
+    static final byte SEMICOLON_BYTE = ';';
+
+    static final int REQUEST_HEAD_INVALID = -1;
+    static final int REQUEST_HEAD_OVERFLOW = -2;
+
+    private static final Array32FW<HttpHeaderFW> EMPTY_HEADERS =
+            new Array32FW.Builder<>(new HttpHeaderFW.Builder(), new HttpHeaderFW())
+                         .wrap(new UnsafeBuffer(new byte[8]), 0, 8)
+                         .build();
+
+    private static final String8FW HEADER_AUTHORITY = new String8FW(":authority");
+    private static final String8FW HEADER_METHOD = new String8FW(":method");
+    private static final String8FW HEADER_PATH = new String8FW(":path");
+    private static final String8FW HEADER_SCHEME = new String8FW(":scheme");
+
+    private static final byte[] CONNECTION_BYTES = "connection".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] HOST_BYTES = "host".getBytes(StandardCharsets.US_ASCII);
+    static final byte[] CLOSE_BYTES = "close".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] POST_BYTES = "post".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] INSERT_BYTES = "insert".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] HEAD_BYTES = "head".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[][] IDEMPOTENT_METHODS_BYTES =
+    {
+        "get".getBytes(StandardCharsets.US_ASCII),
+        "head".getBytes(StandardCharsets.US_ASCII),
+        "options".getBytes(StandardCharsets.US_ASCII),
+        "trace".getBytes(StandardCharsets.US_ASCII),
+        "put".getBytes(StandardCharsets.US_ASCII),
+        "delete".getBytes(StandardCharsets.US_ASCII)
+    };
+    private static final byte[] HOST_NAME_BYTES = "Host: ".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] VERSION_BYTES = " HTTP/1.1\r\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte COLON_BYTE = ':';
+    private static final byte COMMA_BYTE = ',';
+    private static final byte SPACE_BYTE = ' ';
 
     final FrameFW frameRO = new FrameFW();
     final RouteFW routeRO = new RouteFW();
-    private HttpRouteExFW routeExRO = new HttpRouteExFW();
+    private final HttpRouteExFW routeExRO = new HttpRouteExFW();
 
     final BeginFW beginRO = new BeginFW();
     final HttpBeginExFW beginExRO = new HttpBeginExFW();
+    final HttpBeginExFW.Builder beginExRW = new HttpBeginExFW.Builder();
+    final String8FW headerNameRO = new String8FW();
 
     final DataFW dataRO = new DataFW();
     final EndFW endRO = new EndFW();
@@ -93,19 +128,45 @@ public final class ClientStreamFactory implements StreamFactory
     final MessageWriter writer;
     long supplyTraceId;
 
+    final int httpTypeId;
     final int maximumHeadersSize;
+    final MutableDirectBuffer headersBuffer;
+    final MutableDirectBuffer codecBuffer;
+    final MutableDirectBuffer headerNameBuffer;
 
     Long2ObjectHashMap<Correlation<?>> correlations;
 
     final Long2ObjectHashMap<ConnectionPool> connectionPools;
     final int maximumConnectionsPerRoute;
     final int maximumQueuedRequestsPerRoute;
-
+    final int maximumPipelinedRequests;
+    final HttpHeaderNameCache headerNames;
+    private final HttpRouteIndex routes;
+    private final Consumer<HttpHeaderFW> routeHeader;
+    private final MessageFunction<RouteFW> wrapRoute = (t, b, i, l) -> routeRO.wrap(b, i, i + l);
+    private final Flyweight.Visitor<HttpBeginExFW> wrapBeginEx = beginExRO::tryWrap;
+    private final Flyweight.Visitor<HttpRouteExFW> wrapRouteEx = routeExRO::tryWrap;
+    private final MessagePredicate routeable = this::routeable;
+    private final Predicate<HttpHeaderFW> mismatchedHeader = this::mismatchedHeader;
+    private final Predicate<HttpHeaderFW> namedHeader = this::namedHeader;
+    private final Consumer<HttpHeaderFW> encodeHeader = this::encodeHeader;
+    private final Consumer<HttpHeaderFW> encodeOverride = this::encodeOverride;
+
+    private Array32FW<HttpHeaderFW> resolveHeaders;
+    private String8FW matchName;
+    private ArrayFW<HttpHeaderFW> encodeOverrides;
+    private MutableDirectBuffer encodeBuffer;
+    private int encodeProgress;
+    private int encodeLimit;
+    boolean encodePersistent;
+    boolean encodeIdempotent;
+    boolean encodeHead;
 
     final UnsafeBuffer temporarySlot;
     final LongSupplier countRequests;
     final LongSupplier countRequestsRejected;
     final LongSupplier countRequestsAbandoned;
+    final LongSupplier countRequestsRetried;
     final LongSupplier countResponses;
     final LongSupplier countResponsesAbandoned;
     final LongConsumer connectionInUse;
@@ -113,6 +174,7 @@ public final class ClientStreamFactory implements StreamFactory
     public ClientStreamFactory(
         HttpConfiguration configuration,
         RouteManager router,
+        LongSupplier supplyRoutesVersion,
         MutableDirectBuffer writeBuffer,
         BufferPool bufferPool,
         LongUnaryOperator supplyInitialId,
@@ -126,6 +188,9 @@ public final class ClientStreamFactory implements StreamFactory
         this.supplyTrace = requireNonNull(supplyTrace);
         this.router = requireNonNull(router);
         this.writer = new MessageWriter(supplyTypeId, requireNonNull(writeBuffer));
+        this.httpTypeId = supplyTypeId.applyAsInt(HttpNukleus.NAME);
+        this.codecBuffer = new UnsafeBuffer(new byte[writeBuffer.capacity()]);
+        this.headerNameBuffer = new UnsafeBuffer(new byte[1 + HttpHeaderNameCache.MAXIMUM_NAME_LENGTH]);
         this.bufferPool = requireNonNull(bufferPool);
         this.supplyInitialId = requireNonNull(supplyInitialId);
         this.supplyReplyId = requireNonNull(supplyReplyId);
@@ -134,11 +199,19 @@ public final class ClientStreamFactory implements StreamFactory
         this.connectionPools = new Long2ObjectHashMap<>();
         this.maximumConnectionsPerRoute = configuration.maximumConnectionsPerRoute();
         this.maximumQueuedRequestsPerRoute = configuration.maximumRequestsQueuedPerRoute();
-        this.maximumHeadersSize = bufferPool.slotCapacity();
+        this.maximumPipelinedRequests = configuration.clientMaximumPipelinedRequests();
+        this.headerNames = new HttpHeaderNameCache(configuration.headerNameCacheSize(), configuration.headerNamesLowercase());
+        this.routes = new HttpRouteIndex(HttpNukleus.NAME, router, supplyRoutesVersion);
+        this.routeHeader = routes::header;
+        this.maximumHeadersSize = Math.max(configuration.maximumHeadersSize(), bufferPool.slotCapacity());
+        this.headersBuffer = maximumHeadersSize > bufferPool.slotCapacity()
+                ? new UnsafeBuffer(new byte[maximumHeadersSize])
+                : null;
         this.temporarySlot = new UnsafeBuffer(ByteBuffer.allocateDirect(bufferPool.slotCapacity()));
         this.countRequests = supplyCounter.apply("http.requests");
         this.countRequestsRejected = supplyCounter.apply("http.requests.rejected");
         this.countRequestsAbandoned = supplyCounter.apply("http.requests.abandoned");
+        this.countRequestsRetried = supplyCounter.apply("http.requests.retried");
         this.countResponses = supplyCounter.apply("http.responses");
         this.countResponsesAbandoned = supplyCounter.apply("http.responses.abandoned");
         this.enqueues = supplyCounter.apply("http.enqueues");
@@ -179,17 +252,8 @@ public final class ClientStreamFactory implements StreamFactory
         final long routeId = begin.routeId();
         final long authorization = begin.authorization();
 
-        final OctetsFW extension = begin.extension();
-
-        // TODO: avoid object creation
-        Map<String, String> headers = EMPTY_HEADERS;
-        if (extension.sizeof() > 0)
-        {
-            final HttpBeginExFW beginEx = extension.get(beginExRO::wrap);
-            Map<String, String> headers0 = new LinkedHashMap<>();
-            beginEx.headers().forEach(h -> headers0.put(h.name().asString(), h.value().asString()));
-            headers = headers0;
-        }
+        final HttpBeginExFW beginEx = begin.extension().get(wrapBeginEx);
+        final Array32FW<HttpHeaderFW> headers = beginEx != null ? beginEx.headers() : EMPTY_HEADERS;
 
         final RouteFW route = resolveTarget(routeId, authorization, headers);
 
@@ -203,21 +267,15 @@ public final class ClientStreamFactory implements StreamFactory
             final long connectRouteId = route.correlationId();
             final long acceptReplyId = supplyReplyId.applyAsLong(acceptId);
 
-            final HttpRouteExFW routeEx = route.extension().get(routeExRO::tryWrap);
-            if (routeEx != null)
-            {
-                final ArrayFW<HttpHeaderFW> overrides = routeEx.overrides();
-                if (!overrides.isEmpty())
-                {
-                    Map<String, String> headers0 = headers == EMPTY_HEADERS ? new LinkedHashMap<>() : headers;
-                    overrides.forEach(h -> headers0.put(h.name().asString(), h.value().asString()));
-                    headers = headers0;
-                }
-            }
+            final HttpRouteExFW routeEx = route.extension().get(wrapRouteEx);
+            final ArrayFW<HttpHeaderFW> overrides = routeEx != null ? routeEx.overrides() : null;
 
-            newStream = new ClientAcceptStream(this,
+            final ClientAcceptStream acceptStream = new ClientAcceptStream(this,
                     acceptReply, acceptRouteId, acceptAffinity, acceptId,
-                    acceptReplyId, connectRouteId, headers);
+                    acceptReplyId, connectRouteId);
+            acceptStream.encodeRequestHead(headers, overrides);
+
+            newStream = acceptStream;
         }
 
         return newStream;
@@ -235,27 +293,293 @@ public final class ClientStreamFactory implements StreamFactory
                 connectReplyId, connectAffinity)::handleStream;
     }
 
+    int encodeRequestHead(
+        Array32FW<HttpHeaderFW> headers,
+        ArrayFW<HttpHeaderFW> overrides,
+        MutableDirectBuffer buffer,
+        int limit)
+    {
+        encodeOverrides = overrides;
+        encodeBuffer = buffer;
+        encodeLimit = limit;
+        encodeProgress = 0;
+        encodePersistent = true;
+        encodeIdempotent = false;
+        encodeHead = false;
+
+        // request line and Host from the pseudo-headers, each copied before the next lookup reuses the item flyweight
+        final HttpHeaderFW method = supplyHeader(headers, HEADER_METHOD);
+        final boolean hasMethod = method != null;
+        if (hasMethod)
+        {
+            final DirectBuffer value = method.value().value();
+            encodePersistent &= !matchesIgnoreCase(value, POST_BYTES) && !matchesIgnoreCase(value, INSERT_BYTES);
+            encodeHead = matchesIgnoreCase(value, HEAD_BYTES);
+            for (int index = 0; !encodeIdempotent && index < IDEMPOTENT_METHODS_BYTES.length; index++)
+            {
+                encodeIdempotent = matchesIgnoreCase(value, IDEMPOTENT_METHODS_BYTES[index]);
+            }
+            encodeBytes(value, 0, value.capacity());
+        }
+        encodeByte(SPACE_BYTE);
+
+        final HttpHeaderFW path = supplyHeader(headers, HEADER_PATH);
+        final boolean hasPath = path != null;
+        if (hasPath)
+        {
+            final DirectBuffer value = path.value().value();
+            encodeBytes(value, 0, value.capacity());
+        }
+        encodeBytes(VERSION_BYTES);
+        encodeBytes(HOST_NAME_BYTES);
+
+        final boolean hasScheme = supplyHeader(headers, HEADER_SCHEME) != null;
+
+        final int authorityAt = encodeProgress;
+        final HttpHeaderFW authority = supplyHeader(headers, HEADER_AUTHORITY);
+        final HttpHeaderFW host = authority == null ? supplyHost(headers) : null;
+        final HttpHeaderFW authorityOrHost = authority != null ? authority : host;
+        final boolean hasAuthority = authorityOrHost != null;
+        if (hasAuthority)
+        {
+            final DirectBuffer value = authorityOrHost.value().value();
+            encodeBytes(value, 0, value.capacity());
+        }
+        final int authorityLimit = encodeProgress;
+        encodeBytes(CRLF_BYTES);
+
+        // Host must agree with :authority when both are present
+        final HttpHeaderFW hostHeader = authority != null ? supplyHost(headers) : null;
+        final boolean hostMatches = hostHeader == null ||
+                encodeProgress == -1 ||
+                matches(hostHeader.value().value(), buffer, authorityAt, authorityLimit);
+
+        headers.forEach(encodeHeader);
+        if (overrides != null)
+        {
+            overrides.forEach(encodeOverride);
+        }
+        encodeBytes(CRLF_BYTES);
+
+        encodeOverrides = null;
+        encodeBuffer = null;
+
+        final boolean valid = hasMethod && hasScheme && hasPath && hasAuthority && hostMatches;
+        return !valid ? REQUEST_HEAD_INVALID : encodeProgress == -1 ? REQUEST_HEAD_OVERFLOW : encodeProgress;
+    }
+
+    private HttpHeaderFW supplyHeader(
+        Array32FW<HttpHeaderFW> headers,
+        String8FW name)
+    {
+        matchName = name;
+        final HttpHeaderFW override = encodeOverrides != null ? encodeOverrides.matchFirst(namedHeader) : null;
+        return override != null ? override : headers.matchFirst(namedHeader);
+    }
+
+    private HttpHeaderFW supplyHost(
+        Array32FW<HttpHeaderFW> headers)
+    {
+        final HttpHeaderFW override = encodeOverrides != null
+                ? encodeOverrides.matchFirst(h -> matchesIgnoreCase(h.name().value(), HOST_BYTES))
+                : null;
+        return override != null ? override : headers.matchFirst(h -> matchesIgnoreCase(h.name().value(), HOST_BYTES));
+    }
+
+    private boolean namedHeader(
+        HttpHeaderFW header)
+    {
+        return matchName.equals(header.name());
+    }
+
+    private void encodeHeader(
+        HttpHeaderFW header)
+    {
+        // headers overridden by the route are encoded with the overrides
+        matchName = header.name();
+        if (encodeOverrides == null || encodeOverrides.matchFirst(namedHeader) == null)
+        {
+            encodeOverride(header);
+        }
+    }
+
+    private void encodeOverride(
+        HttpHeaderFW header)
+    {
+        final DirectBuffer name = header.name().value();
+        final int nameLength = name.capacity();
+
+        if (nameLength != 0 && name.getByte(0) != COLON_BYTE && !matchesIgnoreCase(name, HOST_BYTES))
+        {
+            final DirectBuffer value = header.value().value();
+
+            if (matchesIgnoreCase(name, CONNECTION_BYTES) && containsTokenIgnoreCase(value, CLOSE_BYTES))
+            {
+                encodePersistent = false;
+            }
+
+            final DirectBuffer wireName = headerNames.supplyName(name, 0, nameLength);
+            encodeBytes(wireName, 0, wireName.capacity());
+            encodeBytes(value, 0, value.capacity());
+            encodeBytes(CRLF_BYTES);
+        }
+    }
+
+    private void encodeBytes(
+        byte[] bytes)
+    {
+        if (encodeProgress != -1 && encodeProgress + bytes.length <= encodeLimit)
+        {
+            encodeBuffer.putBytes(encodeProgress, bytes);
+            encodeProgress += bytes.length;
+        }
+        else
+        {
+            encodeProgress = -1;
+        }
+    }
+
+    private void encodeBytes(
+        DirectBuffer buffer,
+        int offset,
+        int length)
+    {
+        if (encodeProgress != -1 && encodeProgress + length <= encodeLimit)
+        {
+            encodeBuffer.putBytes(encodeProgress, buffer, offset, length);
+            encodeProgress += length;
+        }
+        else
+        {
+            encodeProgress = -1;
+        }
+    }
+
+    private void encodeByte(
+        byte value)
+    {
+        if (encodeProgress != -1 && encodeProgress < encodeLimit)
+        {
+            encodeBuffer.putByte(encodeProgress, value);
+            encodeProgress++;
+        }
+        else
+        {
+            encodeProgress = -1;
+        }
+    }
+
     private RouteFW resolveTarget(
         long routeId,
         long authorization,
-        Map<String, String> headers)
+        Array32FW<HttpHeaderFW> headers)
+    {
+        resolveHeaders = headers;
+        headers.forEach(routeHeader);
+        final RouteFW route = routes.resolve(routeId, authorization, routeable, wrapRoute);
+        resolveHeaders = null;
+        return route;
+    }
+
+    private boolean routeable(
+        int msgTypeId,
+        DirectBuffer buffer,
+        int index,
+        int length)
+    {
+        final RouteFW route = wrapRoute.apply(msgTypeId, buffer, index, length);
+        final HttpRouteExFW routeEx = route.extension().get(wrapRouteEx);
+        return routeEx == null || !routeEx.headers().anyMatch(mismatchedHeader);
+    }
+
+    private boolean mismatchedHeader(
+        HttpHeaderFW routeHeader)
+    {
+        final String8FW name = routeHeader.name();
+        final String16FW routeValue = routeHeader.value();
+
+        matchName = name;
+        final HttpHeaderFW header = resolveHeaders.matchFirst(namedHeader);
+
+        return header == null ||
+               (HEADER_PATH.equals(name)
+                   ? !matchesPath(routeValue.value(), header.value().value())
+                   : !routeValue.equals(header.value()));
+    }
+
+    private static boolean matches(
+        DirectBuffer value,
+        DirectBuffer buffer,
+        int offset,
+        int limit)
     {
-        final MessagePredicate filter = (t, b, o, l) ->
+        boolean matches = value.capacity() == limit - offset;
+        for (int index = 0; matches && index < value.capacity(); index++)
         {
-            final RouteFW route = routeRO.wrap(b, o, o + l);
-            final OctetsFW extension = route.extension();
-            boolean headersMatch = true;
-            if (extension.sizeof() > 0)
+            matches = value.getByte(index) == buffer.getByte(offset + index);
+        }
+        return matches;
+    }
+
+    static boolean matchesIgnoreCase(
+        DirectBuffer value,
+        byte[] lowercase)
+    {
+        return matchesIgnoreCase(value, 0, value.capacity(), lowercase);
+    }
+
+    static boolean matchesIgnoreCase(
+        DirectBuffer value,
+        int offset,
+        int limit,
+        byte[] lowercase)
+    {
+        boolean matches = limit - offset == lowercase.length;
+        for (int index = 0; matches && index < lowercase.length; index++)
+        {
+            final byte b = value.getByte(offset + index);
+            matches = (b >= 'A' && b <= 'Z' ? b | 0x20 : b) == lowercase[index];
+        }
+        return matches;
+    }
+
+    static boolean containsTokenIgnoreCase(
+        DirectBuffer value,
+        byte[] token)
+    {
+        return containsTokenIgnoreCase(value, 0, value.capacity(), token);
+    }
+
+    static boolean containsTokenIgnoreCase(
+        DirectBuffer value,
+        int offset,
+        int limit,
+        byte[] token)
+    {
+        boolean found = false;
+        for (int progress = offset; !found && progress < limit; )
+        {
+            int tokenLimit = progress;
+            while (tokenLimit < limit && value.getByte(tokenLimit) != COMMA_BYTE)
             {
-                final HttpRouteExFW routeEx = extension.get(routeExRO::wrap);
-                headersMatch = !routeEx.headers().anyMatch(
-                    h -> !Objects.equals(h.value().asString(), headers.get(h.name().asString())));
+                tokenLimit++;
             }
-            return headersMatch;
-        };
 
-        return router.resolve(routeId, authorization, filter, (msgTypeId, buffer, index, length) ->
-            routeRO.wrap(buffer, index, index + length));
-    }
+            int tokenAt = progress;
+            while (tokenAt < tokenLimit && value.getByte(tokenAt) == SPACE_BYTE)
+            {
+                tokenAt++;
+            }
 
+            int tokenEnd = tokenLimit;
+            while (tokenEnd > tokenAt && value.getByte(tokenEnd - 1) == SPACE_BYTE)
+            {
+                tokenEnd--;
+            }
+
+            found = matchesIgnoreCase(value, tokenAt, tokenEnd, token);
+            progress = tokenLimit + 1;
+        }
+        return found;
+    }
 }
@@ -34,6 +34,7 @@ import org.reaktivity.nukleus.stream.StreamFactoryBuilder;
 public final class ClientStreamFactoryBuilder implements StreamFactoryBuilder
 {
     private final HttpConfiguration config;
+    private final LongSupplier supplyRoutesVersion;
 
     private RouteManager router;
     private MutableDirectBuffer writeBuffer;
@@ -47,9 +48,11 @@ public final class ClientStreamFactoryBuilder implements StreamFactoryBuilder
     private LongFunction<BudgetDebitor> supplyDebitor;
 
     public ClientStreamFactoryBuilder(
-        HttpConfiguration config)
+        HttpConfiguration config,
+        LongSupplier supplyRoutesVersion)
     {
         this.config = config;
+        this.supplyRoutesVersion = supplyRoutesVersion;
     }
 
     @Override
@@ -140,6 +143,7 @@ public final class ClientStreamFactoryBuilder implements StreamFactoryBuilder
         return new ClientStreamFactory(
                 config,
                 router,
+                supplyRoutesVersion,
                 writeBuffer,
                 bufferPool,
                 supplyInitialId,
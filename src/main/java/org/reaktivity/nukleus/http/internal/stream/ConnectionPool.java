@@ -35,6 +35,7 @@ final class ConnectionPool
         END, ABORT
     }
     private final Deque<Connection> availableConnections;
+    private final Deque<Connection> pipelineConnections;
     private final long connectRouteId;
     private final ClientStreamFactory factory;
     private final Queue<ConnectionRequest> queuedRequests;
@@ -51,6 +52,7 @@ final class ConnectionPool
         this.connectRouteId = connectRouteId;
         this.connectAffinity = connectAffinity;
         this.availableConnections = new ArrayDeque<>(factory.maximumConnectionsPerRoute);
+        this.pipelineConnections = new ArrayDeque<>(factory.maximumConnectionsPerRoute);
         this.queuedRequests = new ArrayDeque<>(factory.maximumQueuedRequestsPerRoute);
     }
 
@@ -64,10 +66,13 @@ final class ConnectionPool
         {
             connection = newConnection();
         }
+        if (connection == null && request.idempotent())
+        {
+            connection = pipelineConnections.poll();
+        }
         if (connection != null)
         {
-            connection.noRequests++;
-            request.getConsumer().accept(connection);
+            assign(connection, request);
         }
         else if (queuedRequests.size() < factory.maximumQueuedRequestsPerRoute)
         {
@@ -91,17 +96,29 @@ final class ConnectionPool
             {
                 connection = newConnection();
             }
+            if (connection == null && queuedRequests.peek().idempotent())
+            {
+                connection = pipelineConnections.poll();
+            }
 
             if (connection != null)
             {
                 ConnectionRequest nextRequest = queuedRequests.poll();
                 factory.dequeues.getAsLong();
-                nextRequest.getConsumer().accept(connection);
-                connection.noRequests++;
+                assign(connection, nextRequest);
             }
         }
     }
 
+    private void assign(Connection connection, ConnectionRequest request)
+    {
+        connection.noRequests++;
+        connection.pendingRequests++;
+        connection.writing = true;
+        connection.idempotent &= request.idempotent();
+        request.getConsumer().accept(connection);
+    }
+
     void cancel(ConnectionRequest request)
     {
         queuedRequests.remove(request);
@@ -153,8 +170,14 @@ final class ConnectionPool
         }
         if (connection.persistent)
         {
-            setDefaultThrottle(connection);
-            availableConnections.add(connection);
+            // response complete, the next pipelined request (if any) now awaits its response
+            connection.pendingRequests--;
+            final ConnectionRequest pipelined = connection.pipelined.poll();
+            if (pipelined != null)
+            {
+                pipelined.correlate();
+            }
+            recycle(connection);
         }
         else
         {
@@ -183,12 +206,51 @@ final class ConnectionPool
                 }
                 connection.endOrAbortSent = true;
             }
+
+            pipelineConnections.removeFirstOccurrence(connection);
+
+            // requests written behind the failed one have not been answered, so retry them on another connection
+            for (ConnectionRequest pipelined = connection.pipelined.poll();
+                 pipelined != null;
+                 pipelined = connection.pipelined.poll())
+            {
+                pipelined.retry(factory.supplyTraceId);
+            }
         }
 
         acquireNextIfQueued();
     }
 
-    void setDefaultThrottle(Connection connection)
+    void written(Connection connection)
+    {
+        connection.writing = false;
+        recycle(connection);
+        acquireNextIfQueued();
+    }
+
+    private void recycle(Connection connection)
+    {
+        if (!connection.writing)
+        {
+            setDefaultThrottle(connection);
+
+            if (connection.persistent && connection.pendingRequests == 0)
+            {
+                connection.idempotent = true;
+                pipelineConnections.removeFirstOccurrence(connection);
+                availableConnections.add(connection);
+            }
+            else if (connection.persistent &&
+                     connection.idempotent &&
+                     connection.pendingRequests < factory.maximumPipelinedRequests &&
+                     !pipelineConnections.contains(connection))
+            {
+                pipelineConnections.add(connection);
+            }
+        }
+    }
+
+    private void setDefaultThrottle(Connection connection)
     {
         factory.router.setThrottle(connection.connectInitialId, connection::handleThrottleDefault);
     }
@@ -196,6 +258,12 @@ final class ConnectionPool
     public interface ConnectionRequest
     {
         Consumer<Connection> getConsumer();
+
+        boolean idempotent();
+
+        void correlate();
+
+        void retry(long traceId);
     }
 
     class Connection
@@ -213,6 +281,11 @@ final class ConnectionPool
 
         int noRequests;
 
+        final Deque<ConnectionRequest> pipelined = new ArrayDeque<>();
+        int pendingRequests;
+        private boolean writing;
+        private boolean idempotent = true;
+
         Connection(
             long connectInitialId,
             long connectReplyId)
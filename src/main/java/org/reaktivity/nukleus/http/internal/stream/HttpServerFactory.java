@@ -15,30 +15,30 @@
  */
 package org.reaktivity.nukleus.http.internal.stream;
 
-import static java.lang.Character.toLowerCase;
-import static java.lang.Character.toUpperCase;
-import static java.lang.Integer.parseInt;
 import static java.nio.charset.StandardCharsets.US_ASCII;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Arrays.asList;
+import static java.util.Arrays.copyOf;
+import static java.util.Arrays.fill;
+import static java.util.Arrays.stream;
 import static java.util.Objects.requireNonNull;
 import static org.reaktivity.nukleus.buffer.BufferPool.NO_SLOT;
 import static org.reaktivity.nukleus.http.internal.util.BufferUtil.indexOfByte;
 import static org.reaktivity.nukleus.http.internal.util.BufferUtil.limitOfBytes;
+import static org.reaktivity.nukleus.http.internal.util.BufferUtil.matchesIgnoreCase;
+import static org.reaktivity.nukleus.http.internal.util.HttpRouteIndex.matchesPath;
 
-import java.net.URI;
+import java.util.Base64;
 import java.util.HashMap;
-import java.util.HashSet;
-import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.Set;
-import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+import java.util.function.LongSupplier;
 import java.util.function.LongUnaryOperator;
+import java.util.function.Predicate;
 import java.util.function.ToIntFunction;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
-import org.agrona.AsciiSequenceView;
 import org.agrona.DirectBuffer;
 import org.agrona.MutableDirectBuffer;
 import org.agrona.collections.Long2ObjectHashMap;
@@ -46,11 +46,13 @@ import org.agrona.collections.MutableBoolean;
 import org.agrona.collections.MutableInteger;
 import org.agrona.concurrent.UnsafeBuffer;
 import org.reaktivity.nukleus.buffer.BufferPool;
+import org.reaktivity.nukleus.concurrent.Signaler;
 import org.reaktivity.nukleus.function.MessageConsumer;
 import org.reaktivity.nukleus.function.MessageFunction;
 import org.reaktivity.nukleus.function.MessagePredicate;
 import org.reaktivity.nukleus.http.internal.HttpConfiguration;
 import org.reaktivity.nukleus.http.internal.HttpNukleus;
+import org.reaktivity.nukleus.http.internal.HttpServerCounters;
 import org.reaktivity.nukleus.http.internal.types.Array32FW;
 import org.reaktivity.nukleus.http.internal.types.Flyweight;
 import org.reaktivity.nukleus.http.internal.types.HttpHeaderFW;
@@ -66,33 +68,75 @@ import org.reaktivity.nukleus.http.internal.types.stream.EndFW;
 import org.reaktivity.nukleus.http.internal.types.stream.HttpBeginExFW;
 import org.reaktivity.nukleus.http.internal.types.stream.HttpEndExFW;
 import org.reaktivity.nukleus.http.internal.types.stream.ResetFW;
+import org.reaktivity.nukleus.http.internal.types.stream.SignalFW;
 import org.reaktivity.nukleus.http.internal.types.stream.WindowFW;
+import org.reaktivity.nukleus.http.internal.util.HttpDateHeader;
+import org.reaktivity.nukleus.http.internal.util.HttpGzipEncoder;
+import org.reaktivity.nukleus.http.internal.util.HttpHeaderNameCache;
+import org.reaktivity.nukleus.http.internal.util.HttpLatencyHistograms;
+import org.reaktivity.nukleus.http.internal.util.HttpRequestCoalescer;
+import org.reaktivity.nukleus.http.internal.util.HttpResponseCache;
+import org.reaktivity.nukleus.http.internal.util.HttpRouteIndex;
+import org.reaktivity.nukleus.http.internal.util.HttpSlotChain;
+import org.reaktivity.nukleus.http.internal.util.HttpValidatorStore;
+import org.reaktivity.nukleus.http2.internal.stream.Http2ServerFactory;
+import org.reaktivity.nukleus.http2.internal.types.Http2PrefaceFW;
 import org.reaktivity.nukleus.route.RouteManager;
 import org.reaktivity.nukleus.stream.StreamFactory;
 
 public final class HttpServerFactory implements StreamFactory
 {
-    private static final Pattern REQUEST_LINE_PATTERN =
-            Pattern.compile("(?<method>[A-Z]+)\\s+(?<target>[^\\s]+)\\s+(?<version>HTTP/\\d\\.\\d)\r\n");
-    private static final Pattern VERSION_PATTERN = Pattern.compile("HTTP/1\\.\\d");
-    private static final Pattern HEADER_LINE_PATTERN = Pattern.compile("(?<name>[^\\s:]+):\\s*(?<value>[^\r\n]*)\r\n");
-    private static final Pattern CONNECTION_CLOSE_PATTERN = Pattern.compile("(^|\\s*,\\s*)close(\\s*,\\s*|$)");
-
-    private static final byte[] COLON_SPACE_BYTES = ": ".getBytes(US_ASCII);
     private static final byte[] CRLFCRLF_BYTES = "\r\n\r\n".getBytes(US_ASCII);
     private static final byte[] CRLF_BYTES = "\r\n".getBytes(US_ASCII);
-    private static final byte[] SEMICOLON_BYTES = ";".getBytes(US_ASCII);
 
+    private static final byte[] HTTP_SLASH_BYTES = "HTTP/".getBytes(US_ASCII);
+    private static final byte[] SCHEME_SEPARATOR_BYTES = "://".getBytes(US_ASCII);
+    private static final byte[] CONNECTION_CLOSE_BYTES = "close".getBytes(US_ASCII);
+    private static final byte[] TRANSFER_ENCODING_CHUNKED_BYTES = "chunked".getBytes(US_ASCII);
+    private static final byte[] EXPECT_CONTINUE_BYTES = "100-continue".getBytes(US_ASCII);
+    private static final byte[] UPGRADE_H2C_BYTES = "h2c".getBytes(US_ASCII);
+
+    private static final byte AT_BYTE = '@';
     private static final byte COLON_BYTE = ':';
-    private static final byte HYPHEN_BYTE = '-';
+    private static final byte COMMA_BYTE = ',';
+    private static final byte CR_BYTE = '\r';
+    private static final byte DELETE_BYTE = 0x7f;
+    private static final byte DOT_BYTE = '.';
+    private static final byte HASH_BYTE = '#';
+    private static final byte HTAB_BYTE = '\t';
+    private static final byte LF_BYTE = '\n';
+    private static final byte QUESTION_MARK_BYTE = '?';
+    private static final byte SEMICOLON_BYTE = ';';
+    private static final byte SLASH_BYTE = '/';
     private static final byte SPACE_BYTE = ' ';
     private static final byte ZERO_BYTE = '0';
 
+    private static final int HTTP_VERSION_LENGTH = "HTTP/1.1".length();
+    private static final int HTTP_VERSION_MAJOR_OFFSET = "HTTP/".length();
+    private static final int MAXIMUM_HEADER_NAME_LENGTH = 254;
+
     private static final byte[] HTTP_1_1_BYTES = "HTTP/1.1".getBytes(US_ASCII);
-    private static final byte[] REASON_OK_BYTES = "OK".getBytes(US_ASCII);
-    private static final byte[] REASON_SWITCHING_PROTOCOLS_BYTES = "Switching Protocols".getBytes(US_ASCII);
+    private static final byte[] HEX_DIGIT_BYTES = "0123456789abcdef".getBytes(US_ASCII);
+
+    private static final int MAXIMUM_CHUNK_SIZE_DIGITS = Integer.SIZE >> 2;
+    private static final int MAXIMUM_CHUNK_PADDING = MAXIMUM_CHUNK_SIZE_DIGITS + CRLF_BYTES.length + CRLF_BYTES.length;
+    private static final int GZIP_CHUNK_OFFSET = MAXIMUM_CHUNK_SIZE_DIGITS + CRLF_BYTES.length;
+
+    private static final int WRITE_COMBINING_SIGNAL = 1;
+
+    private static final int UPGRADE_SETTING_SIZE = Short.BYTES + Integer.BYTES;
+
+    private static final int STATUS_CODE_LENGTH = 3;
+    private static final int MAXIMUM_STATUS_CODE = 999;
+    private static final byte[][] STATUS_LINES = initStatusLines();
 
     private static final DirectBuffer ZERO_CHUNK = new UnsafeBuffer("0\r\n\r\n".getBytes(US_ASCII));
+    private static final DirectBuffer CHUNK_SUFFIX = new UnsafeBuffer(CRLF_BYTES);
+    private static final DirectBuffer RESPONSE_100_CONTINUE =
+            new UnsafeBuffer("HTTP/1.1 100 Continue\r\n\r\n".getBytes(US_ASCII));
+    private static final DirectBuffer RESPONSE_101_SWITCHING_PROTOCOLS_H2C =
+            new UnsafeBuffer("HTTP/1.1 101 Switching Protocols\r\nConnection: Upgrade\r\nUpgrade: h2c\r\n\r\n"
+                    .getBytes(US_ASCII));
 
     private static final DirectBuffer ERROR_400_BAD_REQUEST =
             initResponse(400, "Bad Request");
@@ -100,8 +144,12 @@ public final class HttpServerFactory implements StreamFactory
             initResponse(400, "Bad Request - obsolete line folding not supported");
     private static final DirectBuffer ERROR_404_NOT_FOUND =
             initResponse(404, "Not Found");
+    private static final DirectBuffer ERROR_413_PAYLOAD_TOO_LARGE =
+            initResponse(413, "Payload Too Large");
     private static final DirectBuffer ERROR_414_REQUEST_URI_TOO_LONG =
             initResponse(414, "Request URI Too Long");
+    private static final DirectBuffer ERROR_417_EXPECTATION_FAILED =
+            initResponse(417, "Expectation Failed");
     private static final DirectBuffer ERROR_431_HEADERS_TOO_LARGE =
             initResponse(431, "Request Header Fields Too Large");
     private static final DirectBuffer ERROR_501_UNSUPPORTED_TRANSFER_ENCODING =
@@ -113,22 +161,34 @@ public final class HttpServerFactory implements StreamFactory
     private static final DirectBuffer ERROR_507_INSUFFICIENT_STORAGE =
             initResponse(507, "Insufficient Storage");
 
+    private static final String8FW HEADER_ACCEPT_ENCODING = new String8FW("accept-encoding");
     private static final String8FW HEADER_AUTHORITY = new String8FW(":authority");
     private static final String8FW HEADER_CONNECTION = new String8FW("connection");
+    private static final String8FW HEADER_CONTENT_ENCODING = new String8FW("content-encoding");
     private static final String8FW HEADER_CONTENT_LENGTH = new String8FW("content-length");
+    private static final String8FW HEADER_DATE = new String8FW("date");
+    private static final String8FW HEADER_EXPECT = new String8FW("expect");
+    private static final String8FW HEADER_HOST = new String8FW("host");
+    private static final String8FW HEADER_HTTP2_SETTINGS = new String8FW("http2-settings");
     private static final String8FW HEADER_METHOD = new String8FW(":method");
     private static final String8FW HEADER_PATH = new String8FW(":path");
     private static final String8FW HEADER_SCHEME = new String8FW(":scheme");
+    private static final String8FW HEADER_SERVER = new String8FW("server");
     private static final String8FW HEADER_STATUS = new String8FW(":status");
     private static final String8FW HEADER_TRANSFER_ENCODING = new String8FW("transfer-encoding");
     private static final String8FW HEADER_UPGRADE = new String8FW("upgrade");
+    private static final String8FW HEADER_VARY = new String8FW("vary");
+    private static final String8FW HEADER_ETAG = new String8FW("etag");
 
     private static final String16FW CONNECTION_CLOSE = new String16FW("close");
+    private static final String16FW CONTENT_ENCODING_GZIP = new String16FW("gzip");
+    private static final String16FW CONTENT_LENGTH_ZERO = new String16FW("0");
+    private static final String16FW METHOD_HEAD = new String16FW("HEAD");
     private static final String16FW SCHEME_HTTP = new String16FW("http");
     private static final String16FW SCHEME_HTTPS = new String16FW("https");
-    private static final String16FW STATUS_101 = new String16FW("101");
     private static final String16FW STATUS_200 = new String16FW("200");
     private static final String16FW TRANSFER_ENCODING_CHUNKED = new String16FW("chunked");
+    private static final String16FW VARY_ACCEPT_ENCODING = new String16FW("accept-encoding");
 
     private static final OctetsFW EMPTY_OCTETS = new OctetsFW().wrap(new UnsafeBuffer(new byte[0]), 0, 0);
     private static final Array32FW<HttpHeaderFW> DEFAULT_HEADERS =
@@ -144,17 +204,17 @@ public final class HttpServerFactory implements StreamFactory
 
     private static final Map<String16FW, String> SCHEME_PORTS;
 
-    private static final Set<String> SUPPORTED_METHODS =
-            new HashSet<>(asList("GET",
-                                 "HEAD",
-                                 "POST",
-                                 "PUT",
-                                 "DELETE",
-                                 "CONNECT",
-                                 "OPTIONS",
-                                 "TRACE"));
+    private static final byte[][] SUPPORTED_METHODS =
+            asList("GET",
+                   "HEAD",
+                   "POST",
+                   "PUT",
+                   "DELETE",
+                   "CONNECT",
+                   "OPTIONS",
+                   "TRACE").stream().map(m -> m.getBytes(US_ASCII)).toArray(byte[][]::new);
 
-    private static final int MAXIMUM_METHOD_LENGTH = SUPPORTED_METHODS.stream().mapToInt(String::length).max().getAsInt();
+    private static final int MAXIMUM_METHOD_LENGTH = stream(SUPPORTED_METHODS).mapToInt(m -> m.length).max().getAsInt();
 
     static
     {
@@ -177,6 +237,7 @@ public final class HttpServerFactory implements StreamFactory
 
     private final WindowFW windowRO = new WindowFW();
     private final ResetFW resetRO = new ResetFW();
+    private final SignalFW signalRO = new SignalFW();
 
     private final BeginFW.Builder beginRW = new BeginFW.Builder();
     private final DataFW.Builder dataRW = new DataFW.Builder();
@@ -185,6 +246,7 @@ public final class HttpServerFactory implements StreamFactory
 
     private final HttpBeginExFW.Builder beginExRW = new HttpBeginExFW.Builder();
     private final HttpBeginExFW.Builder newBeginExRW = new HttpBeginExFW.Builder();
+    private final HttpBeginExFW.Builder upgradeBeginExRW = new HttpBeginExFW.Builder();
     private final HttpEndExFW.Builder endExRW = new HttpEndExFW.Builder();
 
     private final WindowFW.Builder windowRW = new WindowFW.Builder();
@@ -198,36 +260,99 @@ public final class HttpServerFactory implements StreamFactory
     private final HttpServerDecoder decodeContent = this::decodeContent;
     private final HttpServerDecoder decodeTrailers = this::decodeTrailers;
     private final HttpServerDecoder decodeEmptyLines = this::decodeEmptyLines;
+    private final HttpServerDecoder decodePreface = this::decodePreface;
     private final HttpServerDecoder decodeUpgraded = this::decodeUpgraded;
+    private final HttpServerDecoder decodeUpgradedH2c = this::decodeUpgradedH2c;
     private final HttpServerDecoder decodeIgnore = this::decodeIgnore;
 
     private final MessageFunction<RouteFW> wrapRoute = (t, b, i, l) -> routeRO.wrap(b, i, i + l);
 
+    private final Flyweight.Visitor<HttpRouteExFW> wrapRouteEx = routeExRO::tryWrap;
+    private final MessagePredicate routeable = this::routeable;
+    private final Consumer<HttpHeaderFW.Builder> decodedHeader = this::decodedHeader;
+    private final Consumer<OctetsFW.Builder> encodedChunk = this::encodedChunk;
+    private final Consumer<HttpHeaderFW> collectOverride = this::collectOverride;
+    private final Consumer<HttpHeaderFW> mergeHeader = this::mergeHeader;
+    private final Consumer<HttpHeaderFW.Builder> encodeMergedHeader = this::encodeMergedHeader;
+    private final Consumer<HttpHeaderFW> upgradeHeader = this::upgradeHeader;
+    private final Predicate<HttpHeaderFW> unmatchedRouteHeader = this::unmatchedRouteHeader;
+    private final Predicate<HttpHeaderFW> matchedBeginHeader = this::matchedBeginHeader;
+
     private final MutableInteger codecOffset = new MutableInteger();
     private final MutableBoolean hasAuthority = new MutableBoolean();
 
+    private final String8FW headerNameRO = new String8FW();
+    private final HttpHeaderFW headerRO = new HttpHeaderFW();
+    private final HttpHeaderFW overrideRO = new HttpHeaderFW();
+    private final UnsafeBuffer upgradeSettingsRO = new UnsafeBuffer(0L, 0);
+    private final MutableDirectBuffer headerNameBuffer = new UnsafeBuffer(new byte[1 + MAXIMUM_HEADER_NAME_LENGTH]);
+
+    private String8FW decodedName;
+    private DirectBuffer decodedValue;
+    private int decodedValueOffset;
+    private int decodedValueLength;
+    private Array32FW<HttpHeaderFW> decodedHeaders;
+    private Array32FW<HttpHeaderFW> matchBeginHeaders;
+    private HttpHeaderFW matchRouteHeader;
+    private String matchSchemePort;
+    private int encodedChunkPrefixLimit;
+    private OctetsFW encodedChunkPayload;
+    private DirectBuffer overrideBuffer;
+    private int overrideLimit;
+    private int[] overrideAts = new int[8];
+    private boolean[] overridden = new boolean[8];
+    private int overrideCount;
+    private HttpHeaderFW mergedHeader;
+    private HttpBeginExFW.Builder mergedBeginEx;
+    private HttpBeginExFW.Builder upgradeBeginEx;
+
     private final RouteManager router;
     private final MutableDirectBuffer writeBuffer;
     private final MutableDirectBuffer codecBuffer;
+    private final MutableDirectBuffer headersBuffer;
     private final BufferPool bufferPool;
     private final LongUnaryOperator supplyInitialId;
     private final LongUnaryOperator supplyReplyId;
     private final int httpTypeId;
     private final Long2ObjectHashMap<HttpServer.HttpExchange> correlations;
-    private final Matcher requestLine;
-    private final Matcher versionPart;
-    private final Matcher headerLine;
-    private final Matcher connectionClose;
     private final int maximumHeadersSize;
+    private final int maximumEncodeHeadersSize;
+    private final int maximumRequestBodySize;
+    private final int maximumPipelinedRequests;
+    private final boolean writeCombining;
+    private final int writeCombiningThreshold;
+    private final Signaler signaler;
+    private final HttpServerCounters counters;
+    private final HttpLatencyHistograms latencies;
+    private final HttpHeaderNameCache headerNames;
+    private final HttpRouteIndex routes;
+    private final Consumer<HttpHeaderFW> routeHeader;
+    private final HttpGzipEncoder gzip;
+    private final String16FW serverHeader;
+    private final HttpDateHeader dateHeader;
+    private final HttpResponseCache cache;
+    private final HttpRequestCoalescer coalescer;
+    private final HttpValidatorStore validators;
+    private final Http2ServerFactory h2c;
+    private final boolean upgradeH2c;
+    private final boolean detectH2c;
 
     public HttpServerFactory(
         HttpConfiguration config,
         RouteManager router,
+        LongSupplier supplyRoutesVersion,
         MutableDirectBuffer writeBuffer,
         BufferPool bufferPool,
         LongUnaryOperator supplyInitialId,
         LongUnaryOperator supplyReplyId,
-        ToIntFunction<String> supplyTypeId)
+        ToIntFunction<String> supplyTypeId,
+        Function<String, LongSupplier> supplyCounter,
+        Function<String, LongConsumer> supplyAccumulator,
+        Signaler signaler,
+        HttpResponseCache cache,
+        HttpRequestCoalescer coalescer,
+        HttpValidatorStore validators,
+        Http2ServerFactory h2c)
     {
         this.router = requireNonNull(router);
         this.writeBuffer = requireNonNull(writeBuffer);
@@ -237,11 +362,33 @@ public final class HttpServerFactory implements StreamFactory
         this.supplyReplyId = requireNonNull(supplyReplyId);
         this.httpTypeId = supplyTypeId.applyAsInt(HttpNukleus.NAME);
         this.correlations = new Long2ObjectHashMap<>();
-        this.requestLine = REQUEST_LINE_PATTERN.matcher("");
-        this.headerLine = HEADER_LINE_PATTERN.matcher("");
-        this.versionPart = VERSION_PATTERN.matcher("");
-        this.connectionClose = CONNECTION_CLOSE_PATTERN.matcher("");
-        this.maximumHeadersSize = bufferPool.slotCapacity();
+        this.maximumHeadersSize = Math.max(config.maximumHeadersSize(), bufferPool.slotCapacity());
+        this.maximumEncodeHeadersSize = bufferPool.slotCapacity();
+        this.headersBuffer = maximumHeadersSize > bufferPool.slotCapacity()
+                ? new UnsafeBuffer(new byte[maximumHeadersSize])
+                : null;
+        this.maximumPipelinedRequests = config.serverMaximumPipelinedRequests();
+        this.maximumRequestBodySize = config.serverMaximumRequestBodySize();
+        this.writeCombining = config.serverWriteCombining() && signaler != null;
+        this.writeCombiningThreshold = Math.min(config.serverWriteCombiningThreshold(), maximumEncodeHeadersSize);
+        this.signaler = signaler;
+        this.counters = new HttpServerCounters(supplyCounter, supplyAccumulator);
+        this.latencies = config.serverLatencyHistograms() ? new HttpLatencyHistograms("http.server", supplyCounter) : null;
+        this.headerNames = new HttpHeaderNameCache(config.headerNameCacheSize(), config.headerNamesLowercase());
+        this.routes = new HttpRouteIndex(HttpNukleus.NAME, router, supplyRoutesVersion, false,
+                SCHEME_PORTS.values().stream().map(p -> ":" + p).toArray(String[]::new));
+        this.routeHeader = routes::header;
+        this.gzip = config.serverCompression()
+                ? new HttpGzipEncoder(config.serverCompressionLevel(), writeBuffer.capacity())
+                : null;
+        this.serverHeader = config.serverHeader() != null ? new String16FW(config.serverHeader()) : null;
+        this.dateHeader = config.serverDateHeader() ? new HttpDateHeader(System::currentTimeMillis) : null;
+        this.cache = cache;
+        this.coalescer = coalescer;
+        this.validators = validators;
+        this.h2c = h2c;
+        this.upgradeH2c = h2c != null && config.serverUpgradeH2c();
+        this.detectH2c = h2c != null && config.serverDetectH2c();
     }
 
     @Override
@@ -306,10 +453,42 @@ public final class HttpServerFactory implements StreamFactory
         {
             newStream = exchange::onResponse;
         }
+        else if (h2c != null)
+        {
+            newStream = h2c.newStream(BeginFW.TYPE_ID, begin.buffer(), begin.offset(), begin.sizeof(), application);
+        }
 
         return newStream;
     }
 
+    private int acquireSlot(
+        long streamId,
+        LongConsumer slots)
+    {
+        final int slot = bufferPool.acquire(streamId);
+        if (slot != NO_SLOT)
+        {
+            slots.accept(1L);
+        }
+        return slot;
+    }
+
+    private void releaseSlot(
+        int slot,
+        LongConsumer slots)
+    {
+        bufferPool.release(slot);
+        slots.accept(-1L);
+    }
+
+    private void countError(
+        DirectBuffer error)
+    {
+        final int statusAt = HTTP_1_1_BYTES.length + 1;
+        final int status = parseDecimal(error, statusAt, statusAt + STATUS_CODE_LENGTH);
+        counters.errors(status).getAsLong();
+    }
+
     private void doBegin(
         MessageConsumer receiver,
         long routeId,
@@ -358,6 +537,31 @@ public final class HttpServerFactory implements StreamFactory
         receiver.accept(data.typeId(), data.buffer(), data.offset(), data.sizeof());
     }
 
+    private void doData(
+        MessageConsumer receiver,
+        long routeId,
+        long streamId,
+        long traceId,
+        long authorization,
+        long budgetId,
+        int reserved,
+        Consumer<OctetsFW.Builder> payload,
+        Flyweight extension)
+    {
+        final DataFW data = dataRW.wrap(writeBuffer, 0, writeBuffer.capacity())
+                                  .routeId(routeId)
+                                  .streamId(streamId)
+                                  .traceId(traceId)
+                                  .authorization(authorization)
+                                  .budgetId(budgetId)
+                                  .reserved(reserved)
+                                  .payload(payload)
+                                  .extension(extension.buffer(), extension.offset(), extension.sizeof())
+                                  .build();
+
+        receiver.accept(data.typeId(), data.buffer(), data.offset(), data.sizeof());
+    }
+
     private void doEnd(
         MessageConsumer receiver,
         long routeId,
@@ -451,12 +655,24 @@ public final class HttpServerFactory implements StreamFactory
 
         DirectBuffer error = null;
 
-        final int endOfStartAt = limitOfBytes(buffer, offset, limit, CRLF_BYTES);
-        if (endOfStartAt != -1)
+        final boolean startLineScanned = server.decodableStartLineLimit != 0;
+        final int endOfHeadersAt = scanHeaders(server, buffer, offset, limit);
+        final int endOfStartAt = startLineScanned || server.decodableStartLineLimit != 0 ?
+                offset + server.decodableStartLineLimit : -1;
+
+        if (endOfHeadersAt != -1)
         {
             hasAuthority.value = false;
             error = decodeStartLine(buffer, offset, endOfStartAt, httpBeginEx, hasAuthority);
         }
+        else if (endOfStartAt != -1)
+        {
+            if (!startLineScanned)
+            {
+                hasAuthority.value = false;
+                error = decodeStartLine(buffer, offset, endOfStartAt, httpBeginEx, hasAuthority);
+            }
+        }
         else if (limit - offset >= maximumHeadersSize)
         {
             error = ERROR_414_REQUEST_URI_TOO_LONG;
@@ -467,8 +683,7 @@ public final class HttpServerFactory implements StreamFactory
             final int endOfMethodAt = indexOfByte(buffer, offset, endOfMethodLimit, SPACE_BYTE);
             if (endOfMethodAt != -1)
             {
-                final CharSequence method = new AsciiSequenceView(buffer, offset, endOfMethodAt - offset);
-                if (!SUPPORTED_METHODS.contains(method))
+                if (!isSupportedMethod(buffer, offset, endOfMethodAt))
                 {
                     error = ERROR_501_METHOD_NOT_IMPLEMENTED;
                 }
@@ -479,10 +694,12 @@ public final class HttpServerFactory implements StreamFactory
             }
         }
 
-        final int endOfHeadersAt = limitOfBytes(buffer, offset, limit, CRLFCRLF_BYTES);
         if (error == null && endOfHeadersAt != -1)
         {
             server.decoder = decodeHeadersOnly;
+            server.decodableExpectContinue = false;
+            server.decodableUpgradeH2c = false;
+            server.decodableUpgradeSettings = false;
 
             final int endOfHeaderLinesAt = endOfHeadersAt - CRLF_BYTES.length;
             int startOfLineAt = endOfStartAt;
@@ -503,24 +720,7 @@ public final class HttpServerFactory implements StreamFactory
             if (error == null)
             {
                 final HttpBeginExFW beginEx = httpBeginEx.build();
-                final MessagePredicate routeable = (t, b, o, l) ->
-                {
-                    final RouteFW route = wrapRoute.apply(t, b, o, l);
-                    final HttpRouteExFW routeEx = route.extension().get(routeExRO::tryWrap);
-                    return routeEx == null || matchHeaders(routeEx.headers(), beginEx.headers());
-                };
-
-                final RouteFW route = router.resolve(server.routeId, authorization, routeable, wrapRoute);
-                if (route != null)
-                {
-                    final long newRouteId = route.correlationId();
-                    final HttpBeginExFW newBeginEx = updateHeaders(route, beginEx);
-                    server.onDecodeHeaders(newRouteId, traceId, authorization, newBeginEx);
-                }
-                else
-                {
-                    error = ERROR_404_NOT_FOUND;
-                }
+                error = decodeRoute(server, traceId, authorization, beginEx, buffer, endOfHeadersAt, limit);
             }
         }
         else if (error == null && limit - offset >= maximumHeadersSize)
@@ -528,13 +728,112 @@ public final class HttpServerFactory implements StreamFactory
             error = ERROR_414_REQUEST_URI_TOO_LONG;
         }
 
+        if (error != null || endOfHeadersAt != -1)
+        {
+            server.decodableStartLineLimit = 0;
+            server.decodableHeaderLineAt = 0;
+            server.decodableHeadersScanned = 0;
+        }
+
         if (error != null)
         {
             server.onDecodeHeadersError(traceId, authorization, error);
             server.decoder = decodeIgnore;
         }
 
-        return error == null && endOfHeadersAt != -1 ? endOfHeadersAt : offset;
+        int progress = offset;
+        if (error == null && endOfHeadersAt != -1)
+        {
+            progress = server.decoder == decodeUpgradedH2c ? limit : endOfHeadersAt;
+        }
+
+        return progress;
+    }
+
+    private DirectBuffer decodeRoute(
+        HttpServer server,
+        long traceId,
+        long authorization,
+        HttpBeginExFW beginEx,
+        DirectBuffer buffer,
+        int offset,
+        int limit)
+    {
+        DirectBuffer error = null;
+
+        decodedHeaders = beginEx.headers();
+        decodedHeaders.forEach(routeHeader);
+
+        final RouteFW route = routes.resolve(server.routeId, authorization, routeable, wrapRoute);
+        if (route != null)
+        {
+            final long newRouteId = route.correlationId();
+            final HttpBeginExFW newBeginEx = updateHeaders(route, beginEx);
+            if (server.decodableUpgradeH2c && server.decodableUpgradeSettings && server.upgradeableH2c())
+            {
+                final HttpBeginExFW upgradeBeginEx = upgradeHeaders(newBeginEx);
+                server.onDecodeUpgradeH2c(newRouteId, traceId, authorization, upgradeBeginEx, buffer, offset, limit);
+            }
+            else
+            {
+                server.onDecodeHeaders(newRouteId, traceId, authorization, newBeginEx);
+            }
+        }
+        else
+        {
+            error = ERROR_404_NOT_FOUND;
+        }
+
+        return error;
+    }
+
+    private int scanHeaders(
+        HttpServer server,
+        DirectBuffer buffer,
+        int offset,
+        int limit)
+    {
+        int endOfHeadersAt = -1;
+
+        int startOfLineAt = offset + server.decodableHeaderLineAt;
+        int scanAt = Math.max(startOfLineAt, offset + server.decodableHeadersScanned - CRLF_BYTES.length + 1);
+
+        while (endOfHeadersAt == -1)
+        {
+            final int endOfLineAt = limitOfBytes(buffer, scanAt, limit, CRLF_BYTES);
+            if (endOfLineAt == -1)
+            {
+                break;
+            }
+
+            if (server.decodableStartLineLimit == 0)
+            {
+                server.decodableStartLineLimit = endOfLineAt - offset;
+            }
+            else if (endOfLineAt - startOfLineAt == CRLF_BYTES.length)
+            {
+                endOfHeadersAt = endOfLineAt;
+            }
+
+            startOfLineAt = endOfLineAt;
+            scanAt = endOfLineAt;
+        }
+
+        server.decodableHeaderLineAt = startOfLineAt - offset;
+        server.decodableHeadersScanned = limit - offset;
+
+        return endOfHeadersAt;
+    }
+
+    private boolean routeable(
+        int msgTypeId,
+        DirectBuffer buffer,
+        int index,
+        int length)
+    {
+        final RouteFW route = wrapRoute.apply(msgTypeId, buffer, index, length);
+        final HttpRouteExFW routeEx = route.extension().get(wrapRouteEx);
+        return routeEx == null || matchHeaders(routeEx.headers(), decodedHeaders);
     }
 
     private boolean matchHeaders(
@@ -543,90 +842,192 @@ public final class HttpServerFactory implements StreamFactory
     {
         final HttpHeaderFW schemeHeader = routeHeaders.matchFirst(h -> HEADER_SCHEME.equals(h.name()));
         final String16FW scheme = schemeHeader != null ? schemeHeader.value() : null;
-        final String schemePort = SCHEME_PORTS.get(scheme);
 
-        final BiPredicate<HttpHeaderFW, HttpHeaderFW> filter = (r, b) ->
-                    r.name().equals(b.name()) &&
-                    (HEADER_SCHEME.equals(r.name()) ||
-                     HEADER_AUTHORITY.equals(r.name()) && matchAuthority(schemePort, r.value(), b.value()) ||
-                     r.value().equals(b.value()));
+        matchSchemePort = SCHEME_PORTS.get(scheme);
+        matchBeginHeaders = beginHeaders;
 
-        final MutableBoolean match = new MutableBoolean(true);
-        routeHeaders.forEach(r -> match.value &= beginHeaders.anyMatch(b -> filter.test(r, b)));
-        return match.value;
+        return !routeHeaders.anyMatch(unmatchedRouteHeader);
     }
 
-    private boolean matchAuthority(
+    private boolean unmatchedRouteHeader(
+        HttpHeaderFW routeHeader)
+    {
+        matchRouteHeader = routeHeader;
+        return !matchBeginHeaders.anyMatch(matchedBeginHeader);
+    }
+
+    private boolean matchedBeginHeader(
+        HttpHeaderFW beginHeader)
+    {
+        final String8FW name = matchRouteHeader.name();
+        final String16FW value = matchRouteHeader.value();
+
+        return name.equals(beginHeader.name()) &&
+                (HEADER_SCHEME.equals(name) ||
+                 HEADER_AUTHORITY.equals(name) && matchAuthority(matchSchemePort, value, beginHeader.value()) ||
+                 HEADER_PATH.equals(name) && matchesPath(value.value(), beginHeader.value().value()) ||
+                 value.equals(beginHeader.value()));
+    }
+
+    private static boolean matchAuthority(
         String schemePort,
         String16FW canonicalAuthority,
         String16FW authority)
     {
         final DirectBuffer canonicalAuthorityValue = canonicalAuthority.value();
-        final int canonicalPortAt = indexOfByte(canonicalAuthorityValue, 0, canonicalAuthorityValue.capacity(), COLON_BYTE);
+        final int canonicalLength = canonicalAuthorityValue.capacity();
+        final int canonicalPortAt = indexOfByte(canonicalAuthorityValue, 0, canonicalLength, COLON_BYTE);
 
         final DirectBuffer authorityValue = authority.value();
-        final int portAt = indexOfByte(authorityValue, 0, authorityValue.capacity(), COLON_BYTE);
+        final int authorityLength = authorityValue.capacity();
+        final int portAt = indexOfByte(authorityValue, 0, authorityLength, COLON_BYTE);
 
-        final String routeAuthorityAsString = canonicalAuthority.asString();
+        // authority without port matches canonical authority with the default port for the scheme
         return canonicalAuthority.equals(authority) ||
-                portAt == -1 && canonicalPortAt != -1 &&
-                routeAuthorityAsString.regionMatches(0, authority.asString(), 0, canonicalPortAt) &&
-                routeAuthorityAsString.regionMatches(canonicalPortAt + 1, schemePort, 0,
-                                                     routeAuthorityAsString.length() - canonicalPortAt - 1);
+                schemePort != null && portAt == -1 && canonicalPortAt == authorityLength &&
+                matchBytes(canonicalAuthorityValue, 0, authorityValue, 0, authorityLength) &&
+                matchChars(canonicalAuthorityValue, canonicalPortAt + 1, canonicalLength, schemePort);
     }
 
     private HttpBeginExFW updateHeaders(
         final RouteFW route,
         final HttpBeginExFW beginEx)
     {
-        // update headers with the matched route's :scheme, :authority
-        final HttpRouteExFW routeEx = route.extension().get(routeExRO::tryWrap);
+        // update headers with the matched route's :scheme, :authority and overrides
+        final HttpRouteExFW routeEx = route.extension().get(wrapRouteEx);
         if (routeEx != null)
         {
+            overrideCount = 0;
+            overrideBuffer = routeEx.buffer();
+            overrideLimit = routeEx.limit();
+
             final HttpHeaderFW schemeHeader = routeEx.headers().matchFirst(h -> HEADER_SCHEME.equals(h.name()));
-            final String scheme = schemeHeader != null ? schemeHeader.value().asString() : null;
+            if (schemeHeader != null)
+            {
+                collectOverride(schemeHeader);
+            }
 
             final HttpHeaderFW authorityHeader = routeEx.headers().matchFirst(h -> HEADER_AUTHORITY.equals(h.name()));
-            final String authority = authorityHeader != null ? authorityHeader.value().asString() : null;
+            if (authorityHeader != null)
+            {
+                collectOverride(authorityHeader);
+            }
+
+            routeEx.overrides().forEach(collectOverride);
 
-            if (scheme != null || authority != null || !routeEx.overrides().isEmpty())
+            if (overrideCount != 0)
             {
-                final Map<String, String> headers = new LinkedHashMap<>();
+                fill(overridden, 0, overrideCount, false);
 
-                beginEx.headers().forEach(h ->
-                {
-                    String name = h.name().asString();
-                    String value = h.value().asString();
-                    headers.put(name, value);
-                });
+                mergedBeginEx = newBeginExRW.wrap(codecBuffer, beginEx.limit(), codecBuffer.capacity())
+                                            .typeId(httpTypeId);
 
-                if (scheme != null)
-                {
-                    headers.put(HEADER_SCHEME.asString(), scheme);
-                }
+                beginEx.headers().forEach(mergeHeader);
 
-                if (authority != null)
+                for (int index = 0; index < overrideCount; index++)
                 {
-                    headers.put(HEADER_AUTHORITY.asString(), authority);
+                    final HttpHeaderFW header = headerRO.wrap(overrideBuffer, overrideAts[index], overrideLimit);
+                    if (!overridden[index] && overrideIndex(header.name()) == index)
+                    {
+                        overridden[index] = true;
+                        mergedHeader = header;
+                        mergedBeginEx.headersItem(encodeMergedHeader);
+                    }
                 }
 
-                routeEx.overrides().forEach(h ->
-                {
-                    String name = h.name().asString();
-                    String value = h.value().asString();
-                    headers.put(name, value);
-                });
+                return mergedBeginEx.build();
+            }
+        }
 
-                final HttpBeginExFW.Builder newBeginEx = newBeginExRW.wrap(codecBuffer, 0, codecBuffer.capacity())
-                                                                     .typeId(httpTypeId);
+        return beginEx;
+    }
+
+    private void collectOverride(
+        HttpHeaderFW header)
+    {
+        if (overrideCount == overrideAts.length)
+        {
+            overrideAts = copyOf(overrideAts, overrideCount << 1);
+            overridden = copyOf(overridden, overrideCount << 1);
+        }
+        overrideAts[overrideCount++] = header.offset();
+    }
 
-                headers.entrySet().forEach(e -> newBeginEx.headersItem(h -> h.name(e.getKey()).value(e.getValue())));
+    private void mergeHeader(
+        HttpHeaderFW header)
+    {
+        final int index = overrideIndex(header.name());
+        if (index == -1)
+        {
+            mergedHeader = header;
+            mergedBeginEx.headersItem(encodeMergedHeader);
+        }
+        else if (!overridden[index])
+        {
+            overridden[index] = true;
+            mergedHeader = overrideRO;
+            mergedBeginEx.headersItem(encodeMergedHeader);
+        }
+    }
 
-                return newBeginEx.build();
-            }
+    private int overrideIndex(
+        String8FW name)
+    {
+        int index = overrideCount - 1;
+        while (index >= 0 && !overrideRO.wrap(overrideBuffer, overrideAts[index], overrideLimit).name().equals(name))
+        {
+            index--;
         }
+        return index;
+    }
 
-        return beginEx;
+    private void encodeMergedHeader(
+        HttpHeaderFW.Builder header)
+    {
+        header.name(mergedHeader.name()).value(mergedHeader.value());
+    }
+
+    private HttpBeginExFW upgradeHeaders(
+        HttpBeginExFW beginEx)
+    {
+        // connection options are hop-by-hop and do not apply to the upgraded stream
+        upgradeBeginEx = upgradeBeginExRW.wrap(codecBuffer, beginEx.limit(), codecBuffer.capacity())
+                                         .typeId(httpTypeId);
+        beginEx.headers().forEach(upgradeHeader);
+        return upgradeBeginEx.build();
+    }
+
+    private void upgradeHeader(
+        HttpHeaderFW header)
+    {
+        if (!HEADER_CONNECTION.equals(header.name()))
+        {
+            mergedHeader = header;
+            upgradeBeginEx.headersItem(encodeMergedHeader);
+        }
+    }
+
+    private boolean decodeUpgradeSettings(
+        DirectBuffer buffer,
+        int offset,
+        int limit)
+    {
+        boolean decoded = false;
+
+        try
+        {
+            final byte[] encoded = new byte[limit - offset];
+            buffer.getBytes(offset, encoded);
+            final byte[] settings = Base64.getUrlDecoder().decode(encoded);
+            upgradeSettingsRO.wrap(settings);
+            decoded = settings.length % UPGRADE_SETTING_SIZE == 0;
+        }
+        catch (IllegalArgumentException ex)
+        {
+            // not base64url, ignore the upgrade
+        }
+
+        return decoded;
     }
 
     private DirectBuffer decodeStartLine(
@@ -637,51 +1038,71 @@ public final class HttpServerFactory implements StreamFactory
         MutableBoolean hasAuthority)
     {
         DirectBuffer error = null;
-        final CharSequence startLine = new AsciiSequenceView(buffer, offset, limit - offset);
-        if (startLine.length() >= maximumHeadersSize)
+        if (limit - offset >= maximumHeadersSize)
         {
             error = ERROR_414_REQUEST_URI_TOO_LONG;
         }
-        else if (requestLine.reset(startLine).matches())
+        else
         {
-            final String method = requestLine.group("method");
-            final String target = requestLine.group("target");
-            final String version = requestLine.group("version");
-
-            final URI targetURI = URI.create(target);
-
-            if (!versionPart.reset(version).matches())
-            {
-                error = ERROR_505_VERSION_NOT_SUPPORTED;
-            }
-            else if (targetURI.getUserInfo() != null)
+            final int endOfLineAt = limit - CRLF_BYTES.length;
+            final int endOfMethodAt = skipUpperCase(buffer, offset, endOfLineAt);
+            final int targetAt = skipWhitespace(buffer, endOfMethodAt, endOfLineAt);
+            final int endOfTargetAt = skipVisible(buffer, targetAt, endOfLineAt);
+            final int versionAt = skipWhitespace(buffer, endOfTargetAt, endOfLineAt);
+
+            if (endOfMethodAt == offset ||
+                targetAt == endOfMethodAt ||
+                endOfTargetAt == targetAt ||
+                versionAt == endOfTargetAt ||
+                !isHttpVersion(buffer, versionAt, endOfLineAt))
             {
                 error = ERROR_400_BAD_REQUEST;
             }
-            else if (!SUPPORTED_METHODS.contains(method))
+            else if (buffer.getByte(versionAt + HTTP_VERSION_MAJOR_OFFSET) != '1')
             {
-                error = ERROR_501_METHOD_NOT_IMPLEMENTED;
+                error = ERROR_505_VERSION_NOT_SUPPORTED;
             }
             else
             {
-                final String path = targetURI.getRawPath();
-                final String authority = targetURI.getAuthority();
+                int authorityAt = -1;
+                int endOfAuthorityAt = -1;
+                int pathAt = targetAt;
+
+                final int endOfSchemeAt = skipSchemeChars(buffer, targetAt, endOfTargetAt);
+                if (endOfSchemeAt != targetAt &&
+                    buffer.getByte(targetAt) != SLASH_BYTE &&
+                    matchBytes(buffer, endOfSchemeAt, Math.min(endOfSchemeAt + SCHEME_SEPARATOR_BYTES.length, endOfTargetAt),
+                               SCHEME_SEPARATOR_BYTES))
+                {
+                    authorityAt = endOfSchemeAt + SCHEME_SEPARATOR_BYTES.length;
+                    endOfAuthorityAt = indexOfPathEnd(buffer, authorityAt, endOfTargetAt, SLASH_BYTE);
+                    pathAt = endOfAuthorityAt;
+                }
 
-                httpBeginEx.headersItem(h -> h.name(HEADER_SCHEME).value(SCHEME_HTTP))
-                           .headersItem(h -> h.name(HEADER_METHOD).value(method))
-                           .headersItem(h -> h.name(HEADER_PATH).value(path));
+                final int endOfPathAt = indexOfPathEnd(buffer, pathAt, endOfTargetAt, QUESTION_MARK_BYTE);
 
-                if (authority != null)
+                if (authorityAt != -1 && indexOfByte(buffer, authorityAt, endOfAuthorityAt, AT_BYTE) != -1)
                 {
-                    httpBeginEx.headersItem(h -> h.name(HEADER_AUTHORITY).value(authority));
-                    hasAuthority.value = true;
+                    error = ERROR_400_BAD_REQUEST;
+                }
+                else if (!isSupportedMethod(buffer, offset, endOfMethodAt))
+                {
+                    error = ERROR_501_METHOD_NOT_IMPLEMENTED;
+                }
+                else
+                {
+                    httpBeginEx.headersItem(h -> h.name(HEADER_SCHEME).value(SCHEME_HTTP));
+                    decodeHeader(httpBeginEx, HEADER_METHOD, buffer, offset, endOfMethodAt);
+                    decodeHeader(httpBeginEx, HEADER_PATH, buffer, pathAt, endOfPathAt);
+
+                    if (authorityAt != -1 && endOfAuthorityAt != authorityAt)
+                    {
+                        decodeHeader(httpBeginEx, HEADER_AUTHORITY, buffer, authorityAt, endOfAuthorityAt);
+                        hasAuthority.value = true;
+                    }
                 }
             }
         }
-        else
-        {
-            error = ERROR_400_BAD_REQUEST;
-        }
 
         return error;
     }
@@ -697,48 +1118,79 @@ public final class HttpServerFactory implements StreamFactory
     {
         DirectBuffer error = null;
 
+        final int endOfValueLimit = endOfLineAt - CRLF_BYTES.length;
+        final int endOfNameAt = skipNameChars(buffer, startOfLineAt, endOfValueLimit);
+        final int nameLength = endOfNameAt - startOfLineAt;
+
         if (endOfLineAt - startOfHeadersAt > maximumHeadersSize)
         {
             error = ERROR_431_HEADERS_TOO_LARGE;
         }
-        else if (headerLine.reset(new AsciiSequenceView(buffer, startOfLineAt, endOfLineAt - startOfLineAt)).matches())
+        else if (nameLength == 0 || endOfNameAt == endOfValueLimit || buffer.getByte(endOfNameAt) != COLON_BYTE)
+        {
+            error = isWhitespace(buffer.getByte(startOfLineAt)) ? ERROR_400_BAD_REQUEST_OBSOLETE_LINE_FOLDING
+                                                                : ERROR_400_BAD_REQUEST;
+        }
+        else if (nameLength > MAXIMUM_HEADER_NAME_LENGTH ||
+                 indexOfByte(buffer, endOfNameAt, endOfValueLimit, CR_BYTE) != -1 ||
+                 indexOfByte(buffer, endOfNameAt, endOfValueLimit, LF_BYTE) != -1)
+        {
+            error = ERROR_400_BAD_REQUEST;
+        }
+        else
         {
-            final String name = headerLine.group("name").toLowerCase();
-            final String value = headerLine.group("value");
+            final int valueAt = skipWhitespace(buffer, endOfNameAt + 1, endOfValueLimit);
+            final int endOfValueAt = trimWhitespace(buffer, valueAt, endOfValueLimit);
+
+            final String8FW name = decodeHeaderName(buffer, startOfLineAt, endOfNameAt);
 
-            switch (name)
+            if (HEADER_CONTENT_LENGTH.equals(name))
             {
-            case "content-length":
-                if (server.decoder != decodeHeadersOnly)
+                final int contentLength = parseDecimal(buffer, valueAt, endOfValueAt);
+                if (server.decoder != decodeHeadersOnly || contentLength == -1)
                 {
                     error = ERROR_400_BAD_REQUEST;
                 }
+                else if (contentLength > maximumRequestBodySize)
+                {
+                    error = ERROR_413_PAYLOAD_TOO_LARGE;
+                }
                 else
                 {
-                    final int contentLength = parseInt(value);
                     if (contentLength > 0)
                     {
                         server.decodableContentLength = contentLength;
                         server.decoder = decodeContent;
                     }
-                    httpBeginEx.headersItem(h -> h.name(HEADER_CONTENT_LENGTH).value(value));
+                    decodeHeader(httpBeginEx, HEADER_CONTENT_LENGTH, buffer, valueAt, endOfValueAt);
                 }
-                break;
-
-            case "host":
+            }
+            else if (HEADER_HOST.equals(name))
+            {
                 if (!hasAuthority.value)
                 {
-                    httpBeginEx.headersItem(h -> h.name(HEADER_AUTHORITY).value(value));
+                    decodeHeader(httpBeginEx, HEADER_AUTHORITY, buffer, valueAt, endOfValueAt);
                     hasAuthority.value = true;
                 }
-                break;
-
-            case "transfer-encoding":
+            }
+            else if (HEADER_EXPECT.equals(name))
+            {
+                if (!matchesIgnoreCase(buffer, valueAt, endOfValueAt, EXPECT_CONTINUE_BYTES))
+                {
+                    error = ERROR_417_EXPECTATION_FAILED;
+                }
+                else
+                {
+                    server.decodableExpectContinue = true;
+                }
+            }
+            else if (HEADER_TRANSFER_ENCODING.equals(name))
+            {
                 if (server.decoder != decodeHeadersOnly)
                 {
                     error = ERROR_400_BAD_REQUEST;
                 }
-                else if (!"chunked".equals(value))
+                else if (!matchBytes(buffer, valueAt, endOfValueAt, TRANSFER_ENCODING_CHUNKED_BYTES))
                 {
                     error = ERROR_501_UNSUPPORTED_TRANSFER_ENCODING;
                 }
@@ -747,9 +1199,18 @@ public final class HttpServerFactory implements StreamFactory
                     server.decoder = decodeChunkHeader;
                     httpBeginEx.headersItem(h -> h.name(HEADER_TRANSFER_ENCODING).value(TRANSFER_ENCODING_CHUNKED));
                 }
-                break;
-
-            case "upgrade":
+            }
+            else if (upgradeH2c && HEADER_UPGRADE.equals(name) &&
+                     matchesIgnoreCase(buffer, valueAt, endOfValueAt, UPGRADE_H2C_BYTES))
+            {
+                server.decodableUpgradeH2c = true;
+            }
+            else if (upgradeH2c && HEADER_HTTP2_SETTINGS.equals(name))
+            {
+                server.decodableUpgradeSettings = decodeUpgradeSettings(buffer, valueAt, endOfValueAt);
+            }
+            else if (HEADER_UPGRADE.equals(name))
+            {
                 if (server.decoder != decodeHeadersOnly)
                 {
                     error = ERROR_400_BAD_REQUEST;
@@ -758,33 +1219,66 @@ public final class HttpServerFactory implements StreamFactory
                 {
                     // TODO: wait for 101 first
                     server.decoder = decodeUpgraded;
-                    httpBeginEx.headersItem(h -> h.name(HEADER_UPGRADE).value(value));
+                    decodeHeader(httpBeginEx, HEADER_UPGRADE, buffer, valueAt, endOfValueAt);
                 }
-                break;
-
-            default:
-                httpBeginEx.headersItem(h -> h.name(name).value(value));
-                break;
             }
-        }
-        else if (buffer.getByte(startOfLineAt) == SPACE_BYTE)
-        {
-            error = ERROR_400_BAD_REQUEST_OBSOLETE_LINE_FOLDING;
-        }
-        else
-        {
-            error = ERROR_400_BAD_REQUEST;
+            else
+            {
+                decodeHeader(httpBeginEx, name, buffer, valueAt, endOfValueAt);
+            }
         }
 
         return error;
     }
 
-    private int decodeHeadersOnly(
-        HttpServer server,
-        long traceId,
-        long authorization,
-        long budgetId,
-        int reserved,
+    private String8FW decodeHeaderName(
+        DirectBuffer buffer,
+        int offset,
+        int limit)
+    {
+        final int length = limit - offset;
+        headerNameBuffer.putByte(0, (byte) length);
+        for (int index = 0; index < length; index++)
+        {
+            headerNameBuffer.putByte(1 + index, toLowerCase(buffer.getByte(offset + index)));
+        }
+        return headerNameRO.wrap(headerNameBuffer, 0, 1 + length);
+    }
+
+    private void decodeHeader(
+        HttpBeginExFW.Builder httpBeginEx,
+        String8FW name,
+        DirectBuffer buffer,
+        int offset,
+        int limit)
+    {
+        decodedName = name;
+        decodedValue = buffer;
+        decodedValueOffset = offset;
+        decodedValueLength = limit - offset;
+        httpBeginEx.headersItem(decodedHeader);
+    }
+
+    private void decodedHeader(
+        HttpHeaderFW.Builder header)
+    {
+        header.name(decodedName).value(decodedValue, decodedValueOffset, decodedValueLength);
+    }
+
+    private void encodedChunk(
+        OctetsFW.Builder chunk)
+    {
+        chunk.put(codecBuffer, 0, encodedChunkPrefixLimit)
+             .put(encodedChunkPayload)
+             .put(CRLF_BYTES);
+    }
+
+    private int decodeHeadersOnly(
+        HttpServer server,
+        long traceId,
+        long authorization,
+        long budgetId,
+        int reserved,
         DirectBuffer buffer,
         int offset,
         int limit)
@@ -809,18 +1303,18 @@ public final class HttpServerFactory implements StreamFactory
         final int chunkHeaderLimit = limitOfBytes(buffer, offset, limit, CRLF_BYTES);
         if (chunkHeaderLimit != -1)
         {
-            final int semicolonAt = limitOfBytes(buffer, offset, chunkHeaderLimit, SEMICOLON_BYTES);
-            final int chunkSizeLimit = semicolonAt == -1 ? chunkHeaderLimit - 2 : semicolonAt - 1;
+            final int semicolonAt = indexOfByte(buffer, offset, chunkHeaderLimit, SEMICOLON_BYTE);
+            final int chunkSizeLimit = semicolonAt == -1 ? chunkHeaderLimit - 2 : semicolonAt;
             final int chunkSizeLength = chunkSizeLimit - offset;
 
-            try
+            final int chunkSize = parseHex(buffer, offset, offset + chunkSizeLength);
+            if (chunkSize != -1)
             {
-                final CharSequence chunkSizeHex = new AsciiSequenceView(buffer, offset, chunkSizeLength);
-                server.decodableChunkSize = Integer.parseInt(chunkSizeHex, 0, chunkSizeLength, 16);
+                server.decodableChunkSize = chunkSize;
                 server.decoder = server.decodableChunkSize != 0 ? decodeChunkBody : decodeTrailers;
                 progress = chunkHeaderLimit;
             }
-            catch (NumberFormatException ex)
+            else
             {
                 server.onDecodeHeadersError(traceId, authorization, ERROR_400_BAD_REQUEST);
                 server.decoder = decodeIgnore;
@@ -969,7 +1463,7 @@ public final class HttpServerFactory implements StreamFactory
             {
                 progress += 2;
             }
-            else
+            else if (server.pipelineDepth < maximumPipelinedRequests)
             {
                 server.decoder = decodeHeaders;
             }
@@ -977,6 +1471,39 @@ public final class HttpServerFactory implements StreamFactory
         return progress;
     }
 
+    private int decodePreface(
+        HttpServer server,
+        long traceId,
+        long authorization,
+        long budgetId,
+        int reserved,
+        DirectBuffer buffer,
+        int offset,
+        int limit)
+    {
+        final byte[] preface = Http2PrefaceFW.PRI_REQUEST;
+        final int length = Math.min(limit - offset, preface.length);
+
+        boolean match = true;
+        for (int i = 0; match && i < length; i++)
+        {
+            match = buffer.getByte(offset + i) == preface[i];
+        }
+
+        int progress = offset;
+        if (!match)
+        {
+            server.decoder = decodeEmptyLines;
+        }
+        else if (length == preface.length)
+        {
+            server.onDecodePreface(traceId, authorization, buffer, offset, limit);
+            progress = limit;
+        }
+
+        return progress;
+    }
+
     private int decodeUpgraded(
         HttpServer server,
         long traceId,
@@ -990,6 +1517,19 @@ public final class HttpServerFactory implements StreamFactory
         return server.onDecodeBody(traceId, authorization, budgetId, buffer, offset, limit, EMPTY_OCTETS);
     }
 
+    private int decodeUpgradedH2c(
+        HttpServer server,
+        long traceId,
+        long authorization,
+        long budgetId,
+        int reserved,
+        DirectBuffer buffer,
+        int offset,
+        int limit)
+    {
+        return limit;
+    }
+
     private int decodeIgnore(
         HttpServer server,
         long traceId,
@@ -1022,6 +1562,7 @@ public final class HttpServerFactory implements StreamFactory
     {
         PENDING,
         OPEN,
+        CLOSING,
         CLOSED,
     }
 
@@ -1037,19 +1578,32 @@ public final class HttpServerFactory implements StreamFactory
         private int replyPadding;
         private int replyBudget;
         private boolean replyCloseOnFlush;
+        private boolean replyOpen;
+        private long decodeTimestamp;
 
-        private int decodeSlot;
-        private int decodeSlotOffset;
+        private final HttpSlotChain decodeSlots;
         private int decodeSlotReserved;
 
         private int encodeSlot;
         private int encodeSlotOffset;
+        private boolean encodeCombining;
 
         private HttpServerDecoder decoder;
+        private int decodableStartLineLimit;
+        private int decodableHeaderLineAt;
+        private int decodableHeadersScanned;
         private int decodableChunkSize;
         private int decodableContentLength;
+        private boolean decodableExpectContinue;
+        private boolean decodableUpgradeH2c;
+        private boolean decodableUpgradeSettings;
+        private MessageConsumer upgraded;
 
         private HttpExchange exchange;
+        private HttpExchange pipelineHead;
+        private HttpExchange pipelineTail;
+        private int pipelineDepth;
+        private DirectBuffer pipelineError;
 
         private HttpServer(
             MessageConsumer network,
@@ -1062,8 +1616,8 @@ public final class HttpServerFactory implements StreamFactory
             this.initialId = initialId;
             this.affinity = affinity;
             this.replyId = supplyReplyId.applyAsLong(initialId);
-            this.decoder = decodeEmptyLines;
-            this.decodeSlot = NO_SLOT;
+            this.decoder = detectH2c ? decodePreface : decodeEmptyLines;
+            this.decodeSlots = new HttpSlotChain(bufferPool, headersBuffer, counters.decodeSlots);
             this.encodeSlot = NO_SLOT;
         }
 
@@ -1073,6 +1627,12 @@ public final class HttpServerFactory implements StreamFactory
             int index,
             int length)
         {
+            if (upgraded != null)
+            {
+                upgraded.accept(msgTypeId, buffer, index, length);
+                return;
+            }
+
             switch (msgTypeId)
             {
             case BeginFW.TYPE_ID:
@@ -1099,6 +1659,10 @@ public final class HttpServerFactory implements StreamFactory
                 final WindowFW window = windowRO.wrap(buffer, index, index + length);
                 onNetworkWindow(window);
                 break;
+            case SignalFW.TYPE_ID:
+                final SignalFW signal = signalRO.wrap(buffer, index, index + length);
+                onNetworkSignal(signal);
+                break;
             }
         }
 
@@ -1121,38 +1685,50 @@ public final class HttpServerFactory implements StreamFactory
 
             initialBudget -= data.reserved();
 
-            if (initialBudget < 0)
+            final OctetsFW payload = data.payload();
+
+            if (initialBudget < 0 ||
+                !decodeSlots.isEmpty() && !decodeSlots.append(initialId, payload.buffer(), payload.offset(), payload.limit()))
             {
                 cleanupNetwork(traceId, authorization);
             }
             else
             {
-                final OctetsFW payload = data.payload();
                 int reserved = data.reserved();
+
+                counters.bytesRead.accept(payload.sizeof());
+                decodeTimestamp = data.timestamp();
                 DirectBuffer buffer = payload.buffer();
                 int offset = payload.offset();
                 int limit = payload.limit();
 
-                if (decodeSlot != NO_SLOT)
+                if (!decodeSlots.isEmpty())
                 {
-                    final MutableDirectBuffer slotBuffer = bufferPool.buffer(decodeSlot);
-                    slotBuffer.putBytes(decodeSlotOffset, buffer, offset, limit - offset);
-                    decodeSlotOffset += limit - offset;
                     decodeSlotReserved += reserved;
-                    buffer = slotBuffer;
-                    offset = 0;
-                    limit = decodeSlotOffset;
                     reserved = decodeSlotReserved;
+                    limit = decodeSlots.length();
+                    offset = 0;
                 }
 
-                decodeNetwork(traceId, authorization, budgetId, reserved, buffer, offset, limit);
+                if (!decodeSlots.isEmpty() && decoder == decodeHeaders && decodableStartLineLimit != 0 &&
+                    decodeSlots.limitOfBytes(Math.max(limit - payload.sizeof() - CRLFCRLF_BYTES.length + 1, 0),
+                                             CRLFCRLF_BYTES) == -1)
+                {
+                    // buffered headers are only gathered for decoding once the empty line ending them arrives
+                    doNetworkHeadersWindowIfNecessary(traceId, authorization, budgetId);
+                }
+                else
+                {
+                    buffer = !decodeSlots.isEmpty() ? decodeSlots.buffer() : buffer;
+                    decodeNetwork(traceId, authorization, budgetId, reserved, buffer, offset, limit);
+                }
             }
         }
 
         private void onNetworkEnd(
             EndFW end)
         {
-            if (decodeSlot == NO_SLOT)
+            if (decodeSlots.isEmpty())
             {
                 final long traceId = end.traceId();
                 final long authorization = end.authorization();
@@ -1163,7 +1739,7 @@ public final class HttpServerFactory implements StreamFactory
                 {
                     exchange.onNetworkEnd(traceId, authorization);
                 }
-                else
+                else if (pipelineHead == null)
                 {
                     doNetworkEnd(traceId, authorization);
                 }
@@ -1180,10 +1756,9 @@ public final class HttpServerFactory implements StreamFactory
 
             cleanupDecodeSlotIfNecessary();
 
-            if (exchange != null)
+            if (exchange != null || pipelineHead != null)
             {
-                exchange.onNetworkAbort(traceId, authorization);
-                exchange.onNetworkReset(traceId, authorization);
+                cleanupPipeline(traceId, authorization);
                 doNetworkAbort(traceId, authorization);
             }
             else
@@ -1200,9 +1775,17 @@ public final class HttpServerFactory implements StreamFactory
 
             cleanupEncodeSlotIfNecessary();
 
-            if (exchange != null)
+            if (exchange != null || pipelineHead != null)
             {
-                exchange.onNetworkReset(traceId, authorization);
+                if (exchange != null)
+                {
+                    exchange.onNetworkReset(traceId, authorization);
+                }
+
+                for (HttpExchange pipelined = pipelineHead; pipelined != null; pipelined = pipelined.next)
+                {
+                    pipelined.onNetworkReset(traceId, authorization);
+                }
             }
             else
             {
@@ -1222,11 +1805,34 @@ public final class HttpServerFactory implements StreamFactory
             replyBudget += credit;
             replyPadding = padding;
 
-            flushNetworkIfBuffered(traceId, authorization, budgetId);
+            if (!encodeCombining)
+            {
+                flushNetworkIfBuffered(traceId, authorization, budgetId);
+            }
+            doPipelineWindow(traceId, authorization, budgetId);
+        }
+
+        private void onNetworkSignal(
+            SignalFW signal)
+        {
+            final long traceId = signal.traceId();
+            final long authorization = signal.authorization();
+            final int signalId = signal.signalId();
+
+            if (signalId == WRITE_COMBINING_SIGNAL)
+            {
+                flushNetworkIfCombining(traceId, authorization, 0L);
+            }
+        }
 
-            if (exchange != null && exchange.responseState == HttpState.OPEN && replyBudget > replyPadding)
+        private void flushNetworkIfCombining(
+            long traceId,
+            long authorization,
+            long budgetId)
+        {
+            if (encodeCombining)
             {
-                exchange.doResponseWindow(traceId, authorization, budgetId, replyBudget, replyPadding);
+                flushNetworkIfBuffered(traceId, authorization, budgetId);
             }
         }
 
@@ -1235,12 +1841,14 @@ public final class HttpServerFactory implements StreamFactory
             long authorization,
             long budgetId)
         {
+            encodeCombining = false;
+
             if (encodeSlot != NO_SLOT)
             {
                 final MutableDirectBuffer buffer = bufferPool.buffer(encodeSlot);
                 final int limit = encodeSlotOffset;
                 final int reserved = limit + replyPadding;
-                doNetworkData(traceId, authorization, budgetId, reserved, buffer, 0, limit);
+                encodeNetworkData(traceId, authorization, budgetId, reserved, buffer, 0, limit);
             }
         }
 
@@ -1251,6 +1859,8 @@ public final class HttpServerFactory implements StreamFactory
         {
             doBegin(network, routeId, replyId, traceId, authorization, affinity, EMPTY_OCTETS);
             router.setThrottle(replyId, this::onNetwork);
+            counters.connections.accept(1L);
+            replyOpen = true;
         }
 
         private void doNetworkData(
@@ -1261,6 +1871,77 @@ public final class HttpServerFactory implements StreamFactory
             DirectBuffer buffer,
             int offset,
             int limit)
+        {
+            final int length = limit - offset;
+
+            if (encodeCombining && encodeSlotOffset + length <= writeCombiningThreshold)
+            {
+                final MutableDirectBuffer encodeBuffer = bufferPool.buffer(encodeSlot);
+                encodeBuffer.putBytes(encodeSlotOffset, buffer, offset, length);
+                encodeSlotOffset += length;
+            }
+            else
+            {
+                flushNetworkIfCombining(traceId, authorization, budgetId);
+
+                if (encodeSlot != NO_SLOT)
+                {
+                    final MutableDirectBuffer encodeBuffer = bufferPool.buffer(encodeSlot);
+
+                    if (encodeSlotOffset + length > encodeBuffer.capacity())
+                    {
+                        cleanupNetwork(traceId, authorization);
+                    }
+                    else
+                    {
+                        encodeBuffer.putBytes(encodeSlotOffset, buffer, offset, length);
+                        encodeSlotOffset += length;
+                        flushNetworkIfBuffered(traceId, authorization, budgetId);
+                    }
+                }
+                else
+                {
+                    encodeNetworkData(traceId, authorization, budgetId, reserved, buffer, offset, limit);
+                }
+            }
+        }
+
+        private void doNetworkCombine(
+            long traceId,
+            long authorization,
+            long budgetId,
+            int reserved,
+            DirectBuffer buffer,
+            int offset,
+            int limit)
+        {
+            assert encodeSlot == NO_SLOT;
+
+            encodeSlot = acquireSlot(replyId, counters.encodeSlots);
+
+            if (encodeSlot == NO_SLOT)
+            {
+                encodeNetworkData(traceId, authorization, budgetId, reserved, buffer, offset, limit);
+            }
+            else
+            {
+                final MutableDirectBuffer encodeBuffer = bufferPool.buffer(encodeSlot);
+                encodeBuffer.putBytes(0, buffer, offset, limit - offset);
+                encodeSlotOffset = limit - offset;
+                encodeCombining = true;
+
+                signaler.signalNow(routeId, replyId, WRITE_COMBINING_SIGNAL);
+            }
+        }
+
+        private void encodeNetworkData(
+            long traceId,
+            long authorization,
+            long budgetId,
+            int reserved,
+            DirectBuffer buffer,
+            int offset,
+            int limit)
         {
             final int maxLength = limit - offset;
             final int length = Math.min(replyBudget - replyPadding, maxLength);
@@ -1277,6 +1958,7 @@ public final class HttpServerFactory implements StreamFactory
 
                 doData(network, routeId, replyId, traceId, authorization, budgetId,
                        required, buffer, offset, length, EMPTY_OCTETS);
+                counters.bytesWritten.accept(length);
             }
 
             final int remaining = maxLength - length;
@@ -1284,7 +1966,7 @@ public final class HttpServerFactory implements StreamFactory
             {
                 if (encodeSlot == NO_SLOT)
                 {
-                    encodeSlot = bufferPool.acquire(replyId);
+                    encodeSlot = acquireSlot(replyId, counters.encodeSlots);
                 }
 
                 if (encodeSlot == NO_SLOT)
@@ -1302,7 +1984,16 @@ public final class HttpServerFactory implements StreamFactory
             {
                 cleanupEncodeSlotIfNecessary();
 
-                if (exchange == null && replyCloseOnFlush)
+                if (pipelineHead != null && pipelineHead.responseSlot != NO_SLOT)
+                {
+                    pipelineHead.flushResponseIfBuffered(traceId, authorization, budgetId);
+
+                    if (pipelineHead.responseState == HttpState.CLOSED)
+                    {
+                        doPipelineFlush(traceId, authorization, budgetId);
+                    }
+                }
+                else if (pipelineHead == null && replyCloseOnFlush)
                 {
                     doNetworkEnd(traceId, authorization);
                 }
@@ -1314,6 +2005,7 @@ public final class HttpServerFactory implements StreamFactory
             long authorization)
         {
             cleanupEncodeSlotIfNecessary();
+            closeReplyIfNecessary();
             doEnd(network, routeId, replyId, traceId, authorization, EMPTY_OCTETS);
         }
 
@@ -1322,9 +2014,19 @@ public final class HttpServerFactory implements StreamFactory
             long authorization)
         {
             cleanupEncodeSlotIfNecessary();
+            closeReplyIfNecessary();
             doAbort(network, routeId, replyId, traceId, authorization, EMPTY_OCTETS);
         }
 
+        private void closeReplyIfNecessary()
+        {
+            if (replyOpen)
+            {
+                replyOpen = false;
+                counters.connections.accept(-1L);
+            }
+        }
+
         private void doNetworkReset(
             long traceId,
             long authorization)
@@ -1346,15 +2048,30 @@ public final class HttpServerFactory implements StreamFactory
             doWindow(network, routeId, initialId, traceId, authorization, budgetId, credit, padding);
         }
 
+        private void doNetworkHeadersWindowIfNecessary(
+            long traceId,
+            long authorization,
+            long budgetId)
+        {
+            // headers beyond one slot spill into further slots, up to maximum headers size
+            final int decodeLength = decodeSlots.length();
+            final int headersBudgetMax = Math.min(decodeLength + bufferPool.slotCapacity(), maximumHeadersSize);
+            final int headersCredit = headersBudgetMax - decodeLength - initialBudget;
+            if (headersCredit > 0)
+            {
+                doNetworkWindow(traceId, authorization, budgetId, headersCredit, 0);
+            }
+        }
+
         private void decodeNetworkIfBuffered(
             long traceId,
             long authorization,
             long budgetId)
         {
-            if (decodeSlot != NO_SLOT)
+            if (!decodeSlots.isEmpty())
             {
-                final MutableDirectBuffer decodeBuffer = bufferPool.buffer(decodeSlot);
-                final int decodeLength = decodeSlotOffset;
+                final DirectBuffer decodeBuffer = decodeSlots.buffer();
+                final int decodeLength = decodeSlots.length();
                 decodeNetwork(traceId, authorization, budgetId, decodeSlotReserved, decodeBuffer, 0, decodeLength);
             }
         }
@@ -1378,26 +2095,32 @@ public final class HttpServerFactory implements StreamFactory
 
             if (progress < limit)
             {
-                if (decodeSlot == NO_SLOT)
-                {
-                    decodeSlot = bufferPool.acquire(initialId);
-                }
-
-                if (decodeSlot == NO_SLOT)
+                if (!decodeSlots.set(initialId, buffer, progress, limit))
                 {
                     cleanupNetwork(traceId, authorization);
                 }
-                else
+                else if (decoder == decodeHeaders)
                 {
-                    final MutableDirectBuffer decodeBuffer = bufferPool.buffer(decodeSlot);
-                    decodeBuffer.putBytes(0, buffer, progress, limit - progress);
-                    decodeSlotOffset = limit - progress;
+                    doNetworkHeadersWindowIfNecessary(traceId, authorization, budgetId);
                 }
             }
             else
             {
                 cleanupDecodeSlotIfNecessary();
             }
+
+            if (pipelineHead != null && pipelineHead.responseNotModified != null)
+            {
+                pipelineHead.doResponseNotModified(traceId, authorization, budgetId);
+            }
+            else if (pipelineHead != null && pipelineHead.responseCached != null)
+            {
+                pipelineHead.doResponseCached(traceId, authorization, budgetId);
+            }
+            else if (pipelineHead != null && pipelineHead.responseFollowing != null)
+            {
+                pipelineHead.doResponseFollowing(traceId, authorization, budgetId);
+            }
         }
 
         private void onDecodeHeadersError(
@@ -1405,10 +2128,19 @@ public final class HttpServerFactory implements StreamFactory
             long authorization,
             DirectBuffer error)
         {
-            doNetworkData(traceId, authorization, 0L, error.capacity() + replyPadding, error, 0, error.capacity());
-            doNetworkEnd(traceId, authorization);
-
             assert exchange == null;
+
+            countError(error);
+
+            if (pipelineHead != null)
+            {
+                pipelineError = error;
+            }
+            else
+            {
+                doNetworkData(traceId, authorization, 0L, error.capacity() + replyPadding, error, 0, error.capacity());
+                doNetworkEnd(traceId, authorization);
+            }
         }
 
         private void onDecodeBodyError(
@@ -1419,22 +2151,150 @@ public final class HttpServerFactory implements StreamFactory
             cleanupNetwork(traceId, authorization);
         }
 
+        private boolean upgradeableH2c()
+        {
+            // only upgrade a request without content when the 101 can be written immediately
+            return decoder == decodeHeadersOnly &&
+                   pipelineHead == null &&
+                   encodeSlot == NO_SLOT &&
+                   replyBudget >= RESPONSE_101_SWITCHING_PROTOCOLS_H2C.capacity() + replyPadding;
+        }
+
+        private void onDecodeUpgradeH2c(
+            long routeId,
+            long traceId,
+            long authorization,
+            HttpBeginExFW beginEx,
+            DirectBuffer buffer,
+            int offset,
+            int limit)
+        {
+            final DirectBuffer response = RESPONSE_101_SWITCHING_PROTOCOLS_H2C;
+            doNetworkData(traceId, authorization, 0L, response.capacity() + replyPadding, response, 0, response.capacity());
+
+            counters.requests.getAsLong();
+            closeReplyIfNecessary();
+
+            decoder = decodeUpgradedH2c;
+            upgraded = h2c.newUpgradedStream(network, this.routeId, initialId, affinity, traceId, authorization,
+                    initialBudget, replyBudget, replyPadding, upgradeSettingsRO, routeId, beginEx, buffer, offset, limit);
+        }
+
+        private void onDecodePreface(
+            long traceId,
+            long authorization,
+            DirectBuffer buffer,
+            int offset,
+            int limit)
+        {
+            closeReplyIfNecessary();
+
+            decoder = decodeUpgradedH2c;
+            upgraded = h2c.newPriorKnowledgeStream(network, routeId, initialId, affinity, traceId, authorization,
+                    initialBudget, replyBudget, replyPadding, buffer, offset, limit);
+        }
+
         private void onDecodeHeaders(
             long routeId,
             long traceId,
             long authorization,
             HttpBeginExFW beginEx)
         {
-            final long initialId = supplyInitialId.applyAsLong(routeId);
-            final long replyId = supplyReplyId.applyAsLong(initialId);
-            final MessageConsumer application = router.supplyReceiver(initialId);
+            final boolean conditional = validators != null &&
+                    decoder == decodeHeadersOnly &&
+                    HttpValidatorStore.conditional(beginEx.headers());
+            final HttpValidatorStore.Entry validated = conditional ? validators.lookup(routeId, beginEx.headers()) : null;
+            final boolean cacheable = validated == null &&
+                    cache != null &&
+                    decoder == decodeHeadersOnly &&
+                    HttpResponseCache.cacheable(beginEx.headers());
+            final HttpResponseCache.Entry cached = cacheable ? cache.lookup(routeId, beginEx.headers()) : null;
+            final boolean coalescable = validated == null &&
+                    cached == null &&
+                    coalescer != null &&
+                    decoder == decodeHeadersOnly &&
+                    HttpRequestCoalescer.coalescable(beginEx.headers());
+            final HttpRequestCoalescer.Flight flight = coalescable ? coalescer.lookup(routeId, beginEx.headers()) : null;
+
+            final HttpExchange exchange;
+            if (validated != null)
+            {
+                // answered from the recorded validators, without an application stream
+                exchange = new HttpExchange(null, routeId, 0L, 0L);
+                exchange.requestState = HttpState.CLOSED;
+                exchange.responseNotModified = validated;
+            }
+            else if (cached != null)
+            {
+                // served from the cache, without an application stream
+                exchange = new HttpExchange(null, routeId, 0L, 0L);
+                exchange.requestState = HttpState.CLOSED;
+                exchange.responseCached = cached;
+            }
+            else if (flight != null)
+            {
+                // follows the identical request in flight, without an application stream
+                exchange = new HttpExchange(null, routeId, 0L, 0L);
+                exchange.requestState = HttpState.CLOSED;
+                exchange.doRequestFollow(authorization, beginEx, flight);
+            }
+            else
+            {
+                final long initialId = supplyInitialId.applyAsLong(routeId);
+                final long replyId = supplyReplyId.applyAsLong(initialId);
+                final MessageConsumer application = router.supplyReceiver(initialId);
+
+                exchange = new HttpExchange(application, routeId, initialId, replyId);
+                exchange.requestContinue = decodableExpectContinue &&
+                        (decoder == decodeContent || decoder == decodeChunkHeader);
+                exchange.doRequestBegin(traceId, authorization, beginEx);
+                correlations.put(replyId, exchange);
 
-            final HttpExchange exchange = new HttpExchange(application, routeId, initialId, replyId);
-            exchange.doRequestBegin(traceId, authorization, beginEx);
-            correlations.put(replyId, exchange);
+                if (cacheable)
+                {
+                    exchange.responseCacheWriter = cache.supplyWriter(routeId, beginEx.headers());
+                }
+
+                if (coalescable)
+                {
+                    exchange.responseLeading = coalescer.lead(routeId, beginEx);
+                }
+
+                if (validators != null && HttpValidatorStore.recordable(beginEx.headers()))
+                {
+                    exchange.responseValidatorsWriter = validators.supplyWriter(routeId, beginEx.headers());
+                }
+                else if (validators != null && !HttpValidatorStore.safe(beginEx.headers()))
+                {
+                    validators.invalidate(routeId, beginEx.headers());
+                }
+            }
 
             final HttpHeaderFW connection = beginEx.headers().matchFirst(h -> HEADER_CONNECTION.equals(h.name()));
-            exchange.responseClosing = connection != null && connectionClose.reset(connection.value().asString()).matches();
+            exchange.responseClosing = connection != null && isConnectionClose(connection.value());
+
+            if (gzip != null)
+            {
+                final Array32FW<HttpHeaderFW> headers = beginEx.headers();
+                final HttpHeaderFW acceptEncoding = headers.matchFirst(h -> HEADER_ACCEPT_ENCODING.equals(h.name()));
+                exchange.requestAcceptsGzip = acceptEncoding != null &&
+                        HttpGzipEncoder.acceptsGzip(acceptEncoding.value().value()) &&
+                        headers.matchFirst(h -> HEADER_METHOD.equals(h.name()) && METHOD_HEAD.equals(h.value())) == null;
+            }
+
+            if (pipelineTail != null)
+            {
+                pipelineTail.next = exchange;
+            }
+            else
+            {
+                pipelineHead = exchange;
+            }
+            pipelineTail = exchange;
+            pipelineDepth++;
+
+            counters.requests.getAsLong();
+            counters.exchanges.accept(1L);
 
             this.exchange = exchange;
         }
@@ -1445,6 +2305,7 @@ public final class HttpServerFactory implements StreamFactory
             Flyweight extension)
         {
             exchange.doRequestEnd(traceId, authorization, extension);
+            exchange = null;
         }
 
         private int onDecodeBody(
@@ -1465,12 +2326,7 @@ public final class HttpServerFactory implements StreamFactory
             Flyweight extension)
         {
             exchange.doRequestEnd(traceId, authorization, extension);
-
-            if (exchange.requestState == HttpState.CLOSED &&
-                exchange.responseState == HttpState.CLOSED)
-            {
-                exchange = null;
-            }
+            exchange = null;
         }
 
         private void doEncodeHeaders(
@@ -1480,14 +2336,11 @@ public final class HttpServerFactory implements StreamFactory
             long budgetId,
             Array32FW<HttpHeaderFW> headers)
         {
-            // TODO: queue if pipelined responses arrive out of order
-            assert exchange == this.exchange;
-
             final HttpHeaderFW transferEncoding = headers.matchFirst(h -> HEADER_TRANSFER_ENCODING.equals(h.name()));
             exchange.responseChunked = transferEncoding != null && TRANSFER_ENCODING_CHUNKED.equals(transferEncoding.value());
 
             final HttpHeaderFW connection = headers.matchFirst(h -> HEADER_CONNECTION.equals(h.name()));
-            exchange.responseClosing |= connection != null && connectionClose.reset(connection.value().asString()).matches();
+            exchange.responseClosing |= connection != null && isConnectionClose(connection.value());
 
             final HttpHeaderFW upgrade = headers.matchFirst(h -> HEADER_UPGRADE.equals(h.name()));
             exchange.responseClosing |= upgrade != null;
@@ -1495,54 +2348,111 @@ public final class HttpServerFactory implements StreamFactory
             final HttpHeaderFW status = headers.matchFirst(h -> HEADER_STATUS.equals(h.name()));
             final String16FW statusValue = status != null ? status.value() : STATUS_200;
             codecOffset.value = doEncodeStatus(codecBuffer, 0, statusValue);
-            headers.forEach(h -> codecOffset.value = doEncodeHeader(codecBuffer, codecOffset.value, h));
-            codecBuffer.putBytes(codecOffset.value, CRLF_BYTES);
-            codecOffset.value += CRLF_BYTES.length;
 
-            final int length = codecOffset.value;
-
-            if (length > maximumHeadersSize)
+            if (exchange.requestAcceptsGzip && encodableGzip(statusValue, headers))
             {
-                exchange.onNetworkReset(traceId, authorization);
+                exchange.responseGzip = gzip.acquire();
+                exchange.responseChunked = true;
 
-                replyCloseOnFlush = true;
+                headers.forEach(h -> codecOffset.value = doEncodeGzipHeader(codecBuffer, codecOffset.value, h));
+                codecOffset.value = doEncodeHeader(codecBuffer, codecOffset.value,
+                        HEADER_CONTENT_ENCODING, CONTENT_ENCODING_GZIP);
+                codecOffset.value = doEncodeHeader(codecBuffer, codecOffset.value,
+                        HEADER_TRANSFER_ENCODING, TRANSFER_ENCODING_CHUNKED);
 
-                DirectBuffer error = ERROR_507_INSUFFICIENT_STORAGE;
-                doNetworkData(traceId, authorization, 0L, error.capacity() + replyPadding, error, 0, error.capacity());
+                if (headers.matchFirst(h -> HEADER_VARY.equals(h.name())) == null)
+                {
+                    codecOffset.value = doEncodeHeader(codecBuffer, codecOffset.value, HEADER_VARY, VARY_ACCEPT_ENCODING);
+                }
             }
             else
             {
-                final int reserved = length + replyPadding;
-                doNetworkData(traceId, authorization, budgetId, reserved, codecBuffer, 0, length);
+                headers.forEach(h -> codecOffset.value = doEncodeHeader(codecBuffer, codecOffset.value, h));
             }
-        }
 
-        private int doEncodeStatus(
-            MutableDirectBuffer buffer,
+            if (serverHeader != null && headers.matchFirst(h -> HEADER_SERVER.equals(h.name())) == null)
+            {
+                codecOffset.value = doEncodeHeader(codecBuffer, codecOffset.value, HEADER_SERVER, serverHeader);
+            }
+
+            if (dateHeader != null && headers.matchFirst(h -> HEADER_DATE.equals(h.name())) == null)
+            {
+                codecOffset.value = doEncodeHeader(codecBuffer, codecOffset.value, HEADER_DATE, dateHeader.value());
+            }
+
+            codecBuffer.putBytes(codecOffset.value, CRLF_BYTES);
+            codecOffset.value += CRLF_BYTES.length;
+
+            final int length = codecOffset.value;
+
+            if (length > maximumEncodeHeadersSize)
+            {
+                exchange.cleanupResponseFlightIfNecessary(traceId);
+                exchange.onNetworkReset(traceId, authorization);
+                exchange.responseClosing = true;
+
+                DirectBuffer error = ERROR_507_INSUFFICIENT_STORAGE;
+                countError(error);
+                doEncodeData(exchange, traceId, authorization, 0L, error.capacity() + replyPadding, error, 0, error.capacity());
+
+                if (exchange == pipelineHead)
+                {
+                    doPipelineFlush(traceId, authorization, budgetId);
+                }
+            }
+            else
+            {
+                final int reserved = length + replyPadding;
+
+                if (writeCombining &&
+                    exchange == pipelineHead &&
+                    exchange.responseSlot == NO_SLOT &&
+                    encodeSlot == NO_SLOT &&
+                    length <= writeCombiningThreshold)
+                {
+                    doNetworkCombine(traceId, authorization, budgetId, reserved, codecBuffer, 0, length);
+                }
+                else
+                {
+                    doEncodeData(exchange, traceId, authorization, budgetId, reserved, codecBuffer, 0, length);
+                }
+            }
+        }
+
+        private int doEncodeStatus(
+            MutableDirectBuffer buffer,
             int offset,
             String16FW status)
         {
             int progress = offset;
 
-            buffer.putBytes(progress, HTTP_1_1_BYTES);
-            progress += HTTP_1_1_BYTES.length;
+            final DirectBuffer value = status.value();
+            final int length = value.capacity();
+            final int code = length == STATUS_CODE_LENGTH ? parseDecimal(value, 0, length) : -1;
+            final byte[] statusLine = code != -1 ? STATUS_LINES[code] : null;
 
-            buffer.putByte(progress, SPACE_BYTE);
-            progress++;
+            if (statusLine != null)
+            {
+                buffer.putBytes(progress, statusLine);
+                progress += statusLine.length;
+            }
+            else
+            {
+                buffer.putBytes(progress, HTTP_1_1_BYTES);
+                progress += HTTP_1_1_BYTES.length;
 
-            final DirectBuffer value = status.value();
-            buffer.putBytes(progress, value, 0, value.capacity());
-            progress += value.capacity();
+                buffer.putByte(progress, SPACE_BYTE);
+                progress++;
 
-            buffer.putByte(progress, SPACE_BYTE);
-            progress++;
+                buffer.putBytes(progress, value, 0, length);
+                progress += length;
 
-            byte[] reason = STATUS_101.equals(status) ? REASON_SWITCHING_PROTOCOLS_BYTES : REASON_OK_BYTES;
-            buffer.putBytes(progress, reason);
-            progress += reason.length;
+                buffer.putByte(progress, SPACE_BYTE);
+                progress++;
 
-            buffer.putBytes(progress, CRLF_BYTES);
-            progress += CRLF_BYTES.length;
+                buffer.putBytes(progress, CRLF_BYTES);
+                progress += CRLF_BYTES.length;
+            }
 
             return progress;
         }
@@ -1553,78 +2463,180 @@ public final class HttpServerFactory implements StreamFactory
             HttpHeaderFW header)
         {
             int progress = offset;
-            final DirectBuffer name = header.name().value();
-            if (name.getByte(0) != COLON_BYTE)
+            final String8FW name = header.name();
+            if (name.value().getByte(0) != COLON_BYTE)
             {
-                final DirectBuffer value = header.value().value();
+                progress = doEncodeHeader(buffer, progress, name, header.value());
+            }
+            return progress;
+        }
 
-                boolean uppercase = true;
-                for (int pos = 0, len = name.capacity(); pos < len; pos++, progress++)
-                {
-                    byte ch = name.getByte(pos);
-                    if (uppercase)
-                    {
-                        ch = (byte) toUpperCase(ch);
-                    }
-                    else
-                    {
-                        ch |= (byte) toLowerCase(ch);
-                    }
-                    buffer.putByte(progress, ch);
-                    uppercase = ch == HYPHEN_BYTE;
-                }
+        private int doEncodeGzipHeader(
+            MutableDirectBuffer buffer,
+            int offset,
+            HttpHeaderFW header)
+        {
+            final String8FW name = header.name();
+
+            // etag and vary are adapted to the encoded body, content-length and transfer-encoding no longer apply
+            int progress = offset;
+            if (HEADER_ETAG.equals(name) || HEADER_VARY.equals(name))
+            {
+                final DirectBuffer nameValue = name.value();
+                final DirectBuffer wireName = headerNames.supplyName(nameValue, 0, nameValue.capacity());
+                final DirectBuffer value = header.value().value();
 
-                buffer.putBytes(progress, COLON_SPACE_BYTES);
-                progress += COLON_SPACE_BYTES.length;
-                buffer.putBytes(progress, value, 0, value.capacity());
-                progress += value.capacity();
+                buffer.putBytes(progress, wireName, 0, wireName.capacity());
+                progress += wireName.capacity();
+                progress = HEADER_ETAG.equals(name)
+                        ? HttpGzipEncoder.encodeETag(value, buffer, progress)
+                        : HttpGzipEncoder.encodeVary(value, buffer, progress);
                 buffer.putBytes(progress, CRLF_BYTES);
                 progress += CRLF_BYTES.length;
             }
+            else if (!HEADER_CONTENT_LENGTH.equals(name) && !HEADER_TRANSFER_ENCODING.equals(name))
+            {
+                progress = doEncodeHeader(buffer, progress, header);
+            }
+            return progress;
+        }
+
+        private int doEncodeHeader(
+            MutableDirectBuffer buffer,
+            int offset,
+            String8FW header,
+            String16FW headerValue)
+        {
+            return doEncodeHeader(buffer, offset, header, headerValue.value());
+        }
+
+        private int doEncodeHeader(
+            MutableDirectBuffer buffer,
+            int offset,
+            String8FW header,
+            DirectBuffer value)
+        {
+            int progress = offset;
+            final DirectBuffer name = header.value();
+            final DirectBuffer wireName = headerNames.supplyName(name, 0, name.capacity());
+
+            buffer.putBytes(progress, wireName, 0, wireName.capacity());
+            progress += wireName.capacity();
+            buffer.putBytes(progress, value, 0, value.capacity());
+            progress += value.capacity();
+            buffer.putBytes(progress, CRLF_BYTES);
+            progress += CRLF_BYTES.length;
+
             return progress;
         }
 
+        private boolean encodableGzip(
+            String16FW status,
+            Array32FW<HttpHeaderFW> headers)
+        {
+            // status is checked first, matched headers share the array item flyweight
+            return HttpGzipEncoder.encodableStatus(status.value()) &&
+                   headers.matchFirst(h -> HEADER_CONTENT_ENCODING.equals(h.name())) == null &&
+                   headers.matchFirst(h -> HEADER_CONTENT_LENGTH.equals(h.name()) &&
+                                           CONTENT_LENGTH_ZERO.equals(h.value())) == null;
+        }
+
         private void doEncodeBody(
             HttpExchange exchange,
             long traceId,
             long authorization,
-            int flags,
             long budgetId,
             int reserved,
             OctetsFW payload)
         {
-            assert exchange == this.exchange;
-
-            DirectBuffer buffer = payload.buffer();
-            int offset = payload.offset();
-            int limit = payload.limit();
+            final DirectBuffer buffer = payload.buffer();
+            final int offset = payload.offset();
+            final int limit = payload.limit();
 
-            if (exchange.responseChunked && flags != 0)
+            if (exchange.responseGzip != null)
             {
-                int chunkLimit = 0;
-
-                if ((flags & 0x01) != 0)
+                for (int progress = offset; progress < limit; )
                 {
-                    final String chunkSizeHex = Integer.toHexString(payload.sizeof());
-                    chunkLimit += codecBuffer.putStringWithoutLengthAscii(chunkLimit, chunkSizeHex);
-                    codecBuffer.putBytes(chunkLimit, CRLF_BYTES);
-                    chunkLimit += 2;
+                    final int length = Math.min(limit - progress, gzip.capacity());
+                    final int encodedLimit = exchange.responseGzip.encode(buffer, progress, progress + length,
+                            GZIP_CHUNK_OFFSET);
+                    doEncodeGzipChunk(exchange, traceId, authorization, budgetId, encodedLimit);
+                    progress += length;
                 }
+            }
+            else if (exchange.responseChunked)
+            {
+                final int length = limit - offset;
 
-                codecBuffer.putBytes(chunkLimit, payload.buffer(), payload.offset(), payload.sizeof());
-
-                if ((flags & 0x02) != 0)
+                if (length > 0)
                 {
-                    codecBuffer.putBytes(chunkLimit, CRLF_BYTES);
-                    chunkLimit += 2;
+                    final int prefixLimit = encodeChunkPrefix(codecBuffer, 0, length);
+                    final int suffixLimit = CHUNK_SUFFIX.capacity();
+                    final int required = prefixLimit + length + suffixLimit + replyPadding;
+
+                    if (exchange == pipelineHead &&
+                        exchange.responseSlot == NO_SLOT &&
+                        encodeSlot == NO_SLOT &&
+                        required <= replyBudget)
+                    {
+                        doNetworkChunk(traceId, authorization, budgetId, required, prefixLimit, payload);
+                    }
+                    else
+                    {
+                        doEncodeData(exchange, traceId, authorization, budgetId, prefixLimit + replyPadding,
+                                codecBuffer, 0, prefixLimit);
+                        doEncodeData(exchange, traceId, authorization, budgetId, length + replyPadding,
+                                buffer, offset, limit);
+                        doEncodeData(exchange, traceId, authorization, budgetId, suffixLimit + replyPadding,
+                                CHUNK_SUFFIX, 0, suffixLimit);
+                    }
                 }
+            }
+            else
+            {
+                doEncodeData(exchange, traceId, authorization, budgetId, reserved, buffer, offset, limit);
+            }
+        }
+
+        private void doEncodeGzipChunk(
+            HttpExchange exchange,
+            long traceId,
+            long authorization,
+            long budgetId,
+            int encodedLimit)
+        {
+            final MutableDirectBuffer buffer = gzip.buffer();
+            final int length = encodedLimit - GZIP_CHUNK_OFFSET;
+
+            if (length > 0)
+            {
+                // chunk framing is written around the encoded bytes, so each chunk is a single write
+                final int offset = GZIP_CHUNK_OFFSET - chunkPrefixLength(length);
+                encodeChunkPrefix(buffer, offset, length);
+                buffer.putBytes(encodedLimit, CRLF_BYTES);
+                final int limit = encodedLimit + CRLF_BYTES.length;
 
-                buffer = codecBuffer;
-                offset = 0;
-                limit = chunkLimit;
+                doEncodeData(exchange, traceId, authorization, budgetId, limit - offset + replyPadding, buffer, offset, limit);
             }
+        }
+
+        private void doNetworkChunk(
+            long traceId,
+            long authorization,
+            long budgetId,
+            int required,
+            int prefixLimit,
+            OctetsFW payload)
+        {
+            replyBudget -= required;
+
+            assert replyBudget >= 0;
 
-            doNetworkData(traceId, authorization, budgetId, reserved, buffer, offset, limit);
+            encodedChunkPrefixLimit = prefixLimit;
+            encodedChunkPayload = payload;
+
+            doData(network, routeId, replyId, traceId, authorization, budgetId, required, encodedChunk, EMPTY_OCTETS);
+            counters.bytesWritten.accept(required - replyPadding);
         }
 
         private void doEncodeTrailers(
@@ -1634,7 +2646,12 @@ public final class HttpServerFactory implements StreamFactory
             long budgetId,
             Array32FW<HttpHeaderFW> trailers)
         {
-            assert exchange == this.exchange;
+            if (exchange.responseGzip != null)
+            {
+                final int encodedLimit = exchange.responseGzip.finish(GZIP_CHUNK_OFFSET);
+                exchange.cleanupResponseGzipIfNecessary();
+                doEncodeGzipChunk(exchange, traceId, authorization, budgetId, encodedLimit);
+            }
 
             if (exchange.responseChunked)
             {
@@ -1649,7 +2666,7 @@ public final class HttpServerFactory implements StreamFactory
                     codecOffset.value++;
                     codecBuffer.putBytes(codecOffset.value, CRLF_BYTES);
                     codecOffset.value += CRLF_BYTES.length;
-                    trailers.forEach(h -> codecOffset.value = doEncodeHeader(writeBuffer, codecOffset.value, h));
+                    trailers.forEach(h -> codecOffset.value = doEncodeHeader(codecBuffer, codecOffset.value, h));
                     codecBuffer.putBytes(codecOffset.value, CRLF_BYTES);
                     codecOffset.value += CRLF_BYTES.length;
 
@@ -1659,19 +2676,148 @@ public final class HttpServerFactory implements StreamFactory
                 }
 
                 final int reserved = limit + replyPadding;
+                doEncodeData(exchange, traceId, authorization, budgetId, reserved, buffer, offset, limit);
+            }
+
+            if (exchange == pipelineHead)
+            {
+                flushNetworkIfCombining(traceId, authorization, budgetId);
+                doPipelineFlush(traceId, authorization, budgetId);
+            }
+        }
+
+        private void doEncodeData(
+            HttpExchange exchange,
+            long traceId,
+            long authorization,
+            long budgetId,
+            int reserved,
+            DirectBuffer buffer,
+            int offset,
+            int limit)
+        {
+            if (exchange == pipelineHead && exchange.responseSlot == NO_SLOT)
+            {
                 doNetworkData(traceId, authorization, budgetId, reserved, buffer, offset, limit);
             }
+            else
+            {
+                exchange.doResponseBuffer(traceId, authorization, buffer, offset, limit);
+            }
+        }
 
-            if (replyCloseOnFlush || exchange.responseClosing)
+        private void doPipelineFlush(
+            long traceId,
+            long authorization,
+            long budgetId)
+        {
+            while (pipelineHead != null &&
+                   pipelineHead.responseState == HttpState.CLOSED &&
+                   pipelineHead.responseSlot == NO_SLOT)
             {
-                doNetworkEnd(traceId, authorization);
+                final HttpExchange completed = pipelineHead;
+                pipelineHead = completed.next;
+                completed.next = null;
+                pipelineDepth--;
+                counters.exchanges.accept(-1L);
+
+                if (pipelineHead == null)
+                {
+                    pipelineTail = null;
+                }
+
+                if (completed.responseClosing)
+                {
+                    replyCloseOnFlush = true;
+                    pipelineError = null;
+
+                    if (exchange != completed)
+                    {
+                        cleanupDecodeSlotIfNecessary();
+                        cleanupPipeline(traceId, authorization);
+                        decoder = decodeIgnore;
+                    }
+                }
+                else if (pipelineHead != null)
+                {
+                    pipelineHead.flushResponseIfBuffered(traceId, authorization, budgetId);
+                }
+            }
+
+            if (pipelineHead == null && pipelineError != null)
+            {
+                final DirectBuffer error = pipelineError;
+                pipelineError = null;
+                replyCloseOnFlush = true;
+                doNetworkData(traceId, authorization, 0L, error.capacity() + replyPadding, error, 0, error.capacity());
+            }
+            else if (pipelineHead == null && replyCloseOnFlush && decodeSlots.isEmpty())
+            {
+                if (encodeSlot == NO_SLOT)
+                {
+                    doNetworkEnd(traceId, authorization);
+                }
+            }
+            else
+            {
+                doPipelineWindow(traceId, authorization, budgetId);
+                decodeNetworkIfBuffered(traceId, authorization, budgetId);
+            }
+        }
+
+        private void doEncodeAbort(
+            HttpExchange exchange,
+            long traceId,
+            long authorization)
+        {
+            doNetworkAbort(traceId, authorization);
+
+            exchange.cleanupResponseSlotIfNecessary();
+            exchange.cleanupResponseValidatorsIfNecessary();
+
+            for (HttpExchange pipelined = pipelineHead; pipelined != null; pipelined = pipelined.next)
+            {
+                if (pipelined != exchange)
+                {
+                    pipelined.onNetworkAbort(traceId, authorization);
+                    pipelined.onNetworkReset(traceId, authorization);
+                }
             }
 
-            if (exchange.requestState == HttpState.CLOSED &&
-                exchange.responseState == HttpState.CLOSED)
+            // an aborted response leaves its own request open until the network closes, so only forget other exchanges
+            if (this.exchange != exchange)
             {
                 this.exchange = null;
             }
+
+            counters.exchanges.accept(-pipelineDepth);
+
+            pipelineHead = null;
+            pipelineTail = null;
+            pipelineDepth = 0;
+        }
+
+        private void doPipelineWindow(
+            long traceId,
+            long authorization,
+            long budgetId)
+        {
+            if (pipelineHead != null && pipelineHead.responseNotModified != null)
+            {
+                pipelineHead.doResponseNotModified(traceId, authorization, budgetId);
+            }
+            else if (pipelineHead != null && pipelineHead.responseCached != null)
+            {
+                pipelineHead.doResponseCached(traceId, authorization, budgetId);
+            }
+            else if (pipelineHead != null && pipelineHead.responseFollowing != null)
+            {
+                pipelineHead.doResponseFollowing(traceId, authorization, budgetId);
+            }
+            else if (pipelineHead != null && pipelineHead.responseState == HttpState.OPEN && replyBudget > replyPadding)
+            {
+                pipelineHead.doResponseWindow(traceId, authorization, budgetId, replyBudget, replyPadding);
+            }
         }
 
         private void cleanupNetwork(
@@ -1680,50 +2826,88 @@ public final class HttpServerFactory implements StreamFactory
         {
             doNetworkReset(traceId, authorization);
             doNetworkAbort(traceId, authorization);
+            cleanupPipeline(traceId, authorization);
+        }
 
+        private void cleanupPipeline(
+            long traceId,
+            long authorization)
+        {
             if (exchange != null)
             {
                 exchange.onNetworkAbort(traceId, authorization);
                 exchange.onNetworkReset(traceId, authorization);
                 exchange = null;
             }
+
+            while (pipelineHead != null)
+            {
+                final HttpExchange pipelined = pipelineHead;
+                pipelineHead = pipelined.next;
+                pipelined.next = null;
+                pipelined.onNetworkAbort(traceId, authorization);
+                pipelined.onNetworkReset(traceId, authorization);
+            }
+
+            counters.exchanges.accept(-pipelineDepth);
+
+            pipelineTail = null;
+            pipelineDepth = 0;
         }
 
         private void cleanupDecodeSlotIfNecessary()
         {
-            if (decodeSlot != NO_SLOT)
-            {
-                bufferPool.release(decodeSlot);
-                decodeSlot = NO_SLOT;
-                decodeSlotOffset = 0;
-            }
+            decodeSlots.release();
         }
 
         private void cleanupEncodeSlotIfNecessary()
         {
             if (encodeSlot != NO_SLOT)
             {
-                bufferPool.release(encodeSlot);
+                releaseSlot(encodeSlot, counters.encodeSlots);
                 encodeSlot = NO_SLOT;
                 encodeSlotOffset = 0;
             }
+
+            encodeCombining = false;
         }
 
         private final class HttpExchange
         {
-            private final MessageConsumer application;
             private final long routeId;
-            private final long requestId;
-            private final long responseId;
+            private final long requestTimestamp;
+
+            private MessageConsumer application;
+            private long requestId;
+            private long responseId;
 
             private int requestBudget;
             private int requestPadding;
             private int responseBudget;
 
             private HttpState requestState;
+            private boolean requestContinue;
             private HttpState responseState;
             private boolean responseChunked;
             private boolean responseClosing;
+            private boolean requestAcceptsGzip;
+            private HttpGzipEncoder.Stream responseGzip;
+            private HttpResponseCache.Entry responseCached;
+            private int responseCachedProgress;
+            private HttpResponseCache.Writer responseCacheWriter;
+            private HttpValidatorStore.Entry responseNotModified;
+            private HttpValidatorStore.Writer responseValidatorsWriter;
+            private HttpRequestCoalescer.Flight responseLeading;
+            private boolean responseDetached;
+            private HttpRequestCoalescer.Flight responseFollowing;
+            private LongConsumer responseFollower;
+            private HttpBeginExFW requestFallback;
+            private long requestAuthorization;
+            private int responseFollowingProgress;
+            private int responseSlot;
+            private int responseSlotOffset;
+
+            private HttpExchange next;
 
             private HttpExchange(
                 MessageConsumer application,
@@ -1735,8 +2919,10 @@ public final class HttpServerFactory implements StreamFactory
                 this.routeId = routeId;
                 this.requestId = requestId;
                 this.responseId = responseId;
+                this.requestTimestamp = decodeTimestamp;
                 this.requestState = HttpState.PENDING;
                 this.responseState = HttpState.PENDING;
+                this.responseSlot = NO_SLOT;
             }
 
             private void doRequestBegin(
@@ -1783,9 +2969,12 @@ public final class HttpServerFactory implements StreamFactory
                 {
                 case OPEN:
                     doEnd(application, routeId, requestId, traceId, authorization, extension);
+                    requestState = HttpState.CLOSED;
+                    break;
+                case PENDING:
+                    requestState = HttpState.CLOSING;
                     break;
                 default:
-                    requestState = HttpState.CLOSED;
                     break;
                 }
             }
@@ -1823,11 +3012,30 @@ public final class HttpServerFactory implements StreamFactory
                 long traceId,
                 long authorization)
             {
-                correlations.remove(responseId);
+                cleanupResponseSlotIfNecessary();
+                cleanupResponseGzipIfNecessary();
+                cleanupResponseCacheIfNecessary();
+                cleanupResponseValidatorsIfNecessary();
 
-                if (responseState == HttpState.OPEN)
+                if (responseLeading != null && responseLeading.followed() && responseState != HttpState.CLOSED)
                 {
-                    doResponseReset(traceId, authorization);
+                    // response is still consumed on behalf of followers after the leading connection is gone
+                    responseDetached = true;
+
+                    if (responseState == HttpState.OPEN)
+                    {
+                        doResponseDetachedWindow(traceId, authorization);
+                    }
+                }
+                else
+                {
+                    correlations.remove(responseId);
+                    cleanupResponseFlightIfNecessary(traceId);
+
+                    if (responseState == HttpState.OPEN)
+                    {
+                        doResponseReset(traceId, authorization);
+                    }
                 }
             }
 
@@ -1876,15 +3084,27 @@ public final class HttpServerFactory implements StreamFactory
                 requestBudget += credit;
                 requestPadding = padding;
 
-                decodeNetworkIfBuffered(traceId, authorization, budgetId);
+                if (requestContinue)
+                {
+                    requestContinue = false;
+
+                    final DirectBuffer response = RESPONSE_100_CONTINUE;
+                    final int reserved = response.capacity() + replyPadding;
+                    doEncodeData(this, traceId, authorization, budgetId, reserved, response, 0, response.capacity());
+                }
 
-                if (decodeSlot == NO_SLOT && requestState == HttpState.CLOSED)
+                if (requestState == HttpState.CLOSING)
                 {
                     // TODO: non-empty extension?
                     doEnd(application, routeId, requestId, traceId, authorization, EMPTY_OCTETS);
+                    requestState = HttpState.CLOSED;
+
+                    decodeNetworkIfBuffered(traceId, authorization, budgetId);
                 }
                 else
                 {
+                    decodeNetworkIfBuffered(traceId, authorization, budgetId);
+
                     final int initialCredit = Math.max(requestBudget - initialBudget, 0);
                     if (initialCredit > 0)
                     {
@@ -1929,19 +3149,59 @@ public final class HttpServerFactory implements StreamFactory
                 final long traceId = begin.traceId();
                 final long authorization = begin.authorization();
 
-                responseState = HttpState.OPEN;
-                doEncodeHeaders(this, traceId, authorization, 0L, headers);
-            }
+                counters.responses.getAsLong();
+                if (latencies != null)
+                {
+                    latencies.recordBegin(routeId, requestTimestamp, begin.timestamp());
+                }
 
-            private void onResponseData(
-                DataFW data)
-            {
-                responseBudget -= data.reserved();
+                if (responseCacheWriter != null && !responseCacheWriter.begin(headers))
+                {
+                    cleanupResponseCacheIfNecessary();
+                }
 
-                if (responseBudget < 0)
+                if (responseValidatorsWriter != null)
                 {
-                    final long traceId = data.traceId();
-                    final long authorization = data.authorization();
+                    responseValidatorsWriter.record(headers);
+                    cleanupResponseValidatorsIfNecessary();
+                }
+
+                if (responseLeading != null)
+                {
+                    responseLeading.begin(traceId, headers);
+                }
+
+                requestContinue = false;
+                responseState = HttpState.OPEN;
+
+                if (responseDetached)
+                {
+                    doResponseDetachedWindow(traceId, authorization);
+                }
+                else
+                {
+                    doEncodeHeaders(this, traceId, authorization, 0L, headers);
+
+                    if (this != pipelineHead && responseState == HttpState.OPEN)
+                    {
+                        final int slotCredit = bufferPool.slotCapacity() - responseSlotOffset;
+                        if (slotCredit > replyPadding)
+                        {
+                            doResponseWindow(traceId, authorization, 0L, slotCredit, replyPadding);
+                        }
+                    }
+                }
+            }
+
+            private void onResponseData(
+                DataFW data)
+            {
+                responseBudget -= data.reserved();
+
+                if (responseBudget < 0)
+                {
+                    final long traceId = data.traceId();
+                    final long authorization = data.authorization();
                     doResponseReset(traceId, authorization);
                     doNetworkAbort(traceId, authorization);
                 }
@@ -1949,12 +3209,29 @@ public final class HttpServerFactory implements StreamFactory
                 {
                     final long traceId = data.traceId();
                     final long authorization = data.authorization();
-                    final int flags = data.flags();
                     final long budgetId = data.budgetId();
                     final int reserved = data.reserved();
                     final OctetsFW payload = data.payload();
 
-                    doEncodeBody(this, traceId, authorization, flags, budgetId, reserved, payload);
+                    if (responseCacheWriter != null &&
+                        !responseCacheWriter.append(payload.buffer(), payload.offset(), payload.limit()))
+                    {
+                        cleanupResponseCacheIfNecessary();
+                    }
+
+                    if (responseLeading != null)
+                    {
+                        responseLeading.append(traceId, payload.buffer(), payload.offset(), payload.limit());
+                    }
+
+                    if (responseDetached)
+                    {
+                        doResponseDetachedWindow(traceId, authorization);
+                    }
+                    else
+                    {
+                        doEncodeBody(this, traceId, authorization, budgetId, reserved, payload);
+                    }
                 }
             }
 
@@ -1967,8 +3244,30 @@ public final class HttpServerFactory implements StreamFactory
                 final long traceId = end.traceId();
                 final long authorization = end.authorization();
 
+                if (latencies != null)
+                {
+                    latencies.recordEnd(routeId, requestTimestamp, end.timestamp());
+                }
+
+                if (responseCacheWriter != null && trailers.isEmpty())
+                {
+                    responseCacheWriter.commit();
+                    responseCacheWriter = null;
+                }
+                cleanupResponseCacheIfNecessary();
+
+                if (responseLeading != null)
+                {
+                    responseLeading.end(traceId, trailers);
+                }
+                cleanupResponseFlightIfNecessary(traceId);
+
                 responseState = HttpState.CLOSED;
-                doEncodeTrailers(this, traceId, authorization, 0L, trailers);
+
+                if (!responseDetached)
+                {
+                    doEncodeTrailers(this, traceId, authorization, 0L, trailers);
+                }
             }
 
             private void onResponseAbort(
@@ -1978,7 +3277,14 @@ public final class HttpServerFactory implements StreamFactory
                 final long authorization = abort.authorization();
 
                 responseState = HttpState.CLOSED;
-                doNetworkAbort(traceId, authorization);
+                cleanupResponseGzipIfNecessary();
+                cleanupResponseCacheIfNecessary();
+                cleanupResponseFlightIfNecessary(traceId);
+
+                if (!responseDetached)
+                {
+                    doEncodeAbort(this, traceId, authorization);
+                }
             }
 
             private void doResponseReset(
@@ -1986,9 +3292,199 @@ public final class HttpServerFactory implements StreamFactory
                 long authorization)
             {
                 responseState = HttpState.CLOSED;
+                cleanupResponseGzipIfNecessary();
+                cleanupResponseCacheIfNecessary();
+                cleanupResponseValidatorsIfNecessary();
+                cleanupResponseFlightIfNecessary(traceId);
                 doReset(application, routeId, responseId, traceId, authorization);
             }
 
+            private void doResponseNotModified(
+                long traceId,
+                long authorization,
+                long budgetId)
+            {
+                counters.responses.getAsLong();
+                responseState = HttpState.OPEN;
+                doEncodeHeaders(this, traceId, authorization, budgetId, responseNotModified.headers());
+                cleanupResponseValidatorsIfNecessary();
+
+                if (responseState == HttpState.OPEN)
+                {
+                    responseState = HttpState.CLOSED;
+                    doEncodeTrailers(this, traceId, authorization, budgetId, DEFAULT_TRAILERS);
+                }
+            }
+
+            private void doResponseCached(
+                long traceId,
+                long authorization,
+                long budgetId)
+            {
+                final HttpResponseCache.Entry entry = responseCached;
+
+                if (responseState == HttpState.PENDING)
+                {
+                    counters.responses.getAsLong();
+                    responseState = HttpState.OPEN;
+                    doEncodeHeaders(this, traceId, authorization, budgetId, entry.headers());
+                }
+
+                // chunk framing may be written separately, so allow padding for each write
+                final int chunkPadding = responseChunked ? MAXIMUM_CHUNK_PADDING + 2 * replyPadding : 0;
+                final int gzipPadding = responseGzip != null ? gzip.padding() : 0;
+
+                // body is written from the cache as reply budget allows, never beyond the encode slot
+                int maxLength = cachedMaxLength(chunkPadding + gzipPadding);
+                while (responseCached != null &&
+                       (encodeSlot == NO_SLOT || encodeCombining) &&
+                       responseCachedProgress < entry.length() &&
+                       maxLength > 0)
+                {
+                    final OctetsFW body = entry.body(responseCachedProgress, maxLength);
+                    responseCachedProgress += body.sizeof();
+                    doEncodeBody(this, traceId, authorization, budgetId, body.sizeof() + replyPadding, body);
+                    maxLength = cachedMaxLength(chunkPadding + gzipPadding);
+                }
+
+                if (responseCached != null && responseCachedProgress == entry.length())
+                {
+                    cleanupResponseCacheIfNecessary();
+                    doEncodeTrailers(this, traceId, authorization, budgetId, DEFAULT_TRAILERS);
+                }
+            }
+
+            private int cachedMaxLength(
+                int padding)
+            {
+                final int combined = encodeCombining ? encodeSlotOffset + replyPadding : 0;
+                return replyBudget - combined - replyPadding - padding;
+            }
+
+            private void onResponseFlight(
+                long traceId)
+            {
+                if (responseFollowing.failed() && responseState == HttpState.PENDING)
+                {
+                    doRequestFallback(traceId);
+                }
+                else if (this == pipelineHead)
+                {
+                    doResponseFollowing(traceId, 0L, 0L);
+                }
+            }
+
+            private void doRequestFollow(
+                long authorization,
+                HttpBeginExFW beginEx,
+                HttpRequestCoalescer.Flight flight)
+            {
+                final MutableDirectBuffer buffer = new UnsafeBuffer(new byte[beginEx.sizeof()]);
+                buffer.putBytes(0, beginEx.buffer(), beginEx.offset(), beginEx.sizeof());
+
+                requestFallback = new HttpBeginExFW().wrap(buffer, 0, buffer.capacity());
+                requestAuthorization = authorization;
+                responseFollowing = flight;
+                responseFollower = this::onResponseFlight;
+                flight.follow(responseFollower);
+            }
+
+            private void doRequestFallback(
+                long traceId)
+            {
+                // the follower's own request is issued directly, without coalescing again
+                final HttpBeginExFW beginEx = requestFallback;
+
+                requestId = supplyInitialId.applyAsLong(routeId);
+                responseId = supplyReplyId.applyAsLong(requestId);
+                application = router.supplyReceiver(requestId);
+                requestState = HttpState.PENDING;
+
+                doRequestBegin(traceId, requestAuthorization, beginEx);
+                doRequestEnd(traceId, requestAuthorization, EMPTY_OCTETS);
+                correlations.put(responseId, this);
+
+                cleanupResponseFlightIfNecessary(traceId);
+            }
+
+            private void doResponseFollowing(
+                long traceId,
+                long authorization,
+                long budgetId)
+            {
+                final HttpRequestCoalescer.Flight flight = responseFollowing;
+
+                if (flight.failed())
+                {
+                    if (responseState == HttpState.PENDING)
+                    {
+                        doRequestFallback(traceId);
+                    }
+                    else
+                    {
+                        responseState = HttpState.CLOSED;
+                        cleanupResponseGzipIfNecessary();
+                        cleanupResponseFlightIfNecessary(traceId);
+                        doEncodeAbort(this, traceId, authorization);
+                    }
+                }
+                else if (flight.begun())
+                {
+                    if (responseState == HttpState.PENDING)
+                    {
+                        counters.responses.getAsLong();
+                        responseState = HttpState.OPEN;
+                        doEncodeHeaders(this, traceId, authorization, budgetId, flight.headers());
+                    }
+
+                    // chunk framing may be written separately, so allow padding for each write
+                    final int chunkPadding = responseChunked ? MAXIMUM_CHUNK_PADDING + 2 * replyPadding : 0;
+                    final int gzipPadding = responseGzip != null ? gzip.padding() : 0;
+
+                    // body is replayed from the flight as reply budget allows, never beyond the encode slot
+                    int maxLength = cachedMaxLength(chunkPadding + gzipPadding);
+                    while (responseFollowing != null &&
+                           (encodeSlot == NO_SLOT || encodeCombining) &&
+                           responseFollowingProgress < flight.length() &&
+                           maxLength > 0)
+                    {
+                        final OctetsFW body = flight.body(responseFollowingProgress, maxLength);
+                        responseFollowingProgress += body.sizeof();
+                        doEncodeBody(this, traceId, authorization, budgetId, body.sizeof() + replyPadding, body);
+                        maxLength = cachedMaxLength(chunkPadding + gzipPadding);
+                    }
+
+                    if (responseFollowing != null && flight.complete() && responseFollowingProgress == flight.length())
+                    {
+                        // trailers remain readable until the released flight leads again
+                        final Array32FW<HttpHeaderFW> trailers = flight.trailers();
+                        cleanupResponseFlightIfNecessary(traceId);
+                        responseState = HttpState.CLOSED;
+                        doEncodeTrailers(this, traceId, authorization, budgetId, trailers);
+                    }
+                }
+            }
+
+            private void doResponseDetachedWindow(
+                long traceId,
+                long authorization)
+            {
+                if (responseLeading != null && responseLeading.followed())
+                {
+                    // followers replay from the flight, so the application is credited once data is copied
+                    final int credit = bufferPool.slotCapacity() - responseBudget;
+                    if (credit > 0)
+                    {
+                        responseBudget += credit;
+                        doWindow(application, routeId, responseId, traceId, authorization, 0L, credit, 0);
+                    }
+                }
+                else
+                {
+                    doResponseReset(traceId, authorization);
+                }
+            }
+
             private void doResponseWindow(
                 long traceId,
                 long authorization,
@@ -2000,13 +3496,206 @@ public final class HttpServerFactory implements StreamFactory
 
                 if (credit > 0)
                 {
+                    // chunk framing may be written separately, so allow padding for each write
+                    final int chunkPadding = responseChunked ? MAXIMUM_CHUNK_PADDING + 2 * replyPadding : 0;
+                    final int gzipPadding = responseGzip != null ? gzip.padding() : 0;
                     responseBudget += credit;
-                    doWindow(application, routeId, responseId, traceId, authorization, budgetId, credit, replyPadding);
+                    doWindow(application, routeId, responseId, traceId, authorization, budgetId, credit,
+                            replyPadding + chunkPadding + gzipPadding);
+                }
+            }
+
+            private void doResponseBuffer(
+                long traceId,
+                long authorization,
+                DirectBuffer buffer,
+                int offset,
+                int limit)
+            {
+                if (responseSlot == NO_SLOT)
+                {
+                    responseSlot = acquireSlot(responseId, counters.encodeSlots);
+                }
+
+                final int length = limit - offset;
+
+                if (responseSlot == NO_SLOT ||
+                    responseSlotOffset + length > bufferPool.slotCapacity())
+                {
+                    cleanupNetwork(traceId, authorization);
+                }
+                else
+                {
+                    final MutableDirectBuffer responseBuffer = bufferPool.buffer(responseSlot);
+                    responseBuffer.putBytes(responseSlotOffset, buffer, offset, length);
+                    responseSlotOffset += length;
+                }
+            }
+
+            private void flushResponseIfBuffered(
+                long traceId,
+                long authorization,
+                long budgetId)
+            {
+                if (responseSlot != NO_SLOT && encodeSlot == NO_SLOT)
+                {
+                    encodeSlot = responseSlot;
+                    encodeSlotOffset = responseSlotOffset;
+                    responseSlot = NO_SLOT;
+                    responseSlotOffset = 0;
+
+                    flushNetworkIfBuffered(traceId, authorization, budgetId);
+                }
+            }
+
+            private void cleanupResponseGzipIfNecessary()
+            {
+                if (responseGzip != null)
+                {
+                    responseGzip.release();
+                    responseGzip = null;
+                }
+            }
+
+            private void cleanupResponseValidatorsIfNecessary()
+            {
+                if (responseNotModified != null)
+                {
+                    responseNotModified.release();
+                    responseNotModified = null;
+                }
+
+                if (responseValidatorsWriter != null)
+                {
+                    responseValidatorsWriter.release();
+                    responseValidatorsWriter = null;
+                }
+            }
+
+            private void cleanupResponseCacheIfNecessary()
+            {
+                if (responseCached != null)
+                {
+                    responseCached.release();
+                    responseCached = null;
+                    responseState = HttpState.CLOSED;
+                }
+
+                if (responseCacheWriter != null)
+                {
+                    responseCacheWriter.release();
+                    responseCacheWriter = null;
+                }
+            }
+
+            private void cleanupResponseFlightIfNecessary(
+                long traceId)
+            {
+                if (responseLeading != null)
+                {
+                    final HttpRequestCoalescer.Flight flight = responseLeading;
+                    responseLeading = null;
+                    flight.release(traceId);
+                }
+
+                if (responseFollowing != null)
+                {
+                    final HttpRequestCoalescer.Flight flight = responseFollowing;
+                    responseFollowing = null;
+                    flight.unfollow(responseFollower);
+                    responseFollower = null;
+                }
+            }
+
+            private void cleanupResponseSlotIfNecessary()
+            {
+                if (responseSlot != NO_SLOT)
+                {
+                    releaseSlot(responseSlot, counters.encodeSlots);
+                    responseSlot = NO_SLOT;
+                    responseSlotOffset = 0;
                 }
             }
         }
     }
 
+    private static byte[][] initStatusLines()
+    {
+        final byte[][] statusLines = new byte[MAXIMUM_STATUS_CODE + 1][];
+
+        initStatusLine(statusLines, 100, "Continue");
+        initStatusLine(statusLines, 101, "Switching Protocols");
+        initStatusLine(statusLines, 102, "Processing");
+        initStatusLine(statusLines, 103, "Early Hints");
+        initStatusLine(statusLines, 200, "OK");
+        initStatusLine(statusLines, 201, "Created");
+        initStatusLine(statusLines, 202, "Accepted");
+        initStatusLine(statusLines, 203, "Non-Authoritative Information");
+        initStatusLine(statusLines, 204, "No Content");
+        initStatusLine(statusLines, 205, "Reset Content");
+        initStatusLine(statusLines, 206, "Partial Content");
+        initStatusLine(statusLines, 207, "Multi-Status");
+        initStatusLine(statusLines, 208, "Already Reported");
+        initStatusLine(statusLines, 226, "IM Used");
+        initStatusLine(statusLines, 300, "Multiple Choices");
+        initStatusLine(statusLines, 301, "Moved Permanently");
+        initStatusLine(statusLines, 302, "Found");
+        initStatusLine(statusLines, 303, "See Other");
+        initStatusLine(statusLines, 304, "Not Modified");
+        initStatusLine(statusLines, 305, "Use Proxy");
+        initStatusLine(statusLines, 307, "Temporary Redirect");
+        initStatusLine(statusLines, 308, "Permanent Redirect");
+        initStatusLine(statusLines, 400, "Bad Request");
+        initStatusLine(statusLines, 401, "Unauthorized");
+        initStatusLine(statusLines, 402, "Payment Required");
+        initStatusLine(statusLines, 403, "Forbidden");
+        initStatusLine(statusLines, 404, "Not Found");
+        initStatusLine(statusLines, 405, "Method Not Allowed");
+        initStatusLine(statusLines, 406, "Not Acceptable");
+        initStatusLine(statusLines, 407, "Proxy Authentication Required");
+        initStatusLine(statusLines, 408, "Request Timeout");
+        initStatusLine(statusLines, 409, "Conflict");
+        initStatusLine(statusLines, 410, "Gone");
+        initStatusLine(statusLines, 411, "Length Required");
+        initStatusLine(statusLines, 412, "Precondition Failed");
+        initStatusLine(statusLines, 413, "Payload Too Large");
+        initStatusLine(statusLines, 414, "URI Too Long");
+        initStatusLine(statusLines, 415, "Unsupported Media Type");
+        initStatusLine(statusLines, 416, "Range Not Satisfiable");
+        initStatusLine(statusLines, 417, "Expectation Failed");
+        initStatusLine(statusLines, 421, "Misdirected Request");
+        initStatusLine(statusLines, 422, "Unprocessable Entity");
+        initStatusLine(statusLines, 423, "Locked");
+        initStatusLine(statusLines, 424, "Failed Dependency");
+        initStatusLine(statusLines, 425, "Too Early");
+        initStatusLine(statusLines, 426, "Upgrade Required");
+        initStatusLine(statusLines, 428, "Precondition Required");
+        initStatusLine(statusLines, 429, "Too Many Requests");
+        initStatusLine(statusLines, 431, "Request Header Fields Too Large");
+        initStatusLine(statusLines, 451, "Unavailable For Legal Reasons");
+        initStatusLine(statusLines, 500, "Internal Server Error");
+        initStatusLine(statusLines, 501, "Not Implemented");
+        initStatusLine(statusLines, 502, "Bad Gateway");
+        initStatusLine(statusLines, 503, "Service Unavailable");
+        initStatusLine(statusLines, 504, "Gateway Timeout");
+        initStatusLine(statusLines, 505, "HTTP Version Not Supported");
+        initStatusLine(statusLines, 506, "Variant Also Negotiates");
+        initStatusLine(statusLines, 507, "Insufficient Storage");
+        initStatusLine(statusLines, 508, "Loop Detected");
+        initStatusLine(statusLines, 510, "Not Extended");
+        initStatusLine(statusLines, 511, "Network Authentication Required");
+
+        return statusLines;
+    }
+
+    private static void initStatusLine(
+        byte[][] statusLines,
+        int status,
+        String reason)
+    {
+        statusLines[status] = String.format("HTTP/1.1 %d %s\r\n", status, reason).getBytes(US_ASCII);
+    }
+
     private static DirectBuffer initResponse(
         int status,
         String reason)
@@ -2016,4 +3705,291 @@ public final class HttpServerFactory implements StreamFactory
                                               "\r\n",
                                               status, reason).getBytes(UTF_8));
     }
+
+    private static boolean isSupportedMethod(
+        DirectBuffer buffer,
+        int offset,
+        int limit)
+    {
+        boolean supported = false;
+        for (int i = 0; !supported && i < SUPPORTED_METHODS.length; i++)
+        {
+            supported = matchBytes(buffer, offset, limit, SUPPORTED_METHODS[i]);
+        }
+        return supported;
+    }
+
+    private static boolean isHttpVersion(
+        DirectBuffer buffer,
+        int offset,
+        int limit)
+    {
+        return limit - offset == HTTP_VERSION_LENGTH &&
+               matchBytes(buffer, offset, offset + HTTP_SLASH_BYTES.length, HTTP_SLASH_BYTES) &&
+               isDigit(buffer.getByte(offset + HTTP_VERSION_MAJOR_OFFSET)) &&
+               buffer.getByte(offset + HTTP_VERSION_MAJOR_OFFSET + 1) == DOT_BYTE &&
+               isDigit(buffer.getByte(offset + HTTP_VERSION_MAJOR_OFFSET + 2));
+    }
+
+    private static boolean isConnectionClose(
+        String16FW connection)
+    {
+        final DirectBuffer value = connection.value();
+        final int limit = connection.length() > 0 ? value.capacity() : 0;
+
+        boolean close = false;
+        for (int progress = 0; !close && progress < limit; progress++)
+        {
+            int endOfOptionAt = indexOfByte(value, progress, limit, COMMA_BYTE);
+            endOfOptionAt = endOfOptionAt != -1 ? endOfOptionAt : limit;
+
+            final int optionAt = skipWhitespace(value, progress, endOfOptionAt);
+            final int optionLimit = trimWhitespace(value, optionAt, endOfOptionAt);
+            close = matchesIgnoreCase(value, optionAt, optionLimit, CONNECTION_CLOSE_BYTES);
+            progress = endOfOptionAt;
+        }
+
+        return close;
+    }
+
+    private static boolean matchBytes(
+        DirectBuffer buffer,
+        int offset,
+        int limit,
+        byte[] value)
+    {
+        boolean match = limit - offset == value.length;
+        for (int i = 0; match && i < value.length; i++)
+        {
+            match = buffer.getByte(offset + i) == value[i];
+        }
+        return match;
+    }
+
+    private static boolean matchBytes(
+        DirectBuffer buffer,
+        int offset,
+        DirectBuffer value,
+        int valueOffset,
+        int length)
+    {
+        boolean match = true;
+        for (int i = 0; match && i < length; i++)
+        {
+            match = buffer.getByte(offset + i) == value.getByte(valueOffset + i);
+        }
+        return match;
+    }
+
+    private static boolean matchChars(
+        DirectBuffer buffer,
+        int offset,
+        int limit,
+        String value)
+    {
+        boolean match = limit - offset == value.length();
+        for (int i = 0; match && i < value.length(); i++)
+        {
+            match = buffer.getByte(offset + i) == value.charAt(i);
+        }
+        return match;
+    }
+
+    private static int indexOfPathEnd(
+        DirectBuffer buffer,
+        int offset,
+        int limit,
+        byte delimiter)
+    {
+        int progress = offset;
+        while (progress < limit)
+        {
+            final byte b = buffer.getByte(progress);
+            if (b == delimiter || b == QUESTION_MARK_BYTE || b == HASH_BYTE)
+            {
+                break;
+            }
+            progress++;
+        }
+        return progress;
+    }
+
+    private static int skipUpperCase(
+        DirectBuffer buffer,
+        int offset,
+        int limit)
+    {
+        int progress = offset;
+        while (progress < limit && isUpperCase(buffer.getByte(progress)))
+        {
+            progress++;
+        }
+        return progress;
+    }
+
+    private static int skipSchemeChars(
+        DirectBuffer buffer,
+        int offset,
+        int limit)
+    {
+        int progress = offset;
+        while (progress < limit && isSchemeChar(buffer.getByte(progress)))
+        {
+            progress++;
+        }
+        return progress;
+    }
+
+    private static int skipNameChars(
+        DirectBuffer buffer,
+        int offset,
+        int limit)
+    {
+        int progress = offset;
+        while (progress < limit && isNameChar(buffer.getByte(progress)))
+        {
+            progress++;
+        }
+        return progress;
+    }
+
+    private static int skipVisible(
+        DirectBuffer buffer,
+        int offset,
+        int limit)
+    {
+        int progress = offset;
+        while (progress < limit && isVisible(buffer.getByte(progress)))
+        {
+            progress++;
+        }
+        return progress;
+    }
+
+    private static int skipWhitespace(
+        DirectBuffer buffer,
+        int offset,
+        int limit)
+    {
+        int progress = offset;
+        while (progress < limit && isWhitespace(buffer.getByte(progress)))
+        {
+            progress++;
+        }
+        return progress;
+    }
+
+    private static int trimWhitespace(
+        DirectBuffer buffer,
+        int offset,
+        int limit)
+    {
+        int progress = limit;
+        while (progress > offset && isWhitespace(buffer.getByte(progress - 1)))
+        {
+            progress--;
+        }
+        return progress;
+    }
+
+    private static int parseDecimal(
+        DirectBuffer buffer,
+        int offset,
+        int limit)
+    {
+        long value = offset < limit ? 0L : -1L;
+        for (int progress = offset; value != -1L && progress < limit; progress++)
+        {
+            final byte b = buffer.getByte(progress);
+            value = isDigit(b) ? value * 10 + b - '0' : -1L;
+            value = value <= Integer.MAX_VALUE ? value : -1L;
+        }
+        return (int) value;
+    }
+
+    private static int parseHex(
+        DirectBuffer buffer,
+        int offset,
+        int limit)
+    {
+        long value = offset < limit ? 0L : -1L;
+        for (int progress = offset; value != -1L && progress < limit; progress++)
+        {
+            final int digit = Character.digit(buffer.getByte(progress), 16);
+            value = digit != -1 ? value << 4 | digit : -1L;
+            value = value <= Integer.MAX_VALUE ? value : -1L;
+        }
+        return (int) value;
+    }
+
+    private static int chunkPrefixLength(
+        int size)
+    {
+        return chunkSizeDigits(size) + CRLF_BYTES.length;
+    }
+
+    private static int chunkSizeDigits(
+        int size)
+    {
+        return Math.max((Integer.SIZE - Integer.numberOfLeadingZeros(size) + 3) >> 2, 1);
+    }
+
+    private static int encodeChunkPrefix(
+        MutableDirectBuffer buffer,
+        int offset,
+        int size)
+    {
+        final int digits = chunkSizeDigits(size);
+        final int limit = offset + digits;
+
+        for (int progress = limit - 1, value = size; progress >= offset; progress--, value >>>= 4)
+        {
+            buffer.putByte(progress, HEX_DIGIT_BYTES[value & 0x0f]);
+        }
+        buffer.putBytes(limit, CRLF_BYTES);
+
+        return limit + CRLF_BYTES.length;
+    }
+
+    private static byte toLowerCase(
+        byte b)
+    {
+        return isUpperCase(b) ? (byte) (b | 0x20) : b;
+    }
+
+    private static boolean isUpperCase(
+        byte b)
+    {
+        return b >= 'A' && b <= 'Z';
+    }
+
+    private static boolean isDigit(
+        byte b)
+    {
+        return b >= '0' && b <= '9';
+    }
+
+    private static boolean isSchemeChar(
+        byte b)
+    {
+        return b >= 'a' && b <= 'z' || isUpperCase(b) || isDigit(b) || b == '+' || b == '-' || b == '.';
+    }
+
+    private static boolean isNameChar(
+        byte b)
+    {
+        return b != COLON_BYTE && !isWhitespace(b) && b != CR_BYTE && b != LF_BYTE;
+    }
+
+    private static boolean isVisible(
+        byte b)
+    {
+        return b > SPACE_BYTE && b < DELETE_BYTE;
+    }
+
+    private static boolean isWhitespace(
+        byte b)
+    {
+        return b == SPACE_BYTE || b == HTAB_BYTE;
+    }
 }
@@ -15,13 +15,27 @@
  */
 package org.reaktivity.nukleus.http.internal.stream;
 
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+import java.util.function.LongSupplier;
 import java.util.function.LongUnaryOperator;
 import java.util.function.Supplier;
 import java.util.function.ToIntFunction;
 
 import org.agrona.MutableDirectBuffer;
+import org.reaktivity.nukleus.budget.BudgetCreditor;
 import org.reaktivity.nukleus.buffer.BufferPool;
+import org.reaktivity.nukleus.concurrent.Signaler;
 import org.reaktivity.nukleus.http.internal.HttpConfiguration;
+import org.reaktivity.nukleus.http.internal.HttpNukleus;
+import org.reaktivity.nukleus.http.internal.util.HttpRequestCoalescer;
+import org.reaktivity.nukleus.http.internal.util.HttpResponseCache;
+import org.reaktivity.nukleus.http.internal.util.HttpValidatorStore;
+import org.reaktivity.nukleus.http2.internal.Http2Configuration;
+import org.reaktivity.nukleus.http2.internal.stream.Http2ServerFactory;
+import org.reaktivity.nukleus.http2.internal.stream.Http2ServerFactoryBuilder;
 import org.reaktivity.nukleus.route.RouteManager;
 import org.reaktivity.nukleus.stream.StreamFactory;
 import org.reaktivity.nukleus.stream.StreamFactoryBuilder;
@@ -29,18 +43,26 @@ import org.reaktivity.nukleus.stream.StreamFactoryBuilder;
 public final class HttpServerFactoryBuilder implements StreamFactoryBuilder
 {
     private final HttpConfiguration config;
+    private final LongSupplier supplyRoutesVersion;
 
     private RouteManager router;
     private MutableDirectBuffer writeBuffer;
     private LongUnaryOperator supplyInitialId;
     private LongUnaryOperator supplyReplyId;
+    private LongSupplier supplyBudgetId;
+    private BudgetCreditor creditor;
     private ToIntFunction<String> supplyTypeId;
     private Supplier<BufferPool> supplyBufferPool;
+    private Function<String, LongSupplier> supplyCounter;
+    private Function<String, LongConsumer> supplyAccumulator;
+    private Signaler signaler;
 
     public HttpServerFactoryBuilder(
-        HttpConfiguration config)
+        HttpConfiguration config,
+        LongSupplier supplyRoutesVersion)
     {
         this.config = config;
+        this.supplyRoutesVersion = supplyRoutesVersion;
     }
 
     @Override
@@ -75,6 +97,22 @@ public final class HttpServerFactoryBuilder implements StreamFactoryBuilder
         return this;
     }
 
+    @Override
+    public StreamFactoryBuilder setBudgetIdSupplier(
+        LongSupplier supplyBudgetId)
+    {
+        this.supplyBudgetId = supplyBudgetId;
+        return this;
+    }
+
+    @Override
+    public StreamFactoryBuilder setBudgetCreditor(
+        BudgetCreditor creditor)
+    {
+        this.creditor = creditor;
+        return this;
+    }
+
     @Override
     public StreamFactoryBuilder setTypeIdSupplier(
         ToIntFunction<String> supplyTypeId)
@@ -91,18 +129,92 @@ public final class HttpServerFactoryBuilder implements StreamFactoryBuilder
         return this;
     }
 
+    @Override
+    public StreamFactoryBuilder setCounterSupplier(
+        Function<String, LongSupplier> supplyCounter)
+    {
+        this.supplyCounter = supplyCounter;
+        return this;
+    }
+
+    @Override
+    public StreamFactoryBuilder setAccumulatorSupplier(
+        Function<String, LongConsumer> supplyAccumulator)
+    {
+        this.supplyAccumulator = supplyAccumulator;
+        return this;
+    }
+
+    @Override
+    public StreamFactoryBuilder setSignaler(
+        Signaler signaler)
+    {
+        this.signaler = signaler;
+        return this;
+    }
+
     @Override
     public StreamFactory build()
     {
         final BufferPool bufferPool = supplyBufferPool.get();
 
+        HttpResponseCache cache = null;
+        if (config.serverCacheCapacity() > 0)
+        {
+            cache = new HttpResponseCache("http.server.cache", config.serverCacheCapacity(), config.serverCacheBlockSize(),
+                    System::currentTimeMillis, supplyCounter);
+        }
+
+        HttpRequestCoalescer coalescer = null;
+        if (config.serverCoalesce())
+        {
+            coalescer = new HttpRequestCoalescer("http.server.coalesce", config.serverCoalesceHeaders(),
+                    config.serverCoalesceMaximumResponseSize(), supplyCounter);
+        }
+
+        HttpValidatorStore validators = null;
+        if (config.serverValidatorsCapacity() > 0)
+        {
+            validators = new HttpValidatorStore("http.server.validators", config.serverValidatorsCapacity(),
+                    SECONDS.toMillis(config.serverValidatorsMaximumAge()), System::currentTimeMillis, supplyCounter);
+        }
+
+        Http2ServerFactory h2c = null;
+        if (config.serverUpgradeH2c() || config.serverDetectH2c())
+        {
+            final Http2ServerFactoryBuilder h2cBuilder =
+                    new Http2ServerFactoryBuilder(new Http2Configuration(config), HttpNukleus.NAME, supplyRoutesVersion);
+            h2cBuilder.setRouteManager(router);
+            h2cBuilder.setWriteBuffer(writeBuffer);
+            h2cBuilder.setInitialIdSupplier(supplyInitialId);
+            h2cBuilder.setReplyIdSupplier(supplyReplyId);
+            h2cBuilder.setBudgetIdSupplier(supplyBudgetId);
+            h2cBuilder.setBudgetCreditor(creditor);
+            h2cBuilder.setTypeIdSupplier(supplyTypeId);
+            h2cBuilder.setBufferPoolSupplier(() -> bufferPool);
+            h2cBuilder.setCounterSupplier(supplyCounter);
+            h2cBuilder.setSignaler(signaler);
+            h2cBuilder.setResponseCache(cache);
+            h2cBuilder.setRequestCoalescer(coalescer);
+            h2cBuilder.setValidatorStore(validators);
+            h2c = h2cBuilder.build();
+        }
+
         return new HttpServerFactory(
                 config,
                 router,
+                supplyRoutesVersion,
                 writeBuffer,
                 bufferPool,
                 supplyInitialId,
                 supplyReplyId,
-                supplyTypeId);
+                supplyTypeId,
+                supplyCounter,
+                supplyAccumulator,
+                signaler,
+                cache,
+                coalescer,
+                validators,
+                h2c);
     }
 }
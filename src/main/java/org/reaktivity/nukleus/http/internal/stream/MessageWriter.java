@@ -166,6 +166,25 @@ final class MessageWriter
         receiver.accept(begin.typeId(), begin.buffer(), begin.offset(), begin.sizeof());
     }
 
+    void doHttpBegin(
+        MessageConsumer receiver,
+        long routeId,
+        long streamId,
+        long traceId,
+        long affinity,
+        Flyweight extension)
+    {
+        final BeginFW begin = beginRW.wrap(writeBuffer, 0, writeBuffer.capacity())
+                .routeId(routeId)
+                .streamId(streamId)
+                .traceId(traceId)
+                .affinity(affinity)
+                .extension(extension.buffer(), extension.offset(), extension.sizeof())
+                .build();
+
+        receiver.accept(begin.typeId(), begin.buffer(), begin.offset(), begin.sizeof());
+    }
+
     void doHttpData(
         MessageConsumer receiver,
         long routeId,
@@ -15,17 +15,37 @@
  */
 package org.reaktivity.nukleus.http.internal.util;
 
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+import static org.agrona.BitUtil.SIZE_OF_LONG;
+
 import org.agrona.DirectBuffer;
 
 public final class BufferUtil
 {
+    private static final long BYTES_LOW = 0x0101_0101_0101_0101L;
+    private static final long BYTES_HIGH = 0x8080_8080_8080_8080L;
+
     public static int indexOfByte(
         DirectBuffer buffer,
         int offset,
         int limit,
         byte value)
     {
-        for (int cursor = offset; cursor < limit; cursor++)
+        final long pattern = (value & 0xffL) * BYTES_LOW;
+
+        int cursor = offset;
+        for (; cursor <= limit - SIZE_OF_LONG; cursor += SIZE_OF_LONG)
+        {
+            final long word = buffer.getLong(cursor, LITTLE_ENDIAN) ^ pattern;
+            final long matches = (word - BYTES_LOW) & ~word & BYTES_HIGH;
+
+            if (matches != 0L)
+            {
+                return cursor + (Long.numberOfTrailingZeros(matches) >>> 3);
+            }
+        }
+
+        for (; cursor < limit; cursor++)
         {
             if (buffer.getByte(cursor) == value)
             {
@@ -42,19 +62,21 @@ public final class BufferUtil
         int limit,
         byte[] value)
     {
-        int matchedBytes = 0;
+        final int candidateLimit = limit - value.length + 1;
 
-        for (int cursor = offset; cursor < limit; cursor++)
+        for (int cursor = indexOfByte(buffer, offset, candidateLimit, value[0]);
+             cursor != -1;
+             cursor = indexOfByte(buffer, cursor + 1, candidateLimit, value[0]))
         {
-            if (buffer.getByte(cursor) != value[matchedBytes])
+            int matchedBytes = 1;
+            while (matchedBytes < value.length && buffer.getByte(cursor + matchedBytes) == value[matchedBytes])
             {
-                matchedBytes = 0;
-                continue;
+                matchedBytes++;
             }
 
-            if (value.length == ++matchedBytes)
+            if (matchedBytes == value.length)
             {
-                return cursor + 1;
+                return cursor + matchedBytes;
             }
         }
 
@@ -103,6 +125,76 @@ public final class BufferUtil
         return -1;
     }
 
+    public static long hash(
+        long hash,
+        DirectBuffer value)
+    {
+        long result = hash * 31L;
+        if (value != null)
+        {
+            for (int index = 0; index < value.capacity(); index++)
+            {
+                result = result * 31L + value.getByte(index);
+            }
+        }
+        return result;
+    }
+
+    public static int skipSpaces(
+        DirectBuffer buffer,
+        int offset,
+        int limit)
+    {
+        int progress = offset;
+        while (progress < limit && (buffer.getByte(progress) == ' ' || buffer.getByte(progress) == '\t'))
+        {
+            progress++;
+        }
+        return progress;
+    }
+
+    public static boolean matchesIgnoreCase(
+        DirectBuffer buffer,
+        int offset,
+        int limit,
+        byte[] value)
+    {
+        // value is lower case, so folding only the buffer is enough
+        boolean match = limit - offset == value.length;
+        for (int i = 0; match && i < value.length; i++)
+        {
+            final byte b = buffer.getByte(offset + i);
+            match = (b >= 'A' && b <= 'Z' ? (byte) (b | 0x20) : b) == value[i];
+        }
+        return match;
+    }
+
+    public static boolean containsDirective(
+        DirectBuffer value,
+        byte[] directive)
+    {
+        boolean found = false;
+        final int limit = value.capacity();
+        for (int progress = 0; !found && progress < limit; )
+        {
+            int directiveLimit = progress;
+            while (directiveLimit < limit && value.getByte(directiveLimit) != ',')
+            {
+                directiveLimit++;
+            }
+
+            final int nameAt = skipSpaces(value, progress, directiveLimit);
+            int nameLimit = nameAt;
+            while (nameLimit < directiveLimit && value.getByte(nameLimit) != '=' && value.getByte(nameLimit) != ' ')
+            {
+                nameLimit++;
+            }
+
+            found = matchesIgnoreCase(value, nameAt, nameLimit, directive);
+            progress = directiveLimit + 1;
+        }
+        return found;
+    }
 
     private BufferUtil()
     {
@@ -0,0 +1,206 @@
+/**
+ * Copyright 2016-2020 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http.internal.util;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+import java.util.function.LongSupplier;
+
+import org.agrona.DirectBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+
+/**
+ * Pre-formatted IMF-fixdate {@code Date} header value, formatted at most once per second.
+ */
+public final class HttpDateHeader
+{
+    public static final int LENGTH = 29;
+
+    private static final long SECONDS_PER_DAY = 86400L;
+    private static final byte[] DAYS = "ThuFriSatSunMonTueWed".getBytes(US_ASCII);
+    private static final byte[] MONTHS = "JanFebMarAprMayJunJulAugSepOctNovDec".getBytes(US_ASCII);
+    private static final byte[] GMT_BYTES = " GMT".getBytes(US_ASCII);
+
+    private final LongSupplier clock;
+    private final MutableDirectBuffer value;
+
+    private long second;
+
+    public HttpDateHeader(
+        LongSupplier clock)
+    {
+        this.clock = clock;
+        this.value = new UnsafeBuffer(new byte[LENGTH]);
+        this.second = Long.MIN_VALUE;
+    }
+
+    public DirectBuffer value()
+    {
+        final long now = Math.floorDiv(clock.getAsLong(), 1000L);
+        if (now != second)
+        {
+            format(now);
+            second = now;
+        }
+        return value;
+    }
+
+    public static long parse(
+        DirectBuffer value)
+    {
+        return parse(value, 0, value.capacity());
+    }
+
+    public static long parse(
+        DirectBuffer buffer,
+        int offset,
+        int limit)
+    {
+        long epochMillis = -1L;
+
+        if (limit - offset == LENGTH &&
+            buffer.getByte(offset + 3) == ',' &&
+            buffer.getByte(offset + 19) == ':' &&
+            buffer.getByte(offset + 22) == ':' &&
+            matchBytes(buffer, offset + 25, GMT_BYTES, 0, GMT_BYTES.length))
+        {
+            final int day = parseDigits(buffer, offset + 5, 2);
+            final int month = indexOfMonth(buffer, offset + 8);
+            final int year = parseDigits(buffer, offset + 12, 4);
+            final int hour = parseDigits(buffer, offset + 17, 2);
+            final int minute = parseDigits(buffer, offset + 20, 2);
+            final int second = parseDigits(buffer, offset + 23, 2);
+
+            if (day >= 1 && day <= 31 && month != -1 && year != -1 &&
+                hour >= 0 && hour < 24 && minute >= 0 && minute < 60 && second >= 0 && second < 61)
+            {
+                final long epochDay = epochDay(year, month, day);
+                epochMillis = ((epochDay * SECONDS_PER_DAY) + hour * 3600L + minute * 60L + second) * 1000L;
+            }
+        }
+
+        return epochMillis;
+    }
+
+    private void format(
+        long epochSecond)
+    {
+        final long epochDay = Math.floorDiv(epochSecond, SECONDS_PER_DAY);
+        final int secondOfDay = (int) Math.floorMod(epochSecond, SECONDS_PER_DAY);
+
+        // civil date from days since epoch, proleptic Gregorian calendar
+        final long shifted = epochDay + 719468L;
+        final long era = Math.floorDiv(shifted, 146097L);
+        final int dayOfEra = (int) (shifted - era * 146097L);
+        final int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        final int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        final int monthIndex = (5 * dayOfYear + 2) / 153;
+        final int day = dayOfYear - (153 * monthIndex + 2) / 5 + 1;
+        final int month = monthIndex < 10 ? monthIndex + 2 : monthIndex - 10;
+        final long year = yearOfEra + era * 400L + (month < 2 ? 1 : 0);
+
+        final int dayOfWeek = (int) Math.floorMod(epochDay, 7L);
+
+        value.putBytes(0, DAYS, dayOfWeek * 3, 3);
+        value.putByte(3, (byte) ',');
+        value.putByte(4, (byte) ' ');
+        putDigits(5, day, 2);
+        value.putByte(7, (byte) ' ');
+        value.putBytes(8, MONTHS, month * 3, 3);
+        value.putByte(11, (byte) ' ');
+        putDigits(12, (int) year, 4);
+        value.putByte(16, (byte) ' ');
+        putDigits(17, secondOfDay / 3600, 2);
+        value.putByte(19, (byte) ':');
+        putDigits(20, secondOfDay / 60 % 60, 2);
+        value.putByte(22, (byte) ':');
+        putDigits(23, secondOfDay % 60, 2);
+        value.putBytes(25, GMT_BYTES);
+    }
+
+    private void putDigits(
+        int offset,
+        int number,
+        int digits)
+    {
+        int remaining = number;
+        for (int index = offset + digits - 1; index >= offset; index--)
+        {
+            value.putByte(index, (byte) ('0' + remaining % 10));
+            remaining /= 10;
+        }
+    }
+
+    private static long epochDay(
+        int year,
+        int month,
+        int day)
+    {
+        // days since epoch from civil date, proleptic Gregorian calendar
+        final int shiftedYear = month < 2 ? year - 1 : year;
+        final int era = Math.floorDiv(shiftedYear, 400);
+        final int yearOfEra = shiftedYear - era * 400;
+        final int shiftedMonth = month < 2 ? month + 10 : month - 2;
+        final int dayOfYear = (153 * shiftedMonth + 2) / 5 + day - 1;
+        final int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097L + dayOfEra - 719468L;
+    }
+
+    private static int indexOfMonth(
+        DirectBuffer buffer,
+        int offset)
+    {
+        int month = -1;
+        for (int index = 0; month == -1 && index < MONTHS.length; index += 3)
+        {
+            if (matchBytes(buffer, offset, MONTHS, index, 3))
+            {
+                month = index / 3;
+            }
+        }
+        return month;
+    }
+
+    private static int parseDigits(
+        DirectBuffer buffer,
+        int offset,
+        int digits)
+    {
+        int number = 0;
+        for (int index = offset; number != -1 && index < offset + digits; index++)
+        {
+            final byte b = buffer.getByte(index);
+            number = b >= '0' && b <= '9' ? number * 10 + b - '0' : -1;
+        }
+        return number;
+    }
+
+    private static boolean matchBytes(
+        DirectBuffer buffer,
+        int offset,
+        byte[] bytes,
+        int index,
+        int length)
+    {
+        boolean match = true;
+        for (int i = 0; match && i < length; i++)
+        {
+            match = buffer.getByte(offset + i) == bytes[index + i];
+        }
+        return match;
+    }
+}
@@ -0,0 +1,150 @@
+/**
+ * Copyright 2016-2020 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http.internal.util;
+
+import java.util.function.Predicate;
+
+import org.agrona.collections.Long2ObjectHashMap;
+
+/**
+ * Entries chained by hash through {@code sibling}, and ordered by recency through {@code newer} and {@code older}.
+ */
+final class HttpEntryTable<E extends HttpEntryTable.Node<E>>
+{
+    private final Long2ObjectHashMap<E> chains = new Long2ObjectHashMap<>();
+
+    private E newest;
+    private E oldest;
+
+    E first(
+        long hash)
+    {
+        return chains.get(hash);
+    }
+
+    E leastRecent(
+        Predicate<E> evictable)
+    {
+        E candidate = oldest;
+        while (candidate != null && !evictable.test(candidate))
+        {
+            candidate = candidate.newer;
+        }
+        return candidate;
+    }
+
+    void insert(
+        E entry)
+    {
+        assert !entry.linked;
+
+        entry.sibling = chains.get(entry.hash);
+        chains.put(entry.hash, entry);
+        entry.linked = true;
+        link(entry);
+    }
+
+    void remove(
+        E entry)
+    {
+        if (entry.linked)
+        {
+            final E first = chains.get(entry.hash);
+            if (first == entry)
+            {
+                if (entry.sibling != null)
+                {
+                    chains.put(entry.hash, entry.sibling);
+                }
+                else
+                {
+                    chains.remove(entry.hash);
+                }
+            }
+            else
+            {
+                E previous = first;
+                while (previous.sibling != entry)
+                {
+                    previous = previous.sibling;
+                }
+                previous.sibling = entry.sibling;
+            }
+            entry.sibling = null;
+            entry.linked = false;
+            unlink(entry);
+        }
+    }
+
+    void touch(
+        E entry)
+    {
+        assert entry.linked;
+
+        unlink(entry);
+        link(entry);
+    }
+
+    private void link(
+        E entry)
+    {
+        entry.older = newest;
+        entry.newer = null;
+        if (newest != null)
+        {
+            newest.newer = entry;
+        }
+        newest = entry;
+        if (oldest == null)
+        {
+            oldest = entry;
+        }
+    }
+
+    private void unlink(
+        E entry)
+    {
+        if (entry.newer != null)
+        {
+            entry.newer.older = entry.older;
+        }
+        else
+        {
+            newest = entry.older;
+        }
+
+        if (entry.older != null)
+        {
+            entry.older.newer = entry.newer;
+        }
+        else
+        {
+            oldest = entry.newer;
+        }
+
+        entry.newer = null;
+        entry.older = null;
+    }
+
+    abstract static class Node<E extends Node<E>>
+    {
+        long hash;
+        boolean linked;
+        E sibling;
+        E newer;
+        E older;
+    }
+}
@@ -0,0 +1,365 @@
+/**
+ * Copyright 2016-2020 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http.internal.util;
+
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.reaktivity.nukleus.http.internal.util.BufferUtil.matchesIgnoreCase;
+import static org.reaktivity.nukleus.http.internal.util.BufferUtil.skipSpaces;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import org.agrona.DirectBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+
+/**
+ * Streaming gzip encoder for response bodies.
+ * <p>
+ * Encoding a chunk grows it by at most {@link #padding()} bytes, and finishing a stream writes at most
+ * {@link #TAIL_SIZE} bytes, so callers can account for encoded output in flow control up front.
+ */
+public final class HttpGzipEncoder
+{
+    public static final int FRAMING_SIZE = 32;
+    public static final int TAIL_SIZE = 32;
+
+    private static final byte[] GZIP_HEADER =
+    {
+        0x1f, (byte) 0x8b, Deflater.DEFLATED, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, (byte) 0xff
+    };
+    private static final int SYNC_FLUSH_SIZE = 5;
+    private static final int MAXIMUM_POOLED = 64;
+    private static final int STATUS_CODE_LENGTH = 3;
+
+    private static final byte[] GZIP_BYTES = "gzip".getBytes(US_ASCII);
+    private static final byte[] X_GZIP_BYTES = "x-gzip".getBytes(US_ASCII);
+    private static final byte[] ANY_BYTES = "*".getBytes(US_ASCII);
+    private static final byte[] ACCEPT_ENCODING_BYTES = "accept-encoding".getBytes(US_ASCII);
+    private static final byte[] VARY_SEPARATOR_BYTES = ", ".getBytes(US_ASCII);
+    private static final byte[] ETAG_SUFFIX_BYTES = "-gzip".getBytes(US_ASCII);
+
+    private final int level;
+    private final int capacity;
+    private final int padding;
+    private final byte[] input;
+    private final byte[] output;
+    private final MutableDirectBuffer outputRW;
+    private final Deque<Stream> pool;
+
+    public HttpGzipEncoder(
+        int level,
+        int capacity)
+    {
+        this.level = level;
+        this.capacity = capacity;
+        this.padding = GZIP_HEADER.length + SYNC_FLUSH_SIZE + (capacity >> 12) + (capacity >> 14) + (capacity >> 25) + 13;
+        this.input = new byte[capacity];
+        this.output = new byte[FRAMING_SIZE + capacity + padding + TAIL_SIZE + FRAMING_SIZE];
+        this.outputRW = new UnsafeBuffer(output);
+        this.pool = new ArrayDeque<>();
+    }
+
+    public int capacity()
+    {
+        return capacity;
+    }
+
+    public int padding()
+    {
+        return padding;
+    }
+
+    public MutableDirectBuffer buffer()
+    {
+        return outputRW;
+    }
+
+    public Stream acquire()
+    {
+        Stream stream = pool.poll();
+        if (stream == null)
+        {
+            stream = new Stream();
+        }
+        return stream;
+    }
+
+    public static boolean encodableStatus(
+        DirectBuffer status)
+    {
+        int code = status.capacity() == STATUS_CODE_LENGTH ? 0 : -1;
+        for (int i = 0; code != -1 && i < STATUS_CODE_LENGTH; i++)
+        {
+            final byte b = status.getByte(i);
+            code = b >= '0' && b <= '9' ? code * 10 + b - '0' : -1;
+        }
+
+        // no body, partial body or body already validated by the client
+        return code >= 200 && code != 204 && code != 206 && code != 304;
+    }
+
+    public static boolean acceptsGzip(
+        DirectBuffer value)
+    {
+        return acceptsGzip(value, 0, value.capacity());
+    }
+
+    public static boolean acceptsGzip(
+        DirectBuffer buffer,
+        int offset,
+        int limit)
+    {
+        int gzip = -1;
+        int any = -1;
+
+        int progress = offset;
+        while (progress < limit)
+        {
+            int elementLimit = progress;
+            while (elementLimit < limit && buffer.getByte(elementLimit) != ',')
+            {
+                elementLimit++;
+            }
+
+            int codingAt = skipSpaces(buffer, progress, elementLimit);
+            int codingLimit = codingAt;
+            while (codingLimit < elementLimit && !isDelimiter(buffer.getByte(codingLimit)))
+            {
+                codingLimit++;
+            }
+
+            if (matchesIgnoreCase(buffer, codingAt, codingLimit, GZIP_BYTES) ||
+                matchesIgnoreCase(buffer, codingAt, codingLimit, X_GZIP_BYTES))
+            {
+                gzip = Math.max(gzip, qualified(buffer, codingLimit, elementLimit) ? 1 : 0);
+            }
+            else if (matchesIgnoreCase(buffer, codingAt, codingLimit, ANY_BYTES))
+            {
+                any = qualified(buffer, codingLimit, elementLimit) ? 1 : 0;
+            }
+
+            progress = elementLimit + 1;
+        }
+
+        return gzip != -1 ? gzip == 1 : any == 1;
+    }
+
+    public static int encodeVary(
+        DirectBuffer vary,
+        MutableDirectBuffer buffer,
+        int offset)
+    {
+        final int length = vary.capacity();
+        buffer.putBytes(offset, vary, 0, length);
+
+        int progress = offset + length;
+        if (!varies(vary))
+        {
+            buffer.putBytes(progress, VARY_SEPARATOR_BYTES);
+            progress += VARY_SEPARATOR_BYTES.length;
+            buffer.putBytes(progress, ACCEPT_ENCODING_BYTES);
+            progress += ACCEPT_ENCODING_BYTES.length;
+        }
+        return progress;
+    }
+
+    public static int encodeETag(
+        DirectBuffer etag,
+        MutableDirectBuffer buffer,
+        int offset)
+    {
+        // the suffix keeps validators for the encoded and identity representations apart, even under weak comparison
+        final int length = etag.capacity();
+        final boolean quoted = length > 1 && etag.getByte(length - 1) == '"';
+        final int tagLength = quoted ? length - 1 : length;
+        buffer.putBytes(offset, etag, 0, tagLength);
+
+        int progress = offset + tagLength;
+        buffer.putBytes(progress, ETAG_SUFFIX_BYTES);
+        progress += ETAG_SUFFIX_BYTES.length;
+        if (quoted)
+        {
+            buffer.putByte(progress++, (byte) '"');
+        }
+        return progress;
+    }
+
+    private static boolean varies(
+        DirectBuffer vary)
+    {
+        boolean varies = false;
+
+        final int limit = vary.capacity();
+        for (int progress = 0; !varies && progress < limit; )
+        {
+            int elementLimit = progress;
+            while (elementLimit < limit && vary.getByte(elementLimit) != ',')
+            {
+                elementLimit++;
+            }
+
+            final int nameAt = skipSpaces(vary, progress, elementLimit);
+            int nameLimit = elementLimit;
+            while (nameLimit > nameAt && isDelimiter(vary.getByte(nameLimit - 1)))
+            {
+                nameLimit--;
+            }
+
+            varies = matchesIgnoreCase(vary, nameAt, nameLimit, ACCEPT_ENCODING_BYTES) ||
+                     matchesIgnoreCase(vary, nameAt, nameLimit, ANY_BYTES);
+
+            progress = elementLimit + 1;
+        }
+
+        return varies;
+    }
+
+    private static boolean qualified(
+        DirectBuffer buffer,
+        int offset,
+        int limit)
+    {
+        boolean qualified = true;
+
+        int progress = offset;
+        while (progress < limit)
+        {
+            final int paramAt = skipSpaces(buffer, progress + 1, limit);
+            if (paramAt + 1 < limit &&
+                (buffer.getByte(paramAt) | 0x20) == 'q' &&
+                buffer.getByte(paramAt + 1) == '=')
+            {
+                qualified = false;
+                for (int i = paramAt + 2; i < limit && !qualified && !isDelimiter(buffer.getByte(i)); i++)
+                {
+                    final byte b = buffer.getByte(i);
+                    qualified = b >= '1' && b <= '9';
+                }
+            }
+
+            progress = paramAt;
+            while (progress < limit && buffer.getByte(progress) != ';')
+            {
+                progress++;
+            }
+        }
+
+        return qualified;
+    }
+
+    private static boolean isDelimiter(
+        byte b)
+    {
+        return b == ';' || b == ' ' || b == '\t';
+    }
+
+    public final class Stream
+    {
+        private final Deflater deflater;
+        private final CRC32 checksum;
+
+        private boolean started;
+        private int size;
+
+        private Stream()
+        {
+            this.deflater = new Deflater(level, true);
+            this.checksum = new CRC32();
+        }
+
+        public int encode(
+            DirectBuffer buffer,
+            int offset,
+            int limit,
+            int outputAt)
+        {
+            final int length = limit - offset;
+            assert length <= capacity;
+            assert outputAt <= FRAMING_SIZE;
+
+            int progress = encodeHeaderIfNecessary(outputAt);
+
+            if (length > 0)
+            {
+                buffer.getBytes(offset, input, 0, length);
+                checksum.update(input, 0, length);
+                size += length;
+
+                deflater.setInput(input, 0, length);
+                progress += deflater.deflate(output, progress, output.length - progress, Deflater.SYNC_FLUSH);
+            }
+
+            return progress;
+        }
+
+        public int finish(
+            int outputAt)
+        {
+            assert outputAt <= FRAMING_SIZE;
+
+            int progress = encodeHeaderIfNecessary(outputAt);
+
+            deflater.finish();
+            while (!deflater.finished())
+            {
+                progress += deflater.deflate(output, progress, output.length - progress);
+            }
+
+            outputRW.putInt(progress, (int) checksum.getValue(), LITTLE_ENDIAN);
+            progress += Integer.BYTES;
+            outputRW.putInt(progress, size, LITTLE_ENDIAN);
+            progress += Integer.BYTES;
+
+            assert progress - outputAt <= TAIL_SIZE;
+
+            return progress;
+        }
+
+        public void release()
+        {
+            deflater.reset();
+            checksum.reset();
+            started = false;
+            size = 0;
+
+            if (pool.size() < MAXIMUM_POOLED)
+            {
+                pool.offer(this);
+            }
+            else
+            {
+                deflater.end();
+            }
+        }
+
+        private int encodeHeaderIfNecessary(
+            int outputAt)
+        {
+            int progress = outputAt;
+            if (!started)
+            {
+                outputRW.putBytes(progress, GZIP_HEADER);
+                progress += GZIP_HEADER.length;
+                started = true;
+            }
+            return progress;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+/**
+ * Copyright 2016-2020 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http.internal.util;
+
+import static org.agrona.BitUtil.findNextPositivePowerOfTwo;
+
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+
+/**
+ * Bounded cache of HTTP/1.1 header names in wire form, followed by {@code ": "}, keyed by lowercase name.
+ */
+public final class HttpHeaderNameCache
+{
+    public static final int MAXIMUM_NAME_LENGTH = 255;
+
+    private static final byte COLON_BYTE = ':';
+    private static final byte HYPHEN_BYTE = '-';
+    private static final byte SPACE_BYTE = ' ';
+    private static final int COLON_SPACE_LENGTH = 2;
+
+    private final boolean lowercase;
+    private final int maximumSize;
+    private final byte[][] entries;
+    private final int mask;
+    private final byte[] scratch;
+    private final UnsafeBuffer entryRO;
+
+    private int size;
+
+    public HttpHeaderNameCache(
+        int maximumSize,
+        boolean lowercase)
+    {
+        final int capacity = findNextPositivePowerOfTwo(Math.max(maximumSize, 1) << 1);
+
+        this.lowercase = lowercase;
+        this.maximumSize = maximumSize;
+        this.entries = new byte[capacity][];
+        this.mask = capacity - 1;
+        this.scratch = new byte[MAXIMUM_NAME_LENGTH + COLON_SPACE_LENGTH];
+        this.entryRO = new UnsafeBuffer(0L, 0);
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    public DirectBuffer supplyName(
+        DirectBuffer name,
+        int offset,
+        int length)
+    {
+        assert length <= MAXIMUM_NAME_LENGTH;
+
+        int index = hash(name, offset, length) & mask;
+        for (byte[] entry = entries[index]; ; index = (index + 1) & mask, entry = entries[index])
+        {
+            if (entry == null)
+            {
+                if (size < maximumSize)
+                {
+                    entry = new byte[length + COLON_SPACE_LENGTH];
+                    encodeName(name, offset, length, entry);
+                    entries[index] = entry;
+                    size++;
+                    entryRO.wrap(entry);
+                }
+                else
+                {
+                    encodeName(name, offset, length, scratch);
+                    entryRO.wrap(scratch, 0, length + COLON_SPACE_LENGTH);
+                }
+                break;
+            }
+            else if (matches(entry, name, offset, length))
+            {
+                entryRO.wrap(entry);
+                break;
+            }
+        }
+
+        return entryRO;
+    }
+
+    private void encodeName(
+        DirectBuffer name,
+        int offset,
+        int length,
+        byte[] wireName)
+    {
+        boolean uppercase = !lowercase;
+        for (int index = 0; index < length; index++)
+        {
+            final byte ch = name.getByte(offset + index);
+            wireName[index] = uppercase ? toUpperCase(ch) : toLowerCase(ch);
+            uppercase = !lowercase && ch == HYPHEN_BYTE;
+        }
+        wireName[length] = COLON_BYTE;
+        wireName[length + 1] = SPACE_BYTE;
+    }
+
+    private static boolean matches(
+        byte[] entry,
+        DirectBuffer name,
+        int offset,
+        int length)
+    {
+        boolean matches = entry.length == length + COLON_SPACE_LENGTH;
+        for (int index = 0; matches && index < length; index++)
+        {
+            matches = toLowerCase(entry[index]) == toLowerCase(name.getByte(offset + index));
+        }
+        return matches;
+    }
+
+    private static int hash(
+        DirectBuffer name,
+        int offset,
+        int length)
+    {
+        int hash = 0;
+        for (int index = 0; index < length; index++)
+        {
+            hash = 31 * hash + toLowerCase(name.getByte(offset + index));
+        }
+        return mix(hash);
+    }
+
+    private static int mix(
+        int hash)
+    {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static byte toUpperCase(
+        byte ch)
+    {
+        return ch >= 'a' && ch <= 'z' ? (byte) (ch & ~0x20) : ch;
+    }
+
+    private static byte toLowerCase(
+        byte ch)
+    {
+        return ch >= 'A' && ch <= 'Z' ? (byte) (ch | 0x20) : ch;
+    }
+}
@@ -0,0 +1,101 @@
+/**
+ * Copyright 2016-2020 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http.internal.util;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+import org.agrona.collections.Long2ObjectHashMap;
+
+/**
+ * Per-route log-bucketed latency histograms published as counters.
+ * <p>
+ * Bucket {@code k} counts latencies in {@code [2^(k-1), 2^k)} microseconds, with bucket {@code 0} counting
+ * sub-microsecond latencies and the last bucket counting everything beyond.  Each bucket is published as
+ * {@code <prefix>.route.<routeId>.latency.<begin|end>.<k>}, allocated on first use, so recording is
+ * allocation free once a route has warmed up.
+ */
+public final class HttpLatencyHistograms
+{
+    public static final int BUCKET_COUNT = 32;
+
+    private final Function<String, LongSupplier> supplyCounter;
+    private final String prefix;
+    private final Long2ObjectHashMap<LongSupplier[]> beginBuckets;
+    private final Long2ObjectHashMap<LongSupplier[]> endBuckets;
+
+    public HttpLatencyHistograms(
+        String prefix,
+        Function<String, LongSupplier> supplyCounter)
+    {
+        this.prefix = prefix;
+        this.supplyCounter = supplyCounter;
+        this.beginBuckets = new Long2ObjectHashMap<>();
+        this.endBuckets = new Long2ObjectHashMap<>();
+    }
+
+    public void recordBegin(
+        long routeId,
+        long requestAt,
+        long beginAt)
+    {
+        record(beginBuckets, "begin", routeId, requestAt, beginAt);
+    }
+
+    public void recordEnd(
+        long routeId,
+        long requestAt,
+        long endAt)
+    {
+        record(endBuckets, "end", routeId, requestAt, endAt);
+    }
+
+    public static int bucket(
+        long nanos)
+    {
+        final long micros = NANOSECONDS.toMicros(Math.max(nanos, 0L));
+        return Math.min(Long.SIZE - Long.numberOfLeadingZeros(micros), BUCKET_COUNT - 1);
+    }
+
+    private void record(
+        Long2ObjectHashMap<LongSupplier[]> histograms,
+        String kind,
+        long routeId,
+        long requestAt,
+        long responseAt)
+    {
+        if (requestAt != 0L && responseAt != 0L)
+        {
+            LongSupplier[] buckets = histograms.get(routeId);
+            if (buckets == null)
+            {
+                buckets = new LongSupplier[BUCKET_COUNT];
+                histograms.put(routeId, buckets);
+            }
+
+            final int bucket = bucket(responseAt - requestAt);
+            LongSupplier counter = buckets[bucket];
+            if (counter == null)
+            {
+                counter = supplyCounter.apply(String.format("%s.route.%d.latency.%s.%d", prefix, routeId, kind, bucket));
+                buckets[bucket] = counter;
+            }
+            counter.getAsLong();
+        }
+    }
+}
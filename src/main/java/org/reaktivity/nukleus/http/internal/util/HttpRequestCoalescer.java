@@ -0,0 +1,465 @@
+/**
+ * Copyright 2016-2020 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http.internal.util;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.reaktivity.nukleus.http.internal.util.BufferUtil.containsDirective;
+import static org.reaktivity.nukleus.http.internal.util.BufferUtil.hash;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+import java.util.function.LongSupplier;
+
+import org.agrona.DirectBuffer;
+import org.agrona.ExpandableArrayBuffer;
+import org.agrona.ExpandableDirectByteBuffer;
+import org.reaktivity.nukleus.http.internal.types.Array32FW;
+import org.reaktivity.nukleus.http.internal.types.HttpHeaderFW;
+import org.reaktivity.nukleus.http.internal.types.OctetsFW;
+import org.reaktivity.nukleus.http.internal.types.String16FW;
+import org.reaktivity.nukleus.http.internal.types.String8FW;
+import org.reaktivity.nukleus.http.internal.types.stream.HttpBeginExFW;
+
+/**
+ * Collapses identical in-flight {@code GET} and {@code HEAD} requests onto the stream of the leading request.
+ * <p>
+ * When a flight fails, followers that have not begun their response reissue the request themselves, while
+ * followers already replaying it are aborted.
+ */
+public final class HttpRequestCoalescer
+{
+    private static final String8FW HEADER_AUTHORITY = new String8FW(":authority");
+    private static final String8FW HEADER_AUTHORIZATION = new String8FW("authorization");
+    private static final String8FW HEADER_CACHE_CONTROL = new String8FW("cache-control");
+    private static final String8FW HEADER_METHOD = new String8FW(":method");
+    private static final String8FW HEADER_PATH = new String8FW(":path");
+    private static final String8FW HEADER_SCHEME = new String8FW(":scheme");
+    private static final String8FW HEADER_SET_COOKIE = new String8FW("set-cookie");
+
+    private static final String16FW METHOD_GET = new String16FW("GET");
+    private static final String16FW METHOD_HEAD = new String16FW("HEAD");
+
+    private static final byte[] PRIVATE_BYTES = "private".getBytes(US_ASCII);
+
+    private static final int MAXIMUM_POOLED = 16;
+
+    private final String8FW[] keyNames;
+    private final int maximumResponseSize;
+    private final LongSupplier followers;
+    private final LongSupplier overflows;
+    private final HttpEntryTable<Flight> flights;
+    private final Deque<Flight> pool;
+
+    public HttpRequestCoalescer(
+        String prefix,
+        String keyHeaders,
+        int maximumResponseSize,
+        Function<String, LongSupplier> supplyCounter)
+    {
+        this.keyNames = keyNames(keyHeaders);
+        this.maximumResponseSize = maximumResponseSize;
+        this.followers = supplyCounter.apply(prefix + ".followers");
+        this.overflows = supplyCounter.apply(prefix + ".overflows");
+        this.flights = new HttpEntryTable<>();
+        this.pool = new ArrayDeque<>();
+    }
+
+    public static boolean coalescable(
+        Array32FW<HttpHeaderFW> request)
+    {
+        return request.matchFirst(h -> HEADER_METHOD.equals(h.name()) &&
+                                       (METHOD_GET.equals(h.value()) || METHOD_HEAD.equals(h.value()))) != null &&
+               request.matchFirst(h -> HEADER_AUTHORIZATION.equals(h.name())) == null;
+    }
+
+    public Flight lookup(
+        long routeId,
+        Array32FW<HttpHeaderFW> request)
+    {
+        Flight found = null;
+        for (Flight flight = flights.first(hashKey(routeId, request)); flight != null && found == null; flight = flight.sibling)
+        {
+            if (flight.matches(routeId, request))
+            {
+                found = flight;
+            }
+        }
+        return found;
+    }
+
+    public Flight lead(
+        long routeId,
+        HttpBeginExFW beginEx)
+    {
+        Flight flight = pool.poll();
+        if (flight == null)
+        {
+            flight = new Flight();
+        }
+        flight.init(routeId, beginEx);
+        flights.insert(flight);
+
+        return flight;
+    }
+
+    private long hashKey(
+        long routeId,
+        Array32FW<HttpHeaderFW> request)
+    {
+        long hash = routeId;
+        for (String8FW keyName : keyNames)
+        {
+            final HttpHeaderFW header = request.matchFirst(h -> keyName.equals(h.name()));
+            hash = hash(hash, header != null ? header.value().value() : null);
+        }
+        return hash;
+    }
+
+    private static boolean matches(
+        Array32FW<HttpHeaderFW> headers,
+        Array32FW<HttpHeaderFW> request,
+        String8FW name)
+    {
+        final HttpHeaderFW header = headers.matchFirst(h -> name.equals(h.name()));
+        final DirectBuffer value = header != null ? header.value().value() : null;
+        final HttpHeaderFW candidate = request.matchFirst(h -> name.equals(h.name()));
+        final DirectBuffer candidateValue = candidate != null ? candidate.value().value() : null;
+        return value == null ? candidateValue == null : candidateValue != null && value.equals(candidateValue);
+    }
+
+    private static boolean personalized(
+        Array32FW<HttpHeaderFW> response)
+    {
+        return response.matchFirst(h -> HEADER_SET_COOKIE.equals(h.name())) != null ||
+               response.matchFirst(h -> HEADER_CACHE_CONTROL.equals(h.name()) &&
+                                        containsDirective(h.value().value(), PRIVATE_BYTES)) != null;
+    }
+
+    private static String8FW[] keyNames(
+        String keyHeaders)
+    {
+        final String[] names = keyHeaders != null && !keyHeaders.trim().isEmpty()
+                ? keyHeaders.trim().toLowerCase().split("\\s*,\\s*")
+                : new String[0];
+
+        final String8FW[] keyNames = new String8FW[4 + names.length];
+        keyNames[0] = HEADER_METHOD;
+        keyNames[1] = HEADER_SCHEME;
+        keyNames[2] = HEADER_AUTHORITY;
+        keyNames[3] = HEADER_PATH;
+        for (int index = 0; index < names.length; index++)
+        {
+            keyNames[4 + index] = new String8FW(names[index]);
+        }
+        return keyNames;
+    }
+
+    public final class Flight extends HttpEntryTable.Node<Flight>
+    {
+        private final ExpandableArrayBuffer requestBuffer = new ExpandableArrayBuffer();
+        private final HttpBeginExFW beginExRO = new HttpBeginExFW();
+        private final ExpandableDirectByteBuffer responseBuffer = new ExpandableDirectByteBuffer();
+        private final Array32FW<HttpHeaderFW> headersRO = new Array32FW<>(new HttpHeaderFW());
+        private final ExpandableArrayBuffer trailersBuffer = new ExpandableArrayBuffer();
+        private final Array32FW<HttpHeaderFW> trailersRO = new Array32FW<>(new HttpHeaderFW());
+        private final OctetsFW bodyRO = new OctetsFW();
+
+        private long routeId;
+        private int headersLimit;
+        private int length;
+        private boolean begun;
+        private boolean complete;
+        private boolean failed;
+
+        private LongConsumer[] listeners = new LongConsumer[8];
+        private int listenerCount;
+        private int followerCount;
+        private boolean notifying;
+        private boolean leading;
+
+        private Flight()
+        {
+        }
+
+        public HttpBeginExFW beginEx()
+        {
+            return beginExRO;
+        }
+
+        public boolean begun()
+        {
+            return begun;
+        }
+
+        public boolean complete()
+        {
+            return complete;
+        }
+
+        public boolean failed()
+        {
+            return failed;
+        }
+
+        public boolean followed()
+        {
+            return followerCount != 0;
+        }
+
+        public Array32FW<HttpHeaderFW> headers()
+        {
+            assert begun;
+            return headersRO.wrap(responseBuffer, 0, headersLimit);
+        }
+
+        public int length()
+        {
+            return length;
+        }
+
+        public OctetsFW body(
+            int progress,
+            int maxLength)
+        {
+            final int offset = headersLimit + progress;
+            return bodyRO.wrap(responseBuffer, offset, offset + Math.min(length - progress, maxLength));
+        }
+
+        public Array32FW<HttpHeaderFW> trailers()
+        {
+            assert complete;
+            return trailersRO;
+        }
+
+        public void follow(
+            LongConsumer listener)
+        {
+            assert linked;
+
+            if (listenerCount == listeners.length)
+            {
+                compact();
+            }
+
+            if (listenerCount == listeners.length)
+            {
+                listeners = Arrays.copyOf(listeners, listenerCount << 1);
+            }
+
+            listeners[listenerCount++] = listener;
+            followerCount++;
+            followers.getAsLong();
+        }
+
+        public void unfollow(
+            LongConsumer listener)
+        {
+            int index = listenerCount - 1;
+            while (index >= 0 && listeners[index] != listener)
+            {
+                index--;
+            }
+
+            if (index >= 0)
+            {
+                listeners[index] = null;
+                followerCount--;
+
+                if (!notifying)
+                {
+                    compact();
+                }
+
+                recycleIfUnused();
+            }
+        }
+
+        public void begin(
+            long traceId,
+            Array32FW<HttpHeaderFW> response)
+        {
+            if (!failed)
+            {
+                final int headersLimit = response.sizeof();
+
+                if (personalized(response) || headersLimit > maximumResponseSize)
+                {
+                    fail(traceId);
+                }
+                else
+                {
+                    responseBuffer.putBytes(0, response.buffer(), response.offset(), headersLimit);
+                    this.headersLimit = headersLimit;
+                    this.begun = true;
+                    notifyListeners(traceId);
+                }
+            }
+        }
+
+        public void append(
+            long traceId,
+            DirectBuffer buffer,
+            int offset,
+            int limit)
+        {
+            if (!failed && !complete)
+            {
+                final int newLength = length + limit - offset;
+
+                if (headersLimit + newLength > maximumResponseSize)
+                {
+                    overflows.getAsLong();
+                    fail(traceId);
+                }
+                else
+                {
+                    responseBuffer.putBytes(headersLimit + length, buffer, offset, limit - offset);
+                    length = newLength;
+                    notifyListeners(traceId);
+                }
+            }
+        }
+
+        public void end(
+            long traceId,
+            Array32FW<HttpHeaderFW> trailers)
+        {
+            if (!failed && !complete)
+            {
+                flights.remove(this);
+                trailersBuffer.putBytes(0, trailers.buffer(), trailers.offset(), trailers.sizeof());
+                trailersRO.wrap(trailersBuffer, 0, trailers.sizeof());
+                complete = true;
+                notifyListeners(traceId);
+            }
+        }
+
+        public void abort(
+            long traceId)
+        {
+            if (!failed && !complete)
+            {
+                fail(traceId);
+            }
+        }
+
+        public void release(
+            long traceId)
+        {
+            assert leading;
+
+            abort(traceId);
+            leading = false;
+            recycleIfUnused();
+        }
+
+        private void init(
+            long routeId,
+            HttpBeginExFW beginEx)
+        {
+            this.routeId = routeId;
+            this.hash = hashKey(routeId, beginEx.headers());
+            this.requestBuffer.putBytes(0, beginEx.buffer(), beginEx.offset(), beginEx.sizeof());
+            this.beginExRO.wrap(requestBuffer, 0, beginEx.sizeof());
+            this.leading = true;
+        }
+
+        private boolean matches(
+            long routeId,
+            Array32FW<HttpHeaderFW> request)
+        {
+            boolean matches = this.routeId == routeId;
+            final Array32FW<HttpHeaderFW> headers = beginExRO.headers();
+            for (int index = 0; matches && index < keyNames.length; index++)
+            {
+                matches = HttpRequestCoalescer.matches(headers, request, keyNames[index]);
+            }
+            return matches;
+        }
+
+        private void fail(
+            long traceId)
+        {
+            flights.remove(this);
+            failed = true;
+            notifyListeners(traceId);
+        }
+
+        private void notifyListeners(
+            long traceId)
+        {
+            // listeners may unfollow while notified, leaving gaps that are compacted afterwards
+            final boolean wasNotifying = notifying;
+            notifying = true;
+
+            for (int index = 0; index < listenerCount; index++)
+            {
+                final LongConsumer listener = listeners[index];
+                if (listener != null)
+                {
+                    listener.accept(traceId);
+                }
+            }
+
+            notifying = wasNotifying;
+
+            if (!notifying)
+            {
+                compact();
+                recycleIfUnused();
+            }
+        }
+
+        private void compact()
+        {
+            int count = 0;
+            for (int index = 0; index < listenerCount; index++)
+            {
+                final LongConsumer listener = listeners[index];
+                if (listener != null)
+                {
+                    listeners[count++] = listener;
+                }
+            }
+            Arrays.fill(listeners, count, listenerCount, null);
+            listenerCount = count;
+        }
+
+        private void recycleIfUnused()
+        {
+            if (!leading && followerCount == 0 && !notifying)
+            {
+                assert !linked;
+
+                Arrays.fill(listeners, 0, listenerCount, null);
+                listenerCount = 0;
+                headersLimit = 0;
+                length = 0;
+                begun = false;
+                complete = false;
+                failed = false;
+
+                if (pool.size() < MAXIMUM_POOLED)
+                {
+                    pool.offer(this);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,782 @@
+/**
+ * Copyright 2016-2020 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http.internal.util;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.reaktivity.nukleus.http.internal.util.BufferUtil.hash;
+import static org.reaktivity.nukleus.http.internal.util.BufferUtil.matchesIgnoreCase;
+import static org.reaktivity.nukleus.http.internal.util.BufferUtil.skipSpaces;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+import org.agrona.DirectBuffer;
+import org.agrona.ExpandableArrayBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.collections.IntArrayList;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.reaktivity.nukleus.http.internal.types.Array32FW;
+import org.reaktivity.nukleus.http.internal.types.HttpHeaderFW;
+import org.reaktivity.nukleus.http.internal.types.OctetsFW;
+import org.reaktivity.nukleus.http.internal.types.String16FW;
+import org.reaktivity.nukleus.http.internal.types.String8FW;
+
+/**
+ * Cache of complete {@code GET} responses, each held in a chain of fixed-size arena blocks.
+ * <p>
+ * Entries still being served are skipped by eviction, and free their blocks on last release.
+ */
+public final class HttpResponseCache
+{
+    private static final String8FW HEADER_AGE = new String8FW("age");
+    private static final String8FW HEADER_AUTHORITY = new String8FW(":authority");
+    private static final String8FW HEADER_AUTHORIZATION = new String8FW("authorization");
+    private static final String8FW HEADER_CACHE_CONTROL = new String8FW("cache-control");
+    private static final String8FW HEADER_DATE = new String8FW("date");
+    private static final String8FW HEADER_EXPIRES = new String8FW("expires");
+    private static final String8FW HEADER_METHOD = new String8FW(":method");
+    private static final String8FW HEADER_PATH = new String8FW(":path");
+    private static final String8FW HEADER_PRAGMA = new String8FW("pragma");
+    private static final String8FW HEADER_SCHEME = new String8FW(":scheme");
+    private static final String8FW HEADER_SET_COOKIE = new String8FW("set-cookie");
+    private static final String8FW HEADER_STATUS = new String8FW(":status");
+    private static final String8FW HEADER_VARY = new String8FW("vary");
+
+    private static final String16FW METHOD_GET = new String16FW("GET");
+    private static final String16FW STATUS_200 = new String16FW("200");
+
+    private static final byte[] MAX_AGE_BYTES = "max-age".getBytes(US_ASCII);
+    private static final byte[] NO_CACHE_BYTES = "no-cache".getBytes(US_ASCII);
+    private static final byte[] NO_STORE_BYTES = "no-store".getBytes(US_ASCII);
+    private static final byte[] PRIVATE_BYTES = "private".getBytes(US_ASCII);
+    private static final byte[] S_MAXAGE_BYTES = "s-maxage".getBytes(US_ASCII);
+    private static final byte[] ANY_BYTES = "*".getBytes(US_ASCII);
+
+    private static final long UNCACHEABLE = -2L;
+    private static final long NO_MAX_AGE = -1L;
+
+    private static final int MAXIMUM_POOLED = 64;
+    private static final int AGE_HEADER_SIZE = 64;
+
+    private final MutableDirectBuffer arena;
+    private final int blockSize;
+    private final int maximumEntrySize;
+    private final int[] freeBlocks;
+    private final LongSupplier clock;
+    private final LongSupplier hits;
+    private final LongSupplier misses;
+    private final LongSupplier evictions;
+    private final HttpEntryTable<Entry> entries;
+    private final Deque<Writer> writers;
+    private final Predicate<Entry> evictable = Entry::evictable;
+
+    private final ExpandableArrayBuffer itemsBuffer = new ExpandableArrayBuffer();
+    private final ExpandableArrayBuffer headersBuffer = new ExpandableArrayBuffer();
+    private final MutableDirectBuffer ageBuffer = new UnsafeBuffer(new byte[Long.toString(Long.MAX_VALUE).length()]);
+    private final Array32FW.Builder<HttpHeaderFW.Builder, HttpHeaderFW> headersRW =
+            new Array32FW.Builder<>(new HttpHeaderFW.Builder(), new HttpHeaderFW());
+    private final OctetsFW bodyRO = new OctetsFW();
+    private final Consumer<HttpHeaderFW.Builder> ageHeader = this::ageHeader;
+    private final Consumer<HttpHeaderFW> varyHeader = this::varyHeader;
+
+    private int freeCount;
+    private int ageLength;
+    private Entry varyEntry;
+    private int varyMatches;
+    private boolean varyMismatch;
+
+    public HttpResponseCache(
+        String prefix,
+        int capacity,
+        int blockSize,
+        LongSupplier clock,
+        Function<String, LongSupplier> supplyCounter)
+    {
+        final int blockCount = capacity / blockSize;
+        this.arena = new UnsafeBuffer(ByteBuffer.allocateDirect(blockCount * blockSize));
+        this.blockSize = blockSize;
+        this.maximumEntrySize = blockCount * blockSize >> 2;
+        this.freeBlocks = new int[blockCount];
+        this.clock = clock;
+        this.hits = supplyCounter.apply(prefix + ".hits");
+        this.misses = supplyCounter.apply(prefix + ".misses");
+        this.evictions = supplyCounter.apply(prefix + ".evictions");
+        this.entries = new HttpEntryTable<>();
+        this.writers = new ArrayDeque<>();
+
+        for (int block = blockCount - 1; block >= 0; block--)
+        {
+            freeBlocks[freeCount++] = block;
+        }
+    }
+
+    public static boolean cacheable(
+        Array32FW<HttpHeaderFW> request)
+    {
+        return request.matchFirst(h -> HEADER_METHOD.equals(h.name()) && METHOD_GET.equals(h.value())) != null &&
+               request.matchFirst(h -> HEADER_AUTHORIZATION.equals(h.name())) == null &&
+               request.matchFirst(h -> HEADER_CACHE_CONTROL.equals(h.name()) &&
+                                       maxAge(h.value().value()) == UNCACHEABLE) == null &&
+               request.matchFirst(h -> HEADER_PRAGMA.equals(h.name()) &&
+                                       maxAge(h.value().value()) == UNCACHEABLE) == null;
+    }
+
+    public Entry lookup(
+        long routeId,
+        Array32FW<HttpHeaderFW> request)
+    {
+        final long now = clock.getAsLong();
+        final long hash = hashKey(routeId, request);
+
+        Entry found = null;
+        for (Entry entry = entries.first(hash); entry != null && found == null; )
+        {
+            final Entry sibling = entry.sibling;
+            if (entry.matches(routeId, request))
+            {
+                if (entry.expiresAt > now)
+                {
+                    found = entry;
+                }
+                else
+                {
+                    remove(entry);
+                }
+            }
+            entry = sibling;
+        }
+
+        if (found != null)
+        {
+            hits.getAsLong();
+            entries.touch(found);
+            found.readers++;
+        }
+        else
+        {
+            misses.getAsLong();
+        }
+
+        return found;
+    }
+
+    public Writer supplyWriter(
+        long routeId,
+        Array32FW<HttpHeaderFW> request)
+    {
+        Writer writer = writers.poll();
+        if (writer == null)
+        {
+            writer = new Writer();
+        }
+        writer.init(routeId, request);
+        return writer;
+    }
+
+    private boolean acquireBlock(
+        IntArrayList blocks)
+    {
+        while (freeCount == 0 && evictLeastRecent())
+        {
+            evictions.getAsLong();
+        }
+
+        final boolean acquired = freeCount != 0;
+        if (acquired)
+        {
+            blocks.addInt(freeBlocks[--freeCount]);
+        }
+        return acquired;
+    }
+
+    private boolean evictLeastRecent()
+    {
+        final Entry candidate = entries.leastRecent(evictable);
+        if (candidate != null)
+        {
+            remove(candidate);
+        }
+        return candidate != null;
+    }
+
+    private void remove(
+        Entry entry)
+    {
+        entries.remove(entry);
+
+        if (entry.readers == 0)
+        {
+            entry.freeBlocks();
+        }
+    }
+
+    private void insert(
+        Entry entry)
+    {
+        for (Entry existing = entries.first(entry.hash); existing != null; )
+        {
+            final Entry sibling = existing.sibling;
+            if (existing.replacedBy(entry))
+            {
+                remove(existing);
+            }
+            existing = sibling;
+        }
+
+        entries.insert(entry);
+    }
+
+    private void write(
+        IntArrayList blocks,
+        int position,
+        DirectBuffer buffer,
+        int offset,
+        int length)
+    {
+        for (int progress = 0; progress < length; )
+        {
+            final int at = position + progress;
+            final int blockOffset = at % blockSize;
+            final int blockLength = Math.min(blockSize - blockOffset, length - progress);
+            arena.putBytes(blocks.getInt(at / blockSize) * blockSize + blockOffset, buffer, offset + progress, blockLength);
+            progress += blockLength;
+        }
+    }
+
+    private void read(
+        int[] blocks,
+        int position,
+        MutableDirectBuffer buffer,
+        int length)
+    {
+        for (int progress = 0; progress < length; )
+        {
+            final int at = position + progress;
+            final int blockOffset = at % blockSize;
+            final int blockLength = Math.min(blockSize - blockOffset, length - progress);
+            buffer.putBytes(progress, arena, blocks[at / blockSize] * blockSize + blockOffset, blockLength);
+            progress += blockLength;
+        }
+    }
+
+    private void ageHeader(
+        HttpHeaderFW.Builder header)
+    {
+        header.name(HEADER_AGE).value(ageBuffer, 0, ageLength);
+    }
+
+    private void varyHeader(
+        HttpHeaderFW header)
+    {
+        final DirectBuffer name = header.name().value();
+        final byte[][] varyNames = varyEntry.varyNames;
+        for (int index = 0; index < varyNames.length; index++)
+        {
+            if (matches(name, varyNames[index]))
+            {
+                final byte[] varyValue = varyEntry.varyValues[index];
+                if (varyValue != null && matches(header.value().value(), varyValue))
+                {
+                    varyMatches++;
+                }
+                else
+                {
+                    varyMismatch = true;
+                }
+            }
+        }
+    }
+
+    private static long hashKey(
+        long routeId,
+        Array32FW<HttpHeaderFW> request)
+    {
+        long hash = routeId;
+
+        final HttpHeaderFW scheme = request.matchFirst(h -> HEADER_SCHEME.equals(h.name()));
+        hash = hash(hash, scheme != null ? scheme.value().value() : null);
+
+        final HttpHeaderFW authority = request.matchFirst(h -> HEADER_AUTHORITY.equals(h.name()));
+        hash = hash(hash, authority != null ? authority.value().value() : null);
+
+        final HttpHeaderFW path = request.matchFirst(h -> HEADER_PATH.equals(h.name()));
+        hash = hash(hash, path != null ? path.value().value() : null);
+
+        return hash;
+    }
+
+    private static byte[] valueOf(
+        Array32FW<HttpHeaderFW> headers,
+        String8FW name)
+    {
+        final HttpHeaderFW header = headers.matchFirst(h -> name.equals(h.name()));
+        byte[] value = null;
+        if (header != null)
+        {
+            final DirectBuffer buffer = header.value().value();
+            value = new byte[buffer.capacity()];
+            buffer.getBytes(0, value);
+        }
+        return value;
+    }
+
+    private static boolean matches(
+        Array32FW<HttpHeaderFW> headers,
+        String8FW name,
+        byte[] value)
+    {
+        final HttpHeaderFW header = headers.matchFirst(h -> name.equals(h.name()));
+        return header != null ? value != null && matches(header.value().value(), value) : value == null;
+    }
+
+    private static boolean matches(
+        DirectBuffer buffer,
+        byte[] value)
+    {
+        boolean match = buffer.capacity() == value.length;
+        for (int index = 0; match && index < value.length; index++)
+        {
+            match = buffer.getByte(index) == value[index];
+        }
+        return match;
+    }
+
+    private static long maxAge(
+        DirectBuffer value)
+    {
+        long maxAge = NO_MAX_AGE;
+        long sharedMaxAge = NO_MAX_AGE;
+        boolean uncacheable = false;
+
+        final int limit = value.capacity();
+        for (int progress = 0; progress < limit; )
+        {
+            int directiveLimit = progress;
+            while (directiveLimit < limit && value.getByte(directiveLimit) != ',')
+            {
+                directiveLimit++;
+            }
+
+            final int nameAt = skipSpaces(value, progress, directiveLimit);
+            int nameLimit = nameAt;
+            while (nameLimit < directiveLimit && value.getByte(nameLimit) != '=' && value.getByte(nameLimit) != ' ')
+            {
+                nameLimit++;
+            }
+
+            if (matchesIgnoreCase(value, nameAt, nameLimit, NO_CACHE_BYTES) ||
+                matchesIgnoreCase(value, nameAt, nameLimit, NO_STORE_BYTES) ||
+                matchesIgnoreCase(value, nameAt, nameLimit, PRIVATE_BYTES))
+            {
+                uncacheable = true;
+            }
+            else if (matchesIgnoreCase(value, nameAt, nameLimit, MAX_AGE_BYTES))
+            {
+                maxAge = parseSeconds(value, nameLimit, directiveLimit);
+            }
+            else if (matchesIgnoreCase(value, nameAt, nameLimit, S_MAXAGE_BYTES))
+            {
+                sharedMaxAge = parseSeconds(value, nameLimit, directiveLimit);
+            }
+
+            progress = directiveLimit + 1;
+        }
+
+        return uncacheable ? UNCACHEABLE : sharedMaxAge != NO_MAX_AGE ? sharedMaxAge : maxAge;
+    }
+
+    private static long parseSeconds(
+        DirectBuffer value,
+        int offset,
+        int limit)
+    {
+        int progress = skipSpaces(value, offset, limit);
+        long seconds = NO_MAX_AGE;
+        if (progress < limit && value.getByte(progress) == '=')
+        {
+            progress++;
+            seconds = progress < limit ? 0L : NO_MAX_AGE;
+            for (; seconds != NO_MAX_AGE && progress < limit && value.getByte(progress) != ' '; progress++)
+            {
+                final byte b = value.getByte(progress);
+                seconds = b >= '0' && b <= '9' && seconds < Integer.MAX_VALUE ? seconds * 10 + b - '0' : NO_MAX_AGE;
+            }
+        }
+        return seconds;
+    }
+
+    private static long expiresAt(
+        Array32FW<HttpHeaderFW> response,
+        long now)
+    {
+        long expiresAt = -1L;
+
+        final HttpHeaderFW cacheControl = response.matchFirst(h -> HEADER_CACHE_CONTROL.equals(h.name()));
+        final long maxAge = cacheControl != null ? maxAge(cacheControl.value().value()) : NO_MAX_AGE;
+
+        if (maxAge >= 0L)
+        {
+            expiresAt = now + maxAge * 1000L;
+        }
+        else if (maxAge == NO_MAX_AGE)
+        {
+            final HttpHeaderFW expires = response.matchFirst(h -> HEADER_EXPIRES.equals(h.name()));
+            final long expiresValue = expires != null ? HttpDateHeader.parse(expires.value().value()) : -1L;
+
+            final HttpHeaderFW date = response.matchFirst(h -> HEADER_DATE.equals(h.name()));
+            final long dateValue = date != null ? HttpDateHeader.parse(date.value().value()) : -1L;
+
+            if (expiresValue != -1L)
+            {
+                // relative to the origin clock when known, tolerating clock skew
+                expiresAt = dateValue != -1L ? now + expiresValue - dateValue : expiresValue;
+            }
+        }
+
+        return expiresAt;
+    }
+
+    private static byte[][] varyNames(
+        DirectBuffer value)
+    {
+        int count = 0;
+        final int limit = value.capacity();
+        for (int progress = 0; progress <= limit; progress++)
+        {
+            if (progress == limit || value.getByte(progress) == ',')
+            {
+                count++;
+            }
+        }
+
+        final byte[][] names = new byte[count][];
+        int index = 0;
+        for (int progress = 0; index < count; )
+        {
+            int nameLimit = progress;
+            while (nameLimit < limit && value.getByte(nameLimit) != ',')
+            {
+                nameLimit++;
+            }
+
+            final int nameAt = skipSpaces(value, progress, nameLimit);
+            int nameEnd = nameLimit;
+            while (nameEnd > nameAt && value.getByte(nameEnd - 1) == ' ')
+            {
+                nameEnd--;
+            }
+
+            final byte[] name = new byte[nameEnd - nameAt];
+            for (int i = 0; i < name.length; i++)
+            {
+                final byte b = value.getByte(nameAt + i);
+                name[i] = b >= 'A' && b <= 'Z' ? (byte) (b | 0x20) : b;
+            }
+            names[index++] = name;
+
+            progress = nameLimit + 1;
+        }
+
+        return names;
+    }
+
+    private static int putDecimal(
+        MutableDirectBuffer buffer,
+        long value)
+    {
+        int length = 1;
+        for (long remaining = value / 10; remaining > 0; remaining /= 10)
+        {
+            length++;
+        }
+
+        long remaining = value;
+        for (int index = length - 1; index >= 0; index--)
+        {
+            buffer.putByte(index, (byte) ('0' + remaining % 10));
+            remaining /= 10;
+        }
+        return length;
+    }
+
+    public final class Entry extends HttpEntryTable.Node<Entry>
+    {
+        private final long routeId;
+        private final byte[] scheme;
+        private final byte[] authority;
+        private final byte[] path;
+        private final byte[][] varyNames;
+        private final byte[][] varyValues;
+        private final int[] blocks;
+        private final int headersLength;
+        private final int headersCount;
+        private final int headersMaxLength;
+        private final int length;
+        private final long storedAt;
+        private final long expiresAt;
+
+        private int readers;
+
+        private Entry(
+            Writer writer,
+            byte[][] varyNames)
+        {
+            final Array32FW<HttpHeaderFW> request = writer.requestRO;
+            this.routeId = writer.routeId;
+            this.hash = writer.hash;
+            this.scheme = valueOf(request, HEADER_SCHEME);
+            this.authority = valueOf(request, HEADER_AUTHORITY);
+            this.path = valueOf(request, HEADER_PATH);
+            this.varyNames = varyNames;
+            this.varyValues = new byte[varyNames.length][];
+            for (int index = 0; index < varyNames.length; index++)
+            {
+                final byte[] varyName = varyNames[index];
+                final HttpHeaderFW header = request.matchFirst(h -> HttpResponseCache.matches(h.name().value(), varyName));
+                if (header != null)
+                {
+                    final DirectBuffer value = header.value().value();
+                    varyValues[index] = new byte[value.capacity()];
+                    value.getBytes(0, varyValues[index]);
+                }
+            }
+            this.blocks = writer.blocks.toIntArray();
+            this.headersLength = writer.headersLength;
+            this.headersCount = writer.headersCount;
+            this.headersMaxLength = writer.headersMaxLength;
+            this.length = writer.length - writer.headersLength;
+            this.storedAt = writer.storedAt;
+            this.expiresAt = writer.expiresAt;
+        }
+
+        public Array32FW<HttpHeaderFW> headers()
+        {
+            final long age = Math.max(clock.getAsLong() - storedAt, 0L) / 1000L;
+            ageLength = putDecimal(ageBuffer, age);
+
+            itemsBuffer.checkLimit(headersLength);
+            read(blocks, 0, itemsBuffer, headersLength);
+
+            headersBuffer.checkLimit(Integer.BYTES * 2 + headersLength + AGE_HEADER_SIZE);
+            return headersRW.wrap(headersBuffer, 0, headersBuffer.capacity())
+                            .items(itemsBuffer, 0, headersLength, headersCount, headersMaxLength)
+                            .item(ageHeader)
+                            .build();
+        }
+
+        public int length()
+        {
+            return length;
+        }
+
+        public OctetsFW body(
+            int progress,
+            int maxLength)
+        {
+            final int at = headersLength + progress;
+            final int blockOffset = at % blockSize;
+            final int bodyLength = Math.min(Math.min(blockSize - blockOffset, length - progress), maxLength);
+            final int offset = blocks[at / blockSize] * blockSize + blockOffset;
+            return bodyRO.wrap(arena, offset, offset + bodyLength);
+        }
+
+        public void release()
+        {
+            assert readers > 0;
+            readers--;
+
+            if (!linked && readers == 0)
+            {
+                freeBlocks();
+            }
+        }
+
+        private boolean matches(
+            long routeId,
+            Array32FW<HttpHeaderFW> request)
+        {
+            boolean matches = this.routeId == routeId &&
+                    HttpResponseCache.matches(request, HEADER_SCHEME, scheme) &&
+                    HttpResponseCache.matches(request, HEADER_AUTHORITY, authority) &&
+                    HttpResponseCache.matches(request, HEADER_PATH, path);
+
+            if (matches && varyNames.length != 0)
+            {
+                varyEntry = this;
+                varyMatches = 0;
+                varyMismatch = false;
+                request.forEach(varyHeader);
+                varyEntry = null;
+
+                int expected = 0;
+                for (byte[] varyValue : varyValues)
+                {
+                    expected += varyValue != null ? 1 : 0;
+                }
+                matches = !varyMismatch && varyMatches == expected;
+            }
+
+            return matches;
+        }
+
+        private boolean replacedBy(
+            Entry entry)
+        {
+            boolean replaced = routeId == entry.routeId &&
+                    Arrays.equals(scheme, entry.scheme) &&
+                    Arrays.equals(authority, entry.authority) &&
+                    Arrays.equals(path, entry.path) &&
+                    varyNames.length == entry.varyNames.length;
+
+            for (int index = 0; replaced && index < varyNames.length; index++)
+            {
+                replaced = Arrays.equals(varyNames[index], entry.varyNames[index]) &&
+                           Arrays.equals(varyValues[index], entry.varyValues[index]);
+            }
+
+            return replaced;
+        }
+
+        private boolean evictable()
+        {
+            return readers == 0;
+        }
+
+        private void freeBlocks()
+        {
+            for (int index = blocks.length - 1; index >= 0; index--)
+            {
+                freeBlocks[freeCount++] = blocks[index];
+            }
+        }
+    }
+
+    public final class Writer
+    {
+        private final ExpandableArrayBuffer request = new ExpandableArrayBuffer();
+        private final Array32FW<HttpHeaderFW> requestRO = new Array32FW<>(new HttpHeaderFW());
+        private final IntArrayList blocks = new IntArrayList();
+
+        private long routeId;
+        private long hash;
+        private long storedAt;
+        private long expiresAt;
+        private byte[][] varyNames;
+        private int headersLength;
+        private int headersCount;
+        private int headersMaxLength;
+        private int length;
+
+        private Writer()
+        {
+        }
+
+        public boolean begin(
+            Array32FW<HttpHeaderFW> response)
+        {
+            final long now = clock.getAsLong();
+            final long expiresAt = response.matchFirst(h -> HEADER_STATUS.equals(h.name()) &&
+                                                            STATUS_200.equals(h.value())) != null &&
+                                   response.matchFirst(h -> HEADER_SET_COOKIE.equals(h.name())) == null
+                    ? expiresAt(response, now)
+                    : -1L;
+
+            final HttpHeaderFW vary = response.matchFirst(h -> HEADER_VARY.equals(h.name()));
+            final byte[][] varyNames = vary != null ? varyNames(vary.value().value()) : new byte[0][];
+
+            boolean begun = expiresAt > now;
+            for (int index = 0; begun && index < varyNames.length; index++)
+            {
+                begun = !Arrays.equals(varyNames[index], ANY_BYTES);
+            }
+
+            if (begun)
+            {
+                final DirectBuffer items = response.items();
+                this.storedAt = now;
+                this.expiresAt = expiresAt;
+                this.varyNames = varyNames;
+                this.headersLength = items.capacity();
+                this.headersCount = response.fieldCount();
+                this.headersMaxLength = response.maxLength();
+                begun = append(items, 0, items.capacity());
+            }
+
+            return begun;
+        }
+
+        public boolean append(
+            DirectBuffer buffer,
+            int offset,
+            int limit)
+        {
+            final int newLength = length + limit - offset;
+
+            boolean appended = newLength <= maximumEntrySize;
+            while (appended && blocks.size() * blockSize < newLength)
+            {
+                appended = acquireBlock(blocks);
+            }
+
+            if (appended)
+            {
+                write(blocks, length, buffer, offset, limit - offset);
+                length = newLength;
+            }
+
+            return appended;
+        }
+
+        public void commit()
+        {
+            insert(new Entry(this, varyNames));
+            blocks.clear();
+            release();
+        }
+
+        public void release()
+        {
+            for (int index = blocks.size() - 1; index >= 0; index--)
+            {
+                freeBlocks[freeCount++] = blocks.getInt(index);
+            }
+            blocks.clear();
+            varyNames = null;
+            length = 0;
+
+            if (writers.size() < MAXIMUM_POOLED)
+            {
+                writers.offer(this);
+            }
+        }
+
+        private void init(
+            long routeId,
+            Array32FW<HttpHeaderFW> request)
+        {
+            this.routeId = routeId;
+            this.hash = hashKey(routeId, request);
+            this.request.putBytes(0, request.buffer(), request.offset(), request.sizeof());
+            this.requestRO.wrap(this.request, 0, request.sizeof());
+        }
+    }
+}
@@ -0,0 +1,682 @@
+/**
+ * Copyright 2016-2020 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http.internal.util;
+
+import static java.util.Arrays.copyOf;
+
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+import org.agrona.DirectBuffer;
+import org.agrona.ExpandableArrayBuffer;
+import org.agrona.collections.Int2IntHashMap;
+import org.agrona.collections.Int2ObjectHashMap;
+import org.agrona.collections.Long2LongHashMap;
+import org.agrona.collections.Long2ObjectHashMap;
+import org.reaktivity.nukleus.function.MessageConsumer;
+import org.reaktivity.nukleus.function.MessageFunction;
+import org.reaktivity.nukleus.function.MessagePredicate;
+import org.reaktivity.nukleus.http.internal.types.Flyweight;
+import org.reaktivity.nukleus.http.internal.types.HttpHeaderFW;
+import org.reaktivity.nukleus.http.internal.types.OctetsFW;
+import org.reaktivity.nukleus.http.internal.types.String8FW;
+import org.reaktivity.nukleus.http.internal.types.control.HttpRouteExFW;
+import org.reaktivity.nukleus.http.internal.types.control.RouteFW;
+import org.reaktivity.nukleus.route.RouteManager;
+
+/**
+ * Index of HTTP routes hashed on their {@code :authority}, {@code :scheme} and {@code :method} headers.
+ * <p>
+ * Candidates are confirmed in route table order, with {@code :path} prefix routes taking the position of their
+ * earliest match, and the longest matching prefix preferred among them.
+ */
+public final class HttpRouteIndex
+{
+    private static final String8FW HEADER_AUTHORITY = new String8FW(":authority");
+    private static final String8FW HEADER_SCHEME = new String8FW(":scheme");
+    private static final String8FW HEADER_METHOD = new String8FW(":method");
+    private static final String8FW HEADER_PATH = new String8FW(":path");
+
+    private static final int AUTHORITY = 0x01;
+    private static final int SCHEME = 0x02;
+    private static final int METHOD = 0x04;
+    private static final int PATTERNS = 0x08;
+
+    private static final byte NO_PATH = 0;
+    private static final byte EXACT_PATH = 1;
+    private static final byte PREFIX_PATH = 2;
+
+    private static final int MAXIMUM_AUTHORITIES = 4;
+    private static final int MAXIMUM_VISIBILITIES = 64;
+    private static final byte COLON_BYTE = ':';
+    private static final byte ASTERISK_BYTE = '*';
+    private static final long NO_ORDINAL = -1L;
+    private static final long NO_VERSION = -1L;
+    private static final int NO_ROUTE = -1;
+    private static final int NO_NODE = -1;
+    private static final int ROOT_NODE = 0;
+
+    private final RouteFW routeRO = new RouteFW();
+    private final HttpRouteExFW routeExRO = new HttpRouteExFW();
+
+    private final MessageFunction<DirectBuffer> routeTable = (t, b, i, l) -> b;
+    private final MessageConsumer indexRoute = this::indexRoute;
+    private final MessagePredicate visibleRoute = this::visibleRoute;
+    private final Flyweight.Visitor<HttpRouteExFW> wrapRouteEx = routeExRO::tryWrap;
+    private final Consumer<HttpHeaderFW> indexHeader = this::indexHeader;
+
+    private final String nukleus;
+    private final RouteManager router;
+    private final LongSupplier routesVersion;
+    private final int indexed;
+    private final String[] defaultPorts;
+    private final Long2LongHashMap ordinals;
+    private final Long2ObjectHashMap<Long2ObjectHashMap<Visibility>> visibilities;
+    private final Long2ObjectHashMap<int[]> buckets;
+    private final Int2IntHashMap edges;
+    private final Int2ObjectHashMap<int[]> prefixes;
+    private final int[] authorities;
+    private final ExpandableArrayBuffer path;
+
+    private DirectBuffer table;
+    private long version;
+    private int routeTypeId;
+    private int routeCount;
+    private int[] routeOffsets;
+    private int[] routeLengths;
+    private byte[] routePaths;
+    private int[] matchedNodes;
+    private int[] candidates;
+    private int nodeCount;
+    private int patterns;
+    private int visibilityCount;
+    private Visibility newest;
+    private Visibility oldest;
+    private long[] visible;
+
+    private int routePattern;
+    private int routeAuthority;
+    private int routeScheme;
+    private int routeMethod;
+    private int routeOrdinal;
+
+    private int queried;
+    private int authorityCount;
+    private int scheme;
+    private int method;
+    private int pathLength;
+
+    public HttpRouteIndex(
+        String nukleus,
+        RouteManager router,
+        LongSupplier routesVersion)
+    {
+        this(nukleus, router, routesVersion, true);
+    }
+
+    public HttpRouteIndex(
+        String nukleus,
+        RouteManager router,
+        LongSupplier routesVersion,
+        boolean schemeIndexed,
+        String... defaultPorts)
+    {
+        this.nukleus = nukleus;
+        this.router = router;
+        this.routesVersion = routesVersion;
+        this.indexed = schemeIndexed ? AUTHORITY | SCHEME | METHOD : AUTHORITY | METHOD;
+        this.defaultPorts = defaultPorts;
+        this.ordinals = new Long2LongHashMap(NO_ORDINAL);
+        this.visibilities = new Long2ObjectHashMap<>();
+        this.buckets = new Long2ObjectHashMap<>();
+        this.edges = new Int2IntHashMap(NO_NODE);
+        this.prefixes = new Int2ObjectHashMap<>();
+        this.authorities = new int[MAXIMUM_AUTHORITIES];
+        this.path = new ExpandableArrayBuffer();
+        this.routeOffsets = new int[0];
+        this.routeLengths = new int[0];
+        this.routePaths = new byte[0];
+        this.matchedNodes = new int[0];
+        this.candidates = new int[0];
+        this.pathLength = -1;
+        this.version = NO_VERSION;
+    }
+
+    public int size()
+    {
+        refresh();
+        return routeCount;
+    }
+
+    public void header(
+        HttpHeaderFW header)
+    {
+        final String8FW name = header.name();
+        final DirectBuffer value = header.value().value();
+
+        if (HEADER_AUTHORITY.equals(name))
+        {
+            final int length = value.capacity();
+            final int authority = hash(value, 0, length);
+            authority(authority);
+
+            if (BufferUtil.indexOfByte(value, 0, length, COLON_BYTE) == -1)
+            {
+                for (int index = 0; index < defaultPorts.length; index++)
+                {
+                    authority(hash(authority, defaultPorts[index]));
+                }
+            }
+        }
+        else if (HEADER_SCHEME.equals(name))
+        {
+            scheme(hash(value, 0, value.capacity()));
+        }
+        else if (HEADER_METHOD.equals(name))
+        {
+            method(hash(value, 0, value.capacity()));
+        }
+        else if (HEADER_PATH.equals(name))
+        {
+            pathLength = value.capacity();
+            path.putBytes(0, value, 0, pathLength);
+        }
+    }
+
+    public <R> R resolve(
+        long routeId,
+        long authorization,
+        MessagePredicate filter,
+        MessageFunction<R> mapper)
+    {
+        refresh();
+
+        visible = supplyVisible(routeId, authorization);
+
+        int ordinal = matchBuckets(filter);
+
+        // the longest matching prefix wins only if some matching prefix precedes the bucket match in table order
+        int prefixed = NO_ROUTE;
+        boolean preceding = false;
+        for (int index = 0, count = matchPrefixes(); !preceding && index < count; index++)
+        {
+            final int candidate = candidates[index];
+            final boolean ahead = ordinal == NO_ROUTE || candidate < ordinal;
+            if ((prefixed == NO_ROUTE || ahead) && matches(filter, candidate))
+            {
+                prefixed = prefixed == NO_ROUTE ? candidate : prefixed;
+                preceding = ahead;
+            }
+        }
+
+        if (preceding)
+        {
+            ordinal = prefixed;
+        }
+
+        queried = 0;
+        authorityCount = 0;
+        pathLength = -1;
+        visible = null;
+
+        return ordinal != NO_ROUTE ? mapper.apply(routeTypeId, table, routeOffsets[ordinal], routeLengths[ordinal]) : null;
+    }
+
+    public static boolean matchesPath(
+        DirectBuffer pattern,
+        DirectBuffer path)
+    {
+        final int patternLength = pattern.capacity();
+        final int pathLength = path.capacity();
+
+        boolean matches;
+        if (patternLength != 0 && pattern.getByte(patternLength - 1) == ASTERISK_BYTE)
+        {
+            final int prefixLength = patternLength - 1;
+            matches = pathLength >= prefixLength;
+            for (int index = 0; matches && index < prefixLength; index++)
+            {
+                matches = pattern.getByte(index) == path.getByte(index);
+            }
+        }
+        else
+        {
+            matches = patternLength == pathLength;
+            for (int index = 0; matches && index < patternLength; index++)
+            {
+                matches = pattern.getByte(index) == path.getByte(index);
+            }
+        }
+        return matches;
+    }
+
+    public static int hash(
+        DirectBuffer buffer,
+        int offset,
+        int length)
+    {
+        int hash = 0;
+        for (int index = 0; index < length; index++)
+        {
+            hash = 31 * hash + buffer.getByte(offset + index);
+        }
+        return hash;
+    }
+
+    public static int hash(
+        int hash,
+        CharSequence suffix)
+    {
+        for (int index = 0, length = suffix.length(); index < length; index++)
+        {
+            hash = 31 * hash + (byte) suffix.charAt(index);
+        }
+        return hash;
+    }
+
+    private void authority(
+        int hash)
+    {
+        if (authorityCount < MAXIMUM_AUTHORITIES)
+        {
+            authorities[authorityCount++] = hash;
+            queried |= AUTHORITY;
+        }
+    }
+
+    private void scheme(
+        int hash)
+    {
+        scheme = hash;
+        queried |= SCHEME & indexed;
+    }
+
+    private void method(
+        int hash)
+    {
+        method = hash;
+        queried |= METHOD;
+    }
+
+    private int matchBuckets(
+        MessagePredicate filter)
+    {
+        int matched = NO_ROUTE;
+        for (int pattern = 0; pattern < PATTERNS; pattern++)
+        {
+            if ((patterns & (1 << pattern)) != 0 && (pattern & ~queried) == 0)
+            {
+                final int variants = (pattern & AUTHORITY) != 0 ? authorityCount : 1;
+                for (int variant = 0; variant < variants; variant++)
+                {
+                    final long key = key(pattern, authorities[variant], scheme, method);
+                    final int[] bucket = buckets.get(key);
+                    if (bucket != null)
+                    {
+                        matched = matchBucket(filter, bucket, matched);
+                    }
+                }
+            }
+        }
+        return matched;
+    }
+
+    private int matchBucket(
+        MessagePredicate filter,
+        int[] bucket,
+        int matched)
+    {
+        // buckets are in table order, so only routes ahead of the current match need confirming
+        for (int index = 1; index <= bucket[0]; index++)
+        {
+            final int ordinal = bucket[index];
+            if (matched != NO_ROUTE && ordinal >= matched)
+            {
+                break;
+            }
+
+            if (matches(filter, ordinal))
+            {
+                matched = ordinal;
+                break;
+            }
+        }
+        return matched;
+    }
+
+    private int matchPrefixes()
+    {
+        int count = 0;
+        if (pathLength != -1 && !prefixes.isEmpty())
+        {
+            if (matchedNodes.length <= pathLength)
+            {
+                matchedNodes = new int[pathLength + 1];
+            }
+
+            int depth = 0;
+            int node = ROOT_NODE;
+            if (prefixes.get(node) != null)
+            {
+                matchedNodes[depth++] = node;
+            }
+
+            for (int index = 0; index < pathLength && node != NO_NODE; index++)
+            {
+                node = edges.get(edge(node, path.getByte(index)));
+                if (node != NO_NODE && prefixes.get(node) != null)
+                {
+                    matchedNodes[depth++] = node;
+                }
+            }
+
+            // longest prefix first, then table order within each prefix
+            while (depth > 0)
+            {
+                final int[] prefix = prefixes.get(matchedNodes[--depth]);
+                System.arraycopy(prefix, 1, candidates, count, prefix[0]);
+                count += prefix[0];
+            }
+        }
+        return count;
+    }
+
+    private boolean matches(
+        MessagePredicate filter,
+        int ordinal)
+    {
+        return (visible[ordinal >>> 6] & (1L << ordinal)) != 0L &&
+               filter.test(routeTypeId, table, routeOffsets[ordinal], routeLengths[ordinal]);
+    }
+
+    private long[] supplyVisible(
+        long routeId,
+        long authorization)
+    {
+        Long2ObjectHashMap<Visibility> visibleByAuthorization = visibilities.get(routeId);
+        Visibility visibility = visibleByAuthorization != null ? visibleByAuthorization.get(authorization) : null;
+
+        if (visibility != null)
+        {
+            unlink(visibility);
+        }
+        else
+        {
+            if (visibilityCount == MAXIMUM_VISIBILITIES)
+            {
+                final Visibility eldest = oldest;
+                unlink(eldest);
+                final Long2ObjectHashMap<Visibility> eldestByAuthorization = visibilities.get(eldest.routeId);
+                eldestByAuthorization.remove(eldest.authorization);
+                if (eldestByAuthorization.isEmpty())
+                {
+                    visibilities.remove(eldest.routeId);
+                }
+                visibilityCount--;
+            }
+
+            visibleByAuthorization = visibilities.get(routeId);
+            if (visibleByAuthorization == null)
+            {
+                visibleByAuthorization = new Long2ObjectHashMap<>();
+                visibilities.put(routeId, visibleByAuthorization);
+            }
+
+            // one pass through the router records which indexed routes it would consider
+            visibility = new Visibility(routeId, authorization, new long[(routeCount + 63) >>> 6]);
+            visible = visibility.routes;
+            router.resolve(routeId, authorization, visibleRoute, routeTable);
+            visibleByAuthorization.put(authorization, visibility);
+            visibilityCount++;
+        }
+
+        link(visibility);
+
+        return visibility.routes;
+    }
+
+    private void link(
+        Visibility visibility)
+    {
+        visibility.older = newest;
+        visibility.newer = null;
+        if (newest != null)
+        {
+            newest.newer = visibility;
+        }
+        else
+        {
+            oldest = visibility;
+        }
+        newest = visibility;
+    }
+
+    private void unlink(
+        Visibility visibility)
+    {
+        if (visibility.newer != null)
+        {
+            visibility.newer.older = visibility.older;
+        }
+        else
+        {
+            newest = visibility.older;
+        }
+
+        if (visibility.older != null)
+        {
+            visibility.older.newer = visibility.newer;
+        }
+        else
+        {
+            oldest = visibility.newer;
+        }
+    }
+
+    private boolean visibleRoute(
+        int msgTypeId,
+        DirectBuffer buffer,
+        int index,
+        int length)
+    {
+        final RouteFW route = routeRO.wrap(buffer, index, index + length);
+        final int ordinal = (int) ordinals.get(route.correlationId());
+        if (ordinal != NO_ORDINAL)
+        {
+            visible[ordinal >>> 6] |= 1L << ordinal;
+        }
+        return false;
+    }
+
+    private void refresh()
+    {
+        // route and unroute commands advance the version, so unchanged routes cost a single read
+        final long routesVersion = this.routesVersion.getAsLong();
+        if (routesVersion != version)
+        {
+            version = routesVersion;
+            table = null;
+            routeCount = 0;
+            patterns = 0;
+            nodeCount = 1;
+            ordinals.clear();
+            buckets.clear();
+            edges.clear();
+            prefixes.clear();
+            visibilities.clear();
+            visibilityCount = 0;
+            newest = null;
+            oldest = null;
+
+            router.forEach(indexRoute);
+
+            if (candidates.length < routeCount)
+            {
+                candidates = new int[routeOffsets.length];
+            }
+        }
+    }
+
+    private void indexRoute(
+        int msgTypeId,
+        DirectBuffer buffer,
+        int index,
+        int length)
+    {
+        final RouteFW route = routeRO.wrap(buffer, index, index + length);
+
+        if (nukleus.equals(route.nukleus().asString()))
+        {
+            final int ordinal = routeCount++;
+            if (ordinal == routeOffsets.length)
+            {
+                routeOffsets = copyOf(routeOffsets, Math.max(ordinal << 1, 16));
+                routeLengths = copyOf(routeLengths, routeOffsets.length);
+                routePaths = copyOf(routePaths, routeOffsets.length);
+            }
+
+            table = buffer;
+            routeTypeId = msgTypeId;
+            routeOffsets[ordinal] = index;
+            routeLengths[ordinal] = length;
+            ordinals.put(route.correlationId(), ordinal);
+
+            final OctetsFW extension = route.extension();
+            final HttpRouteExFW routeEx = extension.sizeof() != 0 ? extension.get(wrapRouteEx) : null;
+            routeOrdinal = ordinal;
+            routePattern = 0;
+            routePaths[ordinal] = NO_PATH;
+            if (routeEx != null)
+            {
+                routeEx.headers().forEach(indexHeader);
+            }
+
+            if (routePaths[ordinal] != PREFIX_PATH)
+            {
+                final int pattern = routePattern;
+                final long key = key(pattern, routeAuthority, routeScheme, routeMethod);
+                final int[] bucket = buckets.get(key);
+                buckets.put(key, append(bucket, ordinal));
+
+                patterns |= 1 << pattern;
+            }
+        }
+    }
+
+    private void indexHeader(
+        HttpHeaderFW header)
+    {
+        final String8FW name = header.name();
+        final DirectBuffer value = header.value().value();
+
+        if ((routePattern & AUTHORITY) == 0 && HEADER_AUTHORITY.equals(name))
+        {
+            routeAuthority = hash(value, 0, value.capacity());
+            routePattern |= AUTHORITY;
+        }
+        else if ((routePattern & SCHEME) == 0 && (indexed & SCHEME) != 0 && HEADER_SCHEME.equals(name))
+        {
+            routeScheme = hash(value, 0, value.capacity());
+            routePattern |= SCHEME;
+        }
+        else if ((routePattern & METHOD) == 0 && HEADER_METHOD.equals(name))
+        {
+            routeMethod = hash(value, 0, value.capacity());
+            routePattern |= METHOD;
+        }
+        else if (routePaths[routeOrdinal] == NO_PATH && HEADER_PATH.equals(name))
+        {
+            final int length = value.capacity();
+            if (length != 0 && value.getByte(length - 1) == ASTERISK_BYTE)
+            {
+                int node = ROOT_NODE;
+                for (int index = 0; index < length - 1; index++)
+                {
+                    final int edge = edge(node, value.getByte(index));
+                    int child = edges.get(edge);
+                    if (child == NO_NODE)
+                    {
+                        child = nodeCount++;
+                        edges.put(edge, child);
+                    }
+                    node = child;
+                }
+                prefixes.put(node, append(prefixes.get(node), routeOrdinal));
+                routePaths[routeOrdinal] = PREFIX_PATH;
+            }
+            else
+            {
+                routePaths[routeOrdinal] = EXACT_PATH;
+            }
+        }
+    }
+
+    private static int[] append(
+        int[] ordinals,
+        int ordinal)
+    {
+        if (ordinals == null)
+        {
+            ordinals = new int[4];
+        }
+        else if (ordinals[0] + 1 == ordinals.length)
+        {
+            ordinals = copyOf(ordinals, ordinals.length << 1);
+        }
+        ordinals[++ordinals[0]] = ordinal;
+        return ordinals;
+    }
+
+    private static int edge(
+        int node,
+        byte value)
+    {
+        return node << 8 | value & 0xff;
+    }
+
+    private static long key(
+        int pattern,
+        int authority,
+        int scheme,
+        int method)
+    {
+        int hash = 0;
+        hash = (pattern & AUTHORITY) != 0 ? 31 * hash + authority : hash;
+        hash = (pattern & SCHEME) != 0 ? 31 * hash + scheme : hash;
+        hash = (pattern & METHOD) != 0 ? 31 * hash + method : hash;
+        return (long) pattern << 32 | hash & 0xffff_ffffL;
+    }
+
+    private static final class Visibility
+    {
+        private final long routeId;
+        private final long authorization;
+        private final long[] routes;
+
+        private Visibility newer;
+        private Visibility older;
+
+        private Visibility(
+            long routeId,
+            long authorization,
+            long[] routes)
+        {
+            this.routeId = routeId;
+            this.authorization = authorization;
+            this.routes = routes;
+        }
+    }
+}
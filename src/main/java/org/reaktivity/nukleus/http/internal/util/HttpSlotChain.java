@@ -0,0 +1,232 @@
+/**
+ * Copyright 2016-2020 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http.internal.util;
+
+import static org.reaktivity.nukleus.buffer.BufferPool.NO_SLOT;
+
+import java.util.function.LongConsumer;
+
+import org.agrona.DirectBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.reaktivity.nukleus.buffer.BufferPool;
+
+/**
+ * Buffered bytes held in a chain of {@link BufferPool} slots.
+ * <p>
+ * Contents spanning slots are gathered into the shared buffer for decoding, so without one they are limited
+ * to one slot.
+ */
+public final class HttpSlotChain
+{
+    private final BufferPool bufferPool;
+    private final MutableDirectBuffer chainBuffer;
+    private final LongConsumer slotsUsed;
+    private final int slotCapacity;
+    private final int maximum;
+    private final int[] slots;
+
+    private int slotCount;
+    private int length;
+    private boolean gathered;
+
+    public HttpSlotChain(
+        BufferPool bufferPool,
+        MutableDirectBuffer chainBuffer)
+    {
+        this(bufferPool, chainBuffer, s -> {});
+    }
+
+    public HttpSlotChain(
+        BufferPool bufferPool,
+        MutableDirectBuffer chainBuffer,
+        LongConsumer slotsUsed)
+    {
+        this.bufferPool = bufferPool;
+        this.chainBuffer = chainBuffer;
+        this.slotsUsed = slotsUsed;
+        this.slotCapacity = bufferPool.slotCapacity();
+        this.maximum = chainBuffer != null ? Math.max(chainBuffer.capacity(), slotCapacity) : slotCapacity;
+        this.slots = new int[(maximum + slotCapacity - 1) / slotCapacity];
+    }
+
+    public boolean isEmpty()
+    {
+        return slotCount == 0;
+    }
+
+    public int length()
+    {
+        return length;
+    }
+
+    public int maximum()
+    {
+        return maximum;
+    }
+
+    public DirectBuffer buffer()
+    {
+        assert slotCount != 0;
+
+        DirectBuffer buffer;
+        if (slotCount == 1)
+        {
+            buffer = bufferPool.buffer(slots[0]);
+        }
+        else
+        {
+            for (int index = 0, offset = 0; index < slotCount; index++, offset += slotCapacity)
+            {
+                final int slotLength = Math.min(length - offset, slotCapacity);
+                chainBuffer.putBytes(offset, bufferPool.buffer(slots[index]), 0, slotLength);
+            }
+            buffer = chainBuffer;
+        }
+        gathered = true;
+        return buffer;
+    }
+
+    public int limitOfBytes(
+        int offset,
+        byte[] value)
+    {
+        // partial matches restart at the first byte, which holds for line terminators such as CRLF CRLF
+        int limit = -1;
+        int matched = 0;
+        for (int index = offset / slotCapacity; limit == -1 && index < slotCount; index++)
+        {
+            final DirectBuffer slot = bufferPool.buffer(slots[index]);
+            final int slotOffset = index * slotCapacity;
+            final int slotLimit = Math.min(length - slotOffset, slotCapacity);
+            for (int at = Math.max(offset - slotOffset, 0); limit == -1 && at < slotLimit; at++)
+            {
+                final byte b = slot.getByte(at);
+                matched = b == value[matched] ? matched + 1 : b == value[0] ? 1 : 0;
+                if (matched == value.length)
+                {
+                    limit = slotOffset + at + 1;
+                }
+            }
+        }
+        return limit;
+    }
+
+    public boolean append(
+        long streamId,
+        DirectBuffer buffer,
+        int offset,
+        int limit)
+    {
+        boolean appended = length + limit - offset <= maximum;
+        gathered = false;
+
+        int progress = offset;
+        while (appended && progress < limit)
+        {
+            if (length == slotCount * slotCapacity)
+            {
+                appended = acquire(streamId);
+            }
+
+            if (appended)
+            {
+                final int slotOffset = length - (slotCount - 1) * slotCapacity;
+                final int slotLength = Math.min(slotCapacity - slotOffset, limit - progress);
+                bufferPool.buffer(slots[slotCount - 1]).putBytes(slotOffset, buffer, progress, slotLength);
+                progress += slotLength;
+                length += slotLength;
+            }
+        }
+
+        return appended;
+    }
+
+    public boolean set(
+        long streamId,
+        DirectBuffer buffer,
+        int offset,
+        int limit)
+    {
+        final int newLength = limit - offset;
+        final int newSlotCount = (newLength + slotCapacity - 1) / slotCapacity;
+
+        boolean acquired = newLength <= maximum;
+        while (acquired && slotCount < newSlotCount)
+        {
+            acquired = acquire(streamId);
+        }
+
+        if (acquired && !unconsumed(buffer, offset, limit))
+        {
+            // the first slot may also be the source when contents fit in one slot
+            for (int index = 0, progress = offset; index < newSlotCount; index++, progress += slotCapacity)
+            {
+                final int slotLength = Math.min(limit - progress, slotCapacity);
+                bufferPool.buffer(slots[index]).putBytes(0, buffer, progress, slotLength);
+            }
+
+            while (slotCount > newSlotCount)
+            {
+                releaseLast();
+            }
+
+            length = newLength;
+        }
+
+        gathered = false;
+        return acquired;
+    }
+
+    public void release()
+    {
+        while (slotCount > 0)
+        {
+            releaseLast();
+        }
+        length = 0;
+        gathered = false;
+    }
+
+    private boolean unconsumed(
+        DirectBuffer buffer,
+        int offset,
+        int limit)
+    {
+        // contents read through buffer() and set back without progress are already in place
+        final DirectBuffer storage = slotCount == 1 ? bufferPool.buffer(slots[0]) : chainBuffer;
+        return gathered && offset == 0 && limit == length &&
+               buffer.byteArray() == storage.byteArray() &&
+               buffer.addressOffset() == storage.addressOffset();
+    }
+
+    private boolean acquire(
+        long streamId)
+    {
+        final int slot = bufferPool.acquire(streamId);
+        if (slot != NO_SLOT)
+        {
+            slots[slotCount++] = slot;
+            slotsUsed.accept(1L);
+        }
+        return slot != NO_SLOT;
+    }
+
+    private void releaseLast()
+    {
+        bufferPool.release(slots[--slotCount]);
+        slotsUsed.accept(-1L);
+    }
+}
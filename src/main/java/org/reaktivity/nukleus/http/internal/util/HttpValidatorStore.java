@@ -0,0 +1,543 @@
+/**
+ * Copyright 2016-2020 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http.internal.util;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.reaktivity.nukleus.http.internal.util.BufferUtil.containsDirective;
+import static org.reaktivity.nukleus.http.internal.util.BufferUtil.hash;
+import static org.reaktivity.nukleus.http.internal.util.BufferUtil.skipSpaces;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+import org.agrona.DirectBuffer;
+import org.agrona.ExpandableArrayBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.reaktivity.nukleus.http.internal.types.Array32FW;
+import org.reaktivity.nukleus.http.internal.types.HttpHeaderFW;
+import org.reaktivity.nukleus.http.internal.types.String16FW;
+import org.reaktivity.nukleus.http.internal.types.String8FW;
+
+/**
+ * Validators of recent {@code 200} responses, answering matching conditional requests with {@code 304}.
+ * <p>
+ * Entries expire after the maximum age, since changes made by the application are only observed through
+ * later responses.
+ */
+public final class HttpValidatorStore
+{
+    private static final String8FW HEADER_AUTHORITY = new String8FW(":authority");
+    private static final String8FW HEADER_AUTHORIZATION = new String8FW("authorization");
+    private static final String8FW HEADER_CACHE_CONTROL = new String8FW("cache-control");
+    private static final String8FW HEADER_CONTENT_LOCATION = new String8FW("content-location");
+    private static final String8FW HEADER_ETAG = new String8FW("etag");
+    private static final String8FW HEADER_EXPIRES = new String8FW("expires");
+    private static final String8FW HEADER_IF_MATCH = new String8FW("if-match");
+    private static final String8FW HEADER_IF_MODIFIED_SINCE = new String8FW("if-modified-since");
+    private static final String8FW HEADER_IF_NONE_MATCH = new String8FW("if-none-match");
+    private static final String8FW HEADER_IF_UNMODIFIED_SINCE = new String8FW("if-unmodified-since");
+    private static final String8FW HEADER_LAST_MODIFIED = new String8FW("last-modified");
+    private static final String8FW HEADER_METHOD = new String8FW(":method");
+    private static final String8FW HEADER_PATH = new String8FW(":path");
+    private static final String8FW HEADER_PRAGMA = new String8FW("pragma");
+    private static final String8FW HEADER_SCHEME = new String8FW(":scheme");
+    private static final String8FW HEADER_SET_COOKIE = new String8FW("set-cookie");
+    private static final String8FW HEADER_STATUS = new String8FW(":status");
+    private static final String8FW HEADER_VARY = new String8FW("vary");
+
+    private static final String16FW METHOD_GET = new String16FW("GET");
+    private static final String16FW METHOD_HEAD = new String16FW("HEAD");
+    private static final String16FW STATUS_200 = new String16FW("200");
+    private static final String16FW STATUS_304 = new String16FW("304");
+
+    private static final byte[] NO_CACHE_BYTES = "no-cache".getBytes(US_ASCII);
+    private static final byte[] NO_STORE_BYTES = "no-store".getBytes(US_ASCII);
+    private static final byte[] PRIVATE_BYTES = "private".getBytes(US_ASCII);
+    private static final byte[] ANY_BYTES = "*".getBytes(US_ASCII);
+
+    private static final int ENTRY_SIZE = 512;
+    private static final int MAXIMUM_POOLED = 64;
+
+    private final MutableDirectBuffer arena;
+    private final Entry[] slots;
+    private final int[] freeSlots;
+    private final long maximumAge;
+    private final LongSupplier clock;
+    private final LongSupplier hits;
+    private final LongSupplier misses;
+    private final LongSupplier evictions;
+    private final HttpEntryTable<Entry> entries;
+    private final Deque<Writer> writers;
+    private final Predicate<Entry> evictable = Entry::evictable;
+
+    private final ExpandableArrayBuffer headersBuffer = new ExpandableArrayBuffer();
+    private final Array32FW.Builder<HttpHeaderFW.Builder, HttpHeaderFW> headersRW =
+            new Array32FW.Builder<>(new HttpHeaderFW.Builder(), new HttpHeaderFW());
+
+    private int freeCount;
+
+    public HttpValidatorStore(
+        String prefix,
+        int capacity,
+        long maximumAge,
+        LongSupplier clock,
+        Function<String, LongSupplier> supplyCounter)
+    {
+        final int slotCount = capacity / ENTRY_SIZE;
+        this.arena = new UnsafeBuffer(ByteBuffer.allocateDirect(slotCount * ENTRY_SIZE));
+        this.slots = new Entry[slotCount];
+        this.freeSlots = new int[slotCount];
+        this.maximumAge = maximumAge;
+        this.clock = clock;
+        this.hits = supplyCounter.apply(prefix + ".hits");
+        this.misses = supplyCounter.apply(prefix + ".misses");
+        this.evictions = supplyCounter.apply(prefix + ".evictions");
+        this.entries = new HttpEntryTable<>();
+        this.writers = new ArrayDeque<>();
+
+        for (int slot = slotCount - 1; slot >= 0; slot--)
+        {
+            slots[slot] = new Entry(slot * ENTRY_SIZE);
+            freeSlots[freeCount++] = slot;
+        }
+    }
+
+    public static boolean recordable(
+        Array32FW<HttpHeaderFW> request)
+    {
+        return safe(request) &&
+               request.matchFirst(h -> HEADER_AUTHORIZATION.equals(h.name())) == null;
+    }
+
+    public static boolean conditional(
+        Array32FW<HttpHeaderFW> request)
+    {
+        return recordable(request) &&
+               request.matchFirst(h -> HEADER_IF_NONE_MATCH.equals(h.name()) ||
+                                       HEADER_IF_MODIFIED_SINCE.equals(h.name())) != null &&
+               request.matchFirst(h -> HEADER_IF_MATCH.equals(h.name()) ||
+                                       HEADER_IF_UNMODIFIED_SINCE.equals(h.name())) == null &&
+               request.matchFirst(h -> (HEADER_CACHE_CONTROL.equals(h.name()) || HEADER_PRAGMA.equals(h.name())) &&
+                                       containsDirective(h.value().value(), NO_CACHE_BYTES)) == null;
+    }
+
+    public static boolean safe(
+        Array32FW<HttpHeaderFW> request)
+    {
+        return request.matchFirst(h -> HEADER_METHOD.equals(h.name()) &&
+                                       (METHOD_GET.equals(h.value()) || METHOD_HEAD.equals(h.value()))) != null;
+    }
+
+    public Entry lookup(
+        long routeId,
+        Array32FW<HttpHeaderFW> request)
+    {
+        final Entry entry = find(routeId, request);
+
+        final boolean fresh = entry != null && clock.getAsLong() - entry.storedAt < maximumAge;
+        if (entry != null && !fresh)
+        {
+            remove(entry);
+        }
+
+        final Entry found = fresh && entry.validates(request) ? entry : null;
+        if (found != null)
+        {
+            hits.getAsLong();
+            entries.touch(found);
+            found.readers++;
+        }
+        else
+        {
+            misses.getAsLong();
+        }
+
+        return found;
+    }
+
+    public void invalidate(
+        long routeId,
+        Array32FW<HttpHeaderFW> request)
+    {
+        final Entry entry = find(routeId, request);
+        if (entry != null)
+        {
+            remove(entry);
+        }
+    }
+
+    public Writer supplyWriter(
+        long routeId,
+        Array32FW<HttpHeaderFW> request)
+    {
+        Writer writer = writers.poll();
+        if (writer == null)
+        {
+            writer = new Writer();
+        }
+        writer.init(routeId, request);
+        return writer;
+    }
+
+    private Entry find(
+        long routeId,
+        Array32FW<HttpHeaderFW> request)
+    {
+        final HttpHeaderFW scheme = request.matchFirst(h -> HEADER_SCHEME.equals(h.name()));
+        final DirectBuffer schemeValue = scheme != null ? scheme.value().value() : null;
+        final HttpHeaderFW authority = request.matchFirst(h -> HEADER_AUTHORITY.equals(h.name()));
+        final DirectBuffer authorityValue = authority != null ? authority.value().value() : null;
+        final HttpHeaderFW path = request.matchFirst(h -> HEADER_PATH.equals(h.name()));
+        final DirectBuffer pathValue = path != null ? path.value().value() : null;
+
+        final long hash = hash(hash(hash(routeId, schemeValue), authorityValue), pathValue);
+
+        Entry found = null;
+        for (Entry entry = entries.first(hash); entry != null && found == null; entry = entry.sibling)
+        {
+            if (entry.matches(routeId, schemeValue, authorityValue, pathValue))
+            {
+                found = entry;
+            }
+        }
+        return found;
+    }
+
+    private Entry acquire()
+    {
+        while (freeCount == 0 && evictLeastRecent())
+        {
+            evictions.getAsLong();
+        }
+
+        return freeCount != 0 ? slots[freeSlots[--freeCount]] : null;
+    }
+
+    private boolean evictLeastRecent()
+    {
+        final Entry candidate = entries.leastRecent(evictable);
+        if (candidate != null)
+        {
+            remove(candidate);
+        }
+        return candidate != null;
+    }
+
+    private void remove(
+        Entry entry)
+    {
+        entries.remove(entry);
+
+        if (entry.readers == 0)
+        {
+            entry.free();
+        }
+    }
+
+    private static int skipWeak(
+        DirectBuffer buffer,
+        int offset,
+        int limit)
+    {
+        return limit - offset > 2 && buffer.getByte(offset) == 'W' && buffer.getByte(offset + 1) == '/' ? offset + 2 : offset;
+    }
+
+    private static int putValue(
+        MutableDirectBuffer buffer,
+        int offset,
+        DirectBuffer value)
+    {
+        final int length = value != null ? value.capacity() : 0;
+        if (length != 0)
+        {
+            buffer.putBytes(offset, value, 0, length);
+        }
+        return length;
+    }
+
+    public final class Entry extends HttpEntryTable.Node<Entry>
+    {
+        private final int offset;
+        private final Array32FW<HttpHeaderFW> headersRO = new Array32FW<>(new HttpHeaderFW());
+
+        private long routeId;
+        private int schemeLength;
+        private int authorityLength;
+        private int pathLength;
+        private int etagLength;
+        private int headersOffset;
+        private int headersLength;
+        private long lastModified;
+        private long storedAt;
+
+        private int readers;
+
+        private Entry(
+            int offset)
+        {
+            this.offset = offset;
+        }
+
+        public Array32FW<HttpHeaderFW> headers()
+        {
+            return headersRO.wrap(arena, headersOffset, headersOffset + headersLength);
+        }
+
+        public void release()
+        {
+            assert readers > 0;
+            readers--;
+
+            if (!linked && readers == 0)
+            {
+                free();
+            }
+        }
+
+        private boolean matches(
+            long routeId,
+            DirectBuffer scheme,
+            DirectBuffer authority,
+            DirectBuffer path)
+        {
+            final int authorityOffset = offset + schemeLength;
+            final int pathOffset = authorityOffset + authorityLength;
+            return this.routeId == routeId &&
+                   matches(offset, schemeLength, scheme) &&
+                   matches(authorityOffset, authorityLength, authority) &&
+                   matches(pathOffset, pathLength, path);
+        }
+
+        private boolean matches(
+            int offset,
+            int length,
+            DirectBuffer value)
+        {
+            final int valueLength = value != null ? value.capacity() : 0;
+            boolean matches = valueLength == length;
+            for (int index = 0; matches && index < length; index++)
+            {
+                matches = arena.getByte(offset + index) == value.getByte(index);
+            }
+            return matches;
+        }
+
+        private boolean validates(
+            Array32FW<HttpHeaderFW> request)
+        {
+            final HttpHeaderFW ifNoneMatch = request.matchFirst(h -> HEADER_IF_NONE_MATCH.equals(h.name()));
+            final HttpHeaderFW ifModifiedSince = ifNoneMatch == null
+                    ? request.matchFirst(h -> HEADER_IF_MODIFIED_SINCE.equals(h.name()))
+                    : null;
+
+            boolean validates = false;
+            if (ifNoneMatch != null)
+            {
+                validates = etagLength != 0 && matchesAnyETag(ifNoneMatch.value().value());
+            }
+            else if (ifModifiedSince != null && lastModified != -1L)
+            {
+                final long since = HttpDateHeader.parse(ifModifiedSince.value().value());
+                validates = since != -1L && lastModified <= since;
+            }
+            return validates;
+        }
+
+        private boolean matchesAnyETag(
+            DirectBuffer value)
+        {
+            final int etagOffset = offset + schemeLength + authorityLength + pathLength;
+            final int etagAt = skipWeak(arena, etagOffset, etagOffset + etagLength);
+            final int etagLimit = etagOffset + etagLength;
+
+            boolean matches = false;
+            final int limit = value.capacity();
+            for (int progress = 0; !matches && progress < limit; )
+            {
+                final int tagOffset = skipSpaces(value, progress, limit);
+                int tagLimit = tagOffset;
+                if (tagOffset < limit && value.getByte(tagOffset) == '*')
+                {
+                    matches = true;
+                }
+                else
+                {
+                    // entity tags are quoted, so commas inside quotes do not separate tags
+                    boolean quoted = false;
+                    while (tagLimit < limit && (quoted || value.getByte(tagLimit) != ','))
+                    {
+                        quoted ^= value.getByte(tagLimit) == '"';
+                        tagLimit++;
+                    }
+
+                    int tagEnd = tagLimit;
+                    while (tagEnd > tagOffset && (value.getByte(tagEnd - 1) == ' ' || value.getByte(tagEnd - 1) == '\t'))
+                    {
+                        tagEnd--;
+                    }
+
+                    final int tagAt = skipWeak(value, tagOffset, tagEnd);
+                    matches = tagEnd - tagAt == etagLimit - etagAt;
+                    for (int index = 0; matches && tagAt + index < tagEnd; index++)
+                    {
+                        matches = value.getByte(tagAt + index) == arena.getByte(etagAt + index);
+                    }
+                }
+
+                progress = tagLimit + 1;
+            }
+            return matches;
+        }
+
+        private boolean evictable()
+        {
+            return readers == 0;
+        }
+
+        private void free()
+        {
+            freeSlots[freeCount++] = offset / ENTRY_SIZE;
+        }
+    }
+
+    public final class Writer
+    {
+        private final ExpandableArrayBuffer request = new ExpandableArrayBuffer();
+        private final Array32FW<HttpHeaderFW> requestRO = new Array32FW<>(new HttpHeaderFW());
+
+        private long routeId;
+
+        private Writer()
+        {
+        }
+
+        public void record(
+            Array32FW<HttpHeaderFW> response)
+        {
+            final Array32FW<HttpHeaderFW> request = requestRO;
+
+            final HttpHeaderFW status = response.matchFirst(h -> HEADER_STATUS.equals(h.name()));
+            final boolean notModified = status != null && STATUS_304.equals(status.value());
+
+            if (!notModified)
+            {
+                invalidate(routeId, request);
+
+                final boolean recordable = status != null && STATUS_200.equals(status.value()) &&
+                        response.matchFirst(h -> HEADER_SET_COOKIE.equals(h.name())) == null &&
+                        response.matchFirst(h -> HEADER_CACHE_CONTROL.equals(h.name()) &&
+                                                 (containsDirective(h.value().value(), NO_STORE_BYTES) ||
+                                                  containsDirective(h.value().value(), PRIVATE_BYTES))) == null &&
+                        response.matchFirst(h -> HEADER_VARY.equals(h.name()) &&
+                                                 containsDirective(h.value().value(), ANY_BYTES)) == null;
+
+                final HttpHeaderFW etag = recordable ? response.matchFirst(h -> HEADER_ETAG.equals(h.name())) : null;
+                final HttpHeaderFW lastModified = recordable
+                        ? response.matchFirst(h -> HEADER_LAST_MODIFIED.equals(h.name()))
+                        : null;
+
+                if (etag != null || lastModified != null)
+                {
+                    record(response, etag, lastModified);
+                }
+            }
+        }
+
+        public void release()
+        {
+            if (writers.size() < MAXIMUM_POOLED)
+            {
+                writers.offer(this);
+            }
+        }
+
+        private void record(
+            Array32FW<HttpHeaderFW> response,
+            HttpHeaderFW etag,
+            HttpHeaderFW lastModified)
+        {
+            final Array32FW<HttpHeaderFW> request = requestRO;
+            final HttpHeaderFW scheme = request.matchFirst(h -> HEADER_SCHEME.equals(h.name()));
+            final DirectBuffer schemeValue = scheme != null ? scheme.value().value() : null;
+            final HttpHeaderFW authority = request.matchFirst(h -> HEADER_AUTHORITY.equals(h.name()));
+            final DirectBuffer authorityValue = authority != null ? authority.value().value() : null;
+            final HttpHeaderFW path = request.matchFirst(h -> HEADER_PATH.equals(h.name()));
+            final DirectBuffer pathValue = path != null ? path.value().value() : null;
+            final DirectBuffer etagValue = etag != null ? etag.value().value() : null;
+
+            // Last-Modified is only needed to guide cache updates when there is no ETag
+            final Array32FW.Builder<HttpHeaderFW.Builder, HttpHeaderFW> headers =
+                    headersRW.wrap(headersBuffer, 0, headersBuffer.capacity())
+                             .item(h -> h.name(HEADER_STATUS).value(STATUS_304));
+            response.forEach(h ->
+            {
+                final String8FW name = h.name();
+                if (HEADER_CACHE_CONTROL.equals(name) ||
+                    HEADER_CONTENT_LOCATION.equals(name) ||
+                    HEADER_ETAG.equals(name) ||
+                    HEADER_EXPIRES.equals(name) ||
+                    HEADER_VARY.equals(name) ||
+                    HEADER_LAST_MODIFIED.equals(name) && etag == null)
+                {
+                    headers.item(i -> i.name(name).value(h.value()));
+                }
+            });
+            final Array32FW<HttpHeaderFW> notModified = headers.build();
+
+            final int keyLength = (schemeValue != null ? schemeValue.capacity() : 0) +
+                    (authorityValue != null ? authorityValue.capacity() : 0) +
+                    (pathValue != null ? pathValue.capacity() : 0);
+            final int etagLength = etagValue != null ? etagValue.capacity() : 0;
+
+            final Entry entry = keyLength + etagLength + notModified.sizeof() <= ENTRY_SIZE ? acquire() : null;
+            if (entry != null)
+            {
+                int progress = entry.offset;
+                entry.schemeLength = putValue(arena, progress, schemeValue);
+                progress += entry.schemeLength;
+                entry.authorityLength = putValue(arena, progress, authorityValue);
+                progress += entry.authorityLength;
+                entry.pathLength = putValue(arena, progress, pathValue);
+                progress += entry.pathLength;
+                entry.etagLength = putValue(arena, progress, etagValue);
+                progress += entry.etagLength;
+                arena.putBytes(progress, notModified.buffer(), notModified.offset(), notModified.sizeof());
+                entry.headersOffset = progress;
+                entry.headersLength = notModified.sizeof();
+
+                entry.routeId = routeId;
+                entry.hash = hash(hash(hash(routeId, schemeValue), authorityValue), pathValue);
+                entry.lastModified = lastModified != null ? HttpDateHeader.parse(lastModified.value().value()) : -1L;
+                entry.storedAt = clock.getAsLong();
+                entries.insert(entry);
+            }
+        }
+
+        private void init(
+            long routeId,
+            Array32FW<HttpHeaderFW> request)
+        {
+            this.routeId = routeId;
+            this.request.putBytes(0, request.buffer(), request.offset(), request.sizeof());
+            this.requestRO.wrap(this.request, 0, request.sizeof());
+        }
+    }
+}
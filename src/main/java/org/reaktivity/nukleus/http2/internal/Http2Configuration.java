@@ -17,6 +17,8 @@ package org.reaktivity.nukleus.http2.internal;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 
+import java.util.zip.Deflater;
+
 import org.agrona.DirectBuffer;
 import org.agrona.concurrent.UnsafeBuffer;
 import org.reaktivity.nukleus.Configuration;
@@ -33,6 +35,17 @@ public class Http2Configuration extends Configuration
     public static final IntPropertyDef HTTP2_MAX_CONCURRENT_APPLICATION_HEADERS;
     public static final BooleanPropertyDef HTTP2_ACCESS_CONTROL_ALLOW_ORIGIN;
     public static final PropertyDef<String> HTTP2_SERVER_HEADER;
+    public static final BooleanPropertyDef HTTP2_SERVER_DATE_HEADER;
+    public static final IntPropertyDef HTTP2_SERVER_CACHE_CAPACITY;
+    public static final IntPropertyDef HTTP2_SERVER_CACHE_BLOCK_SIZE;
+    public static final BooleanPropertyDef HTTP2_SERVER_COALESCE;
+    public static final PropertyDef<String> HTTP2_SERVER_COALESCE_HEADERS;
+    public static final IntPropertyDef HTTP2_SERVER_COALESCE_MAXIMUM_RESPONSE_SIZE;
+    public static final IntPropertyDef HTTP2_SERVER_VALIDATORS_CAPACITY;
+    public static final IntPropertyDef HTTP2_SERVER_VALIDATORS_MAXIMUM_AGE;
+    public static final BooleanPropertyDef HTTP2_SERVER_LATENCY_HISTOGRAMS;
+    public static final BooleanPropertyDef HTTP2_SERVER_COMPRESSION;
+    public static final IntPropertyDef HTTP2_SERVER_COMPRESSION_LEVEL;
 
     private static final ConfigurationDef HTTP2_CONFIG;
 
@@ -42,6 +55,18 @@ public class Http2Configuration extends Configuration
         HTTP2_SERVER_CONCURRENT_STREAMS = config.property("server.concurrent.streams", Integer.MAX_VALUE);
         HTTP2_ACCESS_CONTROL_ALLOW_ORIGIN = config.property("server.access.control.allow.origin", false);
         HTTP2_SERVER_HEADER = config.property("server.header");
+        HTTP2_SERVER_DATE_HEADER = config.property("server.date.header", false);
+        HTTP2_SERVER_CACHE_CAPACITY = config.property("server.cache.capacity", 0);
+        HTTP2_SERVER_CACHE_BLOCK_SIZE = config.property("server.cache.block.size", 1024);
+        HTTP2_SERVER_COALESCE = config.property("server.coalesce", false);
+        HTTP2_SERVER_COALESCE_HEADERS = config.property("server.coalesce.headers",
+                "accept,accept-encoding,accept-language,cookie");
+        HTTP2_SERVER_COALESCE_MAXIMUM_RESPONSE_SIZE = config.property("server.coalesce.maximum.response.size", 1048576);
+        HTTP2_SERVER_VALIDATORS_CAPACITY = config.property("server.validators.capacity", 0);
+        HTTP2_SERVER_VALIDATORS_MAXIMUM_AGE = config.property("server.validators.maximum.age", 60);
+        HTTP2_SERVER_LATENCY_HISTOGRAMS = config.property("server.latency.histograms", false);
+        HTTP2_SERVER_COMPRESSION = config.property("server.compression", false);
+        HTTP2_SERVER_COMPRESSION_LEVEL = config.property("server.compression.level", Deflater.DEFAULT_COMPRESSION);
         HTTP2_MAX_CONCURRENT_STREAMS_CLEANUP = config.property("max.concurrent.streams.cleanup", 1000);
         HTTP2_STREAMS_CLEANUP_DELAY = config.property("streams.cleanup.delay", 100);
         HTTP2_MAX_CONCURRENT_APPLICATION_HEADERS = config.property("max.concurrent.application.headers", 10000);
@@ -88,4 +113,59 @@ public class Http2Configuration extends Configuration
         return serverHeader;
     }
 
+    public boolean serverDateHeader()
+    {
+        return HTTP2_SERVER_DATE_HEADER.get(this);
+    }
+
+    public int serverCacheCapacity()
+    {
+        return HTTP2_SERVER_CACHE_CAPACITY.getAsInt(this);
+    }
+
+    public int serverCacheBlockSize()
+    {
+        return HTTP2_SERVER_CACHE_BLOCK_SIZE.getAsInt(this);
+    }
+
+    public boolean serverCoalesce()
+    {
+        return HTTP2_SERVER_COALESCE.get(this);
+    }
+
+    public String serverCoalesceHeaders()
+    {
+        return HTTP2_SERVER_COALESCE_HEADERS.get(this);
+    }
+
+    public int serverCoalesceMaximumResponseSize()
+    {
+        return HTTP2_SERVER_COALESCE_MAXIMUM_RESPONSE_SIZE.getAsInt(this);
+    }
+
+    public int serverValidatorsCapacity()
+    {
+        return HTTP2_SERVER_VALIDATORS_CAPACITY.getAsInt(this);
+    }
+
+    public int serverValidatorsMaximumAge()
+    {
+        return HTTP2_SERVER_VALIDATORS_MAXIMUM_AGE.getAsInt(this);
+    }
+
+    public boolean serverLatencyHistograms()
+    {
+        return HTTP2_SERVER_LATENCY_HISTOGRAMS.get(this);
+    }
+
+    public boolean serverCompression()
+    {
+        return HTTP2_SERVER_COMPRESSION.get(this);
+    }
+
+    public int serverCompressionLevel()
+    {
+        return HTTP2_SERVER_COMPRESSION_LEVEL.getAsInt(this);
+    }
+
 }
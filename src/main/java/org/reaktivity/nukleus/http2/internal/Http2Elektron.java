@@ -19,6 +19,7 @@ import static java.util.Collections.singletonMap;
 import static org.reaktivity.nukleus.route.RouteKind.SERVER;
 
 import java.util.Map;
+import java.util.function.LongSupplier;
 
 import org.reaktivity.nukleus.Elektron;
 import org.reaktivity.nukleus.http2.internal.stream.Http2ServerFactoryBuilder;
@@ -30,9 +31,10 @@ final class Http2Elektron implements Elektron
     private final Map<RouteKind, StreamFactoryBuilder> streamFactoryBuilders;
 
     Http2Elektron(
-        Http2Configuration config)
+        Http2Configuration config,
+        LongSupplier supplyRoutesVersion)
     {
-        this.streamFactoryBuilders = singletonMap(SERVER, new Http2ServerFactoryBuilder(config));
+        this.streamFactoryBuilders = singletonMap(SERVER, new Http2ServerFactoryBuilder(config, supplyRoutesVersion));
     }
 
     @Override
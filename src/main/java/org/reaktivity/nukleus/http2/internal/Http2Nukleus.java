@@ -15,18 +15,27 @@
  */
 package org.reaktivity.nukleus.http2.internal;
 
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.agrona.DirectBuffer;
 import org.reaktivity.nukleus.Nukleus;
+import org.reaktivity.nukleus.function.MessagePredicate;
+import org.reaktivity.nukleus.route.RouteKind;
 
-final class Http2Nukleus implements Nukleus
+public final class Http2Nukleus implements Nukleus
 {
-    static final String NAME = "http2";
+    public static final String NAME = "http2";
 
     private final Http2Configuration config;
+    private final AtomicLong routesVersion;
+    private final MessagePredicate routeHandler;
 
     Http2Nukleus(
         Http2Configuration config)
     {
         this.config = config;
+        this.routesVersion = new AtomicLong();
+        this.routeHandler = this::handleRoute;
     }
 
     @Override
@@ -41,9 +50,27 @@ final class Http2Nukleus implements Nukleus
         return config;
     }
 
+    @Override
+    public MessagePredicate routeHandler(
+        RouteKind kind)
+    {
+        return routeHandler;
+    }
+
     @Override
     public Http2Elektron supplyElektron()
     {
-        return new Http2Elektron(config);
+        return new Http2Elektron(config, routesVersion::get);
+    }
+
+    private boolean handleRoute(
+        int msgTypeId,
+        DirectBuffer buffer,
+        int index,
+        int length)
+    {
+        // each elektron rebuilds its route index when the version moves on
+        routesVersion.incrementAndGet();
+        return true;
     }
 }
@@ -99,7 +99,12 @@ public class HpackContext
 
     private static final int STATIC_TABLE_LENGTH = STATIC_TABLE.length;
 
+    public static final DirectBuffer ACCEPT_ENCODING = new UnsafeBuffer("accept-encoding".getBytes(UTF_8));
     public static final DirectBuffer CONNECTION = new UnsafeBuffer("connection".getBytes(UTF_8));
+    public static final DirectBuffer CONTENT_ENCODING = new UnsafeBuffer("content-encoding".getBytes(UTF_8));
+    public static final DirectBuffer CONTENT_LENGTH = new UnsafeBuffer("content-length".getBytes(UTF_8));
+    public static final DirectBuffer METHOD = new UnsafeBuffer(":method".getBytes(UTF_8));
+    public static final DirectBuffer STATUS = new UnsafeBuffer(":status".getBytes(UTF_8));
     public static final DirectBuffer TE = new UnsafeBuffer("te".getBytes(UTF_8));
     public static final DirectBuffer TRAILERS = new UnsafeBuffer("trailers".getBytes(UTF_8));
     public static final DirectBuffer KEEP_ALIVE = new UnsafeBuffer("keep-alive".getBytes(UTF_8));
@@ -15,13 +15,22 @@
  */
 package org.reaktivity.nukleus.http2.internal.stream;
 
+import static java.nio.ByteOrder.BIG_ENDIAN;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Objects.requireNonNull;
 import static org.reaktivity.nukleus.budget.BudgetCreditor.NO_CREDITOR_INDEX;
 import static org.reaktivity.nukleus.buffer.BufferPool.NO_SLOT;
+import static org.reaktivity.nukleus.http.internal.util.HttpGzipEncoder.TAIL_SIZE;
+import static org.reaktivity.nukleus.http.internal.util.HttpRouteIndex.matchesPath;
+import static org.reaktivity.nukleus.http2.internal.hpack.HpackContext.ACCEPT_ENCODING;
 import static org.reaktivity.nukleus.http2.internal.hpack.HpackContext.CONNECTION;
+import static org.reaktivity.nukleus.http2.internal.hpack.HpackContext.CONTENT_ENCODING;
+import static org.reaktivity.nukleus.http2.internal.hpack.HpackContext.CONTENT_LENGTH;
 import static org.reaktivity.nukleus.http2.internal.hpack.HpackContext.DEFAULT_ACCESS_CONTROL_ALLOW_ORIGIN;
 import static org.reaktivity.nukleus.http2.internal.hpack.HpackContext.KEEP_ALIVE;
+import static org.reaktivity.nukleus.http2.internal.hpack.HpackContext.METHOD;
 import static org.reaktivity.nukleus.http2.internal.hpack.HpackContext.PROXY_CONNECTION;
+import static org.reaktivity.nukleus.http2.internal.hpack.HpackContext.STATUS;
 import static org.reaktivity.nukleus.http2.internal.hpack.HpackContext.TE;
 import static org.reaktivity.nukleus.http2.internal.hpack.HpackContext.TRAILERS;
 import static org.reaktivity.nukleus.http2.internal.hpack.HpackContext.UPGRADE;
@@ -36,12 +45,13 @@ import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.LongConsumer;
 import java.util.function.LongSupplier;
 import java.util.function.LongUnaryOperator;
+import java.util.function.Predicate;
 import java.util.function.ToIntFunction;
 
 import org.agrona.DirectBuffer;
@@ -78,6 +88,13 @@ import org.reaktivity.nukleus.http.internal.types.stream.HttpEndExFW;
 import org.reaktivity.nukleus.http.internal.types.stream.ResetFW;
 import org.reaktivity.nukleus.http.internal.types.stream.SignalFW;
 import org.reaktivity.nukleus.http.internal.types.stream.WindowFW;
+import org.reaktivity.nukleus.http.internal.util.HttpDateHeader;
+import org.reaktivity.nukleus.http.internal.util.HttpGzipEncoder;
+import org.reaktivity.nukleus.http.internal.util.HttpLatencyHistograms;
+import org.reaktivity.nukleus.http.internal.util.HttpRequestCoalescer;
+import org.reaktivity.nukleus.http.internal.util.HttpResponseCache;
+import org.reaktivity.nukleus.http.internal.util.HttpRouteIndex;
+import org.reaktivity.nukleus.http.internal.util.HttpValidatorStore;
 import org.reaktivity.nukleus.http2.internal.Http2Configuration;
 import org.reaktivity.nukleus.http2.internal.Http2Counters;
 import org.reaktivity.nukleus.http2.internal.hpack.HpackContext;
@@ -111,6 +128,9 @@ public final class Http2ServerFactory implements StreamFactory
 
     private static final int CLEANUP_SIGNAL = 0;
 
+    private static final int UPGRADE_STREAM_ID = 1;
+    private static final int UPGRADE_SETTING_SIZE = Short.BYTES + Integer.BYTES;
+
     private static final DirectBuffer EMPTY_BUFFER = new UnsafeBuffer(new byte[0]);
     private static final OctetsFW EMPTY_OCTETS = new OctetsFW().wrap(EMPTY_BUFFER, 0, 0);
 
@@ -126,6 +146,13 @@ public final class Http2ServerFactory implements StreamFactory
                 .item(h -> h.name(":status").value("404"))
                 .build();
 
+    private static final DirectBuffer CONTENT_ENCODING_GZIP = new UnsafeBuffer("gzip".getBytes(UTF_8));
+    private static final DirectBuffer CONTENT_LENGTH_ZERO = new UnsafeBuffer("0".getBytes(UTF_8));
+    private static final DirectBuffer METHOD_HEAD = new UnsafeBuffer("HEAD".getBytes(UTF_8));
+    private static final String8FW HEADER_PATH = new String8FW(":path");
+    private static final DirectBuffer STATUS_200 = new UnsafeBuffer("200".getBytes(UTF_8));
+    private static final DirectBuffer VARY_ACCEPT_ENCODING = new UnsafeBuffer("accept-encoding".getBytes(UTF_8));
+
     private static final Array32FW<HttpHeaderFW> TRAILERS_EMPTY =
             new Array32FW.Builder<>(new HttpHeaderFW.Builder(), new HttpHeaderFW())
                 .wrap(new UnsafeBuffer(new byte[64]), 0, 64)
@@ -143,6 +170,8 @@ public final class Http2ServerFactory implements StreamFactory
     private final HttpDataExFW dataExRO = new HttpDataExFW();
     private final HttpEndExFW endExRO = new HttpEndExFW();
 
+    private final OctetsFW gzipRO = new OctetsFW();
+
     private final BeginFW.Builder beginRW = new BeginFW.Builder();
     private final DataFW.Builder dataRW = new DataFW.Builder();
     private final EndFW.Builder endRW = new EndFW.Builder();
@@ -211,6 +240,13 @@ public final class Http2ServerFactory implements StreamFactory
     }
 
     private final MessageFunction<RouteFW> wrapRoute = (t, b, i, l) -> routeRO.wrap(b, i, i + l);
+    private final Flyweight.Visitor<HttpRouteExFW> wrapRouteEx = routeExRO::tryWrap;
+    private final MessagePredicate routeable = this::routeable;
+    private final Predicate<HttpHeaderFW> mismatchedHeader = this::mismatchedHeader;
+    private final Predicate<HttpHeaderFW> namedHeader = this::namedHeader;
+
+    private Array32FW<HttpHeaderFW> resolveHeaders;
+    private String8FW matchName;
 
     private final Http2HeadersDecoder headersDecoder = new Http2HeadersDecoder();
     private final Http2HeadersEncoder headersEncoder = new Http2HeadersEncoder();
@@ -225,16 +261,26 @@ public final class Http2ServerFactory implements StreamFactory
     private final LongUnaryOperator supplyReplyId;
     private final LongSupplier supplyBudgetId;
     private final Http2Counters counters;
+    private final HttpLatencyHistograms latencies;
+    private final HttpGzipEncoder gzip;
+    private final HttpDateHeader httpDate;
+    private final HttpResponseCache cache;
+    private final HttpRequestCoalescer coalescer;
+    private final HttpValidatorStore validators;
     private final Signaler signaler;
     private final Long2ObjectHashMap<Http2Server.Http2Exchange> correlations;
     private final Http2Settings initialSettings;
     private final BufferPool headersPool;
     private final int httpTypeId;
     private final MutableDirectBuffer extensionBuffer;
+    private final HttpRouteIndex routes;
+    private final Consumer<HttpHeaderFW> routeHeader;
 
     Http2ServerFactory(
         Http2Configuration config,
+        String nukleus,
         RouteManager router,
+        LongSupplier supplyRoutesVersion,
         MutableDirectBuffer writeBuffer,
         BufferPool bufferPool,
         BudgetCreditor creditor,
@@ -243,7 +289,10 @@ public final class Http2ServerFactory implements StreamFactory
         LongSupplier supplyBudgetId,
         ToIntFunction<String> supplyTypeId,
         Function<String, LongSupplier> supplyCounter,
-        Signaler signaler)
+        Signaler signaler,
+        HttpResponseCache cache,
+        HttpRequestCoalescer coalescer,
+        HttpValidatorStore validators)
     {
         this.config = config;
         this.router = requireNonNull(router);
@@ -254,6 +303,14 @@ public final class Http2ServerFactory implements StreamFactory
         this.supplyReplyId = requireNonNull(supplyReplyId);
         this.supplyBudgetId = requireNonNull(supplyBudgetId);
         this.counters = new Http2Counters(supplyCounter);
+        this.latencies = config.serverLatencyHistograms() ? new HttpLatencyHistograms("http2.server", supplyCounter) : null;
+        this.gzip = config.serverCompression()
+                ? new HttpGzipEncoder(config.serverCompressionLevel(), writeBuffer.capacity())
+                : null;
+        this.httpDate = config.serverDateHeader() ? new HttpDateHeader(System::currentTimeMillis) : null;
+        this.cache = cache;
+        this.coalescer = coalescer;
+        this.validators = validators;
         this.signaler = signaler;
         this.correlations = new Long2ObjectHashMap<>();
         this.initialSettings = new Http2Settings(config.serverConcurrentStreams(), 0);
@@ -261,6 +318,8 @@ public final class Http2ServerFactory implements StreamFactory
         this.httpTypeId = supplyTypeId.applyAsInt(HttpNukleus.NAME);
         this.frameBuffer = new UnsafeBuffer(new byte[writeBuffer.capacity()]);
         this.extensionBuffer = new UnsafeBuffer(new byte[writeBuffer.capacity()]);
+        this.routes = new HttpRouteIndex(nukleus, router, supplyRoutesVersion);
+        this.routeHeader = routes::header;
     }
 
     @Override
@@ -288,6 +347,50 @@ public final class Http2ServerFactory implements StreamFactory
         return newStream;
     }
 
+    private RouteFW resolveRoute(
+        long routeId,
+        long authorization,
+        Array32FW<HttpHeaderFW> headers)
+    {
+        resolveHeaders = headers;
+        headers.forEach(routeHeader);
+        final RouteFW route = routes.resolve(routeId, authorization, routeable, wrapRoute);
+        resolveHeaders = null;
+        return route;
+    }
+
+    private boolean routeable(
+        int msgTypeId,
+        DirectBuffer buffer,
+        int index,
+        int length)
+    {
+        final RouteFW route = wrapRoute.apply(msgTypeId, buffer, index, length);
+        final HttpRouteExFW routeEx = route.extension().get(wrapRouteEx);
+        return routeEx == null || !routeEx.headers().anyMatch(mismatchedHeader);
+    }
+
+    private boolean mismatchedHeader(
+        HttpHeaderFW routeHeader)
+    {
+        final String8FW name = routeHeader.name();
+        final String16FW routeValue = routeHeader.value();
+
+        matchName = name;
+        final HttpHeaderFW header = resolveHeaders.matchFirst(namedHeader);
+
+        return header == null ||
+               (HEADER_PATH.equals(name)
+                   ? !matchesPath(routeValue.value(), header.value().value())
+                   : !routeValue.equals(header.value()));
+    }
+
+    private boolean namedHeader(
+        HttpHeaderFW header)
+    {
+        return matchName.equals(header.name());
+    }
+
     private MessageConsumer newNetworkStream(
         final BeginFW begin,
         final MessageConsumer network)
@@ -313,6 +416,54 @@ public final class Http2ServerFactory implements StreamFactory
         return newStream;
     }
 
+    public MessageConsumer newUpgradedStream(
+        MessageConsumer network,
+        long routeId,
+        long initialId,
+        long affinity,
+        long traceId,
+        long authorization,
+        int initialBudget,
+        int replyBudget,
+        int replyPadding,
+        DirectBuffer settings,
+        long exchangeRouteId,
+        HttpBeginExFW exchangeBeginEx,
+        DirectBuffer buffer,
+        int offset,
+        int limit)
+    {
+        final long budgetId = supplyBudgetId.getAsLong();
+
+        final Http2Server server = new Http2Server(network, routeId, initialId, affinity, budgetId);
+        server.onUpgrade(traceId, authorization, initialBudget, replyBudget, replyPadding, settings,
+                exchangeRouteId, exchangeBeginEx, buffer, offset, limit);
+
+        return server::onNetwork;
+    }
+
+    public MessageConsumer newPriorKnowledgeStream(
+        MessageConsumer network,
+        long routeId,
+        long initialId,
+        long affinity,
+        long traceId,
+        long authorization,
+        int initialBudget,
+        int replyBudget,
+        int replyPadding,
+        DirectBuffer buffer,
+        int offset,
+        int limit)
+    {
+        final long budgetId = supplyBudgetId.getAsLong();
+
+        final Http2Server server = new Http2Server(network, routeId, initialId, affinity, budgetId);
+        server.onPriorKnowledge(traceId, authorization, initialBudget, replyBudget, replyPadding, buffer, offset, limit);
+
+        return server::onNetwork;
+    }
+
     private MessageConsumer newApplicationStream(
         final BeginFW begin,
         final MessageConsumer application)
@@ -986,6 +1137,7 @@ public final class Http2ServerFactory implements StreamFactory
         private final HpackContext encodeContext;
 
         private final Int2ObjectHashMap<Http2Exchange> streams;
+        private final Int2ObjectHashMap<Http2Follower> followers;
         private final LongHashSet applicationHeadersProcessed;
         private final int[] streamsActive = new int[2];
 
@@ -1010,6 +1162,7 @@ public final class Http2ServerFactory implements StreamFactory
         private int encodeSlotOffset;
         private int encodeSlotReserved;
         private long encodeSlotTraceId;
+        private long decodeTimestamp;
         private int encodeSlotMaxLimit = Integer.MAX_VALUE;
 
         private MutableDirectBuffer encodeHeadersBuffer;
@@ -1029,6 +1182,7 @@ public final class Http2ServerFactory implements StreamFactory
         private int maxClientStreamId;
         private int maxServerStreamId;
         private int continuationStreamId;
+        private boolean upgraded;
         private Http2ErrorCode decodeError;
         private LongLongConsumer cleanupHandler;
 
@@ -1048,6 +1202,7 @@ public final class Http2ServerFactory implements StreamFactory
             this.localSettings = new Http2Settings();
             this.remoteSettings = new Http2Settings();
             this.streams = new Int2ObjectHashMap<>();
+            this.followers = new Int2ObjectHashMap<>();
             this.applicationHeadersProcessed = new LongHashSet();
             this.decoder = decodePreface;
             this.decodeContext = new HpackContext(localSettings.headerTableSize, false);
@@ -1103,6 +1258,103 @@ public final class Http2ServerFactory implements StreamFactory
             doNetworkBegin(traceId, authorization);
         }
 
+        private void onUpgrade(
+            long traceId,
+            long authorization,
+            int initialBudget,
+            int replyBudget,
+            int replyPadding,
+            DirectBuffer settings,
+            long exchangeRouteId,
+            HttpBeginExFW exchangeBeginEx,
+            DirectBuffer buffer,
+            int offset,
+            int limit)
+        {
+            this.upgraded = true;
+
+            onHandoff(initialBudget, replyBudget, replyPadding);
+
+            // HTTP2-Settings are implicitly acknowledged by the 101 response
+            for (int progress = 0; progress + UPGRADE_SETTING_SIZE <= settings.capacity(); progress += UPGRADE_SETTING_SIZE)
+            {
+                final int id = settings.getShort(progress, BIG_ENDIAN) & 0xffff;
+                final int value = settings.getInt(progress + Short.BYTES, BIG_ENDIAN);
+                onDecodeSetting(Http2Setting.get(id), value);
+            }
+
+            doEncodeSettings(traceId, authorization);
+
+            if (remoteSettings.error() != Http2ErrorCode.NO_ERROR)
+            {
+                onDecodeError(traceId, authorization, remoteSettings.error());
+                decoder = decodeIgnoreAll;
+            }
+            else
+            {
+                maxClientStreamId = UPGRADE_STREAM_ID;
+
+                final Http2Exchange exchange = new Http2Exchange(exchangeRouteId, UPGRADE_STREAM_ID, -1L);
+                exchange.requestAcceptsGzip = acceptsGzip(exchangeBeginEx);
+                exchange.doRequestBegin(traceId, authorization, exchangeBeginEx);
+                correlations.put(exchange.responseId, exchange);
+                exchange.doRequestEnd(traceId, authorization, EMPTY_OCTETS);
+
+                onHandoffData(traceId, authorization, buffer, offset, limit);
+            }
+        }
+
+        private void onPriorKnowledge(
+            long traceId,
+            long authorization,
+            int initialBudget,
+            int replyBudget,
+            int replyPadding,
+            DirectBuffer buffer,
+            int offset,
+            int limit)
+        {
+            onHandoff(initialBudget, replyBudget, replyPadding);
+            onHandoffData(traceId, authorization, buffer, offset, limit);
+        }
+
+        private void onHandoff(
+            int initialBudget,
+            int replyBudget,
+            int replyPadding)
+        {
+            this.initialBudget = initialBudget;
+            this.replyBudget = replyBudget;
+            this.replyPadding = replyPadding;
+
+            state = Http2State.openInitial(state);
+            router.setThrottle(replyId, this::onNetwork);
+
+            assert responseSharedBudgetIndex == NO_CREDITOR_INDEX;
+            responseSharedBudgetIndex = creditor.acquire(budgetId);
+            state = Http2State.openReply(state);
+        }
+
+        private void onHandoffData(
+            long traceId,
+            long authorization,
+            DirectBuffer buffer,
+            int offset,
+            int limit)
+        {
+            // bytes already received by the HTTP/1.1 decoder are decoded in place
+            if (offset < limit)
+            {
+                decodeNetwork(traceId, authorization, 0L, limit - offset, buffer, offset, limit);
+            }
+
+            final int initialCredit = bufferPool.slotCapacity() - this.initialBudget - decodeSlotReserved;
+            if (initialCredit > 0)
+            {
+                doNetworkWindow(traceId, authorization, initialCredit, 0, 0);
+            }
+        }
+
         private void onNetworkData(
             DataFW data)
         {
@@ -1124,6 +1376,8 @@ public final class Http2ServerFactory implements StreamFactory
                 int limit = payload.limit();
                 int reserved = data.reserved();
 
+                decodeTimestamp = data.timestamp();
+
                 if (decodeSlot != NO_SLOT)
                 {
                     final MutableDirectBuffer slotBuffer = bufferPool.buffer(decodeSlot);
@@ -1184,6 +1438,7 @@ public final class Http2ServerFactory implements StreamFactory
         {
             assert this.cleanupHandler == null;
             this.cleanupHandler = cleanupHandler;
+            cleanupFollowers();
             cleanupStreams(traceId, authorization);
         }
 
@@ -1693,7 +1948,10 @@ public final class Http2ServerFactory implements StreamFactory
             long authorization,
             Http2PrefaceFW http2Preface)
         {
-            doEncodeSettings(traceId, authorization);
+            if (!upgraded)
+            {
+                doEncodeSettings(traceId, authorization);
+            }
         }
 
         private void onDecodeSettings(
@@ -1822,6 +2080,8 @@ public final class Http2ServerFactory implements StreamFactory
             {
                 remoteSharedBudget += credit;
 
+                flushFollowers(traceId);
+
                 // TODO: instead use Http2State.replyClosed(state)
                 if (responseSharedBudgetIndex != NO_CREDITOR_INDEX)
                 {
@@ -1835,6 +2095,14 @@ public final class Http2ServerFactory implements StreamFactory
                 {
                     stream.onResponseWindowUpdate(traceId, authorization, credit);
                 }
+                else
+                {
+                    final Http2Follower follower = followers.get(streamId);
+                    if (follower != null)
+                    {
+                        follower.onResponseWindowUpdate(traceId, credit);
+                    }
+                }
             }
         }
 
@@ -1967,44 +2235,90 @@ public final class Http2ServerFactory implements StreamFactory
                     headers.put(":authority", authority + defaultPort);
                 }
 
-                final MessagePredicate filter = (t, b, o, l) ->
-                {
-                    final RouteFW route = routeRO.wrap(b, o, o + l);
-                    final HttpRouteExFW routeEx = route.extension().get(routeExRO::tryWrap);
-
-                    return routeEx == null ||
-                        !routeEx.headers().anyMatch(h -> !Objects.equals(h.value().asString(), headers.get(h.name().asString())));
-                };
+                final HttpBeginExFW requestBeginEx = beginExRW.wrap(extensionBuffer, 0, extensionBuffer.capacity())
+                        .typeId(httpTypeId)
+                        .headers(hs -> headers.forEach((n, v) -> hs.item(h -> h.name(n).value(v))))
+                        .build();
 
-                final RouteFW route = router.resolve(routeId, authorization, filter, wrapRoute);
+                final RouteFW route = resolveRoute(routeId, authorization, requestBeginEx.headers());
                 if (route == null)
                 {
                     doEncodeHeaders(traceId, authorization, streamId, HEADERS_404_NOT_FOUND, true);
                 }
                 else
                 {
-                    final HttpRouteExFW routeEx = route.extension().get(routeExRO::tryWrap);
+                    final HttpRouteExFW routeEx = route.extension().get(wrapRouteEx);
+                    HttpBeginExFW beginEx = requestBeginEx;
                     if (routeEx != null)
                     {
                         routeEx.overrides().forEach(h -> headers.put(h.name().asString(), h.value().asString()));
+                        beginEx = beginExRW.wrap(extensionBuffer, 0, extensionBuffer.capacity())
+                                .typeId(httpTypeId)
+                                .headers(hs -> headers.forEach((n, v) -> hs.item(h -> h.name(n).value(v))))
+                                .build();
                     }
 
                     final long routeId = route.correlationId();
                     final long contentLength = headersDecoder.contentLength;
 
-                    final Http2Exchange exchange = new Http2Exchange(routeId, streamId, contentLength);
-
-                    final HttpBeginExFW beginEx = beginExRW.wrap(extensionBuffer, 0, extensionBuffer.capacity())
-                            .typeId(httpTypeId)
-                            .headers(hs -> headers.forEach((n, v) -> hs.item(h -> h.name(n).value(v))))
-                            .build();
+                    final boolean conditional = validators != null &&
+                            endRequest &&
+                            HttpValidatorStore.conditional(beginEx.headers());
+                    final HttpValidatorStore.Entry validated =
+                            conditional ? validators.lookup(routeId, beginEx.headers()) : null;
+                    final boolean cacheable = validated == null &&
+                            cache != null &&
+                            endRequest &&
+                            HttpResponseCache.cacheable(beginEx.headers());
+                    final HttpResponseCache.Entry cached = cacheable ? cache.lookup(routeId, beginEx.headers()) : null;
+                    final boolean coalescable = validated == null &&
+                            cached == null &&
+                            coalescer != null &&
+                            endRequest &&
+                            HttpRequestCoalescer.coalescable(beginEx.headers());
+                    final HttpRequestCoalescer.Flight flight =
+                            coalescable ? coalescer.lookup(routeId, beginEx.headers()) : null;
+
+                    if (validated != null)
+                    {
+                        // answered from the recorded validators, without an application stream
+                        doEncodeHeaders(traceId, authorization, streamId, validated.headers(), true);
+                        validated.release();
+                    }
+                    else if (flight != null)
+                    {
+                        // follows the identical request in flight, without an application stream
+                        final Http2Follower follower = new Http2Follower(routeId, streamId, authorization, beginEx, flight);
+                        follower.doFollow(traceId);
+                    }
+                    else if (cached == null || !doEncodeCached(traceId, authorization, streamId, cached))
+                    {
+                        final Http2Exchange exchange = new Http2Exchange(routeId, streamId, contentLength);
 
-                    exchange.doRequestBegin(traceId, authorization, beginEx);
-                    correlations.put(exchange.responseId, exchange);
+                        exchange.requestAcceptsGzip = acceptsGzip(beginEx);
+                        if (cacheable && cached == null)
+                        {
+                            exchange.responseCacheWriter = cache.supplyWriter(routeId, beginEx.headers());
+                        }
+                        if (coalescable)
+                        {
+                            exchange.responseLeading = coalescer.lead(routeId, beginEx);
+                        }
+                        if (validators != null && HttpValidatorStore.recordable(beginEx.headers()))
+                        {
+                            exchange.responseValidatorsWriter = validators.supplyWriter(routeId, beginEx.headers());
+                        }
+                        else if (validators != null && !HttpValidatorStore.safe(beginEx.headers()))
+                        {
+                            validators.invalidate(routeId, beginEx.headers());
+                        }
+                        exchange.doRequestBegin(traceId, authorization, beginEx);
+                        correlations.put(exchange.responseId, exchange);
 
-                    if (endRequest)
-                    {
-                        exchange.doRequestEnd(traceId, authorization, EMPTY_OCTETS);
+                        if (endRequest)
+                        {
+                            exchange.doRequestEnd(traceId, authorization, EMPTY_OCTETS);
+                        }
                     }
                 }
             }
@@ -2180,6 +2494,14 @@ public final class Http2ServerFactory implements StreamFactory
             {
                 exchange.cleanup(traceId, authorization);
             }
+            else
+            {
+                final Http2Follower follower = followers.get(streamId);
+                if (follower != null)
+                {
+                    follower.cleanup();
+                }
+            }
         }
 
         private void flushResponseSharedBudget(
@@ -2246,17 +2568,7 @@ public final class Http2ServerFactory implements StreamFactory
             headers.clear();
             promise.forEach(h -> headers.put(h.name().asString(), h.value().asString()));
 
-            final MessagePredicate filter = (t, b, o, l) ->
-            {
-                final RouteFW route = routeRO.wrap(b, o, o + l);
-                final HttpRouteExFW routeEx = route.extension().get(routeExRO::tryWrap);
-
-                return routeEx == null ||
-                    !routeEx.headers().anyMatch(h -> !Objects.equals(h.value().asString(),
-                                                                     headers.get(h.name().asString())));
-            };
-
-            final RouteFW route = router.resolve(routeId, authorization, filter, wrapRoute);
+            final RouteFW route = resolveRoute(routeId, authorization, promise);
             if (route != null)
             {
                 final int pushId =
@@ -2276,7 +2588,7 @@ public final class Http2ServerFactory implements StreamFactory
 
                 if (pushId != -1)
                 {
-                    final HttpRouteExFW routeEx = route.extension().get(routeExRO::tryWrap);
+                    final HttpRouteExFW routeEx = route.extension().get(wrapRouteEx);
                     if (routeEx != null)
                     {
                         routeEx.overrides().forEach(h -> headers.put(h.name().asString(), h.value().asString()));
@@ -2368,16 +2680,102 @@ public final class Http2ServerFactory implements StreamFactory
             counters.pingFramesWritten.getAsLong();
         }
 
+        private boolean doEncodeCached(
+            long traceId,
+            long authorization,
+            int streamId,
+            HttpResponseCache.Entry entry)
+        {
+            final int length = entry.length();
+
+            // written at once without an exchange, so only up to one slot, within the stream window
+            // and unclaimed connection window, larger hits are left to the application
+            final boolean encodable = length <= bufferPool.slotCapacity() &&
+                    length <= remoteSettings.initialWindowSize &&
+                    length <= remoteSharedBudget - Math.max(responseSharedBudget, 0);
+
+            if (encodable)
+            {
+                doEncodeHeaders(traceId, authorization, streamId, entry.headers(), length == 0);
+
+                for (int progress = 0; progress < length; )
+                {
+                    final OctetsFW body = entry.body(progress, remoteSettings.maxFrameSize);
+                    progress += body.sizeof();
+
+                    final Http2DataFW.Builder http2Data = http2DataRW.wrap(frameBuffer, 0, frameBuffer.capacity())
+                            .streamId(streamId)
+                            .payload(body.buffer(), body.offset(), body.sizeof());
+
+                    if (progress == length)
+                    {
+                        http2Data.endStream();
+                    }
+
+                    doNetworkReservedData(traceId, authorization, 0L, http2Data.build());
+                    counters.dataFramesWritten.getAsLong();
+                }
+
+                remoteSharedBudget -= length;
+            }
+
+            entry.release();
+
+            return encodable;
+        }
+
+        private boolean acceptsGzip(
+            HttpBeginExFW beginEx)
+        {
+            boolean acceptsGzip = false;
+
+            if (gzip != null)
+            {
+                final Array32FW<HttpHeaderFW> headers = beginEx.headers();
+                final HttpHeaderFW acceptEncoding = headers.matchFirst(h -> ACCEPT_ENCODING.equals(h.name().value()));
+
+                acceptsGzip = acceptEncoding != null &&
+                        HttpGzipEncoder.acceptsGzip(acceptEncoding.value().value()) &&
+                        headers.matchFirst(h -> METHOD.equals(h.name().value()) &&
+                                                METHOD_HEAD.equals(h.value().value())) == null;
+            }
+
+            return acceptsGzip;
+        }
+
+        private boolean encodableGzip(
+            Array32FW<HttpHeaderFW> headers)
+        {
+            final HttpHeaderFW status = headers.matchFirst(h -> STATUS.equals(h.name().value()));
+
+            // status is checked first, matched headers share the array item flyweight
+            return HttpGzipEncoder.encodableStatus(status != null ? status.value().value() : STATUS_200) &&
+                   headers.matchFirst(h -> CONTENT_ENCODING.equals(h.name().value())) == null &&
+                   headers.matchFirst(h -> CONTENT_LENGTH.equals(h.name().value()) &&
+                                           CONTENT_LENGTH_ZERO.equals(h.value().value())) == null;
+        }
+
         private void doEncodeHeaders(
             long traceId,
             long authorization,
             int streamId,
             Array32FW<HttpHeaderFW> headers,
             boolean endResponse)
+        {
+            doEncodeHeaders(traceId, authorization, streamId, headers, endResponse, false);
+        }
+
+        private void doEncodeHeaders(
+            long traceId,
+            long authorization,
+            int streamId,
+            Array32FW<HttpHeaderFW> headers,
+            boolean endResponse,
+            boolean contentEncodingGzip)
         {
             final Http2HeadersFW http2Headers = http2HeadersRW.wrap(frameBuffer, 0, frameBuffer.capacity())
                     .streamId(streamId)
-                    .headers(hb -> headersEncoder.encodeHeaders(encodeContext, headers, hb))
+                    .headers(hb -> headersEncoder.encodeHeaders(encodeContext, headers, contentEncodingGzip, hb))
                     .endHeaders()
                     .endStream(endResponse)
                     .build();
@@ -2508,6 +2906,36 @@ public final class Http2ServerFactory implements StreamFactory
             counters.windowUpdateFramesWritten.getAsLong();
         }
 
+        private void flushFollowers(
+            long traceId)
+        {
+            // followers are not credited by the budget creditor, so they write first from the connection window
+            if (!followers.isEmpty())
+            {
+                for (Iterator<Http2Follower> iterator = followers.values().iterator(); iterator.hasNext(); )
+                {
+                    final Http2Follower follower = iterator.next();
+                    if (follower.flushResponse(traceId))
+                    {
+                        iterator.remove();
+                    }
+                }
+            }
+        }
+
+        private void cleanupFollowers()
+        {
+            if (!followers.isEmpty())
+            {
+                for (Http2Follower follower : followers.values())
+                {
+                    follower.unfollow();
+                    streamsActive[follower.streamId & 0x01]--;
+                }
+                followers.clear();
+            }
+        }
+
         private void cleanupNetwork(
             long traceId,
             long authorization)
@@ -2578,6 +3006,7 @@ public final class Http2ServerFactory implements StreamFactory
             private final long responseId;
             private final int streamId;
             private final long contentLength;
+            private final long requestTimestamp;
 
             private int state;
             private long contentObserved;
@@ -2589,6 +3018,12 @@ public final class Http2ServerFactory implements StreamFactory
             private int localBudget;
             private int remoteBudget;
 
+            private boolean requestAcceptsGzip;
+            private HttpGzipEncoder.Stream responseGzip;
+            private HttpResponseCache.Writer responseCacheWriter;
+            private HttpValidatorStore.Writer responseValidatorsWriter;
+            private HttpRequestCoalescer.Flight responseLeading;
+
             private int requestSlot = NO_SLOT;
             private int requestSlotOffset;
             private long requestSlotTraceId;
@@ -2601,6 +3036,7 @@ public final class Http2ServerFactory implements StreamFactory
                 this.routeId = routeId;
                 this.streamId = streamId;
                 this.contentLength = contentLength;
+                this.requestTimestamp = decodeTimestamp;
                 this.requestId = supplyInitialId.applyAsLong(routeId);
                 this.application = router.supplyReceiver(requestId);
                 this.responseId = supplyReplyId.applyAsLong(requestId);
@@ -2912,7 +3348,33 @@ public final class Http2ServerFactory implements StreamFactory
                 final long traceId = begin.traceId();
                 final long authorization = begin.authorization();
 
-                doEncodeHeaders(traceId, authorization, streamId, headers, false);
+                if (latencies != null)
+                {
+                    latencies.recordBegin(routeId, requestTimestamp, begin.timestamp());
+                }
+
+                if (requestAcceptsGzip && encodableGzip(headers))
+                {
+                    responseGzip = gzip.acquire();
+                }
+
+                if (responseCacheWriter != null && !responseCacheWriter.begin(headers))
+                {
+                    cleanupResponseCacheIfNecessary();
+                }
+
+                if (responseValidatorsWriter != null)
+                {
+                    responseValidatorsWriter.record(headers);
+                    cleanupResponseValidatorsIfNecessary();
+                }
+
+                if (responseLeading != null)
+                {
+                    responseLeading.begin(traceId, headers);
+                }
+
+                doEncodeHeaders(traceId, authorization, streamId, headers, false, responseGzip != null);
 
                 onResponseWindowUpdate(traceId, authorization, remoteSettings.initialWindowSize);
             }
@@ -2961,9 +3423,21 @@ public final class Http2ServerFactory implements StreamFactory
 
                     if (payload != null)
                     {
+                        if (responseCacheWriter != null &&
+                            !responseCacheWriter.append(payload.buffer(), payload.offset(), payload.limit()))
+                        {
+                            cleanupResponseCacheIfNecessary();
+                        }
+
+                        if (responseLeading != null)
+                        {
+                            responseLeading.append(traceId, payload.buffer(), payload.offset(), payload.limit());
+                        }
+
                         final int flags = data.flags();
                         final long budgetId = data.budgetId();
-                        final int length = data.length();
+                        final OctetsFW encoded = responseGzip != null ? encodeGzip(payload) : payload;
+                        final int length = responseGzip != null ? encoded.sizeof() : data.length();
 
                         if (Http2Configuration.DEBUG_HTTP2_BUDGETS)
                         {
@@ -2977,7 +3451,7 @@ public final class Http2ServerFactory implements StreamFactory
                         remoteBudget -= length;
                         remoteSharedBudget -= length;
 
-                        doEncodeData(traceId, authorization, flags, budgetId, reserved, streamId, payload);
+                        doEncodeData(traceId, authorization, flags, budgetId, reserved, streamId, encoded);
 
                         final int remotePaddableMax = Math.min(remoteBudget, bufferPool.slotCapacity());
                         final int remotePadding = framePadding(remotePaddableMax, remoteSettings.maxFrameSize);
@@ -3009,17 +3483,44 @@ public final class Http2ServerFactory implements StreamFactory
                 final long traceId = end.traceId();
                 final long authorization = end.authorization();
 
+                if (latencies != null)
+                {
+                    latencies.recordEnd(routeId, requestTimestamp, end.timestamp());
+                }
+
+                if (responseGzip != null)
+                {
+                    doEncodeGzipTail(traceId, authorization);
+                }
+
+                if (responseCacheWriter != null && trailers.isEmpty())
+                {
+                    responseCacheWriter.commit();
+                    responseCacheWriter = null;
+                }
+                cleanupResponseCacheIfNecessary();
+
+                if (responseLeading != null)
+                {
+                    responseLeading.end(traceId, trailers);
+                }
+                cleanupResponseFlightIfNecessary(traceId);
+
                 doEncodeTrailers(traceId, authorization, streamId, trailers);
             }
 
             private void onResponseAbort(
                 AbortFW abort)
             {
-                setResponseClosed();
-
                 final long traceId = abort.traceId();
                 final long authorization = abort.authorization();
 
+                setResponseClosed();
+                cleanupResponseGzipIfNecessary();
+                cleanupResponseCacheIfNecessary();
+                cleanupResponseValidatorsIfNecessary();
+                cleanupResponseFlightIfNecessary(traceId);
+
                 doEncodeRstStream(traceId, authorization, streamId, Http2ErrorCode.NO_ERROR);
                 cleanup(traceId, authorization);
             }
@@ -3029,6 +3530,10 @@ public final class Http2ServerFactory implements StreamFactory
                 long authorization)
             {
                 setResponseClosed();
+                cleanupResponseGzipIfNecessary();
+                cleanupResponseCacheIfNecessary();
+                cleanupResponseValidatorsIfNecessary();
+                cleanupResponseFlightIfNecessary(traceId);
 
                 doReset(application, routeId, responseId, traceId, authorization);
             }
@@ -3073,8 +3578,10 @@ public final class Http2ServerFactory implements StreamFactory
                 {
                     final int remotePaddableMax = Math.min(remoteBudget, bufferPool.slotCapacity());
                     final int remotePadding = framePadding(remotePaddableMax, remoteSettings.maxFrameSize);
-                    final int responsePadding = replyPadding + remotePadding;
-                    final int responseBudgetMax = remoteBudget + responsePadding;
+                    final int gzipPadding = responseGzip != null ? gzip.padding() : 0;
+                    final int gzipReserved = responseGzip != null ? gzipPadding + TAIL_SIZE : 0;
+                    final int responsePadding = replyPadding + remotePadding + gzipPadding;
+                    final int responseBudgetMax = remoteBudget + responsePadding - gzipReserved;
                     final int responseCredit = responseBudgetMax - responseBudget;
 
                     if (responseCredit > 0)
@@ -3094,6 +3601,71 @@ public final class Http2ServerFactory implements StreamFactory
                 }
             }
 
+            private OctetsFW encodeGzip(
+                OctetsFW payload)
+            {
+                final int limit = responseGzip.encode(payload.buffer(), payload.offset(), payload.limit(), 0);
+                return gzipRO.wrap(gzip.buffer(), 0, limit);
+            }
+
+            private void doEncodeGzipTail(
+                long traceId,
+                long authorization)
+            {
+                // stream window for the tail is held back from application credit while encoding
+                final int limit = responseGzip.finish(0);
+                cleanupResponseGzipIfNecessary();
+
+                remoteBudget -= limit;
+                remoteSharedBudget -= limit;
+
+                final Http2DataFW http2Data = http2DataRW.wrap(frameBuffer, 0, frameBuffer.capacity())
+                        .streamId(streamId)
+                        .payload(gzip.buffer(), 0, limit)
+                        .build();
+
+                doNetworkReservedData(traceId, authorization, 0L, http2Data);
+                counters.dataFramesWritten.getAsLong();
+            }
+
+            private void cleanupResponseGzipIfNecessary()
+            {
+                if (responseGzip != null)
+                {
+                    responseGzip.release();
+                    responseGzip = null;
+                }
+            }
+
+            private void cleanupResponseValidatorsIfNecessary()
+            {
+                if (responseValidatorsWriter != null)
+                {
+                    responseValidatorsWriter.release();
+                    responseValidatorsWriter = null;
+                }
+            }
+
+            private void cleanupResponseCacheIfNecessary()
+            {
+                if (responseCacheWriter != null)
+                {
+                    responseCacheWriter.release();
+                    responseCacheWriter = null;
+                }
+            }
+
+            private void cleanupResponseFlightIfNecessary(
+                long traceId)
+            {
+                if (responseLeading != null)
+                {
+                    final HttpRequestCoalescer.Flight flight = responseLeading;
+                    responseLeading = null;
+                    flight.release(traceId);
+                }
+            }
+
             private void setResponseClosed()
             {
                 assert !Http2State.replyClosed(state);
@@ -3119,6 +3691,167 @@ public final class Http2ServerFactory implements StreamFactory
                 doResponseResetIfNecessary(traceId, authorization);
             }
         }
+
+        private final class Http2Follower
+        {
+            private final long routeId;
+            private final int streamId;
+            private final long authorization;
+            private final HttpBeginExFW beginEx;
+            private final LongConsumer listener;
+
+            private HttpRequestCoalescer.Flight flight;
+            private int remoteBudget;
+            private int progress;
+            private boolean begun;
+
+            private Http2Follower(
+                long routeId,
+                int streamId,
+                long authorization,
+                HttpBeginExFW beginEx,
+                HttpRequestCoalescer.Flight flight)
+            {
+                final MutableDirectBuffer buffer = new UnsafeBuffer(new byte[beginEx.sizeof()]);
+                buffer.putBytes(0, beginEx.buffer(), beginEx.offset(), beginEx.sizeof());
+
+                this.routeId = routeId;
+                this.streamId = streamId;
+                this.authorization = authorization;
+                this.beginEx = new HttpBeginExFW().wrap(buffer, 0, buffer.capacity());
+                this.listener = this::onResponseFlight;
+                this.flight = flight;
+                this.remoteBudget = remoteSettings.initialWindowSize;
+            }
+
+            private void doFollow(
+                long traceId)
+            {
+                followers.put(streamId, this);
+                streamsActive[streamId & 0x01]++;
+                flight.follow(listener);
+
+                onResponseFlight(traceId);
+            }
+
+            private void onResponseFlight(
+                long traceId)
+            {
+                if (flight.failed())
+                {
+                    followers.remove(streamId);
+                    streamsActive[streamId & 0x01]--;
+
+                    if (begun)
+                    {
+                        doEncodeRstStream(traceId, 0L, streamId, Http2ErrorCode.NO_ERROR);
+                    }
+                    else
+                    {
+                        doRequestFallback(traceId);
+                    }
+
+                    unfollow();
+                }
+                else if (flight.begun() && flushResponse(traceId))
+                {
+                    followers.remove(streamId);
+                }
+            }
+
+            private void onResponseWindowUpdate(
+                long traceId,
+                int size)
+            {
+                final long newRemoteBudget = (long) remoteBudget + size;
+
+                if (newRemoteBudget > Integer.MAX_VALUE)
+                {
+                    cleanup();
+                    doEncodeRstStream(traceId, 0L, streamId, Http2ErrorCode.FLOW_CONTROL_ERROR);
+                }
+                else
+                {
+                    remoteBudget = (int) newRemoteBudget;
+
+                    if (flight.begun() && flushResponse(traceId))
+                    {
+                        followers.remove(streamId);
+                    }
+                }
+            }
+
+            private boolean flushResponse(
+                long traceId)
+            {
+                if (!begun)
+                {
+                    begun = true;
+                    doEncodeHeaders(traceId, 0L, streamId, flight.headers(), false);
+                }
+
+                // written without an exchange, so only within the stream window and unclaimed connection window
+                int maxLength = Math.min(remoteBudget, remoteSharedBudget - Math.max(responseSharedBudget, 0));
+                while (progress < flight.length() && maxLength > 0)
+                {
+                    final OctetsFW body = flight.body(progress, Math.min(maxLength, remoteSettings.maxFrameSize));
+                    final int length = body.sizeof();
+
+                    final Http2DataFW http2Data = http2DataRW.wrap(frameBuffer, 0, frameBuffer.capacity())
+                            .streamId(streamId)
+                            .payload(body.buffer(), body.offset(), length)
+                            .build();
+
+                    doNetworkReservedData(traceId, 0L, 0L, http2Data);
+                    counters.dataFramesWritten.getAsLong();
+
+                    progress += length;
+                    remoteBudget -= length;
+                    remoteSharedBudget -= length;
+                    maxLength -= length;
+                }
+
+                final boolean completed = flight.complete() && progress == flight.length();
+                if (completed)
+                {
+                    final Array32FW<HttpHeaderFW> trailers = flight.trailers();
+                    doEncodeTrailers(traceId, 0L, streamId, trailers);
+                    unfollow();
+                    streamsActive[streamId & 0x01]--;
+                }
+
+                return completed;
+            }
+
+            private void doRequestFallback(
+                long traceId)
+            {
+                // the follower's own request is issued directly, without coalescing again
+                final Http2Exchange exchange = new Http2Exchange(routeId, streamId, 0L);
+
+                exchange.requestAcceptsGzip = acceptsGzip(beginEx);
+                exchange.doRequestBegin(traceId, authorization, beginEx);
+                correlations.put(exchange.responseId, exchange);
+                exchange.doRequestEnd(traceId, authorization, EMPTY_OCTETS);
+            }
+
+            private void cleanup()
+            {
+                followers.remove(streamId);
+                streamsActive[streamId & 0x01]--;
+                unfollow();
+            }
+
+            private void unfollow()
+            {
+                if (flight != null)
+                {
+                    final HttpRequestCoalescer.Flight flight = this.flight;
+                    this.flight = null;
+                    flight.unfollow(listener);
+                }
+            }
+        }
     }
 
     private static final class Http2State
@@ -3591,11 +4324,17 @@ public final class Http2ServerFactory implements StreamFactory
         private boolean status;
         private boolean accessControlAllowOrigin;
         private boolean serverHeader;
+        private boolean dateHeader;
+        private boolean varyHeader;
+        private boolean contentEncodingGzip;
         private final List<String> connectionHeaders = new ArrayList<>();
+        private final MutableDirectBuffer gzipValueBuffer = new ExpandableArrayBuffer();
 
         private final Consumer<HttpHeaderFW> search = ((Consumer<HttpHeaderFW>) this::status)
                 .andThen(this::accessControlAllowOrigin)
                 .andThen(this::serverHeader)
+                .andThen(this::dateHeader)
+                .andThen(this::varyHeader)
                 .andThen(this::connectionHeaders);
 
         void encodePromise(
@@ -3610,9 +4349,11 @@ public final class Http2ServerFactory implements StreamFactory
         void encodeHeaders(
             HpackContext encodeContext,
             Array32FW<HttpHeaderFW> headers,
+            boolean contentEncodingGzip,
             HpackHeaderBlockFW.Builder headerBlock)
         {
             reset(encodeContext);
+            this.contentEncodingGzip = contentEncodingGzip;
 
             headers.forEach(search);
 
@@ -3642,6 +4383,23 @@ public final class Http2ServerFactory implements StreamFactory
                 DirectBuffer server = config.serverHeader();
                 headerBlock.header(b -> b.literal(l -> l.type(WITHOUT_INDEXING).name(54).value(server)));
             }
+
+            // add cached Date header if there is no Date header in response
+            if (httpDate != null && !dateHeader)
+            {
+                DirectBuffer date = httpDate.value();
+                headerBlock.header(b -> b.literal(l -> l.type(WITHOUT_INDEXING).name(33).value(date)));
+            }
+
+            if (contentEncodingGzip)
+            {
+                headerBlock.header(b -> b.literal(l -> l.type(WITHOUT_INDEXING).name(26).value(CONTENT_ENCODING_GZIP)));
+
+                if (!varyHeader)
+                {
+                    headerBlock.header(b -> b.literal(l -> l.type(WITHOUT_INDEXING).name(59).value(VARY_ACCEPT_ENCODING)));
+                }
+            }
         }
 
         void encodeTrailers(
@@ -3659,6 +4417,9 @@ public final class Http2ServerFactory implements StreamFactory
             status = false;
             accessControlAllowOrigin = false;
             serverHeader = false;
+            dateHeader = false;
+            varyHeader = false;
+            contentEncodingGzip = false;
             connectionHeaders.clear();
         }
 
@@ -3681,6 +4442,18 @@ public final class Http2ServerFactory implements StreamFactory
             serverHeader |= header.name().value().equals(context.nameBuffer(54));
         }
 
+        private void dateHeader(
+            HttpHeaderFW header)
+        {
+            dateHeader |= header.name().value().equals(context.nameBuffer(33));
+        }
+
+        private void varyHeader(
+            HttpHeaderFW header)
+        {
+            varyHeader |= header.name().value().equals(context.nameBuffer(59));
+        }
+
         private void connectionHeaders(
             HttpHeaderFW header)
         {
@@ -3722,6 +4495,12 @@ public final class Http2ServerFactory implements StreamFactory
                 return false;
             }
 
+            // Excluding content-length when the response body is gzip encoded
+            if (contentEncodingGzip && nameBuffer.equals(context.nameBuffer(28)))
+            {
+                return false;
+            }
+
             // Excluding header if nominated by connection header field
             if (connectionHeaders.contains(name.asString()))
             {
@@ -3737,15 +4516,26 @@ public final class Http2ServerFactory implements StreamFactory
         {
             final String8FW name = header.name();
             final String16FW value = header.value();
+            final DirectBuffer nameBuffer = name.value();
 
-            final int index = context.index(name.value(), value.value());
-            if (index != -1)
+            final int index = context.index(nameBuffer, value.value());
+            if (contentEncodingGzip && nameBuffer.equals(context.nameBuffer(34)))      // etag
+            {
+                final int limit = HttpGzipEncoder.encodeETag(value.value(), gzipValueBuffer, 0);
+                builder.literal(l -> l.type(WITHOUT_INDEXING).name(34).value(gzipValueBuffer, 0, limit));
+            }
+            else if (contentEncodingGzip && nameBuffer.equals(context.nameBuffer(59)))  // vary
+            {
+                final int limit = HttpGzipEncoder.encodeVary(value.value(), gzipValueBuffer, 0);
+                builder.literal(l -> l.type(WITHOUT_INDEXING).name(59).value(gzipValueBuffer, 0, limit));
+            }
+            else if (index != -1)
             {
                 builder.indexed(index);
             }
             else
             {
-                builder.literal(literal -> encodeLiteral(literal, context, name.value(), value.value()));
+                builder.literal(literal -> encodeLiteral(literal, context, nameBuffer, value.value()));
             }
         }
 
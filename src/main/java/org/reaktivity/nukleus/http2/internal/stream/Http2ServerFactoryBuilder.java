@@ -15,6 +15,8 @@
  */
 package org.reaktivity.nukleus.http2.internal.stream;
 
+import static java.util.concurrent.TimeUnit.SECONDS;
+
 import java.util.function.Function;
 import java.util.function.LongSupplier;
 import java.util.function.LongUnaryOperator;
@@ -25,14 +27,19 @@ import org.agrona.MutableDirectBuffer;
 import org.reaktivity.nukleus.budget.BudgetCreditor;
 import org.reaktivity.nukleus.buffer.BufferPool;
 import org.reaktivity.nukleus.concurrent.Signaler;
+import org.reaktivity.nukleus.http.internal.util.HttpRequestCoalescer;
+import org.reaktivity.nukleus.http.internal.util.HttpResponseCache;
+import org.reaktivity.nukleus.http.internal.util.HttpValidatorStore;
 import org.reaktivity.nukleus.http2.internal.Http2Configuration;
+import org.reaktivity.nukleus.http2.internal.Http2Nukleus;
 import org.reaktivity.nukleus.route.RouteManager;
-import org.reaktivity.nukleus.stream.StreamFactory;
 import org.reaktivity.nukleus.stream.StreamFactoryBuilder;
 
 public final class Http2ServerFactoryBuilder implements StreamFactoryBuilder
 {
     private final Http2Configuration config;
+    private final String nukleus;
+    private final LongSupplier supplyRoutesVersion;
 
     private RouteManager router;
     private MutableDirectBuffer writeBuffer;
@@ -44,11 +51,25 @@ public final class Http2ServerFactoryBuilder implements StreamFactoryBuilder
     private Function<String, LongSupplier> supplyCounter;
     private BudgetCreditor creditor;
     private Signaler signaler;
+    private HttpResponseCache responseCache;
+    private HttpRequestCoalescer requestCoalescer;
+    private HttpValidatorStore validatorStore;
+
+    public Http2ServerFactoryBuilder(
+        Http2Configuration config,
+        LongSupplier supplyRoutesVersion)
+    {
+        this(config, Http2Nukleus.NAME, supplyRoutesVersion);
+    }
 
     public Http2ServerFactoryBuilder(
-        Http2Configuration config)
+        Http2Configuration config,
+        String nukleus,
+        LongSupplier supplyRoutesVersion)
     {
         this.config = config;
+        this.nukleus = nukleus;
+        this.supplyRoutesVersion = supplyRoutesVersion;
     }
 
     @Override
@@ -131,14 +152,58 @@ public final class Http2ServerFactoryBuilder implements StreamFactoryBuilder
         return this;
     }
 
+    public Http2ServerFactoryBuilder setResponseCache(
+        HttpResponseCache responseCache)
+    {
+        this.responseCache = responseCache;
+        return this;
+    }
+
+    public Http2ServerFactoryBuilder setRequestCoalescer(
+        HttpRequestCoalescer requestCoalescer)
+    {
+        this.requestCoalescer = requestCoalescer;
+        return this;
+    }
+
+    public Http2ServerFactoryBuilder setValidatorStore(
+        HttpValidatorStore validatorStore)
+    {
+        this.validatorStore = validatorStore;
+        return this;
+    }
+
     @Override
-    public StreamFactory build()
+    public Http2ServerFactory build()
     {
         final BufferPool bufferPool = supplyBufferPool.get();
 
+        HttpResponseCache cache = responseCache;
+        if (cache == null && config.serverCacheCapacity() > 0)
+        {
+            cache = new HttpResponseCache("http2.server.cache", config.serverCacheCapacity(), config.serverCacheBlockSize(),
+                    System::currentTimeMillis, supplyCounter);
+        }
+
+        HttpRequestCoalescer coalescer = requestCoalescer;
+        if (coalescer == null && config.serverCoalesce())
+        {
+            coalescer = new HttpRequestCoalescer("http2.server.coalesce", config.serverCoalesceHeaders(),
+                    config.serverCoalesceMaximumResponseSize(), supplyCounter);
+        }
+
+        HttpValidatorStore validators = validatorStore;
+        if (validators == null && config.serverValidatorsCapacity() > 0)
+        {
+            validators = new HttpValidatorStore("http2.server.validators", config.serverValidatorsCapacity(),
+                    SECONDS.toMillis(config.serverValidatorsMaximumAge()), System::currentTimeMillis, supplyCounter);
+        }
+
         return new Http2ServerFactory(
                 config,
+                nukleus,
                 router,
+                supplyRoutesVersion,
                 writeBuffer,
                 bufferPool,
                 creditor,
@@ -147,6 +212,9 @@ public final class Http2ServerFactoryBuilder implements StreamFactoryBuilder
                 supplyBudgetId,
                 supplyTypeId,
                 supplyCounter,
-                signaler);
+                signaler,
+                cache,
+                coalescer,
+                validators);
     }
 }
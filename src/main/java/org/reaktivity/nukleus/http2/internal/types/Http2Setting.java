@@ -38,7 +38,7 @@ public enum Http2Setting
         return id;
     }
 
-    static Http2Setting get(
+    public static Http2Setting get(
         int id)
     {
         switch (id)
@@ -16,7 +16,23 @@
 package org.reaktivity.nukleus.http.internal;
 
 import static org.junit.Assert.assertEquals;
+import static org.reaktivity.nukleus.http.internal.HttpConfiguration.HTTP_CLIENT_MAXIMUM_PIPELINED_REQUESTS;
+import static org.reaktivity.nukleus.http.internal.HttpConfiguration.HTTP_MAXIMUM_HEADERS_SIZE;
 import static org.reaktivity.nukleus.http.internal.HttpConfiguration.HTTP_MAXIMUM_QUEUED_REQUESTS;
+import static org.reaktivity.nukleus.http.internal.HttpConfiguration.HTTP_SERVER_CACHE_BLOCK_SIZE;
+import static org.reaktivity.nukleus.http.internal.HttpConfiguration.HTTP_SERVER_CACHE_CAPACITY;
+import static org.reaktivity.nukleus.http.internal.HttpConfiguration.HTTP_SERVER_COALESCE;
+import static org.reaktivity.nukleus.http.internal.HttpConfiguration.HTTP_SERVER_COMPRESSION;
+import static org.reaktivity.nukleus.http.internal.HttpConfiguration.HTTP_SERVER_COMPRESSION_LEVEL;
+import static org.reaktivity.nukleus.http.internal.HttpConfiguration.HTTP_SERVER_DATE_HEADER;
+import static org.reaktivity.nukleus.http.internal.HttpConfiguration.HTTP_SERVER_DETECT_H2C;
+import static org.reaktivity.nukleus.http.internal.HttpConfiguration.HTTP_SERVER_HEADER;
+import static org.reaktivity.nukleus.http.internal.HttpConfiguration.HTTP_SERVER_LATENCY_HISTOGRAMS;
+import static org.reaktivity.nukleus.http.internal.HttpConfiguration.HTTP_SERVER_MAXIMUM_PIPELINED_REQUESTS;
+import static org.reaktivity.nukleus.http.internal.HttpConfiguration.HTTP_SERVER_MAXIMUM_REQUEST_BODY_SIZE;
+import static org.reaktivity.nukleus.http.internal.HttpConfiguration.HTTP_SERVER_UPGRADE_H2C;
+import static org.reaktivity.nukleus.http.internal.HttpConfiguration.HTTP_SERVER_WRITE_COMBINING;
+import static org.reaktivity.nukleus.http.internal.HttpConfiguration.HTTP_SERVER_WRITE_COMBINING_THRESHOLD;
 
 import org.junit.Test;
 
@@ -24,10 +40,42 @@ public class HttpConfigurationTest
 {
     // needed by test annotations
     public static final String HTTP_MAXIMUM_QUEUED_REQUESTS_NAME = "nukleus.http.maximum.requests.queued";
+    public static final String HTTP_MAXIMUM_HEADERS_SIZE_NAME = "nukleus.http.maximum.headers.size";
+    public static final String HTTP_CLIENT_MAXIMUM_PIPELINED_REQUESTS_NAME = "nukleus.http.client.maximum.requests.pipelined";
+    public static final String HTTP_SERVER_MAXIMUM_PIPELINED_REQUESTS_NAME = "nukleus.http.server.maximum.requests.pipelined";
+    public static final String HTTP_SERVER_WRITE_COMBINING_NAME = "nukleus.http.server.write.combining";
+    public static final String HTTP_SERVER_WRITE_COMBINING_THRESHOLD_NAME = "nukleus.http.server.write.combining.threshold";
+    public static final String HTTP_SERVER_MAXIMUM_REQUEST_BODY_SIZE_NAME = "nukleus.http.server.maximum.request.body.size";
+    public static final String HTTP_SERVER_LATENCY_HISTOGRAMS_NAME = "nukleus.http.server.latency.histograms";
+    public static final String HTTP_SERVER_UPGRADE_H2C_NAME = "nukleus.http.server.upgrade.h2c";
+    public static final String HTTP_SERVER_DETECT_H2C_NAME = "nukleus.http.server.detect.h2c";
+    public static final String HTTP_SERVER_COMPRESSION_NAME = "nukleus.http.server.compression";
+    public static final String HTTP_SERVER_COMPRESSION_LEVEL_NAME = "nukleus.http.server.compression.level";
+    public static final String HTTP_SERVER_HEADER_NAME = "nukleus.http.server.header";
+    public static final String HTTP_SERVER_DATE_HEADER_NAME = "nukleus.http.server.date.header";
+    public static final String HTTP_SERVER_CACHE_CAPACITY_NAME = "nukleus.http.server.cache.capacity";
+    public static final String HTTP_SERVER_CACHE_BLOCK_SIZE_NAME = "nukleus.http.server.cache.block.size";
+    public static final String HTTP_SERVER_COALESCE_NAME = "nukleus.http.server.coalesce";
 
     @Test
     public void shouldVerifyConstants() throws Exception
     {
         assertEquals(HTTP_MAXIMUM_QUEUED_REQUESTS.name(), HTTP_MAXIMUM_QUEUED_REQUESTS_NAME);
+        assertEquals(HTTP_MAXIMUM_HEADERS_SIZE.name(), HTTP_MAXIMUM_HEADERS_SIZE_NAME);
+        assertEquals(HTTP_CLIENT_MAXIMUM_PIPELINED_REQUESTS.name(), HTTP_CLIENT_MAXIMUM_PIPELINED_REQUESTS_NAME);
+        assertEquals(HTTP_SERVER_MAXIMUM_PIPELINED_REQUESTS.name(), HTTP_SERVER_MAXIMUM_PIPELINED_REQUESTS_NAME);
+        assertEquals(HTTP_SERVER_WRITE_COMBINING.name(), HTTP_SERVER_WRITE_COMBINING_NAME);
+        assertEquals(HTTP_SERVER_WRITE_COMBINING_THRESHOLD.name(), HTTP_SERVER_WRITE_COMBINING_THRESHOLD_NAME);
+        assertEquals(HTTP_SERVER_MAXIMUM_REQUEST_BODY_SIZE.name(), HTTP_SERVER_MAXIMUM_REQUEST_BODY_SIZE_NAME);
+        assertEquals(HTTP_SERVER_LATENCY_HISTOGRAMS.name(), HTTP_SERVER_LATENCY_HISTOGRAMS_NAME);
+        assertEquals(HTTP_SERVER_UPGRADE_H2C.name(), HTTP_SERVER_UPGRADE_H2C_NAME);
+        assertEquals(HTTP_SERVER_DETECT_H2C.name(), HTTP_SERVER_DETECT_H2C_NAME);
+        assertEquals(HTTP_SERVER_COMPRESSION.name(), HTTP_SERVER_COMPRESSION_NAME);
+        assertEquals(HTTP_SERVER_COMPRESSION_LEVEL.name(), HTTP_SERVER_COMPRESSION_LEVEL_NAME);
+        assertEquals(HTTP_SERVER_HEADER.name(), HTTP_SERVER_HEADER_NAME);
+        assertEquals(HTTP_SERVER_DATE_HEADER.name(), HTTP_SERVER_DATE_HEADER_NAME);
+        assertEquals(HTTP_SERVER_CACHE_CAPACITY.name(), HTTP_SERVER_CACHE_CAPACITY_NAME);
+        assertEquals(HTTP_SERVER_CACHE_BLOCK_SIZE.name(), HTTP_SERVER_CACHE_BLOCK_SIZE_NAME);
+        assertEquals(HTTP_SERVER_COALESCE.name(), HTTP_SERVER_COALESCE_NAME);
     }
 }
@@ -0,0 +1,162 @@
+/**
+ * Copyright 2016-2020 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http.internal.bench;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+import org.reaktivity.nukleus.http.internal.util.BufferUtil;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@Fork(3)
+@Warmup(iterations = 5, time = 1, timeUnit = SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = SECONDS)
+@OutputTimeUnit(SECONDS)
+public class BufferUtilBM
+{
+    private static final byte[] CRLF_BYTES = "\r\n".getBytes(US_ASCII);
+    private static final byte[] CRLFCRLF_BYTES = "\r\n\r\n".getBytes(US_ASCII);
+    private static final byte COLON_BYTE = ':';
+
+    private final DirectBuffer headers = new UnsafeBuffer((
+            "GET /api/v2/items?page=2&size=50 HTTP/1.1\r\n" +
+            "Host: api.example.com:8080\r\n" +
+            "User-Agent: Mozilla/5.0 (X11; Linux x86_64; rv:78.0) Gecko/20100101 Firefox/78.0\r\n" +
+            "Accept: text/html,application/xhtml+xml,application/xml;q=0.9,image/webp,*/*;q=0.8\r\n" +
+            "Accept-Language: en-US,en;q=0.5\r\n" +
+            "Accept-Encoding: gzip, deflate, br\r\n" +
+            "Referer: https://www.example.com/catalog/index.html\r\n" +
+            "Cookie: session=6f2c1d7e9a3b4c5d8e0f1a2b3c4d5e6f; theme=dark; locale=en_US\r\n" +
+            "Connection: keep-alive\r\n" +
+            "Upgrade-Insecure-Requests: 1\r\n" +
+            "Cache-Control: max-age=0\r\n" +
+            "\r\n").getBytes(US_ASCII));
+
+    @Benchmark
+    public int endOfHeadersByteWise()
+    {
+        return limitOfBytesByteWise(headers, 0, headers.capacity(), CRLFCRLF_BYTES);
+    }
+
+    @Benchmark
+    public int endOfHeadersWordWise()
+    {
+        return BufferUtil.limitOfBytes(headers, 0, headers.capacity(), CRLFCRLF_BYTES);
+    }
+
+    @Benchmark
+    public int headerLinesByteWise()
+    {
+        final int limit = headers.capacity();
+
+        int colons = 0;
+        for (int lineAt = 0, endOfLineAt = limitOfBytesByteWise(headers, lineAt, limit, CRLF_BYTES);
+             endOfLineAt != -1;
+             lineAt = endOfLineAt, endOfLineAt = limitOfBytesByteWise(headers, lineAt, limit, CRLF_BYTES))
+        {
+            colons += indexOfByteByteWise(headers, lineAt, endOfLineAt, COLON_BYTE) != -1 ? 1 : 0;
+        }
+        return colons;
+    }
+
+    @Benchmark
+    public int headerLinesWordWise()
+    {
+        final int limit = headers.capacity();
+
+        int colons = 0;
+        for (int lineAt = 0, endOfLineAt = BufferUtil.limitOfBytes(headers, lineAt, limit, CRLF_BYTES);
+             endOfLineAt != -1;
+             lineAt = endOfLineAt, endOfLineAt = BufferUtil.limitOfBytes(headers, lineAt, limit, CRLF_BYTES))
+        {
+            colons += BufferUtil.indexOfByte(headers, lineAt, endOfLineAt, COLON_BYTE) != -1 ? 1 : 0;
+        }
+        return colons;
+    }
+
+    private static int indexOfByteByteWise(
+        DirectBuffer buffer,
+        int offset,
+        int limit,
+        byte value)
+    {
+        for (int cursor = offset; cursor < limit; cursor++)
+        {
+            if (buffer.getByte(cursor) == value)
+            {
+                return cursor;
+            }
+        }
+
+        return -1;
+    }
+
+    private static int limitOfBytesByteWise(
+        DirectBuffer buffer,
+        int offset,
+        int limit,
+        byte[] value)
+    {
+        int matchedBytes = 0;
+
+        for (int cursor = offset; cursor < limit; cursor++)
+        {
+            if (buffer.getByte(cursor) != value[matchedBytes])
+            {
+                matchedBytes = 0;
+                continue;
+            }
+
+            if (value.length == ++matchedBytes)
+            {
+                return cursor + 1;
+            }
+        }
+
+        return -1;
+    }
+
+    public static void main(String[] args) throws RunnerException
+    {
+        Options opt = new OptionsBuilder()
+                .include(BufferUtilBM.class.getSimpleName())
+                .forks(0)
+                .threads(1)
+                .warmupIterations(3)
+                .measurementIterations(3)
+                .measurementTime(new TimeValue(1, SECONDS))
+                .build();
+
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,270 @@
+/**
+ * Copyright 2016-2020 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http.internal.stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.reaktivity.nukleus.http.internal.HttpConfiguration.HTTP_CLIENT_MAXIMUM_PIPELINED_REQUESTS;
+import static org.reaktivity.nukleus.http.internal.HttpConfiguration.HTTP_MAXIMUM_CONNECTIONS;
+import static org.reaktivity.nukleus.http.internal.HttpConfiguration.HTTP_MAXIMUM_QUEUED_REQUESTS;
+
+import java.util.Properties;
+import java.util.function.Consumer;
+
+import org.agrona.collections.Object2LongHashMap;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Before;
+import org.junit.Test;
+import org.reaktivity.nukleus.buffer.BufferPool;
+import org.reaktivity.nukleus.http.internal.HttpConfiguration;
+import org.reaktivity.nukleus.http.internal.stream.ConnectionPool.CloseAction;
+import org.reaktivity.nukleus.http.internal.stream.ConnectionPool.Connection;
+import org.reaktivity.nukleus.http.internal.stream.ConnectionPool.ConnectionRequest;
+import org.reaktivity.nukleus.route.RouteManager;
+import org.reaktivity.reaktor.ReaktorConfiguration;
+
+public class ConnectionPoolTest
+{
+    private final Object2LongHashMap<String> counters = new Object2LongHashMap<>(0L);
+
+    private ConnectionPool pool;
+    private long streamId;
+
+    @Before
+    public void initPool()
+    {
+        Properties properties = new Properties();
+        properties.setProperty(HTTP_MAXIMUM_CONNECTIONS.name(), "1");
+        properties.setProperty(HTTP_MAXIMUM_QUEUED_REQUESTS.name(), "4");
+        properties.setProperty(HTTP_CLIENT_MAXIMUM_PIPELINED_REQUESTS.name(), "2");
+        HttpConfiguration config = new HttpConfiguration(new ReaktorConfiguration(properties));
+
+        RouteManager router = mock(RouteManager.class);
+        when(router.supplyReceiver(anyLong())).thenReturn((t, b, i, l) -> {});
+
+        ClientStreamFactory factory = new ClientStreamFactory(
+            config,
+            router,
+            () -> 0L,
+            new UnsafeBuffer(new byte[1024]),
+            mock(BufferPool.class),
+            r -> ++streamId,
+            i -> i | 0x8000_0000_0000_0000L,
+            () -> 0L,
+            t -> 1,
+            n -> () -> counters.merge(n, 1L, Long::sum),
+            n -> v -> {},
+            d -> null);
+
+        pool = new ConnectionPool(factory, 1L, 0L);
+    }
+
+    @Test
+    public void shouldPipelineIdempotentRequestsWhenWritten()
+    {
+        TestRequest first = new TestRequest(true);
+        TestRequest second = new TestRequest(true);
+
+        assertTrue(pool.acquire(first));
+        assertEquals(1, first.connection.pendingRequests);
+
+        pool.written(first.connection);
+
+        assertTrue(pool.acquire(second));
+        assertSame(first.connection, second.connection);
+        assertEquals(2, second.connection.pendingRequests);
+        assertEquals(0, counters.getValue("http.enqueues"));
+    }
+
+    @Test
+    public void shouldQueueRequestWhilePipelinedRequestIsWriting()
+    {
+        TestRequest first = new TestRequest(true);
+        TestRequest second = new TestRequest(true);
+
+        assertTrue(pool.acquire(first));
+        assertTrue(pool.acquire(second));
+
+        assertNull(second.connection);
+        assertEquals(1, counters.getValue("http.enqueues"));
+
+        pool.written(first.connection);
+
+        assertSame(first.connection, second.connection);
+        assertEquals(1, counters.getValue("http.dequeues"));
+    }
+
+    @Test
+    public void shouldQueueRequestBeyondMaximumPipelined()
+    {
+        TestRequest first = new TestRequest(true);
+        TestRequest second = new TestRequest(true);
+        TestRequest third = new TestRequest(true);
+
+        pool.acquire(first);
+        pool.written(first.connection);
+        pool.acquire(second);
+        pool.written(second.connection);
+
+        assertTrue(pool.acquire(third));
+        assertNull(third.connection);
+        assertEquals(1, counters.getValue("http.enqueues"));
+    }
+
+    @Test
+    public void shouldNotPipelineBehindNonIdempotentRequest()
+    {
+        TestRequest first = new TestRequest(false);
+        TestRequest second = new TestRequest(true);
+
+        pool.acquire(first);
+        pool.written(first.connection);
+
+        assertTrue(pool.acquire(second));
+        assertNull(second.connection);
+        assertEquals(1, counters.getValue("http.enqueues"));
+    }
+
+    @Test
+    public void shouldNotPipelineNonIdempotentRequest()
+    {
+        TestRequest first = new TestRequest(true);
+        TestRequest second = new TestRequest(false);
+
+        pool.acquire(first);
+        pool.written(first.connection);
+
+        assertTrue(pool.acquire(second));
+        assertNull(second.connection);
+        assertEquals(1, counters.getValue("http.enqueues"));
+    }
+
+    @Test
+    public void shouldCorrelatePipelinedRequestWhenResponseComplete()
+    {
+        TestRequest first = new TestRequest(true);
+        TestRequest second = new TestRequest(true);
+
+        pool.acquire(first);
+        pool.written(first.connection);
+        pool.acquire(second);
+        pool.written(second.connection);
+
+        assertEquals(0, second.correlated);
+
+        pool.release(first.connection, CloseAction.END);
+
+        assertEquals(1, second.correlated);
+        assertEquals(1, second.connection.pendingRequests);
+        assertTrue(second.connection.pipelined.isEmpty());
+    }
+
+    @Test
+    public void shouldRetryPipelinedRequestWhenConnectionClosed()
+    {
+        TestRequest first = new TestRequest(true);
+        TestRequest second = new TestRequest(true);
+
+        pool.acquire(first);
+        pool.written(first.connection);
+        pool.acquire(second);
+        pool.written(second.connection);
+
+        first.connection.persistent = false;
+        pool.release(first.connection, CloseAction.ABORT);
+
+        assertEquals(0, second.correlated);
+        assertEquals(1, second.retried);
+        assertTrue(first.connection.pipelined.isEmpty());
+    }
+
+    @Test
+    public void shouldAssignQueuedRequestToNewConnectionWhenConnectionClosed()
+    {
+        TestRequest first = new TestRequest(false);
+        TestRequest second = new TestRequest(true);
+
+        pool.acquire(first);
+        pool.written(first.connection);
+        pool.acquire(second);
+
+        final Connection closed = first.connection;
+        closed.persistent = false;
+        pool.release(closed, CloseAction.END);
+
+        assertNotSame(closed, second.connection);
+        assertEquals(1, second.connection.pendingRequests);
+        assertEquals(1, counters.getValue("http.dequeues"));
+    }
+
+    private static final class TestRequest implements ConnectionRequest, Consumer<Connection>
+    {
+        private final boolean idempotent;
+
+        private Connection connection;
+        private int correlated;
+        private int retried;
+
+        private TestRequest(
+            boolean idempotent)
+        {
+            this.idempotent = idempotent;
+        }
+
+        @Override
+        public Consumer<Connection> getConsumer()
+        {
+            return this;
+        }
+
+        @Override
+        public boolean idempotent()
+        {
+            return idempotent;
+        }
+
+        @Override
+        public void correlate()
+        {
+            correlated++;
+        }
+
+        @Override
+        public void retry(
+            long traceId)
+        {
+            connection = null;
+            retried++;
+        }
+
+        @Override
+        public void accept(
+            Connection connection)
+        {
+            this.connection = connection;
+            if (connection.pendingRequests > 1)
+            {
+                connection.pipelined.add(this);
+            }
+        }
+    }
+}
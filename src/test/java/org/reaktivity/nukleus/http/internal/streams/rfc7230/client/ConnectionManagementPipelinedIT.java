@@ -0,0 +1,97 @@
+/**
+ * Copyright 2016-2020 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http.internal.streams.rfc7230.client;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.rules.RuleChain.outerRule;
+import static org.reaktivity.nukleus.http.internal.HttpConfiguration.HTTP_MAXIMUM_CONNECTIONS;
+import static org.reaktivity.nukleus.http.internal.HttpConfigurationTest.HTTP_CLIENT_MAXIMUM_PIPELINED_REQUESTS_NAME;
+import static org.reaktivity.reaktor.test.ReaktorRule.EXTERNAL_AFFINITY_MASK;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.DisableOnDebug;
+import org.junit.rules.TestRule;
+import org.junit.rules.Timeout;
+import org.kaazing.k3po.junit.annotation.Specification;
+import org.kaazing.k3po.junit.rules.K3poRule;
+import org.reaktivity.nukleus.http.internal.test.HttpCountersRule;
+import org.reaktivity.reaktor.test.ReaktorRule;
+import org.reaktivity.reaktor.test.annotation.Configure;
+
+public class ConnectionManagementPipelinedIT
+{
+    private final K3poRule k3po = new K3poRule()
+            .addScriptRoot("route", "org/reaktivity/specification/nukleus/http/control/route")
+            .addScriptRoot("client", "org/reaktivity/nukleus/http/internal/streams/rfc7230/connection.management")
+            .addScriptRoot("server", "org/reaktivity/nukleus/http/internal/streams/rfc7230/connection.management");
+
+    private final TestRule timeout = new DisableOnDebug(new Timeout(10, SECONDS));
+
+    private final ReaktorRule reaktor = new ReaktorRule()
+        .nukleus("http"::equals)
+        .directory("target/nukleus-itests")
+        .commandBufferCapacity(1024)
+        .responseBufferCapacity(1024)
+        .counterValuesBufferCapacity(8192)
+        .configure(HTTP_MAXIMUM_CONNECTIONS, 1)
+        .affinityMask("target#0", EXTERNAL_AFFINITY_MASK)
+        .clean();
+
+    private final HttpCountersRule counters = new HttpCountersRule(reaktor);
+
+    @Rule
+    public final TestRule chain = outerRule(reaktor).around(counters).around(k3po).around(timeout);
+
+    @Test
+    @Configure(name = HTTP_CLIENT_MAXIMUM_PIPELINED_REQUESTS_NAME, value = "2")
+    @Specification({
+        "${route}/client/controller",
+        "${client}/pipelined.requests/client",
+        "${server}/pipelined.requests/server" })
+    public void shouldAnswerPipelinedRequestsInOrder() throws Exception
+    {
+        k3po.finish();
+
+        assertEquals(0, counters.enqueues());
+    }
+
+    @Test
+    @Configure(name = HTTP_CLIENT_MAXIMUM_PIPELINED_REQUESTS_NAME, value = "2")
+    @Specification({
+        "${route}/client/controller",
+        "${client}/pipelined.head.and.get.requests/client",
+        "${server}/pipelined.head.and.get.requests/server" })
+    public void shouldNotExpectContentForPipelinedHeadResponse() throws Exception
+    {
+        k3po.finish();
+    }
+
+    @Test
+    @Configure(name = HTTP_CLIENT_MAXIMUM_PIPELINED_REQUESTS_NAME, value = "3")
+    @Specification({
+        "${route}/client/controller",
+        "${client}/pipelined.requests.connection.dropped/client",
+        "${server}/pipelined.requests.connection.dropped/server" })
+    // the awaited request is answered with 503, the request pipelined behind it is retried on a new connection
+    public void shouldRetryPipelinedRequestWhenConnectionDropped() throws Exception
+    {
+        k3po.finish();
+
+        assertEquals(1, counters.requestsRetried());
+    }
+}
@@ -0,0 +1,101 @@
+/**
+ * Copyright 2016-2020 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http.internal.streams.rfc7230.client;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.rules.RuleChain.outerRule;
+import static org.reaktivity.nukleus.route.RouteKind.CLIENT;
+import static org.reaktivity.reaktor.test.ReaktorRule.EXTERNAL_AFFINITY_MASK;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.DisableOnDebug;
+import org.junit.rules.TestRule;
+import org.junit.rules.Timeout;
+import org.kaazing.k3po.junit.annotation.Specification;
+import org.kaazing.k3po.junit.rules.K3poRule;
+import org.reaktivity.nukleus.http.internal.HttpController;
+import org.reaktivity.reaktor.test.ReaktorRule;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+
+public class RequestHeadersIT
+{
+    private final K3poRule k3po = new K3poRule()
+            .addScriptRoot("route", "org/reaktivity/specification/nukleus/http/control/route")
+            .addScriptRoot("client", "org/reaktivity/nukleus/http/internal/streams/rfc7230/message.format")
+            .addScriptRoot("server", "org/reaktivity/nukleus/http/internal/streams/rfc7230/message.format");
+
+    private final TestRule timeout = new DisableOnDebug(new Timeout(10, SECONDS));
+
+    private final ReaktorRule reaktor = new ReaktorRule()
+        .nukleus("http"::equals)
+        .controller("http"::equals)
+        .directory("target/nukleus-itests")
+        .commandBufferCapacity(1024)
+        .responseBufferCapacity(1024)
+        .counterValuesBufferCapacity(8192)
+        .affinityMask("target#0", EXTERNAL_AFFINITY_MASK)
+        .clean();
+
+    @Rule
+    public final TestRule chain = outerRule(reaktor).around(k3po).around(timeout);
+
+    private final Gson gson = new Gson();
+
+    @Test
+    @Specification({
+        "${client}/request.with.header.overrides/client",
+        "${server}/request.with.header.overrides/server" })
+    public void shouldWriteOverridesAfterRequestHeaders() throws Exception
+    {
+        k3po.start();
+
+        final JsonObject extension = new JsonObject();
+        final JsonObject overrides = new JsonObject();
+        overrides.addProperty("x-override", "added");
+        overrides.addProperty("x-replaced", "replaced");
+        extension.add("overrides", overrides);
+
+        reaktor.controller(HttpController.class)
+               .route(CLIENT, "http#0", "target#0", gson.toJson(extension))
+               .get();
+
+        k3po.notifyBarrier("ROUTED_CLIENT");
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "${route}/client/controller",
+        "${client}/request.with.duplicate.headers/client",
+        "${server}/request.with.duplicate.headers/server" })
+    public void shouldWriteDuplicateRequestHeaders() throws Exception
+    {
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "${route}/client/controller",
+        "${client}/request.without.method/client",
+        "${server}/request.without.method/server" })
+    public void shouldResetRequestWithoutMethod() throws Exception
+    {
+        k3po.finish();
+    }
+}
@@ -16,6 +16,7 @@
 package org.reaktivity.nukleus.http.internal.streams.rfc7230.server;
 
 import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
 import static org.junit.rules.RuleChain.outerRule;
 import static org.reaktivity.reaktor.test.ReaktorRule.EXTERNAL_AFFINITY_MASK;
 
@@ -42,7 +43,7 @@ public class ArchitectureIT
         .directory("target/nukleus-itests")
         .commandBufferCapacity(1024)
         .responseBufferCapacity(1024)
-        .counterValuesBufferCapacity(4096)
+        .counterValuesBufferCapacity(8192)
         .affinityMask("target#0", EXTERNAL_AFFINITY_MASK)
         .clean();
 
@@ -59,6 +60,20 @@ public class ArchitectureIT
         k3po.finish();
     }
 
+    @Test
+    @Specification({
+        "${route}/server/controller",
+        "${client}/request.and.response/client",
+        "${server}/request.and.response/server" })
+    public void shouldCountRequestAndResponse() throws Exception
+    {
+        k3po.finish();
+
+        assertEquals(1L, reaktor.counter("http.server.requests"));
+        assertEquals(1L, reaktor.counter("http.server.responses"));
+        assertEquals(0L, reaktor.counter("http.server.exchanges"));
+    }
+
     @Test
     @Specification({
         "${route}/server/controller",
@@ -17,6 +17,7 @@ package org.reaktivity.nukleus.http.internal.streams.rfc7230.server;
 
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.junit.rules.RuleChain.outerRule;
+import static org.reaktivity.nukleus.http.internal.HttpConfigurationTest.HTTP_SERVER_MAXIMUM_PIPELINED_REQUESTS_NAME;
 import static org.reaktivity.reaktor.test.ReaktorRule.EXTERNAL_AFFINITY_MASK;
 
 import org.junit.Ignore;
@@ -28,6 +29,7 @@ import org.junit.rules.Timeout;
 import org.kaazing.k3po.junit.annotation.Specification;
 import org.kaazing.k3po.junit.rules.K3poRule;
 import org.reaktivity.reaktor.test.ReaktorRule;
+import org.reaktivity.reaktor.test.annotation.Configure;
 
 public class ConnectionManagementIT
 {
@@ -97,12 +99,23 @@ public class ConnectionManagementIT
         "${route}/server/controller",
         "${client}/multiple.requests.pipelined/client",
         "${server}/concurrent.requests/server" })
-    @Ignore("TODO: support pipelined requests, at a minimum by serializing them")
+    @Configure(name = HTTP_SERVER_MAXIMUM_PIPELINED_REQUESTS_NAME, value = "8")
     public void shouldSupporttHttpPipelining() throws Exception
     {
         k3po.finish();
     }
 
+    @Test
+    @Specification({
+        "${route}/server/controller",
+        "${client}/multiple.requests.pipelined/client",
+        "${server}/multiple.requests.serialized/server" })
+    @Configure(name = HTTP_SERVER_MAXIMUM_PIPELINED_REQUESTS_NAME, value = "1")
+    public void shouldSerializePipelinedRequestsBeyondMaximumDepth() throws Exception
+    {
+        k3po.finish();
+    }
+
     @Test
     @Specification({
         "${route}/server/controller",
@@ -0,0 +1,68 @@
+/**
+ * Copyright 2016-2020 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http.internal.streams.rfc7230.server;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.rules.RuleChain.outerRule;
+import static org.reaktivity.nukleus.http.internal.HttpConfigurationTest.HTTP_SERVER_MAXIMUM_PIPELINED_REQUESTS_NAME;
+import static org.reaktivity.reaktor.test.ReaktorRule.EXTERNAL_AFFINITY_MASK;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.DisableOnDebug;
+import org.junit.rules.TestRule;
+import org.junit.rules.Timeout;
+import org.kaazing.k3po.junit.annotation.Specification;
+import org.kaazing.k3po.junit.rules.K3poRule;
+import org.reaktivity.reaktor.test.ReaktorRule;
+import org.reaktivity.reaktor.test.annotation.Configure;
+
+public class ConnectionManagementPipelinedIT
+{
+    private final K3poRule k3po = new K3poRule()
+            .addScriptRoot("route", "org/reaktivity/specification/nukleus/http/control/route")
+            .addScriptRoot("client", "org/reaktivity/nukleus/http/internal/streams/rfc7230/connection.management")
+            .addScriptRoot("server", "org/reaktivity/nukleus/http/internal/streams/rfc7230/connection.management");
+
+    private final TestRule timeout = new DisableOnDebug(new Timeout(10, SECONDS));
+
+    private final ReaktorRule reaktor = new ReaktorRule()
+            .directory("target/nukleus-itests")
+            .commandBufferCapacity(1024)
+            .responseBufferCapacity(1024)
+            .counterValuesBufferCapacity(8192)
+            .nukleus("http"::equals)
+            .affinityMask("target#0", EXTERNAL_AFFINITY_MASK)
+            .clean();
+
+    @Rule
+    public final TestRule chain = outerRule(reaktor).around(k3po).around(timeout);
+
+    @Test
+    @Configure(name = HTTP_SERVER_MAXIMUM_PIPELINED_REQUESTS_NAME, value = "2")
+    @Specification({
+        "${route}/server/controller",
+        "${client}/pipelined.second.response.aborted/client",
+        "${server}/pipelined.second.response.aborted/server" })
+    public void shouldReleaseBufferedResponseWhenPipelinedResponseAborted() throws Exception
+    {
+        k3po.finish();
+
+        assertEquals(0L, reaktor.counter("http.server.slots.encode"));
+        assertEquals(0L, reaktor.counter("http.server.exchanges"));
+    }
+}
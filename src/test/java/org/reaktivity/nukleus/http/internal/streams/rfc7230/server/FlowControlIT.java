@@ -17,9 +17,10 @@ package org.reaktivity.nukleus.http.internal.streams.rfc7230.server;
 
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.junit.rules.RuleChain.outerRule;
+import static org.reaktivity.nukleus.http.internal.HttpConfigurationTest.HTTP_SERVER_WRITE_COMBINING_NAME;
+import static org.reaktivity.nukleus.http.internal.HttpConfigurationTest.HTTP_SERVER_WRITE_COMBINING_THRESHOLD_NAME;
 import static org.reaktivity.reaktor.test.ReaktorRule.EXTERNAL_AFFINITY_MASK;
 
-import org.junit.Ignore;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.DisableOnDebug;
@@ -29,13 +30,15 @@ import org.kaazing.k3po.junit.annotation.ScriptProperty;
 import org.kaazing.k3po.junit.annotation.Specification;
 import org.kaazing.k3po.junit.rules.K3poRule;
 import org.reaktivity.reaktor.test.ReaktorRule;
+import org.reaktivity.reaktor.test.annotation.Configure;
 
 public class FlowControlIT
 {
     private final K3poRule k3po = new K3poRule()
             .addScriptRoot("route", "org/reaktivity/specification/nukleus/http/control/route")
             .addScriptRoot("client", "org/reaktivity/specification/http/rfc7230/")
-            .addScriptRoot("server", "org/reaktivity/specification/nukleus/http/streams/rfc7230/");
+            .addScriptRoot("server", "org/reaktivity/specification/nukleus/http/streams/rfc7230/")
+            .addScriptRoot("padded", "org/reaktivity/nukleus/http/internal/streams/rfc7230/flow.control");
 
     private final TestRule timeout = new DisableOnDebug(new Timeout(10, SECONDS));
 
@@ -44,7 +47,7 @@ public class FlowControlIT
         .directory("target/nukleus-itests")
         .commandBufferCapacity(1024)
         .responseBufferCapacity(1024)
-        .counterValuesBufferCapacity(4096)
+        .counterValuesBufferCapacity(8192)
         .affinityMask("target#0", EXTERNAL_AFFINITY_MASK)
         .clean();
 
@@ -56,7 +59,6 @@ public class FlowControlIT
         "${route}/server/controller",
         "${client}/flow.control/multiple.requests.pipelined.fragmented/client",
         "${server}/connection.management/multiple.requests.serialized/server" })
-    @Ignore("TODO: support pipelined requests, at a minimum by serializing them")
     public void shouldAcceptMultipleRequestsInSameDataFrameFragmented() throws Exception
     {
         k3po.finish();
@@ -67,7 +69,6 @@ public class FlowControlIT
         "${route}/server/controller",
         "${client}/connection.management/multiple.requests.pipelined/client",
         "${server}/connection.management/multiple.requests.serialized/server" })
-    @Ignore("TODO: support pipelined requests, at a minimum by serializing them")
     @ScriptProperty("clientInitialWindow \"89\"")
     public void shouldFlowControlMultipleResponses() throws Exception
     {
@@ -180,4 +181,73 @@ public class FlowControlIT
         k3po.finish();
     }
 
+    @Test
+    @Specification({
+        "${route}/server/controller",
+        "${client}/architecture/request.and.response/client",
+        "${server}/architecture/request.and.response/server"})
+    @Configure(name = HTTP_SERVER_WRITE_COMBINING_NAME, value = "true")
+    public void shouldCombineResponseHeadersWithEnd() throws Exception
+    {
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "${route}/server/controller",
+        "${padded}/response.with.content.length.and.padding/client",
+        "${padded}/response.with.content.length.and.padding/server"})
+    @Configure(name = HTTP_SERVER_WRITE_COMBINING_NAME, value = "true")
+    public void shouldCombineResponseHeadersWithContent() throws Exception
+    {
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "${route}/server/controller",
+        "${client}/message.format/response.with.content.length/client",
+        "${server}/message.format/response.with.content.length/server"})
+    @ScriptProperty("clientInitialWindow \"9\"")
+    @Configure(name = HTTP_SERVER_WRITE_COMBINING_NAME, value = "true")
+    public void shouldFlowControlCombinedResponseWithContentLength() throws Exception
+    {
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "${route}/server/controller",
+        "${padded}/response.with.content.length.and.padding/client",
+        "${padded}/response.with.content.length.and.padding/server"})
+    @ScriptProperty("clientInitialWindow \"70\"")
+    @Configure(name = HTTP_SERVER_WRITE_COMBINING_NAME, value = "true")
+    @Configure(name = HTTP_SERVER_WRITE_COMBINING_THRESHOLD_NAME, value = "16")
+    public void shouldNotCombineResponseHeadersBeyondThreshold() throws Exception
+    {
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "${route}/server/controller",
+        "${client}/transfer.codings/response.transfer.encoding.chunked/client",
+        "${server}/transfer.codings/response.transfer.encoding.chunked/server" })
+    @Configure(name = HTTP_SERVER_WRITE_COMBINING_NAME, value = "true")
+    public void shouldCombineResponseHeadersWithChunk() throws Exception
+    {
+        k3po.finish();
+    }
+
+    @Test
+    @Specification({
+        "${route}/server/controller",
+        "${client}/connection.management/multiple.requests.pipelined/client",
+        "${server}/connection.management/multiple.requests.serialized/server" })
+    @ScriptProperty("clientInitialWindow \"89\"")
+    @Configure(name = HTTP_SERVER_WRITE_COMBINING_NAME, value = "true")
+    public void shouldCombineMultipleResponses() throws Exception
+    {
+        k3po.finish();
+    }
 }
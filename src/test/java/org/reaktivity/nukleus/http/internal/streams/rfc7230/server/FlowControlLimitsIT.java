@@ -43,7 +43,7 @@ public class FlowControlLimitsIT
         .directory("target/nukleus-itests")
         .commandBufferCapacity(1024)
         .responseBufferCapacity(1024)
-        .counterValuesBufferCapacity(4096)
+        .counterValuesBufferCapacity(8192)
         // Maximum headers size is limited to the size of each slot in the buffer pool:
         .configure(ReaktorConfiguration.REAKTOR_BUFFER_SLOT_CAPACITY, 64)
         // Overall buffer pool size:
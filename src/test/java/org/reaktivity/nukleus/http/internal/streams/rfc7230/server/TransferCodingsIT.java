@@ -75,7 +75,6 @@ public class TransferCodingsIT
         "${route}/server/controller",
         "${client}/response.transfer.encoding.chunked/client",
         "${server}/response.transfer.encoding.chunked/server" })
-    @Ignore // TODO: implement encoding chunked responses
     public void responseTransferEncodingChunked() throws Exception
     {
         k3po.finish();
@@ -111,7 +110,6 @@ public class TransferCodingsIT
         "${route}/server/controller",
         "${client}/response.transfer.encoding.chunked.with.trailer/client",
         "${server}/response.transfer.encoding.chunked.with.trailer/server" })
-    @Ignore // TODO: implement encoding chunked responses
     public void responseTransferEncodingChunkedWithTrailer() throws Exception
     {
         k3po.finish();
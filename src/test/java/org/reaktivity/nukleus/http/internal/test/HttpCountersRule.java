@@ -76,4 +76,9 @@ public class HttpCountersRule implements TestRule
     {
         return reaktor.counter("http.requests.rejected");
     }
+
+    public long requestsRetried()
+    {
+        return reaktor.counter("http.requests.retried");
+    }
 }
@@ -0,0 +1,51 @@
+/**
+ * Copyright 2016-2020 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http.internal.test;
+
+import org.agrona.concurrent.UnsafeBuffer;
+import org.reaktivity.nukleus.http.internal.types.Array32FW;
+import org.reaktivity.nukleus.http.internal.types.HttpHeaderFW;
+
+public final class HttpHeadersUtil
+{
+    public static Array32FW<HttpHeaderFW> headers(
+        String... namesAndValues)
+    {
+        final Array32FW.Builder<HttpHeaderFW.Builder, HttpHeaderFW> headersRW =
+                new Array32FW.Builder<>(new HttpHeaderFW.Builder(), new HttpHeaderFW());
+        headersRW.wrap(new UnsafeBuffer(new byte[1024]), 0, 1024);
+        for (int i = 0; i < namesAndValues.length; i += 2)
+        {
+            final String name = namesAndValues[i];
+            final String value = namesAndValues[i + 1];
+            headersRW.item(h -> h.name(name).value(value));
+        }
+        return headersRW.build();
+    }
+
+    public static String value(
+        Array32FW<HttpHeaderFW> headers,
+        String name)
+    {
+        final HttpHeaderFW header = headers.matchFirst(h -> name.equals(h.name().asString()));
+        return header != null ? header.value().asString() : null;
+    }
+
+    private HttpHeadersUtil()
+    {
+        // utility class, no instances
+    }
+}
@@ -17,6 +17,8 @@ package org.reaktivity.nukleus.http.internal.util;
 
 import static java.nio.charset.StandardCharsets.US_ASCII;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 import org.agrona.DirectBuffer;
 import org.agrona.concurrent.UnsafeBuffer;
@@ -24,6 +26,7 @@ import org.junit.Test;
 
 public class BufferUtilTest
 {
+    private static final byte[] CRLF = "\r\n".getBytes(US_ASCII);
     private static final byte[] CRLFCRLF = "\r\n\r\n".getBytes(US_ASCII);
 
     @Test
@@ -103,5 +106,77 @@ public class BufferUtilTest
         assertEquals(4, BufferUtil.limitOfBytes(buffer1, 0, 4, buffer2, 0, buffer2.capacity(), CRLFCRLF));
     }
 
+    @Test
+    public void shouldLocateByteAtEveryPositionInWords()
+    {
+        for (int position = 0; position < 24; position++)
+        {
+            byte[] bytes = "abcdefghijklmnopqrstuvwx".getBytes(US_ASCII);
+            bytes[position] = ':';
+            DirectBuffer buffer = new UnsafeBuffer(bytes);
+            assertEquals(position, BufferUtil.indexOfByte(buffer, 0, buffer.capacity(), (byte) ':'));
+        }
+    }
+
+    @Test
+    public void shouldLocateFirstByteWhenRepeatedInWord()
+    {
+        DirectBuffer buffer = new UnsafeBuffer("ab;;;;cd;;;;;;;;".getBytes(US_ASCII));
+        assertEquals(2, BufferUtil.indexOfByte(buffer, 0, buffer.capacity(), (byte) ';'));
+        assertEquals(8, BufferUtil.indexOfByte(buffer, 6, buffer.capacity(), (byte) ';'));
+    }
+
+    @Test
+    public void shouldLocateByteAfterHighBitBytes()
+    {
+        DirectBuffer buffer = new UnsafeBuffer(new byte[] { (byte) 0xff, (byte) 0x80, 0x00, (byte) 0xa0, 0x21, ' ', 0x01, 0x7f });
+        assertEquals(5, BufferUtil.indexOfByte(buffer, 0, buffer.capacity(), (byte) ' '));
+        assertEquals(0, BufferUtil.indexOfByte(buffer, 0, buffer.capacity(), (byte) 0xff));
+        assertEquals(2, BufferUtil.indexOfByte(buffer, 0, buffer.capacity(), (byte) 0x00));
+    }
+
+    @Test
+    public void shouldReportIndexMinusOneWhenByteBeyondLimit()
+    {
+        DirectBuffer buffer = new UnsafeBuffer("Host: localhost:8080\r\n".getBytes(US_ASCII));
+        assertEquals(-1, BufferUtil.indexOfByte(buffer, 0, 4, (byte) ':'));
+        assertEquals(-1, BufferUtil.indexOfByte(buffer, 0, buffer.capacity(), (byte) ';'));
+        assertEquals(-1, BufferUtil.indexOfByte(buffer, 16, 16, (byte) '8'));
+    }
+
+    @Test
+    public void shouldLocateLimitAfterPartialMatch()
+    {
+        DirectBuffer buffer = new UnsafeBuffer("Host: x\r\n\r\r\n\r\n".getBytes(US_ASCII));
+        assertEquals(buffer.capacity(), BufferUtil.limitOfBytes(buffer, 0, buffer.capacity(), CRLFCRLF));
+    }
+
+    @Test
+    public void shouldLocateLimitWhenValueSpansWords()
+    {
+        DirectBuffer buffer = new UnsafeBuffer("GET / HTTP/1.1\r\nHost: localhost:8080\r\n\r\n".getBytes(US_ASCII));
+        assertEquals("GET / HTTP/1.1\r\n".length(), BufferUtil.limitOfBytes(buffer, 0, buffer.capacity(), CRLF));
+        assertEquals(buffer.capacity(), BufferUtil.limitOfBytes(buffer, 0, buffer.capacity(), CRLFCRLF));
+        assertEquals(-1, BufferUtil.limitOfBytes(buffer, 0, buffer.capacity() - 1, CRLFCRLF));
+    }
+
+    @Test
+    public void shouldMatchIgnoringCaseOfLettersOnly()
+    {
+        DirectBuffer buffer = new UnsafeBuffer("100-Continue 100\rcontinue".getBytes(US_ASCII));
+        byte[] value = "100-continue".getBytes(US_ASCII);
+        assertTrue(BufferUtil.matchesIgnoreCase(buffer, 0, 12, value));
+        assertFalse(BufferUtil.matchesIgnoreCase(buffer, 13, buffer.capacity(), value));
+    }
+
+    @Test
+    public void shouldContainDirective()
+    {
+        DirectBuffer buffer = new UnsafeBuffer("max-age=60,\tNo-Cache ,private=\"x\"".getBytes(US_ASCII));
+        assertTrue(BufferUtil.containsDirective(buffer, "no-cache".getBytes(US_ASCII)));
+        assertTrue(BufferUtil.containsDirective(buffer, "private".getBytes(US_ASCII)));
+        assertFalse(BufferUtil.containsDirective(buffer, "max".getBytes(US_ASCII)));
+        assertFalse(BufferUtil.containsDirective(buffer, "no-store".getBytes(US_ASCII)));
+    }
 }
 
@@ -0,0 +1,115 @@
+/**
+ * Copyright 2016-2020 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http.internal.util;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.time.ZoneOffset.UTC;
+import static java.time.format.DateTimeFormatter.ofPattern;
+import static org.junit.Assert.assertEquals;
+
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+
+public class HttpDateHeaderTest
+{
+    private static final DateTimeFormatter IMF_FIXDATE = ofPattern("EEE, dd MMM yyyy HH:mm:ss 'GMT'", Locale.US).withZone(UTC);
+
+    private final AtomicLong clock = new AtomicLong();
+    private final HttpDateHeader date = new HttpDateHeader(clock::get);
+
+    @Test
+    public void shouldFormatEpoch()
+    {
+        assertEquals("Thu, 01 Jan 1970 00:00:00 GMT", asString(date.value()));
+    }
+
+    @Test
+    public void shouldFormatImfFixdate()
+    {
+        clock.set(784111777000L);
+
+        assertEquals("Sun, 06 Nov 1994 08:49:37 GMT", asString(date.value()));
+    }
+
+    @Test
+    public void shouldRefreshOncePerSecond()
+    {
+        clock.set(951868799000L);
+        assertEquals("Tue, 29 Feb 2000 23:59:59 GMT", asString(date.value()));
+
+        clock.set(951868799999L);
+        assertEquals("Tue, 29 Feb 2000 23:59:59 GMT", asString(date.value()));
+
+        clock.set(951868800000L);
+        assertEquals("Wed, 01 Mar 2000 00:00:00 GMT", asString(date.value()));
+    }
+
+    @Test
+    public void shouldFormatAcrossCalendar()
+    {
+        for (long millis = 0L; millis < 4102444800000L; millis += 86399999L)
+        {
+            clock.set(millis);
+
+            assertEquals(IMF_FIXDATE.format(Instant.ofEpochMilli(millis)), asString(date.value()));
+        }
+    }
+
+    @Test
+    public void shouldParseImfFixdate()
+    {
+        assertEquals(784111777000L, HttpDateHeader.parse(asBuffer("Sun, 06 Nov 1994 08:49:37 GMT")));
+        assertEquals(951782400000L, HttpDateHeader.parse(asBuffer("Tue, 29 Feb 2000 00:00:00 GMT")));
+    }
+
+    @Test
+    public void shouldParseFormattedDates()
+    {
+        for (long millis = 0L; millis < 4102444800000L; millis += 86399000L)
+        {
+            clock.set(millis);
+
+            assertEquals(millis, HttpDateHeader.parse(date.value()));
+        }
+    }
+
+    @Test
+    public void shouldNotParseObsoleteFormats()
+    {
+        assertEquals(-1L, HttpDateHeader.parse(asBuffer("Sunday, 06-Nov-94 08:49:37 GMT")));
+        assertEquals(-1L, HttpDateHeader.parse(asBuffer("Sun Nov  6 08:49:37 1994")));
+        assertEquals(-1L, HttpDateHeader.parse(asBuffer("Sun, 06 Nox 1994 08:49:37 GMT")));
+        assertEquals(-1L, HttpDateHeader.parse(asBuffer("Sun, 06 Nov 1994 08:49:37 UTC")));
+    }
+
+    private static DirectBuffer asBuffer(
+        String value)
+    {
+        return new UnsafeBuffer(value.getBytes(US_ASCII));
+    }
+
+    private static String asString(
+        DirectBuffer value)
+    {
+        return value.getStringWithoutLengthAscii(0, HttpDateHeader.LENGTH);
+    }
+}
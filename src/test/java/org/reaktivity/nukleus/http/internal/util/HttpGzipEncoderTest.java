@@ -0,0 +1,219 @@
+/**
+ * Copyright 2016-2020 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http.internal.util;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.reaktivity.nukleus.http.internal.util.HttpGzipEncoder.FRAMING_SIZE;
+import static org.reaktivity.nukleus.http.internal.util.HttpGzipEncoder.TAIL_SIZE;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+
+import org.agrona.DirectBuffer;
+import org.agrona.ExpandableArrayBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+
+public class HttpGzipEncoderTest
+{
+    private final HttpGzipEncoder encoder = new HttpGzipEncoder(Deflater.DEFAULT_COMPRESSION, 8192);
+
+    @Test
+    public void shouldEncodeChunksAsSingleGzipMember() throws Exception
+    {
+        final byte[] body = "{\"items\":[1,2,3,4,5,6,7,8,9,10],\"items\":[1,2,3,4,5,6,7,8,9,10]}".getBytes(US_ASCII);
+        final ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+
+        final HttpGzipEncoder.Stream gzip = encoder.acquire();
+        encode(gzip, new UnsafeBuffer(body, 0, 20), encoded);
+        encode(gzip, new UnsafeBuffer(body, 20, body.length - 20), encoded);
+        final int limit = gzip.finish(FRAMING_SIZE);
+        encoded.write(copy(FRAMING_SIZE, limit));
+        gzip.release();
+
+        assertArrayEquals(body, decode(encoded.toByteArray()));
+    }
+
+    @Test
+    public void shouldEncodeEmptyBody() throws Exception
+    {
+        final HttpGzipEncoder.Stream gzip = encoder.acquire();
+        final int limit = gzip.finish(0);
+        gzip.release();
+
+        assertTrue(limit <= TAIL_SIZE);
+        assertArrayEquals(new byte[0], decode(copy(0, limit)));
+    }
+
+    @Test
+    public void shouldBoundIncompressibleChunks() throws Exception
+    {
+        final byte[] body = new byte[encoder.capacity()];
+        new Random(0L).nextBytes(body);
+        final ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+
+        final HttpGzipEncoder.Stream gzip = encoder.acquire();
+        for (int i = 0; i < 3; i++)
+        {
+            final int length = encode(gzip, new UnsafeBuffer(body), encoded);
+            assertTrue(length <= body.length + encoder.padding());
+        }
+        final int limit = gzip.finish(0);
+        assertTrue(limit <= TAIL_SIZE);
+        encoded.write(copy(0, limit));
+        gzip.release();
+
+        final byte[] decoded = decode(encoded.toByteArray());
+        for (int i = 0; i < 3; i++)
+        {
+            final byte[] part = new byte[body.length];
+            System.arraycopy(decoded, i * body.length, part, 0, body.length);
+            assertArrayEquals(body, part);
+        }
+    }
+
+    @Test
+    public void shouldReuseReleasedStreams() throws Exception
+    {
+        final HttpGzipEncoder.Stream gzip = encoder.acquire();
+        encode(gzip, new UnsafeBuffer("abandoned".getBytes(US_ASCII)), new ByteArrayOutputStream());
+        gzip.release();
+
+        final HttpGzipEncoder.Stream reused = encoder.acquire();
+        assertSame(gzip, reused);
+
+        final byte[] body = "reused".getBytes(US_ASCII);
+        final ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        encode(reused, new UnsafeBuffer(body), encoded);
+        final int limit = reused.finish(0);
+        encoded.write(copy(0, limit));
+        reused.release();
+
+        assertArrayEquals(body, decode(encoded.toByteArray()));
+    }
+
+    @Test
+    public void shouldAcceptGzip()
+    {
+        assertTrue(acceptsGzip("gzip"));
+        assertTrue(acceptsGzip("deflate, gzip"));
+        assertTrue(acceptsGzip("GZIP;q=0.5"));
+        assertTrue(acceptsGzip("br;q=1.0, gzip ; q=0.8, *;q=0"));
+        assertTrue(acceptsGzip("x-gzip"));
+        assertTrue(acceptsGzip("identity, *"));
+    }
+
+    @Test
+    public void shouldNotAcceptGzip()
+    {
+        assertFalse(acceptsGzip(""));
+        assertFalse(acceptsGzip("identity"));
+        assertFalse(acceptsGzip("gzipped"));
+        assertFalse(acceptsGzip("gzip;q=0"));
+        assertFalse(acceptsGzip("gzip;q=0.000, *"));
+        assertFalse(acceptsGzip("*;q=0"));
+    }
+
+    @Test
+    public void shouldEncodeStatusWithBody()
+    {
+        assertTrue(HttpGzipEncoder.encodableStatus(new UnsafeBuffer("200".getBytes(US_ASCII))));
+        assertTrue(HttpGzipEncoder.encodableStatus(new UnsafeBuffer("404".getBytes(US_ASCII))));
+        assertFalse(HttpGzipEncoder.encodableStatus(new UnsafeBuffer("101".getBytes(US_ASCII))));
+        assertFalse(HttpGzipEncoder.encodableStatus(new UnsafeBuffer("204".getBytes(US_ASCII))));
+        assertFalse(HttpGzipEncoder.encodableStatus(new UnsafeBuffer("206".getBytes(US_ASCII))));
+        assertFalse(HttpGzipEncoder.encodableStatus(new UnsafeBuffer("304".getBytes(US_ASCII))));
+        assertFalse(HttpGzipEncoder.encodableStatus(new UnsafeBuffer("2xx".getBytes(US_ASCII))));
+        assertFalse(HttpGzipEncoder.encodableStatus(new UnsafeBuffer("2000".getBytes(US_ASCII))));
+    }
+
+    @Test
+    public void shouldAppendAcceptEncodingToVary()
+    {
+        assertEquals("origin, accept-encoding", encodeVary("origin"));
+        assertEquals("origin, accept-encoding-extra, accept-encoding", encodeVary("origin, accept-encoding-extra"));
+        assertEquals("origin, Accept-Encoding ", encodeVary("origin, Accept-Encoding "));
+        assertEquals("*", encodeVary("*"));
+    }
+
+    @Test
+    public void shouldSuffixETag()
+    {
+        assertEquals("\"abc-gzip\"", encodeETag("\"abc\""));
+        assertEquals("W/\"abc-gzip\"", encodeETag("W/\"abc\""));
+        assertEquals("abc-gzip", encodeETag("abc"));
+    }
+
+    private int encode(
+        HttpGzipEncoder.Stream gzip,
+        DirectBuffer buffer,
+        ByteArrayOutputStream encoded) throws IOException
+    {
+        final int limit = gzip.encode(buffer, 0, buffer.capacity(), FRAMING_SIZE);
+        encoded.write(copy(FRAMING_SIZE, limit));
+        return limit - FRAMING_SIZE;
+    }
+
+    private byte[] copy(
+        int offset,
+        int limit)
+    {
+        final byte[] bytes = new byte[limit - offset];
+        encoder.buffer().getBytes(offset, bytes);
+        return bytes;
+    }
+
+    private static boolean acceptsGzip(
+        String value)
+    {
+        return HttpGzipEncoder.acceptsGzip(new UnsafeBuffer(value.getBytes(US_ASCII)));
+    }
+
+    private static String encodeVary(
+        String value)
+    {
+        final MutableDirectBuffer buffer = new ExpandableArrayBuffer();
+        final int limit = HttpGzipEncoder.encodeVary(new UnsafeBuffer(value.getBytes(US_ASCII)), buffer, 0);
+        return buffer.getStringWithoutLengthAscii(0, limit);
+    }
+
+    private static String encodeETag(
+        String value)
+    {
+        final MutableDirectBuffer buffer = new ExpandableArrayBuffer();
+        final int limit = HttpGzipEncoder.encodeETag(new UnsafeBuffer(value.getBytes(US_ASCII)), buffer, 0);
+        return buffer.getStringWithoutLengthAscii(0, limit);
+    }
+
+    private static byte[] decode(
+        byte[] encoded) throws IOException
+    {
+        try (GZIPInputStream input = new GZIPInputStream(new ByteArrayInputStream(encoded)))
+        {
+            return input.readAllBytes();
+        }
+    }
+}
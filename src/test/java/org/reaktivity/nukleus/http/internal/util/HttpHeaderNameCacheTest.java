@@ -0,0 +1,127 @@
+/**
+ * Copyright 2016-2020 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http.internal.util;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+
+public class HttpHeaderNameCacheTest
+{
+    @Test
+    public void shouldSupplyCanonicalWireName()
+    {
+        HttpHeaderNameCache headerNames = new HttpHeaderNameCache(16, false);
+        DirectBuffer name = new UnsafeBuffer("content-type".getBytes(US_ASCII));
+
+        assertEquals("Content-Type: ", asString(headerNames.supplyName(name, 0, name.capacity())));
+        assertEquals(1, headerNames.size());
+    }
+
+    @Test
+    public void shouldSupplyLowercaseWireName()
+    {
+        HttpHeaderNameCache headerNames = new HttpHeaderNameCache(16, true);
+        DirectBuffer name = new UnsafeBuffer("Cache-Control".getBytes(US_ASCII));
+
+        assertEquals("cache-control: ", asString(headerNames.supplyName(name, 0, name.capacity())));
+    }
+
+    @Test
+    public void shouldReuseCachedWireNameIgnoringCase()
+    {
+        HttpHeaderNameCache headerNames = new HttpHeaderNameCache(16, false);
+        DirectBuffer name1 = new UnsafeBuffer("x-request-id".getBytes(US_ASCII));
+        DirectBuffer name2 = new UnsafeBuffer("..X-REQUEST-ID..".getBytes(US_ASCII));
+
+        headerNames.supplyName(name1, 0, name1.capacity());
+
+        assertEquals("X-Request-Id: ", asString(headerNames.supplyName(name2, 2, name1.capacity())));
+        assertEquals(1, headerNames.size());
+    }
+
+    @Test
+    public void shouldDistinguishNamesWithCommonPrefix()
+    {
+        HttpHeaderNameCache headerNames = new HttpHeaderNameCache(16, false);
+        DirectBuffer name1 = new UnsafeBuffer("content-length".getBytes(US_ASCII));
+        DirectBuffer name2 = new UnsafeBuffer("content-language".getBytes(US_ASCII));
+
+        assertEquals("Content-Length: ", asString(headerNames.supplyName(name1, 0, name1.capacity())));
+        assertEquals("Content-Language: ", asString(headerNames.supplyName(name2, 0, name2.capacity())));
+        assertEquals("Content-Length: ", asString(headerNames.supplyName(name1, 0, name1.capacity())));
+        assertEquals(2, headerNames.size());
+    }
+
+    @Test
+    public void shouldEncodeWithoutCachingWhenFull()
+    {
+        HttpHeaderNameCache headerNames = new HttpHeaderNameCache(1, false);
+        DirectBuffer name1 = new UnsafeBuffer("etag".getBytes(US_ASCII));
+        DirectBuffer name2 = new UnsafeBuffer("last-modified".getBytes(US_ASCII));
+
+        assertEquals("Etag: ", asString(headerNames.supplyName(name1, 0, name1.capacity())));
+        assertEquals("Last-Modified: ", asString(headerNames.supplyName(name2, 0, name2.capacity())));
+        assertEquals(1, headerNames.size());
+    }
+
+    @Test
+    public void shouldCanonicalizeHyphenatedNames()
+    {
+        HttpHeaderNameCache headerNames = new HttpHeaderNameCache(16, false);
+
+        assertEquals("Host: ", supplyName(headerNames, "host"));
+        assertEquals("Cache-Control: ", supplyName(headerNames, "CACHE-control"));
+        assertEquals("-Name: ", supplyName(headerNames, "-name"));
+        assertEquals("Name-: ", supplyName(headerNames, "name-"));
+        assertEquals("-: ", supplyName(headerNames, "-"));
+        assertEquals("---: ", supplyName(headerNames, "---"));
+    }
+
+    @Test
+    public void shouldSupplyMaximumLengthNameWhenFull()
+    {
+        HttpHeaderNameCache headerNames = new HttpHeaderNameCache(0, true);
+        byte[] bytes = new byte[HttpHeaderNameCache.MAXIMUM_NAME_LENGTH];
+        Arrays.fill(bytes, (byte) 'x');
+        DirectBuffer name = new UnsafeBuffer(bytes);
+
+        DirectBuffer wireName = headerNames.supplyName(name, 0, name.capacity());
+
+        assertEquals(bytes.length + 2, wireName.capacity());
+        assertEquals(": ", wireName.getStringWithoutLengthAscii(bytes.length, 2));
+        assertEquals(0, headerNames.size());
+    }
+
+    private static String supplyName(
+        HttpHeaderNameCache headerNames,
+        String name)
+    {
+        DirectBuffer buffer = new UnsafeBuffer(name.getBytes(US_ASCII));
+        return asString(headerNames.supplyName(buffer, 0, buffer.capacity()));
+    }
+
+    private static String asString(
+        DirectBuffer buffer)
+    {
+        return buffer.getStringWithoutLengthAscii(0, buffer.capacity());
+    }
+}
@@ -0,0 +1,84 @@
+/**
+ * Copyright 2016-2020 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http.internal.util;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.reaktivity.nukleus.http.internal.util.HttpLatencyHistograms.BUCKET_COUNT;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import org.junit.Test;
+
+public class HttpLatencyHistogramsTest
+{
+    private final Map<String, AtomicLong> counters = new HashMap<>();
+    private final HttpLatencyHistograms histograms = new HttpLatencyHistograms("http.server", this::supplyCounter);
+
+    @Test
+    public void shouldBucketByPowerOfTwoMicroseconds()
+    {
+        assertEquals(0, HttpLatencyHistograms.bucket(0L));
+        assertEquals(0, HttpLatencyHistograms.bucket(999L));
+        assertEquals(1, HttpLatencyHistograms.bucket(MICROSECONDS.toNanos(1L)));
+        assertEquals(2, HttpLatencyHistograms.bucket(MICROSECONDS.toNanos(2L)));
+        assertEquals(2, HttpLatencyHistograms.bucket(MICROSECONDS.toNanos(3L)));
+        assertEquals(11, HttpLatencyHistograms.bucket(MICROSECONDS.toNanos(1024L)));
+    }
+
+    @Test
+    public void shouldClampNegativeAndExcessiveLatencies()
+    {
+        assertEquals(0, HttpLatencyHistograms.bucket(-1L));
+        assertEquals(BUCKET_COUNT - 1, HttpLatencyHistograms.bucket(SECONDS.toNanos(86400L)));
+        assertEquals(BUCKET_COUNT - 1, HttpLatencyHistograms.bucket(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void shouldRecordBeginAndEndPerRoute()
+    {
+        histograms.recordBegin(7L, 1_000L, 4_000L);
+        histograms.recordBegin(7L, 1_000L, 4_500L);
+        histograms.recordEnd(7L, 1_000L, 9_000L);
+        histograms.recordBegin(8L, 1_000L, 1_500L);
+
+        assertEquals(2L, counters.get("http.server.route.7.latency.begin.2").get());
+        assertEquals(1L, counters.get("http.server.route.7.latency.end.4").get());
+        assertEquals(1L, counters.get("http.server.route.8.latency.begin.0").get());
+        assertEquals(3, counters.size());
+    }
+
+    @Test
+    public void shouldIgnoreMissingTimestamps()
+    {
+        histograms.recordBegin(7L, 0L, 4_000L);
+        histograms.recordEnd(7L, 1_000L, 0L);
+
+        assertTrue(counters.isEmpty());
+    }
+
+    private LongSupplier supplyCounter(
+        String name)
+    {
+        final AtomicLong counter = counters.computeIfAbsent(name, n -> new AtomicLong());
+        return counter::incrementAndGet;
+    }
+}
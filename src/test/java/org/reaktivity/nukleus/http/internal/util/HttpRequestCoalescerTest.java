@@ -0,0 +1,180 @@
+/**
+ * Copyright 2016-2020 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http.internal.util;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.reaktivity.nukleus.http.internal.test.HttpHeadersUtil.headers;
+import static org.reaktivity.nukleus.http.internal.test.HttpHeadersUtil.value;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+import org.reaktivity.nukleus.http.internal.types.Array32FW;
+import org.reaktivity.nukleus.http.internal.types.HttpHeaderFW;
+import org.reaktivity.nukleus.http.internal.types.OctetsFW;
+import org.reaktivity.nukleus.http.internal.types.stream.HttpBeginExFW;
+
+public class HttpRequestCoalescerTest
+{
+    private final Map<String, AtomicLong> counters = new HashMap<>();
+    private final HttpRequestCoalescer coalescer = new HttpRequestCoalescer("http.coalesce", "accept-encoding", 256,
+        name -> counters.computeIfAbsent(name, n -> new AtomicLong())::incrementAndGet);
+
+    @Test
+    public void shouldReplayResponseToFollower()
+    {
+        assertNull(coalescer.lookup(1L, request("/", "gzip")));
+
+        final HttpRequestCoalescer.Flight leader = coalescer.lead(1L, beginEx("/", "gzip"));
+        final HttpRequestCoalescer.Flight flight = coalescer.lookup(1L, request("/", "gzip"));
+        assertSame(leader, flight);
+
+        final AtomicInteger notified = new AtomicInteger();
+        final LongConsumer follower = t -> notified.incrementAndGet();
+        flight.follow(follower);
+        assertTrue(flight.followed());
+
+        leader.begin(1L, headers(":status", "200", "content-type", "text/plain"));
+        assertTrue(flight.begun());
+        assertEquals("text/plain", value(flight.headers(), "content-type"));
+
+        append(leader, "Hello, ");
+        append(leader, "world");
+        leader.end(1L, headers());
+        leader.release(1L);
+
+        assertTrue(flight.complete());
+        assertFalse(flight.failed());
+        assertEquals(4, notified.get());
+        assertNull(coalescer.lookup(1L, request("/", "gzip")));
+
+        final StringBuilder body = new StringBuilder();
+        for (int progress = 0; progress < flight.length(); )
+        {
+            final OctetsFW segment = flight.body(progress, 5);
+            body.append(segment.buffer().getStringWithoutLengthAscii(segment.offset(), segment.sizeof()));
+            progress += segment.sizeof();
+        }
+        assertEquals("Hello, world", body.toString());
+        assertEquals("/", value(flight.beginEx().headers(), ":path"));
+
+        flight.unfollow(follower);
+        assertFalse(flight.followed());
+    }
+
+    @Test
+    public void shouldNotFollowDifferentKeyHeaders()
+    {
+        coalescer.lead(1L, beginEx("/", "gzip"));
+
+        assertNull(coalescer.lookup(1L, request("/", "identity")));
+        assertNull(coalescer.lookup(1L, request("/other", "gzip")));
+        assertNull(coalescer.lookup(2L, request("/", "gzip")));
+        assertNotNull(coalescer.lookup(1L, request("/", "gzip")));
+    }
+
+    @Test
+    public void shouldFailFollowersOnOverflow()
+    {
+        final HttpRequestCoalescer.Flight leader = coalescer.lead(1L, beginEx("/", "gzip"));
+        final HttpRequestCoalescer.Flight flight = coalescer.lookup(1L, request("/", "gzip"));
+        flight.follow(t -> {});
+
+        leader.begin(1L, headers(":status", "200"));
+        append(leader, new String(new byte[300], US_ASCII));
+
+        assertTrue(flight.failed());
+        assertEquals(1L, counters.get("http.coalesce.overflows").get());
+        assertNull(coalescer.lookup(1L, request("/", "gzip")));
+    }
+
+    @Test
+    public void shouldFailFollowersOnPersonalizedResponse()
+    {
+        final HttpRequestCoalescer.Flight leader = coalescer.lead(1L, beginEx("/", "gzip"));
+        leader.begin(1L, headers(":status", "200", "cache-control", "no-cache, private"));
+        assertTrue(leader.failed());
+
+        final HttpRequestCoalescer.Flight cookie = coalescer.lead(1L, beginEx("/", "gzip"));
+        cookie.begin(1L, headers(":status", "200", "set-cookie", "id=1"));
+        assertTrue(cookie.failed());
+    }
+
+    @Test
+    public void shouldFailFollowersWhenLeaderReleased()
+    {
+        final HttpRequestCoalescer.Flight leader = coalescer.lead(1L, beginEx("/", "gzip"));
+        final HttpRequestCoalescer.Flight flight = coalescer.lookup(1L, request("/", "gzip"));
+
+        flight.follow(t -> {});
+        leader.release(1L);
+
+        assertTrue(flight.failed());
+        assertFalse(flight.begun());
+    }
+
+    @Test
+    public void shouldOnlyCoalesceSafeUnauthorizedRequests()
+    {
+        assertTrue(HttpRequestCoalescer.coalescable(request("/", "gzip")));
+        assertTrue(HttpRequestCoalescer.coalescable(headers(":method", "HEAD", ":path", "/")));
+        assertFalse(HttpRequestCoalescer.coalescable(headers(":method", "POST", ":path", "/")));
+        assertFalse(HttpRequestCoalescer.coalescable(headers(":method", "GET", ":path", "/", "authorization", "Basic")));
+    }
+
+    private static void append(
+        HttpRequestCoalescer.Flight leader,
+        String payload)
+    {
+        final DirectBuffer buffer = new UnsafeBuffer(payload.getBytes(US_ASCII));
+        leader.append(1L, buffer, 0, buffer.capacity());
+    }
+
+    private static HttpBeginExFW beginEx(
+        String path,
+        String encoding)
+    {
+        return new HttpBeginExFW.Builder()
+            .wrap(new UnsafeBuffer(new byte[1024]), 0, 1024)
+            .headers(hs -> hs
+                .item(h -> h.name(":scheme").value("http"))
+                .item(h -> h.name(":method").value("GET"))
+                .item(h -> h.name(":path").value(path))
+                .item(h -> h.name(":authority").value("localhost:8080"))
+                .item(h -> h.name("accept-encoding").value(encoding)))
+            .build();
+    }
+
+    private static Array32FW<HttpHeaderFW> request(
+        String path,
+        String encoding)
+    {
+        return headers(":scheme", "http", ":method", "GET", ":path", path, ":authority", "localhost:8080",
+                       "accept-encoding", encoding);
+    }
+}
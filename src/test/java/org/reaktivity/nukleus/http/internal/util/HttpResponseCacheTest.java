@@ -0,0 +1,262 @@
+/**
+ * Copyright 2016-2020 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http.internal.util;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.reaktivity.nukleus.http.internal.test.HttpHeadersUtil.headers;
+import static org.reaktivity.nukleus.http.internal.test.HttpHeadersUtil.value;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+import org.reaktivity.nukleus.http.internal.types.Array32FW;
+import org.reaktivity.nukleus.http.internal.types.HttpHeaderFW;
+import org.reaktivity.nukleus.http.internal.types.OctetsFW;
+
+public class HttpResponseCacheTest
+{
+    private final AtomicLong clock = new AtomicLong(951868800000L);
+    private final Map<String, AtomicLong> counters = new HashMap<>();
+    private final HttpResponseCache cache = new HttpResponseCache("http.cache", 1024, 64, clock::get,
+        name -> counters.computeIfAbsent(name, n -> new AtomicLong())::incrementAndGet);
+
+    @Test
+    public void shouldServeStoredResponse()
+    {
+        final Array32FW<HttpHeaderFW> request = request("/index.html");
+
+        assertTrue(HttpResponseCache.cacheable(request));
+        assertNull(cache.lookup(1L, request));
+
+        store(1L, request, response("cache-control", "max-age=60"), "Hello, world");
+        clock.addAndGet(5000L);
+
+        final HttpResponseCache.Entry entry = cache.lookup(1L, request("/index.html"));
+        assertNotNull(entry);
+        assertEquals(12, entry.length());
+
+        final Array32FW<HttpHeaderFW> headers = entry.headers();
+        assertEquals("200", value(headers, ":status"));
+        assertEquals("max-age=60", value(headers, "cache-control"));
+        assertEquals("5", value(headers, "age"));
+
+        final StringBuilder body = new StringBuilder();
+        for (int progress = 0; progress < entry.length(); )
+        {
+            final OctetsFW segment = entry.body(progress, 5);
+            body.append(segment.buffer().getStringWithoutLengthAscii(segment.offset(), segment.sizeof()));
+            progress += segment.sizeof();
+        }
+        assertEquals("Hello, world", body.toString());
+        entry.release();
+
+        assertEquals(1L, counters.get("http.cache.hits").get());
+        assertEquals(1L, counters.get("http.cache.misses").get());
+    }
+
+    @Test
+    public void shouldNotCacheUncacheableRequests()
+    {
+        assertFalse(HttpResponseCache.cacheable(request("POST", "/", "content-type", "text/plain")));
+        assertFalse(HttpResponseCache.cacheable(request("GET", "/", "authorization", "Basic Zm9vOmJhcg==")));
+        assertFalse(HttpResponseCache.cacheable(request("GET", "/", "cache-control", "no-cache")));
+        assertFalse(HttpResponseCache.cacheable(request("GET", "/", "pragma", "no-cache")));
+        assertTrue(HttpResponseCache.cacheable(request("GET", "/", "cache-control", "max-age=0, stale-if-error")));
+    }
+
+    @Test
+    public void shouldNotStoreUncacheableResponses()
+    {
+        final Array32FW<HttpHeaderFW> request = request("/");
+
+        assertFalse(begin(request, response("cache-control", "no-store")));
+        assertFalse(begin(request, response("cache-control", "private, max-age=60")));
+        assertFalse(begin(request, response("x-custom", "value")));
+        assertFalse(begin(request, response("vary", "*")));
+        assertFalse(begin(request, headers(":status", "404", "cache-control", "max-age=60")));
+        assertFalse(begin(request, headers(":status", "200", "cache-control", "max-age=60", "set-cookie", "id=1")));
+    }
+
+    @Test
+    public void shouldPreferSharedMaxAge()
+    {
+        final Array32FW<HttpHeaderFW> request = request("/");
+        store(1L, request, response("cache-control", "max-age=1, s-maxage=10"), "");
+
+        clock.addAndGet(5000L);
+        assertNotNull(cache.lookup(1L, request));
+    }
+
+    @Test
+    public void shouldExpireFromExpiresRelativeToDate()
+    {
+        final Array32FW<HttpHeaderFW> request = request("/");
+        store(1L, request, headers(":status", "200",
+                                   "date", "Sun, 06 Nov 1994 08:49:37 GMT",
+                                   "expires", "Sun, 06 Nov 1994 08:49:47 GMT"), "");
+
+        clock.addAndGet(9000L);
+        final HttpResponseCache.Entry entry = cache.lookup(1L, request);
+        assertNotNull(entry);
+        entry.release();
+
+        clock.addAndGet(1000L);
+        assertNull(cache.lookup(1L, request));
+    }
+
+    @Test
+    public void shouldSelectVariantByVaryHeaders()
+    {
+        final Array32FW<HttpHeaderFW> gzip = request("GET", "/", "accept-encoding", "gzip");
+        final Array32FW<HttpHeaderFW> identity = request("GET", "/", "accept-encoding", "identity");
+
+        store(1L, gzip, headers(":status", "200", "cache-control", "max-age=60", "vary", "Accept-Encoding"), "gzip");
+
+        assertNull(cache.lookup(1L, identity));
+        assertNull(cache.lookup(1L, request("/")));
+        assertNull(cache.lookup(2L, gzip));
+
+        final HttpResponseCache.Entry entry = cache.lookup(1L, request("GET", "/", "accept-encoding", "gzip"));
+        assertNotNull(entry);
+        assertEquals(4, entry.length());
+        entry.release();
+    }
+
+    @Test
+    public void shouldReplaceExistingEntry()
+    {
+        final Array32FW<HttpHeaderFW> request = request("/");
+        store(1L, request, response("cache-control", "max-age=60"), "old");
+        store(1L, request, response("cache-control", "max-age=60"), "newer");
+
+        final HttpResponseCache.Entry entry = cache.lookup(1L, request);
+        assertEquals(5, entry.length());
+        entry.release();
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsed()
+    {
+        final String body = new String(new byte[200], US_ASCII);
+        store(1L, request("/a"), response("cache-control", "max-age=60"), body);
+        store(1L, request("/b"), response("cache-control", "max-age=60"), body);
+        store(1L, request("/c"), response("cache-control", "max-age=60"), body);
+        store(1L, request("/d"), response("cache-control", "max-age=60"), body);
+
+        cache.lookup(1L, request("/a")).release();
+        store(1L, request("/e"), response("cache-control", "max-age=60"), body);
+
+        assertEquals(1L, counters.get("http.cache.evictions").get());
+        assertNull(cache.lookup(1L, request("/b")));
+        assertNotNull(cache.lookup(1L, request("/a")));
+        assertNotNull(cache.lookup(1L, request("/c")));
+        assertNotNull(cache.lookup(1L, request("/e")));
+    }
+
+    @Test
+    public void shouldNotEvictEntriesBeingServed()
+    {
+        final String body = new String(new byte[200], US_ASCII);
+        store(1L, request("/a"), response("cache-control", "max-age=60"), body);
+        store(1L, request("/b"), response("cache-control", "max-age=60"), body);
+        store(1L, request("/c"), response("cache-control", "max-age=60"), body);
+        store(1L, request("/d"), response("cache-control", "max-age=60"), body);
+
+        final HttpResponseCache.Entry a = cache.lookup(1L, request("/a"));
+        final HttpResponseCache.Entry b = cache.lookup(1L, request("/b"));
+        final HttpResponseCache.Entry c = cache.lookup(1L, request("/c"));
+        final HttpResponseCache.Entry d = cache.lookup(1L, request("/d"));
+
+        final HttpResponseCache.Writer writer = cache.supplyWriter(1L, request("/e"));
+        assertFalse(writer.begin(response("cache-control", "max-age=60")));
+        writer.release();
+
+        a.release();
+        b.release();
+        c.release();
+        d.release();
+
+        store(1L, request("/e"), response("cache-control", "max-age=60"), body);
+        assertNull(cache.lookup(1L, request("/a")));
+    }
+
+    @Test
+    public void shouldRejectEntryBeyondMaximumSize()
+    {
+        final HttpResponseCache.Writer writer = cache.supplyWriter(1L, request("/"));
+        final DirectBuffer body = new UnsafeBuffer(new byte[300]);
+
+        assertTrue(writer.begin(response("cache-control", "max-age=60")));
+        assertFalse(writer.append(body, 0, body.capacity()));
+        writer.release();
+
+        assertNull(cache.lookup(1L, request("/")));
+    }
+
+    private boolean begin(
+        Array32FW<HttpHeaderFW> request,
+        Array32FW<HttpHeaderFW> response)
+    {
+        final HttpResponseCache.Writer writer = cache.supplyWriter(1L, request);
+        final boolean begun = writer.begin(response);
+        writer.release();
+        return begun;
+    }
+
+    private void store(
+        long routeId,
+        Array32FW<HttpHeaderFW> request,
+        Array32FW<HttpHeaderFW> response,
+        String body)
+    {
+        final HttpResponseCache.Writer writer = cache.supplyWriter(routeId, request);
+        final DirectBuffer buffer = new UnsafeBuffer(body.getBytes(US_ASCII));
+        assertTrue(writer.begin(response));
+        assertTrue(writer.append(buffer, 0, buffer.capacity()));
+        writer.commit();
+    }
+
+    private static Array32FW<HttpHeaderFW> request(
+        String path)
+    {
+        return request("GET", path, "user-agent", "test");
+    }
+
+    private static Array32FW<HttpHeaderFW> request(
+        String method,
+        String path,
+        String name,
+        String value)
+    {
+        return headers(":scheme", "http", ":method", method, ":path", path, ":authority", "localhost:8080", name, value);
+    }
+
+    private static Array32FW<HttpHeaderFW> response(
+        String name,
+        String value)
+    {
+        return headers(":status", "200", name, value);
+    }
+}
@@ -0,0 +1,570 @@
+/**
+ * Copyright 2016-2020 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http.internal.util;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.reaktivity.nukleus.http.internal.test.HttpHeadersUtil.headers;
+
+import java.util.Arrays;
+
+import org.agrona.DirectBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.collections.MutableInteger;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Before;
+import org.junit.Test;
+import org.reaktivity.nukleus.function.MessageConsumer;
+import org.reaktivity.nukleus.function.MessageFunction;
+import org.reaktivity.nukleus.function.MessagePredicate;
+import org.reaktivity.nukleus.http.internal.types.Array32FW;
+import org.reaktivity.nukleus.http.internal.types.HttpHeaderFW;
+import org.reaktivity.nukleus.http.internal.types.String8FW;
+import org.reaktivity.nukleus.http.internal.types.control.HttpRouteExFW;
+import org.reaktivity.nukleus.http.internal.types.control.Role;
+import org.reaktivity.nukleus.http.internal.types.control.RouteFW;
+import org.reaktivity.nukleus.route.RouteManager;
+
+public class HttpRouteIndexTest
+{
+    private final RouteFW routeRO = new RouteFW();
+    private final MessagePredicate anyRoute = (t, b, i, l) -> true;
+    private final MessageFunction<Long> routeId = (t, b, i, l) -> routeRO.wrap(b, i, i + l).correlationId();
+
+    private TestRouteManager router;
+
+    @Before
+    public void initRouter()
+    {
+        router = new TestRouteManager();
+    }
+
+    @Test
+    public void shouldResolveRouteByAuthority()
+    {
+        router.route("http", 1L, ":authority", "a.example.com:8080");
+        router.route("http", 2L, ":authority", "b.example.com:8080");
+
+        HttpRouteIndex routes = new HttpRouteIndex("http", router, router::version);
+        query(routes, ":authority", "b.example.com:8080", ":method", "GET");
+
+        assertEquals(2L, (long) routes.resolve(0L, 0L, anyRoute, routeId));
+    }
+
+    @Test
+    public void shouldResolveAuthorityWithDefaultPort()
+    {
+        router.route("http", 1L, ":authority", "example.com:443");
+
+        HttpRouteIndex routes = new HttpRouteIndex("http", router, router::version, false, ":80", ":443");
+        query(routes, ":authority", "example.com");
+
+        assertEquals(1L, (long) routes.resolve(0L, 0L, anyRoute, routeId));
+    }
+
+    @Test
+    public void shouldResolveRouteByAuthorityAndMethod()
+    {
+        router.route("http", 1L, ":authority", "example.com:8080", ":method", "POST");
+        router.route("http", 2L, ":authority", "example.com:8080", ":method", "GET");
+
+        HttpRouteIndex routes = new HttpRouteIndex("http", router, router::version);
+        query(routes, ":authority", "example.com:8080", ":method", "GET");
+
+        assertEquals(2L, (long) routes.resolve(0L, 0L, anyRoute, routeId));
+    }
+
+    @Test
+    public void shouldResolveFirstRouteInTableOrder()
+    {
+        router.route("http", 1L);
+        router.route("http", 2L, ":authority", "example.com:8080");
+
+        HttpRouteIndex routes = new HttpRouteIndex("http", router, router::version);
+        query(routes, ":authority", "example.com:8080");
+
+        assertEquals(1L, (long) routes.resolve(0L, 0L, anyRoute, routeId));
+    }
+
+    @Test
+    public void shouldNotResolveWhenFilterRejectsCandidates()
+    {
+        router.route("http", 1L, ":authority", "example.com:8080");
+
+        HttpRouteIndex routes = new HttpRouteIndex("http", router, router::version);
+        query(routes, ":authority", "example.com:8080");
+
+        assertNull(routes.resolve(0L, 0L, (t, b, i, l) -> false, routeId));
+    }
+
+    @Test
+    public void shouldNotResolveWhenRouteHeaderMissing()
+    {
+        router.route("http", 1L, ":scheme", "https");
+
+        HttpRouteIndex routes = new HttpRouteIndex("http", router, router::version);
+        query(routes, ":authority", "example.com:8080");
+
+        assertNull(routes.resolve(0L, 0L, anyRoute, routeId));
+    }
+
+    @Test
+    public void shouldIgnoreRoutesOfOtherNuklei()
+    {
+        router.route("tcp", 1L);
+        router.route("http", 2L);
+
+        HttpRouteIndex routes = new HttpRouteIndex("http", router, router::version);
+
+        assertEquals(1, routes.size());
+        assertEquals(2L, (long) routes.resolve(0L, 0L, anyRoute, routeId));
+    }
+
+    @Test
+    public void shouldRebuildWhenRoutesChange()
+    {
+        router.route("http", 1L, ":authority", "a.example.com:8080");
+
+        HttpRouteIndex routes = new HttpRouteIndex("http", router, router::version);
+        assertEquals(1, routes.size());
+
+        router.route("http", 2L, ":authority", "b.example.com:8080");
+        query(routes, ":authority", "b.example.com:8080");
+
+        assertEquals(2L, (long) routes.resolve(0L, 0L, anyRoute, routeId));
+        assertEquals(2, routes.size());
+    }
+
+    @Test
+    public void shouldResolveRouteByPathPrefix()
+    {
+        router.route("http", 1L, ":path", "/api/v1/*");
+        router.route("http", 2L, ":path", "/api/v2/*");
+
+        HttpRouteIndex routes = new HttpRouteIndex("http", router, router::version);
+        query(routes, ":path", "/api/v2/items?limit=10");
+
+        assertEquals(2L, (long) routes.resolve(0L, 0L, anyRoute, routeId));
+    }
+
+    @Test
+    public void shouldResolveLongestPathPrefix()
+    {
+        router.route("http", 1L, ":path", "/*");
+        router.route("http", 2L, ":path", "/api/*");
+        router.route("http", 3L, ":path", "/api/v2/*");
+
+        HttpRouteIndex routes = new HttpRouteIndex("http", router, router::version);
+        query(routes, ":path", "/api/v2/items");
+        assertEquals(3L, (long) routes.resolve(0L, 0L, anyRoute, routeId));
+
+        query(routes, ":path", "/api/v1/items");
+        assertEquals(2L, (long) routes.resolve(0L, 0L, anyRoute, routeId));
+    }
+
+    @Test
+    public void shouldResolveShorterPathPrefixWhenFilterRejectsLonger()
+    {
+        router.route("http", 1L, ":path", "/api/*");
+        router.route("http", 2L, ":path", "/api/v2/*", ":method", "POST");
+
+        HttpRouteIndex routes = new HttpRouteIndex("http", router, router::version);
+        query(routes, ":path", "/api/v2/items", ":method", "GET");
+
+        assertEquals(1L, (long) routes.resolve(0L, 0L, headersMatch(":path", "/api/v2/items", ":method", "GET"), routeId));
+    }
+
+    @Test
+    public void shouldResolveExactPathAndPathPrefixInTableOrder()
+    {
+        router.route("http", 1L, ":path", "/api/*");
+        router.route("http", 2L, ":path", "/api/status");
+        router.route("http", 3L, ":path", "/status");
+        router.route("http", 4L, ":path", "/*");
+
+        HttpRouteIndex routes = new HttpRouteIndex("http", router, router::version);
+        query(routes, ":path", "/api/status");
+        assertEquals(1L, (long) routes.resolve(0L, 0L, headersMatch(":path", "/api/status"), routeId));
+
+        query(routes, ":path", "/status");
+        assertEquals(3L, (long) routes.resolve(0L, 0L, headersMatch(":path", "/status"), routeId));
+    }
+
+    @Test
+    public void shouldResolveMissingPathAndPathPrefixInTableOrder()
+    {
+        router.route("http", 1L, ":authority", "example.com:8080");
+        router.route("http", 2L, ":authority", "example.com:8080", ":path", "/api/*");
+
+        HttpRouteIndex routes = new HttpRouteIndex("http", router, router::version);
+        query(routes, ":authority", "example.com:8080", ":path", "/api/items");
+
+        assertEquals(1L, (long) routes.resolve(0L, 0L, anyRoute, routeId));
+    }
+
+    @Test
+    public void shouldResolveMissingPathAndExactPathInTableOrder()
+    {
+        router.route("http", 1L, ":authority", "example.com:8080");
+        router.route("http", 2L, ":authority", "example.com:8080", ":path", "/api/status");
+
+        HttpRouteIndex routes = new HttpRouteIndex("http", router, router::version);
+        query(routes, ":authority", "example.com:8080", ":path", "/api/status");
+
+        assertEquals(1L, (long) routes.resolve(0L, 0L, anyRoute, routeId));
+    }
+
+    @Test
+    public void shouldResolveLongestPathPrefixAtEarliestPrefixPosition()
+    {
+        router.route("http", 1L, ":path", "/api/*");
+        router.route("http", 2L, ":authority", "example.com:8080");
+        router.route("http", 3L, ":path", "/api/v2/*");
+
+        HttpRouteIndex routes = new HttpRouteIndex("http", router, router::version);
+        query(routes, ":authority", "example.com:8080", ":path", "/api/v2/items");
+
+        assertEquals(3L, (long) routes.resolve(0L, 0L, anyRoute, routeId));
+    }
+
+    @Test
+    public void shouldNotResolveWhenPathPrefixMissing()
+    {
+        router.route("http", 1L, ":path", "/api/*");
+
+        HttpRouteIndex routes = new HttpRouteIndex("http", router, router::version);
+        query(routes, ":path", "/ap");
+
+        assertNull(routes.resolve(0L, 0L, anyRoute, routeId));
+    }
+
+    @Test
+    public void shouldRebuildWhenRoutesChangeInPlace()
+    {
+        router.route("http", 1L, ":authority", "a.example.com:8080");
+        router.route("http", 2L, ":authority", "b.example.com:8080");
+
+        HttpRouteIndex routes = new HttpRouteIndex("http", router, router::version);
+        query(routes, ":authority", "b.example.com:8080");
+        assertEquals(2L, (long) routes.resolve(0L, 0L, anyRoute, routeId));
+
+        router.unroute(2L);
+        router.route("http", 3L, ":authority", "b.example.com:8080");
+
+        query(routes, ":authority", "b.example.com:8080");
+        assertEquals(3L, (long) routes.resolve(0L, 0L, anyRoute, routeId));
+        assertEquals(2, routes.size());
+    }
+
+    @Test
+    public void shouldNotRebuildWhenRoutesUnchanged()
+    {
+        router.route("http", 1L, ":authority", "example.com:8080");
+
+        HttpRouteIndex routes = new HttpRouteIndex("http", router, router::version);
+        for (int index = 0; index < 3; index++)
+        {
+            query(routes, ":authority", "example.com:8080");
+            assertEquals(1L, (long) routes.resolve(0L, 0L, anyRoute, routeId));
+        }
+
+        assertEquals(1, router.forEachCount);
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedVisibility()
+    {
+        router.route("http", 1L, ":authority", "example.com:8080");
+
+        HttpRouteIndex routes = new HttpRouteIndex("http", router, router::version);
+        for (long routeId = 0L; routeId < 64L; routeId++)
+        {
+            resolve(routes, routeId);
+            resolve(routes, 0L);
+        }
+        assertEquals(64, router.resolveCount);
+
+        resolve(routes, 64L);
+        resolve(routes, 0L);
+        assertEquals(65, router.resolveCount);
+
+        resolve(routes, 1L);
+        assertEquals(66, router.resolveCount);
+    }
+
+    @Test
+    public void shouldConfirmOnlyCandidateRoutes()
+    {
+        for (int index = 0; index < 100; index++)
+        {
+            router.route("http", index, ":authority", String.format("host%d.example.com:8080", index));
+        }
+
+        HttpRouteIndex routes = new HttpRouteIndex("http", router, router::version);
+        query(routes, ":authority", "host42.example.com:8080");
+
+        final MutableInteger confirmed = new MutableInteger();
+        final MessagePredicate counting = (t, b, i, l) -> ++confirmed.value > 0;
+
+        assertEquals(42L, (long) routes.resolve(0L, 0L, counting, routeId));
+        assertEquals(1, confirmed.value);
+    }
+
+    @Test
+    public void shouldNotResolveRouteHiddenByRouter()
+    {
+        router.route("http", 1L, 0x01L, ":authority", "example.com:8080");
+        router.route("http", 2L, 0x00L, ":authority", "example.com:8080");
+
+        HttpRouteIndex routes = new HttpRouteIndex("http", router, router::version);
+        query(routes, ":authority", "example.com:8080");
+        assertEquals(2L, (long) routes.resolve(0L, 0x00L, anyRoute, routeId));
+
+        query(routes, ":authority", "example.com:8080");
+        assertEquals(1L, (long) routes.resolve(0L, 0x01L, anyRoute, routeId));
+    }
+
+    @Test
+    public void shouldConfirmOnlyMatchingPathPrefixes()
+    {
+        for (int index = 0; index < 100; index++)
+        {
+            router.route("http", index, ":path", String.format("/api/v%d/*", index));
+        }
+        router.route("http", 100L, ":path", "/api/*");
+
+        HttpRouteIndex routes = new HttpRouteIndex("http", router, router::version);
+        query(routes, ":path", "/api/v42/items");
+
+        final MutableInteger confirmed = new MutableInteger();
+        final MessagePredicate rejecting = (t, b, i, l) -> ++confirmed.value < 0;
+
+        assertNull(routes.resolve(0L, 0L, rejecting, routeId));
+        assertEquals(2, confirmed.value);
+    }
+
+    @Test
+    public void shouldMatchPathPattern()
+    {
+        DirectBuffer pattern = new UnsafeBuffer("/api/*".getBytes(US_ASCII));
+        assertTrue(HttpRouteIndex.matchesPath(pattern, new UnsafeBuffer("/api/items".getBytes(US_ASCII))));
+        assertTrue(HttpRouteIndex.matchesPath(pattern, new UnsafeBuffer("/api/".getBytes(US_ASCII))));
+        assertFalse(HttpRouteIndex.matchesPath(pattern, new UnsafeBuffer("/api".getBytes(US_ASCII))));
+        assertFalse(HttpRouteIndex.matchesPath(pattern, new UnsafeBuffer("/apx/items".getBytes(US_ASCII))));
+
+        DirectBuffer exact = new UnsafeBuffer("/api".getBytes(US_ASCII));
+        assertTrue(HttpRouteIndex.matchesPath(exact, new UnsafeBuffer("/api".getBytes(US_ASCII))));
+        assertFalse(HttpRouteIndex.matchesPath(exact, new UnsafeBuffer("/api/items".getBytes(US_ASCII))));
+    }
+
+    private MessagePredicate headersMatch(
+        String... namesAndValues)
+    {
+        final Array32FW<HttpHeaderFW> headers = headers(namesAndValues);
+        final HttpRouteExFW routeExRO = new HttpRouteExFW();
+        return (t, b, i, l) ->
+        {
+            final RouteFW route = routeRO.wrap(b, i, i + l);
+            final HttpRouteExFW routeEx = route.extension().get(routeExRO::tryWrap);
+            return routeEx == null || !routeEx.headers().anyMatch(r -> !matchesHeader(r, headers));
+        };
+    }
+
+    private static boolean matchesHeader(
+        HttpHeaderFW routeHeader,
+        Array32FW<HttpHeaderFW> headers)
+    {
+        final String8FW name = routeHeader.name();
+        final HttpHeaderFW header = headers.matchFirst(h -> name.equals(h.name()));
+        return header != null &&
+               (":path".equals(name.asString())
+                   ? HttpRouteIndex.matchesPath(routeHeader.value().value(), header.value().value())
+                   : routeHeader.value().equals(header.value()));
+    }
+
+    private void resolve(
+        HttpRouteIndex routes,
+        long id)
+    {
+        query(routes, ":authority", "example.com:8080");
+        assertEquals(1L, (long) routes.resolve(id, 0L, anyRoute, routeId));
+    }
+
+    private static void query(
+        HttpRouteIndex routes,
+        String... namesAndValues)
+    {
+        headers(namesAndValues).forEach(routes::header);
+    }
+
+    private static final class TestRouteManager implements RouteManager
+    {
+        private final RouteFW.Builder routeRW = new RouteFW.Builder();
+        private final HttpRouteExFW.Builder routeExRW = new HttpRouteExFW.Builder();
+        private final RouteFW routeRO = new RouteFW();
+
+        private final MutableDirectBuffer table = new UnsafeBuffer(new byte[64 * 1024]);
+        private int[] limits = new int[0];
+        private long version;
+        private int resolveCount;
+        private int forEachCount;
+
+        long version()
+        {
+            return version;
+        }
+
+        void route(
+            String nukleus,
+            long correlationId,
+            String... headers)
+        {
+            route(nukleus, correlationId, 0L, headers);
+        }
+
+        void route(
+            String nukleus,
+            long correlationId,
+            long authorization,
+            String... headers)
+        {
+            final MutableDirectBuffer extension = new UnsafeBuffer(new byte[256]);
+            int extensionLength = 0;
+            if (headers.length != 0)
+            {
+                routeExRW.wrap(extension, 0, extension.capacity());
+                for (int i = 0; i < headers.length; i += 2)
+                {
+                    final String name = headers[i];
+                    final String value = headers[i + 1];
+                    routeExRW.headersItem(h -> h.name(name).value(value));
+                }
+                extensionLength = routeExRW.build().sizeof();
+            }
+
+            // routes are appended to the same table buffer, as the router updates it in place
+            final int offset = limits.length != 0 ? limits[limits.length - 1] : 0;
+            final int length = extensionLength;
+            final RouteFW route = routeRW.wrap(table, offset, table.capacity())
+                                         .correlationId(correlationId)
+                                         .nukleus(nukleus)
+                                         .role(r -> r.set(Role.SERVER))
+                                         .authorization(authorization)
+                                         .localAddress("local")
+                                         .remoteAddress("remote")
+                                         .extension(extension, 0, length)
+                                         .build();
+            limits = Arrays.copyOf(limits, limits.length + 1);
+            limits[limits.length - 1] = route.limit();
+            version++;
+        }
+
+        void unroute(
+            long correlationId)
+        {
+            for (int index = 0, offset = 0; index < limits.length; offset = limits[index++])
+            {
+                final RouteFW route = routeRO.wrap(table, offset, limits[index]);
+                if (route.correlationId() == correlationId)
+                {
+                    final int length = route.sizeof();
+                    final int tableLimit = limits[limits.length - 1];
+                    final byte[] following = new byte[tableLimit - route.limit()];
+                    table.getBytes(route.limit(), following);
+                    table.putBytes(offset, following);
+
+                    for (int next = index + 1; next < limits.length; next++)
+                    {
+                        limits[next - 1] = limits[next] - length;
+                    }
+                    limits = Arrays.copyOf(limits, limits.length - 1);
+                    version++;
+                    break;
+                }
+            }
+        }
+
+        @Override
+        public <R> R resolveExternal(
+            long authorization,
+            MessagePredicate filter,
+            MessageFunction<R> mapper)
+        {
+            return resolve(0L, authorization, filter, mapper);
+        }
+
+        @Override
+        public <R> R resolve(
+            long routeId,
+            long authorization,
+            MessagePredicate filter,
+            MessageFunction<R> mapper)
+        {
+            resolveCount++;
+            R result = null;
+            for (int index = 0, offset = 0; index < limits.length && result == null; offset = limits[index++])
+            {
+                final RouteFW route = routeRO.wrap(table, offset, limits[index]);
+                final long routeAuthorization = route.authorization();
+
+                if ((authorization & routeAuthorization) == routeAuthorization &&
+                    filter.test(route.typeId(), table, route.offset(), route.sizeof()))
+                {
+                    result = mapper.apply(route.typeId(), table, route.offset(), route.sizeof());
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public void forEach(
+            MessageConsumer consumer)
+        {
+            forEachCount++;
+            for (int index = 0, offset = 0; index < limits.length; offset = limits[index++])
+            {
+                final RouteFW route = routeRO.wrap(table, offset, limits[index]);
+
+                consumer.accept(route.typeId(), table, route.offset(), route.sizeof());
+            }
+        }
+
+        @Override
+        public MessageConsumer supplyReceiver(
+            long streamId)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void setThrottle(
+            long streamId,
+            MessageConsumer throttle)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void clearThrottle(
+            long streamId)
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
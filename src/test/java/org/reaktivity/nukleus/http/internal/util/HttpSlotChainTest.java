@@ -0,0 +1,167 @@
+/**
+ * Copyright 2016-2020 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http.internal.util;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.agrona.DirectBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+import org.reaktivity.reaktor.internal.buffer.DefaultBufferPool;
+
+public class HttpSlotChainTest
+{
+    private final DefaultBufferPool bufferPool = new DefaultBufferPool(64, 16);
+    private final MutableDirectBuffer chainBuffer = new UnsafeBuffer(new byte[40]);
+    private final AtomicLong slotsUsed = new AtomicLong();
+    private final HttpSlotChain slots = new HttpSlotChain(bufferPool, chainBuffer, slotsUsed::addAndGet);
+
+    @Test
+    public void shouldReadSingleSlotDirectly()
+    {
+        final DirectBuffer source = asBuffer("GET / HTTP/1.1\r\n");
+
+        assertTrue(slots.set(1L, source, 0, source.capacity()));
+
+        assertEquals(1L, slotsUsed.get());
+        assertEquals(16, slots.length());
+        assertEquals("GET / HTTP/1.1\r\n", asString(slots.buffer(), slots.length()));
+        assertEquals(40, slots.maximum());
+    }
+
+    @Test
+    public void shouldAppendAcrossSlots()
+    {
+        final DirectBuffer first = asBuffer("GET / HTTP/1.1\r\nHost: ");
+        final DirectBuffer second = asBuffer("localhost:8080\r\n");
+
+        assertTrue(slots.set(1L, first, 0, first.capacity()));
+        assertTrue(slots.append(1L, second, 0, second.capacity()));
+
+        assertEquals(3L, slotsUsed.get());
+        assertEquals(38, slots.length());
+        assertSame(chainBuffer, slots.buffer());
+        assertEquals("GET / HTTP/1.1\r\nHost: localhost:8080\r\n", asString(slots.buffer(), slots.length()));
+    }
+
+    @Test
+    public void shouldShrinkToRemainingBytes()
+    {
+        final DirectBuffer source = asBuffer("GET / HTTP/1.1\r\nHost: localhost:8080\r\n");
+
+        assertTrue(slots.set(1L, source, 0, source.capacity()));
+        final DirectBuffer buffer = slots.buffer();
+        assertTrue(slots.set(1L, buffer, 16, slots.length()));
+
+        assertEquals(2L, slotsUsed.get());
+        assertEquals("Host: localhost:8080\r\n", asString(slots.buffer(), slots.length()));
+
+        slots.release();
+
+        assertTrue(slots.isEmpty());
+        assertEquals(0, slots.length());
+        assertEquals(0L, slotsUsed.get());
+        assertEquals(0, bufferPool.acquiredSlots());
+    }
+
+    @Test
+    public void shouldNotCopyUnconsumedContentsBack()
+    {
+        final DirectBuffer source = asBuffer("GET / HTTP/1.1\r\nHost: localhost:8080\r\n");
+
+        assertTrue(slots.set(1L, source, 0, source.capacity()));
+        final DirectBuffer buffer = slots.buffer();
+        chainBuffer.putByte(0, (byte) 'X');
+        assertTrue(slots.set(1L, buffer, 0, slots.length()));
+
+        assertEquals("GET / HTTP/1.1\r\nHost: localhost:8080\r\n", asString(slots.buffer(), slots.length()));
+    }
+
+    @Test
+    public void shouldFindBytesAcrossSlots()
+    {
+        final byte[] crlfcrlf = "\r\n\r\n".getBytes(US_ASCII);
+        final DirectBuffer first = asBuffer("GET / HTTP/1.1\r\nHost: localhost\r\n\r");
+        final DirectBuffer second = asBuffer("\n");
+
+        assertTrue(slots.set(1L, first, 0, first.capacity()));
+        assertEquals(-1, slots.limitOfBytes(0, crlfcrlf));
+
+        assertTrue(slots.append(1L, second, 0, second.capacity()));
+        assertEquals(35, slots.limitOfBytes(0, crlfcrlf));
+        assertEquals(35, slots.limitOfBytes(31, crlfcrlf));
+        assertEquals(-1, slots.limitOfBytes(33, crlfcrlf));
+    }
+
+    @Test
+    public void shouldRejectBeyondMaximum()
+    {
+        final DirectBuffer source = asBuffer("GET / HTTP/1.1\r\nHost: localhost:8080\r\n");
+
+        assertTrue(slots.set(1L, source, 0, source.capacity()));
+        assertFalse(slots.append(1L, source, 0, 3));
+        assertFalse(slots.set(1L, asBuffer(source.capacity() + 3), 0, source.capacity() + 3));
+    }
+
+    @Test
+    public void shouldLimitToSingleSlotWithoutChainBuffer()
+    {
+        final HttpSlotChain slots = new HttpSlotChain(bufferPool, null);
+        final DirectBuffer source = asBuffer("GET / HTTP/1.1\r\n");
+
+        assertEquals(16, slots.maximum());
+        assertTrue(slots.set(1L, source, 0, source.capacity()));
+        assertFalse(slots.append(1L, source, 0, 1));
+    }
+
+    @Test
+    public void shouldRejectWhenPoolExhausted()
+    {
+        final HttpSlotChain slots = new HttpSlotChain(bufferPool, new UnsafeBuffer(new byte[128]));
+        final DirectBuffer source = asBuffer(80);
+
+        assertFalse(slots.set(1L, source, 0, source.capacity()));
+
+        slots.release();
+        assertEquals(0, bufferPool.acquiredSlots());
+    }
+
+    private static DirectBuffer asBuffer(
+        String value)
+    {
+        return new UnsafeBuffer(value.getBytes(US_ASCII));
+    }
+
+    private static DirectBuffer asBuffer(
+        int length)
+    {
+        return new UnsafeBuffer(new byte[length]);
+    }
+
+    private static String asString(
+        DirectBuffer buffer,
+        int length)
+    {
+        return buffer.getStringWithoutLengthAscii(0, length);
+    }
+}
@@ -0,0 +1,164 @@
+/**
+ * Copyright 2016-2020 The Reaktivity Project
+ *
+ * The Reaktivity Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.reaktivity.nukleus.http.internal.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.reaktivity.nukleus.http.internal.test.HttpHeadersUtil.headers;
+import static org.reaktivity.nukleus.http.internal.test.HttpHeadersUtil.value;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+import org.reaktivity.nukleus.http.internal.types.Array32FW;
+import org.reaktivity.nukleus.http.internal.types.HttpHeaderFW;
+
+public class HttpValidatorStoreTest
+{
+    private final AtomicLong clock = new AtomicLong(951868800000L);
+    private final Map<String, AtomicLong> counters = new HashMap<>();
+    private final HttpValidatorStore store = new HttpValidatorStore("http.validators", 1024, 60000L, clock::get,
+        name -> counters.computeIfAbsent(name, n -> new AtomicLong())::incrementAndGet);
+
+    @Test
+    public void shouldAnswerMatchingETag()
+    {
+        record("/index.html", headers(":status", "200", "etag", "\"v1\"", "cache-control", "max-age=60",
+                                      "content-type", "text/html"));
+
+        final Array32FW<HttpHeaderFW> request = request("/index.html", "if-none-match", "\"v0\", W/\"v1\"");
+        assertTrue(HttpValidatorStore.conditional(request));
+
+        final HttpValidatorStore.Entry entry = store.lookup(1L, request);
+        assertNotNull(entry);
+
+        final Array32FW<HttpHeaderFW> headers = entry.headers();
+        assertEquals("304", value(headers, ":status"));
+        assertEquals("\"v1\"", value(headers, "etag"));
+        assertEquals("max-age=60", value(headers, "cache-control"));
+        assertNull(value(headers, "content-type"));
+        entry.release();
+
+        assertEquals(1L, counters.get("http.validators.hits").get());
+    }
+
+    @Test
+    public void shouldNotAnswerDifferentETag()
+    {
+        record("/", headers(":status", "200", "etag", "\"v1\"", "last-modified", "Sun, 06 Nov 1994 08:49:37 GMT"));
+
+        assertNull(store.lookup(1L, request("/", "if-none-match", "\"v2\"")));
+        assertNull(store.lookup(2L, request("/", "if-none-match", "\"v1\"")));
+        assertNull(store.lookup(1L, request("/other", "if-none-match", "\"v1\"")));
+        assertNotNull(store.lookup(1L, request("/", "if-none-match", "*")));
+    }
+
+    @Test
+    public void shouldAnswerUnmodifiedSince()
+    {
+        record("/", headers(":status", "200", "last-modified", "Sun, 06 Nov 1994 08:49:37 GMT"));
+
+        final Array32FW<HttpHeaderFW> request = request("/", "if-modified-since", "Sun, 06 Nov 1994 08:49:37 GMT");
+        final HttpValidatorStore.Entry entry = store.lookup(1L, request);
+        assertNotNull(entry);
+        assertEquals("Sun, 06 Nov 1994 08:49:37 GMT", value(entry.headers(), "last-modified"));
+        entry.release();
+
+        assertNull(store.lookup(1L, request("/", "if-modified-since", "Sun, 06 Nov 1994 08:49:36 GMT")));
+    }
+
+    @Test
+    public void shouldExpireAfterMaximumAge()
+    {
+        record("/", headers(":status", "200", "etag", "\"v1\""));
+
+        clock.addAndGet(60000L);
+        assertNull(store.lookup(1L, request("/", "if-none-match", "\"v1\"")));
+    }
+
+    @Test
+    public void shouldDiscardOnUnsafeRequestOrErrorResponse()
+    {
+        record("/", headers(":status", "200", "etag", "\"v1\""));
+        store.invalidate(1L, request("/", "content-type", "text/plain"));
+        assertNull(store.lookup(1L, request("/", "if-none-match", "\"v1\"")));
+
+        record("/", headers(":status", "200", "etag", "\"v1\""));
+        record("/", headers(":status", "304", "etag", "\"v1\""));
+        assertNotNull(store.lookup(1L, request("/", "if-none-match", "\"v1\"")));
+
+        record("/", headers(":status", "404"));
+        assertNull(store.lookup(1L, request("/", "if-none-match", "\"v1\"")));
+    }
+
+    @Test
+    public void shouldNotRecordPersonalizedResponses()
+    {
+        record("/", headers(":status", "200", "etag", "\"v1\"", "set-cookie", "id=1"));
+        assertNull(store.lookup(1L, request("/", "if-none-match", "\"v1\"")));
+
+        record("/", headers(":status", "200", "etag", "\"v1\"", "cache-control", "private"));
+        assertNull(store.lookup(1L, request("/", "if-none-match", "\"v1\"")));
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsed()
+    {
+        record("/a", headers(":status", "200", "etag", "\"a\""));
+        record("/b", headers(":status", "200", "etag", "\"b\""));
+        record("/c", headers(":status", "200", "etag", "\"c\""));
+
+        assertEquals(1L, counters.get("http.validators.evictions").get());
+        assertNull(store.lookup(1L, request("/a", "if-none-match", "\"a\"")));
+        assertNotNull(store.lookup(1L, request("/b", "if-none-match", "\"b\"")));
+        assertNotNull(store.lookup(1L, request("/c", "if-none-match", "\"c\"")));
+    }
+
+    @Test
+    public void shouldOnlyAnswerSafeConditionalRequests()
+    {
+        assertFalse(HttpValidatorStore.conditional(request("/", "accept", "*/*")));
+        assertFalse(HttpValidatorStore.conditional(headers(":method", "POST", ":path", "/", "if-none-match", "*")));
+        assertFalse(HttpValidatorStore.conditional(headers(":method", "GET", ":path", "/", "if-none-match", "*",
+                                                           "authorization", "Basic Zm9vOmJhcg==")));
+        assertFalse(HttpValidatorStore.conditional(headers(":method", "GET", ":path", "/", "if-none-match", "*",
+                                                           "cache-control", "no-cache")));
+        assertFalse(HttpValidatorStore.conditional(headers(":method", "GET", ":path", "/", "if-none-match", "*",
+                                                           "if-match", "\"v1\"")));
+    }
+
+    private void record(
+        String path,
+        Array32FW<HttpHeaderFW> response)
+    {
+        final HttpValidatorStore.Writer writer = store.supplyWriter(1L, request(path, "accept", "*/*"));
+        writer.record(response);
+        writer.release();
+    }
+
+    private static Array32FW<HttpHeaderFW> request(
+        String path,
+        String name,
+        String value)
+    {
+        return headers(":scheme", "http", ":method", "GET", ":path", path, ":authority", "localhost:8080", name, value);
+    }
+}
@@ -18,7 +18,13 @@ package org.reaktivity.nukleus.http2.internal;
 import static org.junit.Assert.assertEquals;
 import static org.reaktivity.nukleus.http2.internal.Http2Configuration.HTTP2_ACCESS_CONTROL_ALLOW_ORIGIN;
 import static org.reaktivity.nukleus.http2.internal.Http2Configuration.HTTP2_MAX_CONCURRENT_STREAMS_CLEANUP;
+import static org.reaktivity.nukleus.http2.internal.Http2Configuration.HTTP2_SERVER_CACHE_BLOCK_SIZE;
+import static org.reaktivity.nukleus.http2.internal.Http2Configuration.HTTP2_SERVER_CACHE_CAPACITY;
+import static org.reaktivity.nukleus.http2.internal.Http2Configuration.HTTP2_SERVER_COMPRESSION;
+import static org.reaktivity.nukleus.http2.internal.Http2Configuration.HTTP2_SERVER_COMPRESSION_LEVEL;
+import static org.reaktivity.nukleus.http2.internal.Http2Configuration.HTTP2_SERVER_DATE_HEADER;
 import static org.reaktivity.nukleus.http2.internal.Http2Configuration.HTTP2_SERVER_HEADER;
+import static org.reaktivity.nukleus.http2.internal.Http2Configuration.HTTP2_SERVER_LATENCY_HISTOGRAMS;
 import static org.reaktivity.nukleus.http2.internal.Http2Configuration.HTTP2_STREAMS_CLEANUP_DELAY;
 
 import org.junit.Test;
@@ -28,15 +34,27 @@ public class Http2ConfigurationTest
     // needed by test annotations
     public static final String HTTP2_ACCESS_CONTROL_ALLOW_ORIGIN_NAME = "nukleus.http2.server.access.control.allow.origin";
     public static final String HTTP2_SERVER_HEADER_NAME = "nukleus.http2.server.header";
+    public static final String HTTP2_SERVER_DATE_HEADER_NAME = "nukleus.http2.server.date.header";
+    public static final String HTTP2_SERVER_CACHE_CAPACITY_NAME = "nukleus.http2.server.cache.capacity";
+    public static final String HTTP2_SERVER_CACHE_BLOCK_SIZE_NAME = "nukleus.http2.server.cache.block.size";
     public static final String HTTP2_MAX_CONCURRENT_STREAMS_CLEANUP_NAME = "nukleus.http2.max.concurrent.streams.cleanup";
     public static final String HTTP2_STREAMS_CLEANUP_DELAY_NAME = "nukleus.http2.streams.cleanup.delay";
+    public static final String HTTP2_SERVER_LATENCY_HISTOGRAMS_NAME = "nukleus.http2.server.latency.histograms";
+    public static final String HTTP2_SERVER_COMPRESSION_NAME = "nukleus.http2.server.compression";
+    public static final String HTTP2_SERVER_COMPRESSION_LEVEL_NAME = "nukleus.http2.server.compression.level";
 
     @Test
     public void shouldVerifyConstants() throws Exception
     {
         assertEquals(HTTP2_ACCESS_CONTROL_ALLOW_ORIGIN.name(), HTTP2_ACCESS_CONTROL_ALLOW_ORIGIN_NAME);
         assertEquals(HTTP2_SERVER_HEADER.name(), HTTP2_SERVER_HEADER_NAME);
+        assertEquals(HTTP2_SERVER_DATE_HEADER.name(), HTTP2_SERVER_DATE_HEADER_NAME);
+        assertEquals(HTTP2_SERVER_CACHE_CAPACITY.name(), HTTP2_SERVER_CACHE_CAPACITY_NAME);
+        assertEquals(HTTP2_SERVER_CACHE_BLOCK_SIZE.name(), HTTP2_SERVER_CACHE_BLOCK_SIZE_NAME);
         assertEquals(HTTP2_MAX_CONCURRENT_STREAMS_CLEANUP.name(), HTTP2_MAX_CONCURRENT_STREAMS_CLEANUP_NAME);
         assertEquals(HTTP2_STREAMS_CLEANUP_DELAY.name(), HTTP2_STREAMS_CLEANUP_DELAY_NAME);
+        assertEquals(HTTP2_SERVER_LATENCY_HISTOGRAMS.name(), HTTP2_SERVER_LATENCY_HISTOGRAMS_NAME);
+        assertEquals(HTTP2_SERVER_COMPRESSION.name(), HTTP2_SERVER_COMPRESSION_NAME);
+        assertEquals(HTTP2_SERVER_COMPRESSION_LEVEL.name(), HTTP2_SERVER_COMPRESSION_LEVEL_NAME);
     }
 }